@@ -0,0 +1,149 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * An object that combines alerting results of a batch of events
+ *
+ * <p>This class represents the result of evaluating a batch of events by an alerting engine.
+ * The events are identified by their index in the batch.
+ * Output events, exception events and error messages are stored only for events that provided them,
+ * so events that do not match any rule do not require any allocation.
+ *
+ * @author  Marian Novotny
+ * @see AlertingEngine
+ * @see AlertingResult
+ *
+ */
+public class AlertingBatchResult {
+    private final int size;
+    private final Map<Integer, String> errorMessages = new HashMap<>();
+    private final Map<Integer, List<Map<String, Object>>> outputEvents = new HashMap<>();
+    private final Map<Integer, List<Map<String, Object>>> exceptionEvents = new HashMap<>();
+
+    /**
+     * Creates an empty batch result
+     *
+     * @param size the number of events in the batch
+     */
+    public AlertingBatchResult(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Provides the number of events in the batch
+     *
+     * @return the number of events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the alerting result of an event into the batch result
+     *
+     * @param index the index of the event in the batch
+     * @param result the alerting result of the event
+     */
+    public void addResult(int index, AlertingResult result) {
+        AlertingAttributes attributes = result.getAttributes();
+        if (result.getStatusCode() != AlertingResult.StatusCode.OK) {
+            setErrorMessage(index, attributes.getException() != null
+                    ? attributes.getException()
+                    : attributes.getMessage());
+        }
+
+        addOutputEvents(index, attributes.getOutputEvents());
+        addExceptionEvents(index, attributes.getExceptionEvents());
+    }
+
+    /**
+     * Sets the error message of an event that could not be evaluated. The first error message is preserved.
+     *
+     * @param index the index of the event in the batch
+     * @param errorMessage the error message
+     */
+    public void setErrorMessage(int index, String errorMessage) {
+        checkIndex(index);
+        errorMessages.putIfAbsent(index, errorMessage);
+    }
+
+    /**
+     * Adds output events of an event
+     *
+     * @param index the index of the event in the batch
+     * @param events the list of output events, ignored if null or empty
+     */
+    public void addOutputEvents(int index, List<Map<String, Object>> events) {
+        addEvents(outputEvents, index, events);
+    }
+
+    /**
+     * Adds exception events of an event
+     *
+     * @param index the index of the event in the batch
+     * @param events the list of exception events, ignored if null or empty
+     */
+    public void addExceptionEvents(int index, List<Map<String, Object>> events) {
+        addEvents(exceptionEvents, index, events);
+    }
+
+    /**
+     * Provides the error message of an event
+     *
+     * @param index the index of the event in the batch
+     * @return the error message if the event could not be evaluated, otherwise null
+     */
+    public String getErrorMessage(int index) {
+        return errorMessages.get(index);
+    }
+
+    /**
+     * Provides the output events of an event
+     *
+     * @param index the index of the event in the batch
+     * @return the list of output events if the event matched a rule, otherwise null
+     */
+    public List<Map<String, Object>> getOutputEvents(int index) {
+        return outputEvents.get(index);
+    }
+
+    /**
+     * Provides the exception events of an event
+     *
+     * @param index the index of the event in the batch
+     * @return the list of exception events if an exception was thrown during the evaluation, otherwise null
+     */
+    public List<Map<String, Object>> getExceptionEvents(int index) {
+        return exceptionEvents.get(index);
+    }
+
+    /**
+     * Provides information whether the event requires further processing
+     *
+     * @param index the index of the event in the batch
+     * @return true if the event has an error message, output events or exception events, otherwise false
+     */
+    public boolean hasResult(int index) {
+        return errorMessages.containsKey(index)
+                || outputEvents.containsKey(index)
+                || exceptionEvents.containsKey(index);
+    }
+
+    private void addEvents(Map<Integer, List<Map<String, Object>>> eventsMap,
+                           int index,
+                           List<Map<String, Object>> events) {
+        checkIndex(index);
+        if (events != null && !events.isEmpty()) {
+            eventsMap.computeIfAbsent(index, x -> new ArrayList<>()).addAll(events);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+}
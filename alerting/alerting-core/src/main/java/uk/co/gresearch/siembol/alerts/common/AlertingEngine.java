@@ -3,8 +3,10 @@ package uk.co.gresearch.siembol.alerts.common;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import uk.co.gresearch.siembol.common.utils.LazyJsonMap;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An object that evaluates events using its internal state including rules
@@ -25,7 +27,8 @@ public interface AlertingEngine {
             .readerFor(new TypeReference<Map<String, Object>>() { });
 
     /**
-     * Evaluates event and returns alerting result with a matching result and additional attributes
+     * Evaluates event and returns alerting result with a matching result and additional attributes.
+     * The fields of the event are decoded on demand when they are needed by the evaluation.
      *
      * @param event serialized event as json string
      * @return      alerting result after evaluation
@@ -33,7 +36,7 @@ public interface AlertingEngine {
      */
     default AlertingResult evaluate(String event) {
         try {
-            Map<String, Object> eventMap = JSON_READER.readValue(event);
+            Map<String, Object> eventMap = LazyJsonMap.fromJson(event);
             return evaluate(eventMap);
         } catch (Exception e) {
             return AlertingResult.fromException(e);
@@ -49,6 +52,47 @@ public interface AlertingEngine {
      */
     AlertingResult evaluate(Map<String, Object> event);
 
+    /**
+     * Evaluates a batch of events and returns one alerting batch result for all events of the batch.
+     * The fields of the events are decoded on demand when they are needed by the evaluation.
+     * The events are evaluated one by one and no field values are shared across the events of the batch.
+     *
+     * @param events serialized events as json strings
+     * @return      alerting batch result after evaluation
+     * @see         AlertingBatchResult
+     */
+    default AlertingBatchResult evaluate(List<String> events) {
+        AlertingBatchResult result = new AlertingBatchResult(events.size());
+        List<Map<String, Object>> eventMaps = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                eventMaps.add(LazyJsonMap.fromJson(events.get(i)));
+            } catch (Exception e) {
+                eventMaps.add(null);
+                result.addResult(i, AlertingResult.fromException(e));
+            }
+        }
+
+        evaluate(eventMaps, result);
+        return result;
+    }
+
+    /**
+     * Evaluates a batch of events and adds their results into the alerting batch result.
+     * The events that are null are skipped.
+     *
+     * @param events deserialized events as maps of string to object
+     * @param result alerting batch result with the same size as the batch
+     * @see         AlertingBatchResult
+     */
+    default void evaluate(List<Map<String, Object>> events, AlertingBatchResult result) {
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i) != null) {
+                result.addResult(i, evaluate(events.get(i)));
+            }
+        }
+    }
+
     /**
      * Returns an alerting engine type
      *
@@ -61,4 +105,45 @@ public interface AlertingEngine {
      * Removes unused old internal state.
      */
     default void clean() {}
+
+    /**
+     * Enables or disables sampled profiling of the rule evaluations.
+     * The evaluations and matches of the rules are counted and every n-th evaluation of a rule is sampled
+     * for measuring the evaluation time of the rule and its matchers.
+     * The default implementation does not support profiling.
+     *
+     * @param samplingInterval the interval n for sampling every n-th evaluation of a rule, 0 disables profiling
+     */
+    default void setProfiling(int samplingInterval) {}
+
+    /**
+     * Provides the evaluation profiles of the rules
+     *
+     * @param reset if true the profiles are reset after providing them
+     * @return      the list of evaluation profiles, empty if the profiling is not enabled or supported
+     * @see         EvaluationProfile
+     */
+    default List<EvaluationProfile> getProfile(boolean reset) {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Sets the fork-join pool for evaluating shards of the rules of an event in parallel.
+     * The results are the same as the results of the sequential evaluation, including their order.
+     * The default implementation evaluates the rules sequentially.
+     *
+     * @param evaluationPool the pool used for evaluating the rules, null for the sequential evaluation
+     */
+    default void setEvaluationPool(ForkJoinPool evaluationPool) {}
+
+    /**
+     * Sets the evaluation time budget of the rules.
+     * The evaluation of a rule that exceeds the budget is interrupted, the rule is skipped and reported
+     * as an exception event. A rule that exceeds the budget repeatedly is disabled until the rules are updated.
+     * The default implementation does not support the budgets.
+     *
+     * @param ruleBudgetMs the evaluation budget of a rule in milliseconds, 0 disables the budgets
+     * @param maxBudgetOverruns the number of exceeded budgets after which the rule is disabled
+     */
+    default void setEvaluationBudget(int ruleBudgetMs, int maxBudgetOverruns) {}
 }
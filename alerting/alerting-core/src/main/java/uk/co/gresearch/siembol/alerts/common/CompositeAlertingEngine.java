@@ -3,6 +3,7 @@ package uk.co.gresearch.siembol.alerts.common;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static uk.co.gresearch.siembol.alerts.common.AlertingResult.StatusCode.OK;
 /**
@@ -62,6 +63,58 @@ public class CompositeAlertingEngine implements AlertingEngine {
         return new AlertingResult(OK, attributes);
     }
 
+    /**
+     * Evaluates a batch of events by underlying alerting engines and
+     * adds their results into the alerting batch result.
+     *
+     * @param events deserialized events as maps of string to object
+     * @param result alerting batch result with the same size as the batch
+     * @see         AlertingBatchResult
+     */
+    @Override
+    public void evaluate(List<Map<String, Object>> events, AlertingBatchResult result) {
+        for (AlertingEngine engine: alertingEngines) {
+            engine.evaluate(events, result);
+        }
+    }
+
+    /**
+     * Provides underlying alerting engines
+     *
+     * @return list of underlying alerting engines
+     */
+    public List<AlertingEngine> getAlertingEngines() {
+        return alertingEngines;
+    }
+
+    /**
+     * Removes unused old internal state of underlying alerting engines
+     */
+    @Override
+    public void clean() {
+        alertingEngines.forEach(AlertingEngine::clean);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The profiling is set in all underlying alerting engines.
+     */
+    @Override
+    public void setProfiling(int samplingInterval) {
+        alertingEngines.forEach(x -> x.setProfiling(samplingInterval));
+    }
+
+    /**
+     * {@inheritDoc}
+     * It provides the profiles of all underlying alerting engines.
+     */
+    @Override
+    public List<EvaluationProfile> getProfile(boolean reset) {
+        List<EvaluationProfile> ret = new ArrayList<>();
+        alertingEngines.forEach(x -> ret.addAll(x.getProfile(reset)));
+        return ret;
+    }
+
     /**
      * Returns an alerting engine type of underlying alerting engines
      *
@@ -72,4 +125,22 @@ public class CompositeAlertingEngine implements AlertingEngine {
     public AlertingEngineType getAlertingEngineType() {
         return alertingEngines.get(0).getAlertingEngineType();
     }
+
+    /**
+     * {@inheritDoc}
+     * The evaluation pool is set in all underlying alerting engines.
+     */
+    @Override
+    public void setEvaluationPool(ForkJoinPool evaluationPool) {
+        alertingEngines.forEach(x -> x.setEvaluationPool(evaluationPool));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The evaluation budget is set in all underlying alerting engines.
+     */
+    @Override
+    public void setEvaluationBudget(int ruleBudgetMs, int maxBudgetOverruns) {
+        alertingEngines.forEach(x -> x.setEvaluationBudget(ruleBudgetMs, maxBudgetOverruns));
+    }
 }
@@ -0,0 +1,101 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+/**
+ * An object that represents an evaluation profile of a rule or a matcher
+ *
+ * <p>This bean object represents evaluation counts, matches and the sampled evaluation time of a rule
+ * or of a matcher of the rule.
+ * The evaluation counts of a rule are counted for all evaluations while the evaluation time of the rule
+ * and the profiles of its matchers are counted from the sampled evaluations only.
+ *
+ * @author  Marian Novotny
+ * @see AlertingEngine
+ *
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EvaluationProfile {
+    private String name;
+    private long evaluations;
+    private long matches;
+    private long sampledEvaluations;
+    private long sampledTimeNs;
+    private List<EvaluationProfile> matchers;
+
+    @JsonProperty("name")
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @JsonProperty("evaluations")
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public void setEvaluations(long evaluations) {
+        this.evaluations = evaluations;
+    }
+
+    @JsonProperty("matches")
+    public long getMatches() {
+        return matches;
+    }
+
+    public void setMatches(long matches) {
+        this.matches = matches;
+    }
+
+    @JsonProperty("sampled_evaluations")
+    public long getSampledEvaluations() {
+        return sampledEvaluations;
+    }
+
+    public void setSampledEvaluations(long sampledEvaluations) {
+        this.sampledEvaluations = sampledEvaluations;
+    }
+
+    @JsonProperty("sampled_time_ns")
+    public long getSampledTimeNs() {
+        return sampledTimeNs;
+    }
+
+    public void setSampledTimeNs(long sampledTimeNs) {
+        this.sampledTimeNs = sampledTimeNs;
+    }
+
+    @JsonProperty("matchers")
+    public List<EvaluationProfile> getMatchers() {
+        return matchers;
+    }
+
+    public void setMatchers(List<EvaluationProfile> matchers) {
+        this.matchers = matchers;
+    }
+
+    /**
+     * Provides the average evaluation time computed from the sampled evaluations
+     *
+     * @return the average evaluation time in nanoseconds, or 0 if no evaluation was sampled
+     */
+    @JsonProperty("average_time_ns")
+    public double getAverageTimeNs() {
+        return sampledEvaluations == 0 ? 0 : (double) sampledTimeNs / sampledEvaluations;
+    }
+
+    /**
+     * Provides the ratio of the evaluations that matched
+     *
+     * @return the ratio of matches to evaluations, or 0 if there was no evaluation
+     */
+    @JsonProperty("selectivity")
+    public double getSelectivity() {
+        return evaluations == 0 ? 0 : (double) matches / evaluations;
+    }
+}
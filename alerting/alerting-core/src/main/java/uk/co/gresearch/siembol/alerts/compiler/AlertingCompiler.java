@@ -11,6 +11,7 @@ import uk.co.gresearch.siembol.common.testing.TestingLogger;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static uk.co.gresearch.siembol.alerts.common.AlertingResult.StatusCode.OK;
@@ -38,6 +39,21 @@ public interface AlertingCompiler {
      */
     AlertingResult compile(String rules, TestingLogger logger);
 
+    /**
+     * Compiles rules into alerting engine and reuses the compiled rules of the previous engine if it is supported.
+     * The default implementation compiles all rules.
+     *
+     * @param rules json string with alerting rules
+     * @param previousEngine alerting engine compiled from the previous version of the rules, or null
+     * @param logger logger for debugging
+     * @return alerting result with alerting engine
+     * @see AlertingResult
+     * @see AlertingEngine
+     */
+    default AlertingResult compile(String rules, AlertingEngine previousEngine, TestingLogger logger) {
+        return compile(rules, logger);
+    }
+
     /**
      * Compiles list of rules into alerting engine
      *
@@ -48,13 +64,36 @@ public interface AlertingCompiler {
      * @see AlertingEngine
      */
     default AlertingResult compile(List<String> rulesList, TestingLogger logger) {
+        return compile(rulesList, null, logger);
+    }
+
+    /**
+     * Compiles list of rules into alerting engine and reuses the compiled rules of the previous engine.
+     * The previous engine of the rules in the list is used only if the previous engine was compiled from
+     * the list of the same size.
+     *
+     * @param rulesList list of json strings with alerting rules
+     * @param previousEngine alerting engine compiled from the previous version of the rules list, or null
+     * @param logger logger for debugging
+     * @return alerting result with alerting engines
+     * @see AlertingResult
+     * @see AlertingEngine
+     */
+    default AlertingResult compile(List<String> rulesList, AlertingEngine previousEngine, TestingLogger logger) {
+        List<AlertingEngine> previousEngines = previousEngine instanceof CompositeAlertingEngine
+                ? ((CompositeAlertingEngine) previousEngine).getAlertingEngines()
+                : Collections.singletonList(previousEngine);
+        if (previousEngines.size() != rulesList.size()) {
+            previousEngines = Collections.nCopies(rulesList.size(), null);
+        }
+
         if (rulesList.size() == 1) {
-            return compile(rulesList.get(0), logger);
+            return compile(rulesList.get(0), previousEngines.get(0), logger);
         }
 
         List<AlertingEngine> engines = new ArrayList<>();
-        for (String rules: rulesList) {
-            AlertingResult result = compile(rules, logger);
+        for (int i = 0; i < rulesList.size(); i++) {
+            AlertingResult result = compile(rulesList.get(i), previousEngines.get(i), logger);
             if (result.getStatusCode() != OK) {
                 return result;
             }
@@ -62,10 +101,21 @@ public interface AlertingCompiler {
         }
 
         AlertingAttributes attributes = new AlertingAttributes();
-        attributes.setEngine(new CompositeAlertingEngine(engines));
+        attributes.setEngine(createCompositeEngine(engines));
         return new AlertingResult(OK, attributes);
     }
 
+    /**
+     * Creates an alerting engine that combines the alerting engines compiled from the list of rules
+     *
+     * @param engines list of alerting engines
+     * @return composite alerting engine
+     * @see CompositeAlertingEngine
+     */
+    default AlertingEngine createCompositeEngine(List<AlertingEngine> engines) {
+        return new CompositeAlertingEngine(engines);
+    }
+
     /**
      * Provides json schema validator for alerting rules
      *
@@ -136,6 +186,19 @@ public interface AlertingCompiler {
         return compile(rulesList, new InactiveTestingLogger());
     }
 
+    /**
+     * Compiles list of rules into alerting engine and reuses the compiled rules of the previous engine
+     *
+     * @param rulesList list of json strings with alerting rules
+     * @param previousEngine alerting engine compiled from the previous version of the rules list, or null
+     * @return alerting result with alerting engines
+     * @see AlertingResult
+     * @see AlertingEngine
+     */
+    default AlertingResult compile(List<String> rulesList, AlertingEngine previousEngine) {
+        return compile(rulesList, previousEngine, new InactiveTestingLogger());
+    }
+
     /**
      * Provides json schema for alerting rules
      *
@@ -9,6 +9,8 @@ import uk.co.gresearch.siembol.common.jsonschema.SiembolJsonSchemaValidator;
 import uk.co.gresearch.siembol.common.testing.TestingLogger;
 import uk.co.gresearch.siembol.alerts.common.*;
 import uk.co.gresearch.siembol.alerts.correlationengine.AlertCounterMetadata;
+import uk.co.gresearch.siembol.alerts.correlationengine.CompositeCorrelationAlertingEngine;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationAlertingEngine;
 import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationEngineImpl;
 import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationRule;
 import uk.co.gresearch.siembol.alerts.model.*;
@@ -135,6 +137,17 @@ public class AlertingCorrelationRulesCompiler implements AlertingCompiler {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * The composite engine supports checkpointing and restoring the state of the correlation engines.
+     */
+    @Override
+    public AlertingEngine createCompositeEngine(List<AlertingEngine> engines) {
+        return new CompositeCorrelationAlertingEngine(engines.stream()
+                .map(x -> (CorrelationAlertingEngine) x)
+                .collect(Collectors.toList()));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import uk.co.gresearch.siembol.common.jsonschema.JsonSchemaValidator;
 import uk.co.gresearch.siembol.common.jsonschema.SiembolJsonSchemaValidator;
 import uk.co.gresearch.siembol.common.testing.StringTestingLogger;
@@ -15,6 +18,7 @@ import uk.co.gresearch.siembol.alerts.model.*;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import static uk.co.gresearch.siembol.alerts.common.AlertingResult.StatusCode.OK;
 /**
@@ -37,6 +41,16 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                     .writerFor(RulesDto.class);
     private static final ObjectReader JSON_RULE_READER =
             new ObjectMapper().readerFor(RuleDto.class);
+    private static final ObjectWriter JSON_RULE_WRITER =
+            new ObjectMapper()
+                    .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                    .writerFor(RuleDto.class);
+    private static final ObjectMapper JSON_MATCHER_MAPPER =
+            new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private static final String MATCHER_NEGATED_FIELD = "is_negated";
+    private static final String MATCHER_ENABLED_FIELD = "is_enabled";
+    private static final String MATCHER_DESCRIPTION_FIELD = "description";
+    private static final String MATCHERS_FIELD = "matchers";
     private static final String TEST_FIELD_NAME = "alerts:test";
     private static final String TEST_FIELD_VALUE = "true";
     private static final String TESTING_START_MSG = "Start testing on the event: %s";
@@ -58,21 +72,44 @@ public class AlertingRulesCompiler implements AlertingCompiler {
         this.testOutputConstants = Collections.singletonList(testConstant);
     }
 
-    private Matcher createMatcher(MatcherDto matcherDto) {
+    private Matcher createMatcher(MatcherDto matcherDto,
+                                  FieldPatternIndices patternIndices,
+                                  SharedMatchers sharedMatchers) {
+        String definition = getMatcherDefinition(matcherDto);
+        if (sharedMatchers.isShared(definition)) {
+            Optional<Matcher> shared = sharedMatchers.getMatcher(definition, matcherDto.getNegated(),
+                    () -> createMatcher(matcherDto, false, patternIndices, sharedMatchers));
+            if (shared.isPresent()) {
+                return shared.get();
+            }
+        }
+
+        return createMatcher(matcherDto, matcherDto.getNegated(), patternIndices, sharedMatchers);
+    }
+
+    private Matcher createMatcher(MatcherDto matcherDto,
+                                  boolean negated,
+                                  FieldPatternIndices patternIndices,
+                                  SharedMatchers sharedMatchers) {
         MatcherType matcherType = MatcherType.valueOf(matcherDto.getType().toString());
         switch (matcherType) {
             case REGEX_MATCH:
                 return RegexMatcher.builder()
                         .pattern(matcherDto.getData())
+                        .patternIndices(patternIndices)
                         .fieldName(matcherDto.getField())
-                        .isNegated(matcherDto.getNegated())
+                        .isNegated(negated)
+                        .cost(matcherType.getCost())
                         .build();
             case IS_IN_SET:
                 return IsInSetMatcher.builder()
                         .data(matcherDto.getData())
                         .isCaseInsensitiveCompare(matcherDto.getCaseInsensitiveCompare())
+                        .patternIndex(patternIndices.getIndex(matcherDto.getField(),
+                                matcherDto.getCaseInsensitiveCompare()))
                         .fieldName(matcherDto.getField())
-                        .isNegated(matcherDto.getNegated())
+                        .isNegated(negated)
+                        .cost(matcherType.getCost())
                         .build();
             case CONTAINS:
                 return ContainsMatcher.builder()
@@ -80,15 +117,19 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                         .isStartsWith(matcherDto.getStartsWith())
                         .isEndsWith(matcherDto.getEndsWith())
                         .isCaseInsensitiveCompare(matcherDto.getCaseInsensitiveCompare())
+                        .patternIndex(patternIndices.getIndex(matcherDto.getField(),
+                                matcherDto.getCaseInsensitiveCompare()))
                         .fieldName(matcherDto.getField())
-                        .isNegated(matcherDto.getNegated())
+                        .isNegated(negated)
+                        .cost(matcherType.getCost())
                         .build();
             case NUMERIC_COMPARE:
                 return NumericCompareMatcher.builder()
                         .expression(matcherDto.getExpression())
-                        .comparator(matcherDto.getCompareType().getComparator())
+                        .compareResultPredicate(matcherDto.getCompareType().getCompareResultPredicate())
                         .fieldName(matcherDto.getField())
-                        .isNegated(matcherDto.getNegated())
+                        .isNegated(negated)
+                        .cost(matcherType.getCost())
                         .build();
             case COMPOSITE_AND:
             case COMPOSITE_OR:
@@ -97,12 +138,12 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                 }
                 List<Matcher> matchers = matcherDto.getMatchers().stream()
                         .filter(x -> x.isEnabled())
-                        .map(this::createMatcher)
+                        .map(x -> createMatcher(x, patternIndices, sharedMatchers))
                         .collect(Collectors.toList());
                 return CompositeMatcher.builder()
                         .matcherType(matcherType)
                         .matchers(matchers)
-                        .isNegated(matcherDto.getNegated())
+                        .isNegated(negated)
                         .build();
             default:
                 throw new IllegalArgumentException(String.format(UNSUPPORTED_MATCHER_TYPE,
@@ -112,9 +153,41 @@ public class AlertingRulesCompiler implements AlertingCompiler {
 
     /**
      * {@inheritDoc}
+     * The matchers of the compiled rules are reordered adaptively by their estimated cost and selectivity.
      */
     @Override
     public AlertingResult compile(String rules, TestingLogger logger) {
+        return compile(rules, logger, EnumSet.of(Rule.RuleFlags.ADAPTIVE_ORDER), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The rules of the previous engine are matched by their source type, name and version and
+     * they are reused without compiling if their definition is not changed,
+     * so their compiled matchers and indices are preserved. Only new and changed rules are compiled.
+     * The counters of the evaluation budget overruns of the reused rules are preserved.
+     * The previous engine should be compiled by this compiler with an inactive logger.
+     */
+    @Override
+    public AlertingResult compile(String rules, AlertingEngine previousEngine, TestingLogger logger) {
+        Map<Triple<String, String, Integer>, Rule> previousRules = new HashMap<>();
+        Map<String, AtomicInteger> previousBudgetOverruns = new HashMap<>();
+        if (previousEngine instanceof AlertingEngineImpl && !logger.isActive()) {
+            ((AlertingEngineImpl) previousEngine).getRules().forEach(x -> previousRules.put(
+                    Triple.of(x.getKey(), x.getValue().getRuleName(), x.getValue().getRuleVersion()),
+                    x.getValue()));
+            previousBudgetOverruns.putAll(((AlertingEngineImpl) previousEngine).getBudgetOverruns());
+        }
+
+        return compile(rules, logger, EnumSet.of(Rule.RuleFlags.ADAPTIVE_ORDER), previousRules,
+                previousBudgetOverruns);
+    }
+
+    private AlertingResult compile(String rules,
+                                   TestingLogger logger,
+                                   EnumSet<Rule.RuleFlags> ruleFlags,
+                                   Map<Triple<String, String, Integer>, Rule> previousRules,
+                                   Map<String, AtomicInteger> previousBudgetOverruns) {
         AlertingResult validateSchemaResult = validateRulesSyntax(rules);
         if (validateSchemaResult.getStatusCode() != OK) {
             return validateSchemaResult;
@@ -136,12 +209,38 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                         rulesDto.getRulesProtection().getMaxPerDay()));
             }
 
+            FieldPatternIndices patternIndices = new FieldPatternIndices();
+            SharedMatchers sharedMatchers = new SharedMatchers();
+            Map<RuleDto, Rule> reusedRules = new IdentityHashMap<>();
+            Map<String, AtomicInteger> budgetOverruns = new HashMap<>();
+            for (RuleDto ruleDto : rulesDto.getRules()) {
+                String definition = JSON_RULE_WRITER.writeValueAsString(ruleDto);
+                Rule previous = previousRules.get(
+                        Triple.of(ruleDto.getSourceType(), ruleDto.getRuleName(), ruleDto.getRuleVersion()));
+                if (previous != null && definition.equals(previous.getDefinition())) {
+                    reusedRules.put(ruleDto, previous);
+                    if (previousBudgetOverruns.containsKey(previous.getFullRuleName())) {
+                        budgetOverruns.put(previous.getFullRuleName(),
+                                previousBudgetOverruns.get(previous.getFullRuleName()));
+                    }
+                } else {
+                    addMatcherDefinitions(ruleDto.getMatchers(), sharedMatchers);
+                }
+            }
+
             List<Pair<String, Rule>> rulesList = new ArrayList<>();
             for (RuleDto ruleDto : rulesDto.getRules()) {
+                if (reusedRules.containsKey(ruleDto)) {
+                    rulesList.add(Pair.of(ruleDto.getSourceType(), reusedRules.get(ruleDto)));
+                    continue;
+                }
+
+                String definition = JSON_RULE_WRITER.writeValueAsString(ruleDto);
+
                 List<Matcher> matchers = ruleDto.getMatchers()
                         .stream()
                         .filter(x -> x.isEnabled())
-                        .map(this::createMatcher)
+                        .map(x -> createMatcher(x, patternIndices, sharedMatchers))
                         .collect(Collectors.toList());
 
                 List<Pair<String, String>> constants = ruleDto.getTags() != null
@@ -160,6 +259,8 @@ public class AlertingRulesCompiler implements AlertingCompiler {
 
                 Rule current = Rule.builder()
                         .matchers(matchers)
+                        .flags(ruleFlags)
+                        .definition(definition)
                         .name(ruleDto.getRuleName())
                         .version(ruleDto.getRuleVersion())
                         .tags(constants)
@@ -170,10 +271,12 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                 rulesList.add(Pair.of(ruleDto.getSourceType(), current));
             }
 
+            patternIndices.build();
             AlertingEngine engine = new AlertingEngineImpl.Builder()
                     .constants(generalConstants)
                     .protections(generalProtections)
                     .rules(rulesList)
+                    .budgetOverruns(budgetOverruns)
                     .build();
 
             AlertingAttributes attributes = new AlertingAttributes();
@@ -184,6 +287,42 @@ public class AlertingRulesCompiler implements AlertingCompiler {
         }
     }
 
+    private static void addMatcherDefinitions(List<MatcherDto> matchers, SharedMatchers sharedMatchers) {
+        for (MatcherDto matcher : matchers) {
+            if (!matcher.isEnabled()) {
+                continue;
+            }
+
+            sharedMatchers.addDefinition(getMatcherDefinition(matcher));
+            if (matcher.getMatchers() != null) {
+                addMatcherDefinitions(matcher.getMatchers(), sharedMatchers);
+            }
+        }
+    }
+
+    private static String getMatcherDefinition(MatcherDto matcherDto) {
+        ObjectNode definition = JSON_MATCHER_MAPPER.valueToTree(matcherDto);
+        normaliseMatcherDefinition(definition);
+        definition.remove(MATCHER_NEGATED_FIELD);
+        return definition.toString();
+    }
+
+    private static void normaliseMatcherDefinition(ObjectNode definition) {
+        definition.remove(MATCHER_ENABLED_FIELD);
+        definition.remove(MATCHER_DESCRIPTION_FIELD);
+        if (definition.get(MATCHERS_FIELD) instanceof ArrayNode) {
+            ArrayNode matchers = (ArrayNode) definition.get(MATCHERS_FIELD);
+            for (int i = matchers.size() - 1; i >= 0; i--) {
+                ObjectNode matcher = (ObjectNode) matchers.get(i);
+                if (!matcher.path(MATCHER_ENABLED_FIELD).asBoolean(true)) {
+                    matchers.remove(i);
+                } else {
+                    normaliseMatcherDefinition(matcher);
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -194,11 +333,13 @@ public class AlertingRulesCompiler implements AlertingCompiler {
 
     /**
      * {@inheritDoc}
+     * The compiled programs of the rules are verified against their matchers during the testing.
      */
     @Override
     public AlertingResult testRules(String rules, String event) {
         TestingLogger logger = new StringTestingLogger();
-        AlertingResult compileResult = compile(rules, logger);
+        AlertingResult compileResult = compile(rules, logger, EnumSet.of(Rule.RuleFlags.VERIFY_PROGRAM),
+                new HashMap<>(), new HashMap<>());
         if (compileResult.getStatusCode() != OK) {
             return compileResult;
         }
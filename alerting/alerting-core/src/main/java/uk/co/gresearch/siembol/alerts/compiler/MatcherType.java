@@ -12,16 +12,28 @@ package uk.co.gresearch.siembol.alerts.compiler;
  *
  */
 public enum MatcherType {
-    REGEX_MATCH("REGEX_MATCH"),
-    IS_IN_SET("IS_IN_SET"),
-    CONTAINS("CONTAINS"),
-    COMPOSITE_OR("COMPOSITE_OR"),
-    COMPOSITE_AND("COMPOSITE_AND"),
-    NUMERIC_COMPARE("NUMERIC_COMPARE");
+    REGEX_MATCH("REGEX_MATCH", 10),
+    IS_IN_SET("IS_IN_SET", 1),
+    CONTAINS("CONTAINS", 2),
+    COMPOSITE_OR("COMPOSITE_OR", 0),
+    COMPOSITE_AND("COMPOSITE_AND", 0),
+    NUMERIC_COMPARE("NUMERIC_COMPARE", 3);
     private final String name;
+    private final double cost;
 
-    MatcherType(String name) {
+    MatcherType(String name, double cost) {
         this.name = name;
+        this.cost = cost;
+    }
+
+    /**
+     * Provides the estimated static cost of evaluating a basic matcher of the type
+     *
+     * @return the cost relative to other matcher types, 0 for composite matchers
+     * since their cost is computed from their underlying matchers
+     */
+    public double getCost() {
+        return cost;
     }
 
     @Override
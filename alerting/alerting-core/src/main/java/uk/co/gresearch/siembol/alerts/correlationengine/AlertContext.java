@@ -1,5 +1,8 @@
 package uk.co.gresearch.siembol.alerts.correlationengine;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +12,7 @@ import java.util.Map;
  * <p>This object stores the context of the alert used by alerting counters.
  * It stores timestamp and field values that will be included after triggering the rule.
  * It implements Comparable interface by comparing timestamps.
+ * It supports json (de)serialisation for checkpointing the state of correlation rules.
  *
  * @author  Marian Novotny
  * @see AlertCounter
@@ -18,15 +22,23 @@ public class AlertContext implements Comparable<AlertContext> {
     private final long timestamp;
     private final Object[] fieldsToSend;
 
-    public AlertContext(long timestamp, Object[] fieldsToSend) {
+    @JsonCreator
+    public AlertContext(@JsonProperty("timestamp") long timestamp,
+                        @JsonProperty("fields") Object[] fieldsToSend) {
         this.timestamp = timestamp;
         this.fieldsToSend = fieldsToSend;
     }
 
+    @JsonProperty("timestamp")
     public long getTimestamp() {
         return timestamp;
     }
 
+    @JsonProperty("fields")
+    public Object[] getFieldsToSend() {
+        return fieldsToSend;
+    }
+
     public Map<String, Object> getFields(List<String> fieldNames) {
         Map<String, Object> ret = new LinkedHashMap<>();
         for (int i = 0; i < fieldsToSend.length; i++) {
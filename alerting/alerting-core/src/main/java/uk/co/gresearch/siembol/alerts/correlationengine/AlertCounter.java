@@ -2,11 +2,13 @@ package uk.co.gresearch.siembol.alerts.correlationengine;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 /**
- * An object that implements alerting counters using heap data structure
+ * An object that implements alerting counters using a compact ring buffer
  *
- * <p>This object implements alerting counters using PriorityQueue of alerting contexts.
+ * <p>This object implements alerting counters using a ring buffer of primitive timestamps sorted by time,
+ * the fields of alerting contexts are stored in a parallel array only if the alerts provide any fields.
+ * The buffer grows on demand up to the threshold of the counter, so the counter does not allocate
+ * any object per alert and its memory is proportional to the number of stored alerts.
  * It evaluates a new alert and supports cleaning of old alerting contexts.
  *
  *
@@ -16,56 +18,140 @@ import java.util.PriorityQueue;
  *
  */
 public class AlertCounter {
+    private static final int INITIAL_CAPACITY = 2;
+    private static final Object[] EMPTY_FIELDS = new Object[0];
     private final AlertCounterMetadata counterMetadata;
-    private final PriorityQueue<AlertContext> alertContextHeap = new PriorityQueue<>();
+    private long[] timestamps;
+    private Object[][] fields;
+    private int head = 0;
+    private int size = 0;
 
     public AlertCounter(AlertCounterMetadata counterMetadata) {
         this.counterMetadata = counterMetadata;
+        this.timestamps = new long[Math.min(INITIAL_CAPACITY, counterMetadata.getThreshold())];
     }
 
     public void update(AlertContext alertContext) {
-        if (getSize() == counterMetadata.getThreshold()) {
-            alertContextHeap.poll();
+        update(alertContext.getTimestamp(), alertContext.getFieldsToSend());
+    }
+
+    public void update(long timestamp, Object[] fieldsToSend) {
+        if (size == counterMetadata.getThreshold()) {
+            poll();
+        }
+
+        if (size == timestamps.length) {
+            resize(Math.min(counterMetadata.getThreshold(), 2 * timestamps.length));
+        }
+
+        if (fields == null && fieldsToSend != null && fieldsToSend.length > 0) {
+            fields = new Object[timestamps.length][];
+        }
+
+        int position = size;
+        while (position > 0 && timestamps[getIndex(position - 1)] > timestamp) {
+            timestamps[getIndex(position)] = timestamps[getIndex(position - 1)];
+            if (fields != null) {
+                fields[getIndex(position)] = fields[getIndex(position - 1)];
+            }
+            position--;
         }
 
-        alertContextHeap.add(alertContext);
+        timestamps[getIndex(position)] = timestamp;
+        if (fields != null) {
+            fields[getIndex(position)] = fieldsToSend;
+        }
+        size++;
     }
 
     public void clean(long waterMark) {
-        if (!alertContextHeap.isEmpty()
-                && alertContextHeap.peek().getTimestamp() < waterMark - counterMetadata.getExtendedWindowSize()) {
-            alertContextHeap.clear();
+        if (size > 0 && timestamps[head] < waterMark - counterMetadata.getExtendedWindowSize()) {
+            clear();
             return;
         }
 
-        while (!alertContextHeap.isEmpty() && alertContextHeap.peek().getTimestamp() < waterMark) {
-            alertContextHeap.poll();
+        while (size > 0 && timestamps[head] < waterMark) {
+            poll();
         }
     }
 
     public boolean isEmpty() {
-        return alertContextHeap.isEmpty();
+        return size == 0;
     }
 
     public int getSize() {
-        return alertContextHeap.size();
+        return size;
     }
 
     public Long getOldest() {
-        return alertContextHeap.isEmpty() ? null : alertContextHeap.peek().getTimestamp();
+        return size == 0 ? null : timestamps[head];
+    }
+
+    public Long getNewest() {
+        return size == 0 ? null : timestamps[getIndex(size - 1)];
     }
 
     public boolean matchThreshold() {
-        return alertContextHeap.size() >= counterMetadata.getThreshold();
+        return size >= counterMetadata.getThreshold();
     }
 
     public boolean isMandatory() {
         return counterMetadata.isMandatory();
     }
 
+    public List<AlertContext> getAlertContexts() {
+        List<AlertContext> ret = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ret.add(getAlertContext(i));
+        }
+        return ret;
+    }
+
     public List<Map<String, Object>> getCorrelatedAlerts(List<String> fieldNames) {
-        List<Map<String, Object>> ret = new ArrayList<>();
-        alertContextHeap.forEach(x -> ret.add(x.getFields(fieldNames)));
+        List<Map<String, Object>> ret = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ret.add(getAlertContext(i).getFields(fieldNames));
+        }
         return ret;
     }
+
+    private AlertContext getAlertContext(int position) {
+        int index = getIndex(position);
+        Object[] current = fields == null || fields[index] == null ? EMPTY_FIELDS : fields[index];
+        return new AlertContext(timestamps[index], current);
+    }
+
+    private void poll() {
+        if (fields != null) {
+            fields[head] = null;
+        }
+        head = getIndex(1);
+        size--;
+    }
+
+    private void clear() {
+        head = 0;
+        size = 0;
+        fields = null;
+    }
+
+    private void resize(int capacity) {
+        long[] newTimestamps = new long[capacity];
+        Object[][] newFields = fields == null ? null : new Object[capacity][];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamps[getIndex(i)];
+            if (newFields != null) {
+                newFields[i] = fields[getIndex(i)];
+            }
+        }
+
+        timestamps = newTimestamps;
+        fields = newFields;
+        head = 0;
+    }
+
+    private int getIndex(int position) {
+        int index = head + position;
+        return index < timestamps.length ? index : index - timestamps.length;
+    }
 }
@@ -0,0 +1,76 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import uk.co.gresearch.siembol.alerts.common.CompositeAlertingEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * An object that combines multiple correlation alerting engines
+ *
+ * <p>This object extends CompositeAlertingEngine and it implements CorrelationAlertingEngine interface
+ * by combining the internal states of the list of CorrelationAlertingEngine objects.
+ *
+ * @author  Marian Novotny
+ * @see CompositeAlertingEngine
+ * @see CorrelationAlertingEngine
+ *
+ */
+public class CompositeCorrelationAlertingEngine extends CompositeAlertingEngine implements CorrelationAlertingEngine {
+    private final List<CorrelationAlertingEngine> correlationEngines;
+
+    /**
+     * Creates the composite correlation alerting engine by using the list of already created engines.
+     *
+     * @param correlationEngines List of underlying correlation alerting engines
+     */
+    public CompositeCorrelationAlertingEngine(List<CorrelationAlertingEngine> correlationEngines) {
+        super(new ArrayList<>(correlationEngines));
+        this.correlationEngines = correlationEngines;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The state tracking is enabled in all underlying alerting engines.
+     */
+    @Override
+    public void enableStateTracking() {
+        correlationEngines.forEach(CorrelationAlertingEngine::enableStateTracking);
+    }
+
+    /**
+     * {@inheritDoc}
+     * It provides the state of all underlying alerting engines.
+     */
+    @Override
+    public List<CorrelationStateEntry> getState(boolean changedOnly) {
+        List<CorrelationStateEntry> ret = new ArrayList<>();
+        correlationEngines.forEach(x -> ret.addAll(x.getState(changedOnly)));
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStateSize() {
+        return correlationEngines.stream().mapToInt(CorrelationAlertingEngine::getStateSize).sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The state is restored in all underlying alerting engines.
+     */
+    @Override
+    public void restoreState(List<CorrelationStateEntry> state) {
+        correlationEngines.forEach(x -> x.restoreState(state));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The state is merged in all underlying alerting engines.
+     */
+    @Override
+    public void mergeState(List<CorrelationStateEntry> state) {
+        correlationEngines.forEach(x -> x.mergeState(state));
+    }
+}
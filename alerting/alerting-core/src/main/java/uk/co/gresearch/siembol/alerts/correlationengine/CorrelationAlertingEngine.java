@@ -0,0 +1,58 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
+
+import java.util.List;
+/**
+ * An object that evaluates alerts using correlation rules with an internal state
+ *
+ * <p>This interface extends AlertingEngine interface by providing functionality
+ * for checkpointing, restoring and handing off the internal state of the correlation rules.
+ *
+ * @author  Marian Novotny
+ * @see AlertingEngine
+ * @see CorrelationEngineImpl
+ * @see CompositeCorrelationAlertingEngine
+ * @see CorrelationStateCheckpointer
+ *
+ */
+public interface CorrelationAlertingEngine extends AlertingEngine {
+    /**
+     * Enables tracking of the changed internal state that is provided by getState(true).
+     * The changed state is not tracked before enabling it.
+     */
+    void enableStateTracking();
+
+    /**
+     * Provides the internal state for checkpointing and resets tracking of the changed state.
+     *
+     * @param changedOnly if true only the state changed since the previous call is provided
+     * @return      the list of state entries
+     * @see         CorrelationStateEntry
+     */
+    List<CorrelationStateEntry> getState(boolean changedOnly);
+
+    /**
+     * Provides the size of the internal state
+     *
+     * @return      the number of state entries of the full state
+     */
+    int getStateSize();
+
+    /**
+     * Restores the internal state from the state entries. The entries of unknown rules are ignored.
+     *
+     * @param state the ordered list of state entries
+     * @see         CorrelationStateEntry
+     */
+    void restoreState(List<CorrelationStateEntry> state);
+
+    /**
+     * Merges the state entries into the internal state. The alert contexts of the entries are added
+     * into the current state and the merged entries are tracked as changed. The entries of unknown rules are ignored.
+     *
+     * @param state the list of state entries handed off by another alerting engine
+     * @see         CorrelationStateEntry
+     */
+    void mergeState(List<CorrelationStateEntry> state);
+}
@@ -13,18 +13,20 @@ import static uk.co.gresearch.siembol.alerts.common.AlertingTags.CORRELATION_KEY
 /**
  * An object that evaluates alerts using correlation rules
  *
- * <p>This class implements AlertingEngine interface for evaluating alerts using correlation rules.
+ * <p>This class implements CorrelationAlertingEngine interface for evaluating alerts using correlation rules.
+ * It supports checkpointing and restoring the internal state of the correlation rules.
  *
  * @author  Marian Novotny
- * @see AlertingEngine
+ * @see CorrelationAlertingEngine
  *
  */
-public class CorrelationEngineImpl implements AlertingEngine {
+public class CorrelationEngineImpl implements CorrelationAlertingEngine {
     private static final String MISSING_CORRELATION_ATTRIBUTES = "Missing fields for alert correlation";
     private final Map<String, List<CorrelationRule>> alertToCorrelationRulesMap;
     private final List<CorrelationRule> correlationRules;
     private final TimeProvider timeProvider;
     private final List<Pair<String, Object>> outputFields;
+    private final Map<String, CorrelationRule> fullNameToCorrelationRuleMap = new HashMap<>();
 
     /**
      * Creates correlation engine using builder pattern.
@@ -36,6 +38,7 @@ public class CorrelationEngineImpl implements AlertingEngine {
         correlationRules = builder.correlationRules;
         timeProvider = builder.timeProvider;
         this.outputFields = builder.outputFields;
+        correlationRules.forEach(x -> fullNameToCorrelationRuleMap.put(x.getFullRuleName(), x));
     }
 
     /**
@@ -111,6 +114,60 @@ public class CorrelationEngineImpl implements AlertingEngine {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void enableStateTracking() {
+        correlationRules.forEach(CorrelationRule::enableStateTracking);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CorrelationStateEntry> getState(boolean changedOnly) {
+        List<CorrelationStateEntry> ret = new ArrayList<>();
+        correlationRules.forEach(x -> ret.addAll(x.getState(changedOnly)));
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStateSize() {
+        return correlationRules.stream().mapToInt(CorrelationRule::getStateSize).sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entries are restored into the rules with the same full rule name including the rule version.
+     */
+    @Override
+    public void restoreState(List<CorrelationStateEntry> state) {
+        for (CorrelationStateEntry entry : state) {
+            CorrelationRule rule = fullNameToCorrelationRuleMap.get(entry.getFullRuleName());
+            if (rule != null) {
+                rule.restoreState(entry);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entries are merged into the rules with the same full rule name including the rule version.
+     */
+    @Override
+    public void mergeState(List<CorrelationStateEntry> state) {
+        for (CorrelationStateEntry entry : state) {
+            CorrelationRule rule = fullNameToCorrelationRuleMap.get(entry.getFullRuleName());
+            if (rule != null) {
+                rule.mergeState(entry);
+            }
+        }
+    }
+
     /**
      * A builder for correlation alerting engine
      *
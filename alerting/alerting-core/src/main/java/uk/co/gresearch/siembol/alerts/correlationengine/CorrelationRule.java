@@ -1,5 +1,7 @@
 package uk.co.gresearch.siembol.alerts.correlationengine;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingAttributes;
 import uk.co.gresearch.siembol.alerts.common.AlertingFields;
@@ -14,8 +16,11 @@ import static uk.co.gresearch.siembol.alerts.common.AlertingTags.CORRELATION_KEY
 /**
  * An object for representing correlation alerting rule
  *
- * <p>This derived class of AbstractRule is implementing a correlation alerting rule
- *
+ * <p>This derived class of AbstractRule is implementing a correlation alerting rule.
+ * The internal state of alert counters can be checkpointed and restored by correlation state entries.
+ * The correlation keys are indexed by their expiration time in a timer wheel,
+ * so cleaning the rule inspects only the correlation keys that could expire.
+ * The changed correlation keys are tracked only after the state tracking is enabled by a checkpointer.
  *
  * @author  Marian Novotny
  * @see AbstractRule
@@ -25,6 +30,7 @@ public class CorrelationRule extends AbstractRule {
         USE_EVENT_TIME,
     }
     private static final String EVENT_TIMESTAMP_FIELD = SiembolConstants.TIMESTAMP;
+    private static final Object[] EMPTY_FIELDS_TO_SEND = new Object[0];
     private final EnumSet<Flags> flags;
     private final int alertsThresholds;
     private final long timeWindowInMs;
@@ -33,6 +39,10 @@ public class CorrelationRule extends AbstractRule {
     private final ArrayList<AlertCounterMetadata> alertCountersMetadata;
     private final Map<String, Integer> alertToCounterIndex;
     private final Map<String, ArrayList<AlertCounter>> alertCounters = new HashMap<>();
+    private final Set<String> changedKeys = new HashSet<>();
+    private boolean stateTracking = false;
+    private final TimerWheel<Pair<String, ArrayList<AlertCounter>>> expiryWheel;
+    private long cleanWaterMark = Long.MIN_VALUE;
 
     private final List<String> fieldNamesToSend;
 
@@ -50,6 +60,7 @@ public class CorrelationRule extends AbstractRule {
         this.alertCountersMetadata = builder.alertCountersMetadata;
         this.alertToCounterIndex = builder.alertToCounterIndex;
         this.fieldNamesToSend = builder.fieldNamesToSend;
+        this.expiryWheel = TimerWheel.fromSpan(timeWindowInMs + maxLagTimeInMs);
     }
 
     /**
@@ -76,13 +87,9 @@ public class CorrelationRule extends AbstractRule {
                 ? ((Number)alert.get(EVENT_TIMESTAMP_FIELD)).longValue()
                 : processingTime;
 
-        Object[] fieldsToSend = new Object[fieldNamesToSend.size()];
-        for (int i = 0; i < fieldNamesToSend.size(); i++) {
-            fieldsToSend[i] = alert.get(fieldNamesToSend.get(i));
-        }
-        AlertContext alertContext = new AlertContext(eventTime, fieldsToSend);
+        Object[] fieldsToSend = getFieldsToSend(alert);
         try {
-            if (EvaluationResult.NO_MATCH == evaluate(key, alertName, alertContext, processingTime)) {
+            if (EvaluationResult.NO_MATCH == evaluate(key, alertName, eventTime, fieldsToSend, processingTime)) {
                 return AlertingResult.fromEvaluationResult(EvaluationResult.NO_MATCH, alert);
             }
 
@@ -99,33 +106,184 @@ public class CorrelationRule extends AbstractRule {
     }
 
     /**
-     * Removes unused old internal state in rule counters
+     * Removes unused old internal state in rule counters.
+     * It removes the correlation keys with expired alert counters and
+     * the older alert contexts of other correlation keys are removed during their next evaluation.
      *
      * @param currentTime current time in milliseconds
      */
     public void clean(long currentTime) {
         long waterMark = currentTime - timeWindowInMs - maxLagTimeInMs;
-        alertCounters.keySet().removeIf(x -> cleanAlertCounters(alertCounters.get(x), waterMark));
+        cleanWaterMark = Math.max(cleanWaterMark, waterMark);
+        for (Pair<String, ArrayList<AlertCounter>> expired : expiryWheel.advance(currentTime)) {
+            String key = expired.getLeft();
+            ArrayList<AlertCounter> counters = expired.getRight();
+            if (alertCounters.get(key) != counters) {
+                continue;
+            }
+
+            if (cleanAlertCounters(counters, waterMark)) {
+                alertCounters.remove(key);
+                trackChange(key);
+            } else {
+                expiryWheel.schedule(expired, getExpirationTime(counters));
+            }
+        }
     }
 
     public List<String> getAlertNames() {
         return new ArrayList<>(alertToCounterIndex.keySet());
     }
 
+    /**
+     * Provides the number of correlation keys in the internal state
+     *
+     * @return the number of correlation keys
+     */
+    public int getStateSize() {
+        return alertCounters.size();
+    }
+
+    /**
+     * Enables tracking of the changed correlation keys. It should be enabled by a checkpointer of the state,
+     * otherwise the changed keys are not tracked since they would be never reported and removed.
+     */
+    public void enableStateTracking() {
+        stateTracking = true;
+    }
+
+    /**
+     * Provides the internal state for checkpointing and resets tracking of changed correlation keys
+     *
+     * @param changedOnly if true only correlation keys changed since the previous call are included,
+     *                    removed correlation keys are included as entries without alert counters.
+     *                    The list of changed keys is empty if the state tracking is not enabled
+     * @return the list of state entries
+     */
+    public List<CorrelationStateEntry> getState(boolean changedOnly) {
+        Collection<String> keys = changedOnly ? changedKeys : alertCounters.keySet();
+        List<CorrelationStateEntry> ret = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            ArrayList<AlertCounter> counters = alertCounters.get(key);
+            List<List<AlertContext>> contexts = null;
+            if (counters != null) {
+                contexts = new ArrayList<>(counters.size());
+                for (AlertCounter counter : counters) {
+                    contexts.add(counter.getAlertContexts());
+                }
+            }
+            ret.add(new CorrelationStateEntry(getFullRuleName(), key, contexts));
+        }
+
+        changedKeys.clear();
+        return ret;
+    }
+
+    /**
+     * Restores the internal state of a correlation key from the state entry
+     *
+     * @param entry the state entry of the rule
+     * @return true if the entry was restored,
+     *         false if the entry does not belong to the rule or it does not match the alert counters of the rule
+     */
+    public boolean restoreState(CorrelationStateEntry entry) {
+        if (!getFullRuleName().equals(entry.getFullRuleName()) || entry.getCorrelationKey() == null) {
+            return false;
+        }
+
+        List<List<AlertContext>> contexts = entry.getAlertCounters();
+        if (contexts == null) {
+            alertCounters.remove(entry.getCorrelationKey());
+            return true;
+        }
+
+        if (contexts.size() != alertCountersMetadata.size()) {
+            return false;
+        }
+
+        ArrayList<AlertCounter> counters = createAlertCounters();
+        for (int i = 0; i < counters.size(); i++) {
+            contexts.get(i).forEach(counters.get(i)::update);
+        }
+        putAlertCounters(entry.getCorrelationKey(), counters);
+        return true;
+    }
+
+    /**
+     * Merges the state entry of a correlation key into the internal state.
+     * The alert contexts of the entry are added into the current alert counters of the correlation key
+     * and the correlation key is tracked as changed. It is used for the state handed off by another instance.
+     *
+     * @param entry the state entry of the rule
+     * @return true if the entry was merged,
+     *         false if the entry does not belong to the rule or it does not match the alert counters of the rule
+     */
+    public boolean mergeState(CorrelationStateEntry entry) {
+        if (!getFullRuleName().equals(entry.getFullRuleName())
+                || entry.getCorrelationKey() == null
+                || entry.getAlertCounters() == null
+                || entry.getAlertCounters().size() != alertCountersMetadata.size()) {
+            return false;
+        }
+
+        String key = entry.getCorrelationKey();
+        ArrayList<AlertCounter> counters = alertCounters.get(key);
+        if (counters == null) {
+            counters = createAlertCounters();
+            putAlertCounters(key, counters);
+        }
+
+        List<List<AlertContext>> contexts = entry.getAlertCounters();
+        for (int i = 0; i < counters.size(); i++) {
+            contexts.get(i).forEach(counters.get(i)::update);
+        }
+        trackChange(key);
+        return true;
+    }
+
 
-    private EvaluationResult evaluate(String key, String ruleName, AlertContext alertContext, long processingTime) {
+    private void trackChange(String key) {
+        if (stateTracking) {
+            changedKeys.add(key);
+        }
+    }
+
+    private Object[] getFieldsToSend(Map<String, Object> alert) {
+        Object[] ret = null;
+        for (int i = 0; i < fieldNamesToSend.size(); i++) {
+            Object value = alert.get(fieldNamesToSend.get(i));
+            if (value != null) {
+                if (ret == null) {
+                    ret = new Object[fieldNamesToSend.size()];
+                }
+                ret[i] = value;
+            }
+        }
+        return ret == null ? EMPTY_FIELDS_TO_SEND : ret;
+    }
+
+    private EvaluationResult evaluate(String key,
+                                      String ruleName,
+                                      long eventTime,
+                                      Object[] fieldsToSend,
+                                      long processingTime) {
         ArrayList<AlertCounter> currentCounterList = alertCounters.get(key);
-        if (currentCounterList == null) {
+        boolean newKey = currentCounterList == null;
+        if (newKey) {
             currentCounterList = createAlertCounters();
-            alertCounters.put(key, currentCounterList);
         } else {
-            cleanAlertCounters(currentCounterList, processingTime - timeWindowInMs - maxLagTimeInMs);
+            cleanAlertCounters(currentCounterList,
+                    Math.max(cleanWaterMark, processingTime - timeWindowInMs - maxLagTimeInMs));
         }
 
         int index = alertToCounterIndex.get(ruleName);
         AlertCounter currentCounter = currentCounterList.get(index);
+        currentCounter.update(eventTime, fieldsToSend);
+        if (newKey) {
+            putAlertCounters(key, currentCounterList);
+        }
+        trackChange(key);
 
-        currentCounter.update(alertContext);
         if (currentCounter.matchThreshold()) {
             return evaluateRule(currentCounterList);
         } else {
@@ -172,6 +330,22 @@ public class CorrelationRule extends AbstractRule {
         return empty;
     }
 
+    private void putAlertCounters(String key, ArrayList<AlertCounter> counters) {
+        alertCounters.put(key, counters);
+        expiryWheel.schedule(ImmutablePair.of(key, counters), getExpirationTime(counters));
+    }
+
+    private long getExpirationTime(ArrayList<AlertCounter> counters) {
+        long newest = Long.MIN_VALUE;
+        for (AlertCounter counter : counters) {
+            Long current = counter.getNewest();
+            if (current != null) {
+                newest = Math.max(newest, current);
+            }
+        }
+        return newest == Long.MIN_VALUE ? newest : newest + timeWindowInMs + maxLagTimeInMs + 1;
+    }
+
     private ArrayList<AlertCounter> createAlertCounters() {
         ArrayList<AlertCounter> ret = new ArrayList<>(alertCountersMetadata.size());
         for (AlertCounterMetadata counterMetadata : alertCountersMetadata) {
@@ -0,0 +1,133 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+/**
+ * An object for checkpointing and restoring the state of a correlation alerting engine
+ *
+ * <p>This class takes incremental snapshots of the correlation state changed since the previous checkpoint
+ * and appends them into the journal of a correlation state store.
+ * The tracking of the changed state is enabled in the engine when its state is restored,
+ * so the engine should be restored before its first checkpoint.
+ * The journal is compacted into a full snapshot when it is larger than the current state,
+ * so the time needed for restoring the state is bounded by the size of the state.
+ * The state of the correlation keys that are not owned by the engine can be released from the store
+ * in order to hand it off to the owner of the keys.
+ * The object is not thread safe and it should be used by the thread that evaluates the alerts.
+ *
+ * @author  Marian Novotny
+ * @see CorrelationStateStore
+ * @see CorrelationAlertingEngine
+ *
+ */
+public class CorrelationStateCheckpointer {
+    private static final int MIN_COMPACTION_JOURNAL_SIZE = 1000;
+    private final CorrelationStateStore stateStore;
+    private final int minCompactionJournalSize;
+
+    /**
+     * Creates the checkpointer
+     *
+     * @param stateStore the store for the state
+     * @param minCompactionJournalSize the minimum number of journal entries that can trigger the compaction
+     */
+    public CorrelationStateCheckpointer(CorrelationStateStore stateStore, int minCompactionJournalSize) {
+        this.stateStore = stateStore;
+        this.minCompactionJournalSize = minCompactionJournalSize;
+    }
+
+    /**
+     * Creates the checkpointer with the default minimum journal size for compaction
+     *
+     * @param stateStore the store for the state
+     */
+    public CorrelationStateCheckpointer(CorrelationStateStore stateStore) {
+        this(stateStore, MIN_COMPACTION_JOURNAL_SIZE);
+    }
+
+    /**
+     * Stores the state of the engine changed since the previous checkpoint
+     *
+     * @param engine the correlation alerting engine
+     * @throws IOException if the state can not be stored
+     */
+    public void checkpoint(CorrelationAlertingEngine engine) throws IOException {
+        List<CorrelationStateEntry> changed = engine.getState(true);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        if (stateStore.getJournalSize() + changed.size() > Math.max(engine.getStateSize(), minCompactionJournalSize)) {
+            stateStore.compact(engine.getState(false));
+        } else {
+            stateStore.append(changed);
+        }
+    }
+
+    /**
+     * Restores the state of the engine from the store and compacts the store
+     * in order to remove the state of rules that are not in the engine.
+     *
+     * @param engine the correlation alerting engine
+     * @throws IOException if the state can not be restored
+     */
+    public void restore(CorrelationAlertingEngine engine) throws IOException {
+        restore(engine, x -> true);
+    }
+
+    /**
+     * Enables the state tracking in the engine,
+     * restores the state of the owned entries into the engine from the store and compacts the store
+     * in order to remove the state of rules that are not in the engine and the state that is not owned.
+     *
+     * @param engine the correlation alerting engine
+     * @param isOwned the predicate for testing whether the state entry is owned by the engine
+     * @return the latest state entries that are not owned by the engine, without the removed correlation keys
+     * @throws IOException if the state can not be restored
+     */
+    public List<CorrelationStateEntry> restore(CorrelationAlertingEngine engine,
+                                               Predicate<CorrelationStateEntry> isOwned) throws IOException {
+        List<CorrelationStateEntry> owned = new ArrayList<>();
+        List<CorrelationStateEntry> notOwned = new ArrayList<>();
+        engine.enableStateTracking();
+        for (CorrelationStateEntry entry : stateStore.load()) {
+            (isOwned.test(entry) ? owned : notOwned).add(entry);
+        }
+
+        engine.restoreState(owned);
+        stateStore.compact(engine.getState(false));
+        return getLatestEntries(notOwned);
+    }
+
+    /**
+     * Releases the whole state from the store and removes it from the store
+     *
+     * @return the latest state entries from the store, without the removed correlation keys
+     * @throws IOException if the state can not be released
+     */
+    public List<CorrelationStateEntry> release() throws IOException {
+        List<CorrelationStateEntry> ret = getLatestEntries(stateStore.load());
+        stateStore.clear();
+        return ret;
+    }
+
+    private static List<CorrelationStateEntry> getLatestEntries(List<CorrelationStateEntry> entries) {
+        Map<Pair<String, String>, CorrelationStateEntry> latest = new LinkedHashMap<>();
+        for (CorrelationStateEntry entry : entries) {
+            Pair<String, String> key = ImmutablePair.of(entry.getFullRuleName(), entry.getCorrelationKey());
+            if (entry.getAlertCounters() == null) {
+                latest.remove(key);
+            } else {
+                latest.put(key, entry);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+}
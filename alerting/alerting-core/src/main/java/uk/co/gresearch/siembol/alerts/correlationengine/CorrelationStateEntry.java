@@ -0,0 +1,62 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+/**
+ * An object that represents the state of a correlation rule for one correlation key
+ *
+ * <p>This class is used for json (de)serialisation of the correlation state for checkpointing.
+ * It stores the alert contexts of all alert counters of the rule for the correlation key.
+ * An entry without alert counters represents a correlation key that was removed from the rule.
+ *
+ * @author  Marian Novotny
+ * @see CorrelationRule
+ * @see CorrelationStateStore
+ *
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CorrelationStateEntry {
+    @JsonProperty("rule")
+    private String fullRuleName;
+    @JsonProperty("key")
+    private String correlationKey;
+    @JsonProperty("counters")
+    private List<List<AlertContext>> alertCounters;
+
+    public CorrelationStateEntry() {
+    }
+
+    public CorrelationStateEntry(String fullRuleName,
+                                 String correlationKey,
+                                 List<List<AlertContext>> alertCounters) {
+        this.fullRuleName = fullRuleName;
+        this.correlationKey = correlationKey;
+        this.alertCounters = alertCounters;
+    }
+
+    public String getFullRuleName() {
+        return fullRuleName;
+    }
+
+    public void setFullRuleName(String fullRuleName) {
+        this.fullRuleName = fullRuleName;
+    }
+
+    public String getCorrelationKey() {
+        return correlationKey;
+    }
+
+    public void setCorrelationKey(String correlationKey) {
+        this.correlationKey = correlationKey;
+    }
+
+    public List<List<AlertContext>> getAlertCounters() {
+        return alertCounters;
+    }
+
+    public void setAlertCounters(List<List<AlertContext>> alertCounters) {
+        this.alertCounters = alertCounters;
+    }
+}
@@ -0,0 +1,56 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import java.io.IOException;
+import java.util.List;
+/**
+ * An object for storing the checkpointed state of correlation rules
+ *
+ * <p>This interface is used for storing the state of correlation rules in order to restore it after a restart.
+ * The state is stored as a full snapshot followed by a journal of incremental changes.
+ * The entries loaded from the store are ordered, so a later entry replaces an earlier entry with the same
+ * rule and correlation key.
+ *
+ * @author  Marian Novotny
+ * @see CorrelationStateEntry
+ * @see FileCorrelationStateStore
+ *
+ */
+public interface CorrelationStateStore {
+    /**
+     * Appends incremental changes of the state into the journal
+     *
+     * @param entries the list of changed state entries
+     * @throws IOException if the changes can not be stored
+     */
+    void append(List<CorrelationStateEntry> entries) throws IOException;
+
+    /**
+     * Replaces the snapshot by the full state and truncates the journal
+     *
+     * @param entries the list of all state entries
+     * @throws IOException if the snapshot can not be stored
+     */
+    void compact(List<CorrelationStateEntry> entries) throws IOException;
+
+    /**
+     * Loads the snapshot and the journal from the store
+     *
+     * @return the ordered list of state entries
+     * @throws IOException if the state can not be loaded
+     */
+    List<CorrelationStateEntry> load() throws IOException;
+
+    /**
+     * Provides the number of entries in the journal since the last compaction
+     *
+     * @return the number of entries in the journal
+     */
+    int getJournalSize();
+
+    /**
+     * Removes the snapshot and the journal from the store
+     *
+     * @throws IOException if the state can not be removed
+     */
+    void clear() throws IOException;
+}
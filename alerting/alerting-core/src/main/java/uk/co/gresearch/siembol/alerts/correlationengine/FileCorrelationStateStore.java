@@ -0,0 +1,141 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * An object for storing the checkpointed state of correlation rules in a local directory
+ *
+ * <p>This class implements CorrelationStateStore interface by using a snapshot file and a journal file
+ * with one json entry per line.
+ * The snapshot is written into a temporary file that atomically replaces the previous snapshot,
+ * the journal is appended and synchronised with the storage device.
+ * An incomplete last line of the journal after a failure is ignored during loading.
+ *
+ * @author  Marian Novotny
+ * @see CorrelationStateStore
+ *
+ */
+public class FileCorrelationStateStore implements CorrelationStateStore {
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(CorrelationStateEntry.class);
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper().writerFor(CorrelationStateEntry.class);
+    private static final String SNAPSHOT_FILE = "snapshot.json";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.json.tmp";
+    private static final String JOURNAL_FILE = "journal.json";
+
+    private final Path snapshotPath;
+    private final Path snapshotTempPath;
+    private final Path journalPath;
+    private int journalSize = 0;
+
+    /**
+     * Creates the store in the directory. The directory is created if it does not exist.
+     *
+     * @param directory the directory for storing the state
+     * @throws IOException if the directory can not be created
+     */
+    public FileCorrelationStateStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        snapshotTempPath = directory.resolve(SNAPSHOT_TEMP_FILE);
+        journalPath = directory.resolve(JOURNAL_FILE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void append(List<CorrelationStateEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (FileOutputStream stream = new FileOutputStream(journalPath.toFile(), true)) {
+            stream.write(serialize(entries));
+            stream.getFD().sync();
+        }
+        journalSize += entries.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void compact(List<CorrelationStateEntry> entries) throws IOException {
+        try (FileOutputStream stream = new FileOutputStream(snapshotTempPath.toFile())) {
+            stream.write(serialize(entries));
+            stream.getFD().sync();
+        }
+
+        Files.move(snapshotTempPath, snapshotPath,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(journalPath);
+        journalSize = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CorrelationStateEntry> load() throws IOException {
+        List<CorrelationStateEntry> ret = new ArrayList<>();
+        if (Files.exists(snapshotPath)) {
+            for (String line : Files.readAllLines(snapshotPath, StandardCharsets.UTF_8)) {
+                ret.add(JSON_READER.readValue(line));
+            }
+        }
+
+        journalSize = 0;
+        if (Files.exists(journalPath)) {
+            List<String> lines = Files.readAllLines(journalPath, StandardCharsets.UTF_8);
+            for (int i = 0; i < lines.size(); i++) {
+                try {
+                    ret.add(JSON_READER.readValue(lines.get(i)));
+                    journalSize++;
+                } catch (JsonProcessingException e) {
+                    if (i != lines.size() - 1) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() throws IOException {
+        Files.deleteIfExists(snapshotTempPath);
+        Files.deleteIfExists(snapshotPath);
+        Files.deleteIfExists(journalPath);
+        journalSize = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getJournalSize() {
+        return journalSize;
+    }
+
+    private static byte[] serialize(List<CorrelationStateEntry> entries) throws IOException {
+        ByteArrayOutputStream ret = new ByteArrayOutputStream();
+        for (CorrelationStateEntry entry : entries) {
+            ret.write(JSON_WRITER.writeValueAsBytes(entry));
+            ret.write('\n');
+        }
+        return ret.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * An object that implements a hashed timer wheel for expiring items by their deadlines
+ *
+ * <p>This class stores items in a circular array of slots where each slot covers one tick of the wheel.
+ * Advancing the wheel inspects only the slots of the elapsed ticks,
+ * so the cost of advancing is proportional to the elapsed ticks and the number of items in their slots
+ * instead of the number of all scheduled items.
+ * The items with deadlines beyond the span of the wheel stay in their slot until the deadline elapses.
+ * An item is expired at the first call of advance with the current time not before its deadline,
+ * and the item is removed from the wheel.
+ * The object is not thread safe.
+ *
+ * @author  Marian Novotny
+ * @see CorrelationRule
+ *
+ */
+public class TimerWheel<T> {
+    private static final String WRONG_ARGUMENTS_MSG = "Wrong timer wheel arguments: tickMs: %d, slots: %d";
+    private static final int MAX_SLOTS = 512;
+
+    private static class Entry<T> {
+        private final T item;
+        private final long deadline;
+
+        Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long tickMs;
+    private final List<ArrayDeque<Entry<T>>> slots;
+    private boolean initialised = false;
+    private long processedTick;
+    private int size = 0;
+
+    /**
+     * Creates the timer wheel
+     *
+     * @param tickMs the duration of one tick in milliseconds
+     * @param numberOfSlots the number of slots of the wheel
+     * @throws IllegalArgumentException if the arguments are not positive
+     */
+    public TimerWheel(long tickMs, int numberOfSlots) {
+        if (tickMs <= 0 || numberOfSlots <= 0) {
+            throw new IllegalArgumentException(String.format(WRONG_ARGUMENTS_MSG, tickMs, numberOfSlots));
+        }
+
+        this.tickMs = tickMs;
+        slots = new ArrayList<>(numberOfSlots);
+        for (int i = 0; i < numberOfSlots; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Creates the timer wheel that covers the span with the limited number of slots
+     *
+     * @param spanMs the time span in milliseconds that should be covered by one rotation of the wheel
+     * @return the timer wheel
+     */
+    public static <T> TimerWheel<T> fromSpan(long spanMs) {
+        long tickMs = Math.max(1, (spanMs + MAX_SLOTS - 1) / MAX_SLOTS);
+        int numberOfSlots = (int) Math.min(MAX_SLOTS, spanMs / tickMs + 1);
+        return new TimerWheel<>(tickMs, numberOfSlots);
+    }
+
+    /**
+     * Schedules the item for the expiration
+     *
+     * @param item the item to be expired
+     * @param deadline the time in milliseconds when the item expires
+     */
+    public void schedule(T item, long deadline) {
+        long tick = Math.floorDiv(deadline, tickMs);
+        if (!initialised) {
+            processedTick = tick;
+            initialised = true;
+        }
+
+        slots.get(getSlot(Math.max(tick, processedTick))).add(new Entry<>(item, deadline));
+        size++;
+    }
+
+    /**
+     * Advances the wheel to the current time and removes the expired items
+     *
+     * @param currentTime the current time in milliseconds
+     * @return the list of expired items
+     */
+    public List<T> advance(long currentTime) {
+        List<T> ret = new ArrayList<>();
+        long currentTick = Math.floorDiv(currentTime, tickMs);
+        if (!initialised) {
+            processedTick = currentTick;
+            initialised = true;
+            return ret;
+        }
+
+        if (currentTick < processedTick) {
+            return ret;
+        }
+
+        if (currentTick - processedTick >= slots.size()) {
+            for (ArrayDeque<Entry<T>> slot : slots) {
+                expireSlot(slot, currentTime, ret);
+            }
+        } else {
+            for (long tick = processedTick; tick <= currentTick; tick++) {
+                expireSlot(slots.get(getSlot(tick)), currentTime, ret);
+            }
+        }
+
+        processedTick = currentTick;
+        return ret;
+    }
+
+    /**
+     * Provides the number of scheduled items
+     *
+     * @return the number of items in the wheel
+     */
+    public int size() {
+        return size;
+    }
+
+    private void expireSlot(ArrayDeque<Entry<T>> slot, long currentTime, List<T> expired) {
+        for (int i = slot.size(); i > 0; i--) {
+            Entry<T> entry = slot.poll();
+            if (entry.deadline <= currentTime) {
+                expired.add(entry.item);
+                size--;
+            } else {
+                slot.add(entry);
+            }
+        }
+    }
+
+    private int getSlot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
@@ -4,6 +4,7 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import uk.co.gresearch.siembol.common.testing.InactiveTestingLogger;
 import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.common.testing.TestingLogger;
 
@@ -24,9 +25,10 @@ import java.util.Optional;
 public abstract class AbstractRule {
     private final String ruleName;
     private final String fullRuleName;
+    private final int ruleVersion;
 
     private final List<Pair<String, Object>> outputFields;
-    private final List<Pair<String, String>> variableOutputFields;
+    private final List<Pair<String, SubstitutionTemplate>> variableOutputFields;
 
     protected final TestingLogger logger;
     /**
@@ -37,6 +39,7 @@ public abstract class AbstractRule {
     protected AbstractRule(Builder<?> builder) {
         this.ruleName = builder.ruleName;
         this.fullRuleName = builder.fullRuleName;
+        this.ruleVersion = builder.ruleVersion;
         this.outputFields = builder.outputFields;
         this.variableOutputFields = builder.variableOutputFields;
         this.logger = builder.logger;
@@ -60,6 +63,15 @@ public abstract class AbstractRule {
         return fullRuleName;
     }
 
+    /**
+     * Provides rule version
+     *
+     * @return the version of the rule
+     */
+    public int getRuleVersion() {
+        return ruleVersion;
+    }
+
     /**
      * Puts metadata about the rule into the event
      *
@@ -67,8 +79,8 @@ public abstract class AbstractRule {
      */
     public void addOutputFieldsToEvent(Map<String, Object> event) {
         outputFields.forEach(x -> event.put(x.getKey(), x.getValue()));
-        for (Pair<String, String> variableOutputField : variableOutputFields) {
-            Optional<String> value = EvaluationLibrary.substitute(event, variableOutputField.getValue());
+        for (Pair<String, SubstitutionTemplate> variableOutputField : variableOutputFields) {
+            Optional<String> value = variableOutputField.getValue().substitute(event);
             value.ifPresent(x -> event.put(variableOutputField.getKey(), x));
         }
     }
@@ -100,7 +112,7 @@ public abstract class AbstractRule {
         private List<Pair<String, String>> tags = new ArrayList<>();
         private List<Pair<String, Object>> protections = new ArrayList<>();
         private List<Pair<String, Object>> outputFields = new ArrayList<>();
-        private List<Pair<String, String>> variableOutputFields = new ArrayList<>();
+        private List<Pair<String, SubstitutionTemplate>> variableOutputFields = new ArrayList<>();
         private TestingLogger logger =  new InactiveTestingLogger();
 
         protected abstract T buildInternally();
@@ -121,7 +133,8 @@ public abstract class AbstractRule {
 
             for (Pair<String, String> tag : tags) {
                 if (EvaluationLibrary.containsVariables(tag.getValue())) {
-                    variableOutputFields.add(ImmutablePair.of(tag.getLeft(), tag.getRight()));
+                    variableOutputFields.add(ImmutablePair.of(tag.getLeft(),
+                            SubstitutionTemplate.compile(tag.getRight())));
                 } else {
                     outputFields.add(ImmutablePair.of(tag.getLeft(), tag.getRight()));
                 }
@@ -158,6 +171,7 @@ public abstract class AbstractRule {
          * Sets the tags - list of key value pairs
          *
          * @param tags list of key value pairs. Values can include variables for substitution.
+         *             Values with variables are compiled into substitution templates when the rule is built.
          * @return this builder
          */
         public Builder<T> tags(List<Pair<String, String>> tags) {
@@ -0,0 +1,152 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.*;
+/**
+ * An object for searching a set of strings in a text in one pass
+ *
+ * <p>This class implements Aho-Corasick automaton for matching a set of non-empty patterns.
+ * It reports all occurrences of the patterns including overlapping ones.
+ * The automaton is immutable after it was created and it can be used by multiple threads.
+ *
+ * @author  Marian Novotny
+ * @see FieldPatternIndex
+ */
+public class AhoCorasickAutomaton {
+    private static final String EMPTY_PATTERN_MSG = "Empty pattern in Aho-Corasick automaton";
+    private static final int ROOT = 0;
+
+    /**
+     * A consumer of pattern occurrences
+     */
+    @FunctionalInterface
+    public interface MatchConsumer {
+        /**
+         * Accepts an occurrence of a pattern in the text
+         *
+         * @param patternId the index of the pattern in the list of patterns used for building the automaton
+         * @param end the index in the text after the last character of the occurrence
+         */
+        void accept(int patternId, int end);
+    }
+
+    private final char[][] childrenChars;
+    private final int[][] childrenStates;
+    private final int[] failures;
+    private final int[] outputLinks;
+    private final int[][] outputs;
+
+    /**
+     * Creates Aho-Corasick automaton
+     *
+     * @param patterns list of non-empty patterns. The index of the pattern in the list is used as the pattern id.
+     * @throws IllegalArgumentException if a pattern is empty
+     */
+    public AhoCorasickAutomaton(List<String> patterns) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> trieOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        trieOutputs.add(new ArrayList<>());
+
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException(EMPTY_PATTERN_MSG);
+            }
+
+            int state = ROOT;
+            for (int j = 0; j < pattern.length(); j++) {
+                Integer next = trie.get(state).get(pattern.charAt(j));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(pattern.charAt(j), next);
+                    trie.add(new TreeMap<>());
+                    trieOutputs.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            trieOutputs.get(state).add(i);
+        }
+
+        int size = trie.size();
+        childrenChars = new char[size][];
+        childrenStates = new int[size][];
+        outputs = new int[size][];
+        for (int i = 0; i < size; i++) {
+            TreeMap<Character, Integer> children = trie.get(i);
+            childrenChars[i] = new char[children.size()];
+            childrenStates[i] = new int[children.size()];
+            int j = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                childrenChars[i][j] = child.getKey();
+                childrenStates[i][j] = child.getValue();
+                j++;
+            }
+            outputs[i] = trieOutputs.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        failures = new int[size];
+        outputLinks = new int[size];
+        Arrays.fill(outputLinks, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : childrenStates[ROOT]) {
+            failures[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < childrenChars[state].length; i++) {
+                char c = childrenChars[state][i];
+                int child = childrenStates[state][i];
+
+                int failure = failures[state];
+                int next = getChild(failure, c);
+                while (next < 0 && failure != ROOT) {
+                    failure = failures[failure];
+                    next = getChild(failure, c);
+                }
+
+                failures[child] = next < 0 ? ROOT : next;
+                outputLinks[child] = outputs[failures[child]].length > 0
+                        ? failures[child]
+                        : outputLinks[failures[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Searches the text and reports all occurrences of the patterns to the consumer
+     *
+     * @param text the text for searching
+     * @param consumer the consumer of pattern occurrences
+     */
+    public void search(CharSequence text, MatchConsumer consumer) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = getChild(state, c);
+            while (next < 0 && state != ROOT) {
+                state = failures[state];
+                next = getChild(state, c);
+            }
+            state = next < 0 ? ROOT : next;
+
+            for (int output = state; output > ROOT; output = outputLinks[output]) {
+                for (int patternId : outputs[output]) {
+                    consumer.accept(patternId, i + 1);
+                }
+            }
+        }
+    }
+
+    private int getChild(int state, char c) {
+        char[] chars = childrenChars[state];
+        if (chars.length == 0) {
+            return -1;
+        }
+
+        int index = Arrays.binarySearch(chars, c);
+        return index >= 0 ? childrenStates[state][index] : -1;
+    }
+}
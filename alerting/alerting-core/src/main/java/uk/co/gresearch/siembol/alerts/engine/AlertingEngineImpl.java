@@ -5,22 +5,50 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import uk.co.gresearch.siembol.alerts.common.*;
 import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
+import uk.co.gresearch.siembol.common.utils.LazyJsonMap;
+import uk.co.gresearch.siembol.common.utils.OverlayMap;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 /**
  * An object that evaluates events using alerting rules
  *
  * <p>This class implements AlertingEngine interface for evaluating events using standard alerting rules.
+ * It supports sampled profiling of the rules and their matchers.
+ * The normalised field values are cached during the evaluation of an event and shared by the matchers of all rules.
+ * The candidate rules of an event can be split into shards evaluated in parallel by a fork-join pool.
+ * The results of the matchers shared by the rules are memoised during the evaluation of an event.
+ * The evaluation time of a rule can be limited by a budget and the rules exceeding the budget repeatedly are disabled.
+ * The counters of the budget overruns are kept by the full rule name and they are preserved for the reused rules
+ * after updating the rules.
+ * The engine is used concurrently by the threads of the fork-join pool and by the threads that share a compiled engine,
+ * so the rules and their statistics of the adaptive order are thread safe.
  *
  * @author  Marian Novotny
  * @see AlertingEngine
  *
  */
 public class AlertingEngineImpl implements AlertingEngine {
+    private static final String WRONG_SAMPLING_INTERVAL = "Wrong profiling sampling interval: %d";
+    private static final String WRONG_EVALUATION_BUDGET = "Wrong evaluation budget: %d ms, max overruns: %d";
+    private static final String RULE_DISABLED_MSG =
+            "The rule %s was disabled after exceeding its evaluation budget %d times";
+    private static final String RULE_SKIPPED_MSG =
+            "The rule %s is disabled after exceeding its evaluation budget and it was not evaluated";
+    private static final int MIN_RULES_PER_SHARD = 16;
     private final String sourceField;
-    private final Map<String, List<Rule>> sourceToRulesTable;
-    private final List<Rule> allSourceRules;
+    private final Map<String, RulesIndex> sourceToRulesTable;
+    private final RulesIndex allSourceRules;
     private final List<Pair<String, Object>> outputFields;
+    private final List<Pair<String, Rule>> rules;
+    private volatile Map<Rule, RuleProfile> profiles;
+    private final Map<String, AtomicInteger> budgetOverruns = new HashMap<>();
+    private volatile ForkJoinPool evaluationPool;
+    private volatile long ruleBudgetNs = 0;
+    private volatile int maxBudgetOverruns;
 
     /**
      * Creates Alerting engine using builder pattern.
@@ -32,12 +60,16 @@ public class AlertingEngineImpl implements AlertingEngine {
         this.outputFields = builder.outputFields;
         this.sourceField = builder.sourceField;
         this.allSourceRules = builder.allSourceRules;
+        this.rules = builder.rules;
+        rules.forEach(x -> budgetOverruns.put(x.getRight().getFullRuleName(),
+                builder.budgetOverruns.getOrDefault(x.getRight().getFullRuleName(), new AtomicInteger())));
     }
 
     /**
      * Evaluates event using alerting rules and returns alerting result with
      * a matching result and additional attributes such as matching events or exceptions.
      * It returns matches of all rules.
+     * Rules are evaluated only if the event contains all fields required by rule matchers.
      *
      * @param event deserialized event as map of string to object
      * @return      alerting result after evaluation
@@ -52,13 +84,7 @@ public class AlertingEngineImpl implements AlertingEngine {
 
         List<Map<String, Object>> outputEvents = new ArrayList<>();
         List<Map<String, Object>> exceptionsEvents = new ArrayList<>();
-
-        List<Rule> sourceRules = sourceToRulesTable.get(sensor);
-        if (sourceRules != null) {
-            sourceRules.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
-        }
-
-        allSourceRules.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+        evaluateInternally(sourceToRulesTable.get(sensor), event, outputEvents, exceptionsEvents);
 
         AlertingAttributes attributes = new AlertingAttributes();
         attributes.setEvaluationResult(outputEvents.isEmpty()
@@ -76,6 +102,42 @@ public class AlertingEngineImpl implements AlertingEngine {
         return new AlertingResult(AlertingResult.StatusCode.OK, attributes);
     }
 
+    /**
+     * Evaluates a batch of events using alerting rules and adds their results into the alerting batch result.
+     * The events are grouped by their source type, so the rules of a source type are looked up once per group
+     * and evaluated on consecutive events. The events are still evaluated one by one, the fields are not
+     * extracted column-wise and the lowercased field values are reused only by the rules of the same event.
+     * The output and exception events are the same as evaluating the events one by one.
+     *
+     * @param events deserialized events as maps of string to object
+     * @param result alerting batch result with the same size as the batch
+     * @see         AlertingBatchResult
+     */
+    @Override
+    public void evaluate(List<Map<String, Object>> events, AlertingBatchResult result) {
+        Map<String, List<Integer>> sourceToEvents = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            Map<String, Object> event = events.get(i);
+            Object sensor = event != null ? event.get(sourceField) : null;
+            if (sensor instanceof String) {
+                sourceToEvents.computeIfAbsent((String) sensor, x -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Map<String, Object>> outputEvents = new ArrayList<>();
+        List<Map<String, Object>> exceptionsEvents = new ArrayList<>();
+        sourceToEvents.forEach((sensor, indices) -> {
+            RulesIndex sourceRules = sourceToRulesTable.get(sensor);
+            for (int index : indices) {
+                evaluateInternally(sourceRules, events.get(index), outputEvents, exceptionsEvents);
+                result.addOutputEvents(index, outputEvents);
+                result.addExceptionEvents(index, exceptionsEvents);
+                outputEvents.clear();
+                exceptionsEvents.clear();
+            }
+        });
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -84,8 +146,173 @@ public class AlertingEngineImpl implements AlertingEngine {
         return AlertingEngineType.SIEMBOL_ALERTS;
     }
 
+    /**
+     * {@inheritDoc}
+     * The profiles of the rules are created from scratch after setting the profiling.
+     *
+     * @throws IllegalArgumentException if the sampling interval is negative
+     */
+    @Override
+    public void setProfiling(int samplingInterval) {
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException(String.format(WRONG_SAMPLING_INTERVAL, samplingInterval));
+        }
+
+        if (samplingInterval == 0) {
+            profiles = null;
+            return;
+        }
+
+        Map<Rule, RuleProfile> current = new IdentityHashMap<>();
+        rules.forEach(x -> current.put(x.getRight(), new RuleProfile(x.getRight(), samplingInterval)));
+        profiles = current;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<EvaluationProfile> getProfile(boolean reset) {
+        Map<Rule, RuleProfile> current = profiles;
+        List<EvaluationProfile> ret = new ArrayList<>();
+        if (current != null) {
+            rules.forEach(x -> ret.add(current.get(x.getRight()).getProfile(reset)));
+        }
+        return ret;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The candidate rules of an event are split into contiguous shards of at least 16 rules,
+     * at most one shard per thread of the pool. The first shard is evaluated by the calling thread
+     * and the results of the shards are merged in the order of the shards.
+     * A lazily decoded event is fully decoded before evaluating the shards.
+     */
+    @Override
+    public void setEvaluationPool(ForkJoinPool evaluationPool) {
+        this.evaluationPool = evaluationPool;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The regular expression matchers of a rule are interrupted after exceeding the budget
+     * and the exception event of the rule is reported. The disabled rules are not evaluated and
+     * an exception event is reported instead of each skipped evaluation. A rule is enabled again
+     * after updating the rules only if its version is changed.
+     *
+     * @throws IllegalArgumentException if the budget is negative or the maximum number of overruns is not positive
+     */
+    @Override
+    public void setEvaluationBudget(int ruleBudgetMs, int maxBudgetOverruns) {
+        if (ruleBudgetMs < 0 || maxBudgetOverruns <= 0) {
+            throw new IllegalArgumentException(
+                    String.format(WRONG_EVALUATION_BUDGET, ruleBudgetMs, maxBudgetOverruns));
+        }
+
+        this.maxBudgetOverruns = maxBudgetOverruns;
+        this.ruleBudgetNs = TimeUnit.MILLISECONDS.toNanos(ruleBudgetMs);
+    }
+
+    /**
+     * Provides the rules of the engine.
+     * It is used by the compiler for reusing unchanged rules after updating the rules.
+     *
+     * @return list of pairs of source type and alerting rule
+     */
+    public List<Pair<String, Rule>> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Provides the counters of the budget overruns of the rules.
+     * It is used by the compiler for preserving the counters of the reused rules after updating the rules.
+     *
+     * @return map of full rule name to the number of its budget overruns
+     */
+    public Map<String, AtomicInteger> getBudgetOverruns() {
+        return Collections.unmodifiableMap(budgetOverruns);
+    }
+
+    private void evaluateInternally(RulesIndex sourceRules,
+                                    Map<String, Object> event,
+                                    List<Map<String, Object>> outputEvents,
+                                    List<Map<String, Object>> exceptionsEvents) {
+        SharedMatcher.EventScope scope = SharedMatcher.openScope(event);
+        try {
+            ForkJoinPool pool = evaluationPool;
+            if (pool != null && pool.getParallelism() > 1) {
+                List<Rule> candidates = new ArrayList<>();
+                if (sourceRules != null) {
+                    sourceRules.forEachCandidate(event, candidates::add);
+                }
+                allSourceRules.forEachCandidate(event, candidates::add);
+                evaluateShards(pool, scope, candidates, event, outputEvents, exceptionsEvents);
+                return;
+            }
+
+            if (sourceRules != null) {
+                sourceRules.forEachCandidate(event,
+                        x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+            }
+
+            allSourceRules.forEachCandidate(event,
+                    x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+        } finally {
+            SharedMatcher.closeScope(scope);
+            NormalisedValueCache.clear();
+        }
+    }
+
+    private void evaluateShards(ForkJoinPool pool,
+                                SharedMatcher.EventScope scope,
+                                List<Rule> candidates,
+                                Map<String, Object> event,
+                                List<Map<String, Object>> outputEvents,
+                                List<Map<String, Object>> exceptionsEvents) {
+        int numberOfShards = Math.min(pool.getParallelism(), candidates.size() / MIN_RULES_PER_SHARD);
+        if (numberOfShards <= 1) {
+            candidates.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+            return;
+        }
+
+        if (event instanceof LazyJsonMap) {
+            ((LazyJsonMap) event).materialize();
+        }
+
+        int shardSize = (candidates.size() + numberOfShards - 1) / numberOfShards;
+        List<ForkJoinTask<ShardResult>> tasks = new ArrayList<>(numberOfShards - 1);
+        for (int start = shardSize; start < candidates.size(); start += shardSize) {
+            List<Rule> shard = candidates.subList(start, Math.min(start + shardSize, candidates.size()));
+            tasks.add(pool.submit(() -> evaluateShard(shard, scope, event)));
+        }
+
+        candidates.subList(0, shardSize).forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+        for (ForkJoinTask<ShardResult> task : tasks) {
+            ShardResult shardResult = task.join();
+            outputEvents.addAll(shardResult.outputEvents);
+            exceptionsEvents.addAll(shardResult.exceptionsEvents);
+        }
+    }
+
+    private ShardResult evaluateShard(List<Rule> shard, SharedMatcher.EventScope scope, Map<String, Object> event) {
+        SharedMatcher.setScope(scope);
+        try {
+            ShardResult ret = new ShardResult();
+            shard.forEach(x -> evaluateRuleInternally(x, event, ret.outputEvents, ret.exceptionsEvents));
+            return ret;
+        } finally {
+            SharedMatcher.setScope(null);
+            NormalisedValueCache.clear();
+        }
+    }
+
+    private static class ShardResult {
+        private final List<Map<String, Object>> outputEvents = new ArrayList<>();
+        private final List<Map<String, Object>> exceptionsEvents = new ArrayList<>();
+    }
+
     private Map<String, Object> createEventFromRule(Rule rule, Map<String, Object> event) {
-        Map<String, Object> ret = new HashMap<>(event);
+        Map<String, Object> ret = new OverlayMap<>(event);
         ret.put(AlertingFields.RULE_NAME.getAlertingName(), rule.getRuleName());
         ret.put(AlertingFields.FULL_RULE_NAME.getAlertingName(), rule.getFullRuleName());
         return ret;
@@ -95,8 +322,23 @@ public class AlertingEngineImpl implements AlertingEngine {
                                         Map<String, Object> event,
                                         List<Map<String, Object>> outputEvents,
                                         List<Map<String, Object>> exceptionsEvents) {
+        long budgetNs = ruleBudgetNs;
+        AtomicInteger overruns = null;
+        if (budgetNs > 0) {
+            overruns = budgetOverruns.get(rule.getFullRuleName());
+            if (overruns.get() >= maxBudgetOverruns) {
+                addExceptionEvent(rule, event,
+                        String.format(RULE_SKIPPED_MSG, rule.getFullRuleName()), exceptionsEvents);
+                return;
+            }
+            EvaluationBudget.start(budgetNs);
+        }
+
         try {
-            AlertingResult result = rule.match(event);
+            Map<Rule, RuleProfile> currentProfiles = profiles;
+            AlertingResult result = currentProfiles == null
+                    ? rule.match(event)
+                    : matchWithProfile(rule, currentProfiles.get(rule), event);
             if (result.getAttributes().getEvaluationResult() != EvaluationResult.MATCH) {
                 return;
             }
@@ -106,11 +348,52 @@ public class AlertingEngineImpl implements AlertingEngine {
             outputFields.forEach(x -> outEvent.put(x.getKey(), x.getValue()));
             rule.addOutputFieldsToEvent(outEvent);
             outputEvents.add(outEvent);
+        } catch (EvaluationBudget.EvaluationBudgetExceededException e) {
+            int maxOverruns = maxBudgetOverruns;
+            Exception exception = overruns != null && overruns.incrementAndGet() == maxOverruns
+                    ? new IllegalStateException(
+                            String.format(RULE_DISABLED_MSG, rule.getFullRuleName(), maxOverruns), e)
+                    : e;
+            addExceptionEvent(rule, event, exception, exceptionsEvents);
         } catch (Exception e) {
-            Map<String, Object> outEvent = createEventFromRule(rule, event);
-            outEvent.put(AlertingFields.EXCEPTION.getAlertingName(), ExceptionUtils.getStackTrace(e));
-            exceptionsEvents.add(outEvent);
+            addExceptionEvent(rule, event, e, exceptionsEvents);
+        } finally {
+            if (overruns != null) {
+                EvaluationBudget.stop();
+            }
+        }
+    }
+
+    private void addExceptionEvent(Rule rule,
+                                   Map<String, Object> event,
+                                   Exception exception,
+                                   List<Map<String, Object>> exceptionsEvents) {
+        addExceptionEvent(rule, event, ExceptionUtils.getStackTrace(exception), exceptionsEvents);
+    }
+
+    private void addExceptionEvent(Rule rule,
+                                   Map<String, Object> event,
+                                   String exception,
+                                   List<Map<String, Object>> exceptionsEvents) {
+        Map<String, Object> outEvent = createEventFromRule(rule, event);
+        outEvent.put(AlertingFields.EXCEPTION.getAlertingName(), exception);
+        exceptionsEvents.add(outEvent);
+    }
+
+    private AlertingResult matchWithProfile(Rule rule, RuleProfile profile, Map<String, Object> event) {
+        AlertingResult result;
+        if (profile.addEvaluation()) {
+            long start = System.nanoTime();
+            result = rule.match(event, profile);
+            profile.addSample(System.nanoTime() - start);
+        } else {
+            result = rule.match(event);
+        }
+
+        if (result.getAttributes().getEvaluationResult() == EvaluationResult.MATCH) {
+            profile.addMatch();
         }
+        return result;
     }
 
     /**
@@ -126,11 +409,12 @@ public class AlertingEngineImpl implements AlertingEngine {
         private String sourceField = SiembolMessageFields.SENSOR_TYPE.toString();
         private String wildcardSource = "*";
         private List<Pair<String, Rule>> rules;
-        private Map<String, List<Rule>> sourceToRulesTable = new HashMap<>();
-        private List<Rule> allSourceRules = new ArrayList<>();
+        private Map<String, RulesIndex> sourceToRulesTable = new HashMap<>();
+        private RulesIndex allSourceRules;
         private List<Pair<String, String>> constants;
         private List<Pair<String, Object>> protections;
         private List<Pair<String, Object>> outputFields = new ArrayList<>();
+        private Map<String, AtomicInteger> budgetOverruns = new HashMap<>();
 
         /**
          * Sets source fields in builder with default value: `source_type`
@@ -188,6 +472,17 @@ public class AlertingEngineImpl implements AlertingEngine {
             return this;
         }
 
+        /**
+         * Sets the counters of the budget overruns of the reused rules from a previous engine
+         *
+         * @param budgetOverruns map of full rule name to the number of its budget overruns
+         * @return this builder
+         */
+        public Builder budgetOverruns(Map<String, AtomicInteger> budgetOverruns) {
+            this.budgetOverruns = budgetOverruns;
+            return this;
+        }
+
         /**
          * Builds the alerting engine
          *
@@ -205,20 +500,14 @@ public class AlertingEngineImpl implements AlertingEngine {
             constants.forEach(x -> outputFields.add(ImmutablePair.of(x.getLeft(), x.getRight())));
             protections.forEach(x -> outputFields.add(ImmutablePair.of(x.getLeft(), x.getRight())));
 
-            rules.forEach(x -> {
-                if (sourceToRulesTable.containsKey(x.getLeft())) {
-                    sourceToRulesTable.get(x.getLeft()).add(x.getRight());
-                } else {
-                    List<Rule> newList = new ArrayList<>();
-                    newList.add(x.getRight());
-                    sourceToRulesTable.put(x.getLeft(), newList);
-                }
-            });
+            Map<String, List<Rule>> sourceToRulesList = new HashMap<>();
+            rules.forEach(x -> sourceToRulesList.computeIfAbsent(x.getLeft(), y -> new ArrayList<>()).add(x.getRight()));
 
-            if (sourceToRulesTable.containsKey(wildcardSource)) {
-                allSourceRules = sourceToRulesTable.get(wildcardSource);
-                sourceToRulesTable.remove(wildcardSource);
-            }
+            List<Rule> allSourceRulesList = sourceToRulesList.containsKey(wildcardSource)
+                    ? sourceToRulesList.remove(wildcardSource)
+                    : new ArrayList<>();
+            allSourceRules = new RulesIndex(allSourceRulesList);
+            sourceToRulesList.forEach((key, value) -> sourceToRulesTable.put(key, new RulesIndex(value)));
 
             return new AlertingEngineImpl(this);
         }
@@ -1,7 +1,10 @@
 package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * An object for basic matching an event
@@ -21,6 +24,7 @@ public abstract class BasicMatcher implements Matcher {
     private final static String MISSING_FIELD_NAME = "Missing field name in a basic matcher";
     private final String fieldName;
     private final boolean isNegated;
+    private final double cost;
 
     /**
      * Creates basic matcher using builder pattern.
@@ -34,6 +38,7 @@ public abstract class BasicMatcher implements Matcher {
 
         this.fieldName = builder.fieldName;
         this.isNegated = builder.isNegated;
+        this.cost = builder.cost;
     }
 
     /**
@@ -75,6 +80,34 @@ public abstract class BasicMatcher implements Matcher {
         return isNegated;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Provides the name of the field in which the matcher is registered
+     *
+     * @return the name of the field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Provides the field of the matcher since the matcher can not match the event without the field.
+     * Negated matchers do not require any fields.
+     *
+     * @return the set with the field name if the matcher is not negated, otherwise an empty set
+     */
+    @Override
+    public Set<String> getRequiredFields() {
+        return isNegated ? Collections.emptySet() : Set.of(fieldName);
+    }
+
     /**
      * Abstract method to be implemented in derived classes. Evaluates fieldValue internally using event if necessary.
      * It returns matching statues without considering negated property.
@@ -96,8 +129,9 @@ public abstract class BasicMatcher implements Matcher {
      * @author  Marian Novotny
      */
     public static abstract class Builder<T extends BasicMatcher> {
-        private String fieldName;
+        protected String fieldName;
         private boolean isNegated = false;
+        private double cost = DEFAULT_COST;
 
         /**
          * Sets fieldName in builder
@@ -120,6 +154,17 @@ public abstract class BasicMatcher implements Matcher {
             this.isNegated = isNegated;
             return this;
         }
+
+        /**
+         * Sets the estimated cost of the matcher in builder
+         *
+         * @param cost the cost of the matcher relative to other matchers
+         * @return this builder
+         */
+        public Builder<T> cost(double cost) {
+            this.cost = cost;
+            return this;
+        }
         public abstract T build();
     }
 }
@@ -3,8 +3,11 @@ package uk.co.gresearch.siembol.alerts.engine;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.compiler.MatcherType;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -19,8 +22,11 @@ import java.util.function.Function;
  */
 public class CompositeMatcher implements Matcher {
     private final Function<Map<String, Object>, EvaluationResult> evaluationFunction;
+    private final MatcherType matcherType;
+    private final List<Matcher> matchers;
     private final boolean negated;
     private final boolean canModifyEvent;
+    private final Set<String> requiredFields;
 
     /**
      * Creates composite matcher using builder pattern.
@@ -29,8 +35,11 @@ public class CompositeMatcher implements Matcher {
      */
     public CompositeMatcher(Builder builder) {
         this.evaluationFunction = builder.evaluationFunction;
+        this.matcherType = builder.matcherType;
+        this.matchers = builder.matchers;
         this.negated = builder.negated;
         this.canModifyEvent = builder.canModifyEvent;
+        this.requiredFields = builder.requiredFields;
     }
     /**
      * Match the event and returns evaluation result.
@@ -62,6 +71,36 @@ public class CompositeMatcher implements Matcher {
         return negated;
     }
 
+    /**
+     * Provides fields required by underlying matchers.
+     * COMPOSITE_AND requires fields of all its matchers evaluated before a matcher that can modify the event,
+     * COMPOSITE_OR requires fields that are required by all its matchers.
+     *
+     * @return the set of required field names, an empty set if the matcher is negated
+     */
+    @Override
+    public Set<String> getRequiredFields() {
+        return requiredFields;
+    }
+
+    /**
+     * Provides the type of the composition
+     *
+     * @return COMPOSITE_OR or COMPOSITE_AND
+     */
+    MatcherType getMatcherType() {
+        return matcherType;
+    }
+
+    /**
+     * Provides the underlying matchers
+     *
+     * @return the list of matchers in the order of evaluation
+     */
+    List<Matcher> getMatchers() {
+        return matchers;
+    }
+
     /**
      * Creates Composite matcher builder instance.
      *
@@ -90,6 +129,7 @@ public class CompositeMatcher implements Matcher {
 
         return EvaluationResult.MATCH;
     }
+
     /**
      * A builder for composite matchers
      *
@@ -111,6 +151,7 @@ public class CompositeMatcher implements Matcher {
         private List<Matcher> matchers;
         private Function<Map<String, Object>, EvaluationResult> evaluationFunction;
         private boolean canModifyEvent;
+        private Set<String> requiredFields = Collections.emptySet();
 
         /**
          * Sets the matcher type for evaluating the composition
@@ -162,7 +203,13 @@ public class CompositeMatcher implements Matcher {
             }
 
             canModifyEvent = false;
-            matchers.forEach(x -> canModifyEvent |= x.canModifyEvent());
+            Set<String> requiredFieldsOfAll = new HashSet<>();
+            for (Matcher matcher : matchers) {
+                if (!canModifyEvent) {
+                    requiredFieldsOfAll.addAll(matcher.getRequiredFields());
+                }
+                canModifyEvent |= matcher.canModifyEvent();
+            }
 
             switch (matcherType) {
                 case COMPOSITE_OR:
@@ -170,12 +217,19 @@ public class CompositeMatcher implements Matcher {
                         throw new IllegalArgumentException(COMPOSITE_OR_MODIFY_EVENT_MSG);
                     }
                     evaluationFunction = x -> evaluateOr(matchers, x);
+                    if (!negated) {
+                        requiredFields = new HashSet<>(matchers.get(0).getRequiredFields());
+                        matchers.forEach(x -> requiredFields.retainAll(x.getRequiredFields()));
+                    }
                     break;
                 case COMPOSITE_AND:
                     if (negated && canModifyEvent) {
                         throw new IllegalArgumentException(COMPOSITE_AND_MODIFY_EVENT_MSG);
                     }
                     evaluationFunction = x -> evaluateAnd(matchers, x);
+                    if (!negated) {
+                        requiredFields = requiredFieldsOfAll;
+                    }
                     break;
                 default:
                     throw new IllegalArgumentException(WRONG_ARGUMENTS);
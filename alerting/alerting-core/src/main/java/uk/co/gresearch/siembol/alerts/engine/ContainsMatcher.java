@@ -2,6 +2,7 @@ package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
 
 import java.util.*;
 import java.util.function.BiPredicate;
@@ -25,9 +26,13 @@ public class ContainsMatcher extends BasicMatcher {
     }
 
     private final static String EMPTY_PATTERN_MSG = "Empty pattern in the Contains matcher";
+    private final static String WRONG_PATTERN_INDEX_MSG = "The pattern index is not compatible with the matcher";
     protected final EnumSet<Flags> flags;
     protected final String pattern;
+    protected final SubstitutionTemplate patternTemplate;
     protected final BiPredicate<String, String> checkPredicate;
+    protected final FieldPatternIndex patternIndex;
+    protected final int patternIndexSlot;
 
     /**
      * Creates contains matcher using builder pattern.
@@ -38,12 +43,18 @@ public class ContainsMatcher extends BasicMatcher {
         super(builder);
         this.flags = builder.flags;
         this.pattern = builder.pattern;
+        this.patternTemplate = builder.patternTemplate;
         this.checkPredicate = builder.checkPredicate;
+        this.patternIndex = builder.patternIndex;
+        this.patternIndexSlot = builder.patternIndexSlot;
     }
 
     /**
-     * Evaluates fieldValue internally using substring search. It substitutes the variables if needed.
+     * Evaluates fieldValue internally using substring search.
+     * It substitutes the variables using the pattern template compiled by the builder if needed.
      * it supports case-insensitive compare if specified and checks for starting or ending requirements if needed.
+     * A constant pattern registered in the field pattern index is evaluated by the index.
+     * The lowercase field value is shared with other matchers of the event by the normalised value cache.
      *
      * @param map event as map of string to object
      * @param fieldValue value of the field for matching
@@ -52,14 +63,19 @@ public class ContainsMatcher extends BasicMatcher {
      */
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, Object fieldValue) {
-        var fieldStringValue = fieldValue.toString();
+        if (patternIndex != null) {
+            return patternIndex.isMatched(fieldValue, patternIndexSlot)
+                    ? EvaluationResult.MATCH
+                    : EvaluationResult.NO_MATCH;
+        }
+
         var stringToCheck = flags.contains(Flags.CASE_INSENSITIVE)
-                ? fieldStringValue.toLowerCase()
-                : fieldStringValue;
+                ? NormalisedValueCache.toLowerCase(fieldValue)
+                : fieldValue.toString();
 
         String currentPattern = pattern;
         if (flags.contains(Flags.CONTAINS_VARIABLE)) {
-            var evaluatedPattern = EvaluationLibrary.substitute(map, pattern);
+            var evaluatedPattern = patternTemplate.substitute(map);
             if (evaluatedPattern.isEmpty()) {
                 return EvaluationResult.NO_MATCH;
             }
@@ -87,7 +103,9 @@ public class ContainsMatcher extends BasicMatcher {
                     throw new IllegalArgumentException(EMPTY_PATTERN_MSG);
                 }
 
-                if (flags.contains(Flags.CASE_INSENSITIVE) && !flags.contains(Flags.CONTAINS_VARIABLE)) {
+                if (flags.contains(Flags.CONTAINS_VARIABLE)) {
+                    patternTemplate = SubstitutionTemplate.compile(pattern);
+                } else if (flags.contains(Flags.CASE_INSENSITIVE)) {
                     pattern = pattern.toLowerCase();
                 }
 
@@ -96,6 +114,21 @@ public class ContainsMatcher extends BasicMatcher {
                         ? String::startsWith : flags.contains(Flags.ENDS_WITH)
                         ? String::endsWith : String::contains;
 
+                if (patternIndex != null) {
+                    if (!patternIndex.getFieldName().equals(fieldName)
+                            || patternIndex.isCaseInsensitive() != flags.contains(Flags.CASE_INSENSITIVE)) {
+                        throw new IllegalArgumentException(WRONG_PATTERN_INDEX_MSG);
+                    }
+
+                    if (flags.contains(Flags.CONTAINS_VARIABLE)) {
+                        patternIndex = null;
+                    } else {
+                        patternIndexSlot = patternIndex.addContainsPattern(pattern,
+                                flags.contains(Flags.STARTS_WITH),
+                                flags.contains(Flags.ENDS_WITH));
+                    }
+                }
+
                 return new ContainsMatcher(this);
             }
         };
@@ -113,7 +146,10 @@ public class ContainsMatcher extends BasicMatcher {
             extends BasicMatcher.Builder<T> {
         protected EnumSet<Flags> flags = EnumSet.noneOf(Flags.class);
         protected String pattern;
+        protected SubstitutionTemplate patternTemplate;
         protected BiPredicate<String, String> checkPredicate;
+        protected FieldPatternIndex patternIndex;
+        protected int patternIndexSlot;
 
         /**
          * Sets startsWith flag in builder
@@ -154,6 +190,19 @@ public class ContainsMatcher extends BasicMatcher {
             return this;
         }
 
+        /**
+         * Sets field pattern index in builder.
+         * The constant pattern is registered in the index and evaluated by the index.
+         * The index is not used if the pattern contains variables.
+         *
+         * @param patternIndex the pattern index of the field with the same case-insensitivity as the matcher
+         * @return this builder
+         */
+        public ContainsMatcher.Builder<T> patternIndex(FieldPatternIndex patternIndex) {
+            this.patternIndex = patternIndex;
+            return this;
+        }
+
         /**
          * Sets input string to search
          *
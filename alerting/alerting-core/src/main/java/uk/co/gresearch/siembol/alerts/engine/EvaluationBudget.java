@@ -0,0 +1,111 @@
+package uk.co.gresearch.siembol.alerts.engine;
+/**
+ * An object for enforcing the evaluation time budget of a rule
+ *
+ * <p>This class limits the evaluation time of a rule by a deadline set by the alerting engine
+ * before evaluating the rule. The field values matched by regular expressions are wrapped into a char sequence
+ * that counts the characters read by the regex engine and checks the deadline after a number of steps,
+ * so a catastrophically backtracking pattern is interrupted by an EvaluationBudgetExceededException.
+ * The budget is thread local and the values are not wrapped if the budget is not started.
+ *
+ * @author  Marian Novotny
+ * @see RegexMatcher
+ * @see AlertingEngineImpl
+ */
+public class EvaluationBudget {
+    private static final String BUDGET_EXCEEDED_MSG = "The evaluation budget of the rule %d ns was exceeded";
+    private static final int STEPS_BETWEEN_CHECKS = 1024;
+    private static final ThreadLocal<EvaluationBudget> BUDGET = ThreadLocal.withInitial(EvaluationBudget::new);
+
+    private boolean started = false;
+    private long budgetNs;
+    private long deadlineNs;
+    private int steps;
+
+    private EvaluationBudget() {
+    }
+
+    /**
+     * An exception thrown when the evaluation of a rule exceeds its budget
+     */
+    public static class EvaluationBudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        EvaluationBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Starts the budget of the current thread. It is called before evaluating a rule.
+     *
+     * @param budgetNs the evaluation budget of the rule in nanoseconds
+     */
+    static void start(long budgetNs) {
+        EvaluationBudget budget = BUDGET.get();
+        budget.started = true;
+        budget.budgetNs = budgetNs;
+        budget.deadlineNs = System.nanoTime() + budgetNs;
+        budget.steps = 0;
+    }
+
+    /**
+     * Stops the budget of the current thread. It is called after evaluating a rule.
+     */
+    static void stop() {
+        BUDGET.get().started = false;
+    }
+
+    /**
+     * Provides the char sequence of the field value for matching by a regular expression
+     *
+     * @param fieldValue the string value of a field
+     * @return the char sequence checking the budget if the budget is started, otherwise the field value
+     */
+    public static CharSequence getCharSequence(String fieldValue) {
+        EvaluationBudget budget = BUDGET.get();
+        return budget.started ? new BudgetedCharSequence(fieldValue, budget) : fieldValue;
+    }
+
+    private void step() {
+        if (++steps < STEPS_BETWEEN_CHECKS) {
+            return;
+        }
+
+        steps = 0;
+        if (started && System.nanoTime() - deadlineNs > 0) {
+            throw new EvaluationBudgetExceededException(String.format(BUDGET_EXCEEDED_MSG, budgetNs));
+        }
+    }
+
+    private static class BudgetedCharSequence implements CharSequence {
+        private final String value;
+        private final EvaluationBudget budget;
+
+        BudgetedCharSequence(String value, EvaluationBudget budget) {
+            this.value = value;
+            this.budget = budget;
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            budget.step();
+            return value.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedCharSequence(value.substring(start, end), budget);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.*;
+/**
+ * An object for matching constant patterns of multiple matchers registered in the same field
+ *
+ * <p>This class evaluates constant patterns of contains and is in set matchers in one pass over the field value.
+ * Contains patterns are searched by an Aho-Corasick automaton and words of sets are looked up in a hash map.
+ * Each registered pattern obtains a slot and the matcher reads its matching status from the slot.
+ * The result of the last evaluated value is reused so the matchers of all rules that evaluate the same field
+ * value of an event share one evaluation.
+ *
+ * <p>Patterns are registered during the compilation and the index needs to be built before matching.
+ *
+ * @author  Marian Novotny
+ * @see AhoCorasickAutomaton
+ * @see ContainsMatcher
+ * @see IsInSetMatcher
+ */
+public class FieldPatternIndex {
+    private static final String INDEX_NOT_BUILT_MSG = "Field pattern index of the field %s was not built";
+    private static final String INDEX_ALREADY_BUILT_MSG = "Field pattern index of the field %s is already built";
+
+    private enum PatternType {
+        CONTAINS,
+        STARTS_WITH,
+        ENDS_WITH,
+        EQUALS
+    }
+
+    private static class PatternSlot {
+        private final int slot;
+        private final PatternType type;
+
+        PatternSlot(int slot, PatternType type) {
+            this.slot = slot;
+            this.type = type;
+        }
+    }
+
+    private static class EvaluatedValue {
+        private final Object value;
+        private final BitSet matchedSlots;
+
+        EvaluatedValue(Object value, BitSet matchedSlots) {
+            this.value = value;
+            this.matchedSlots = matchedSlots;
+        }
+    }
+
+    private final String fieldName;
+    private final boolean caseInsensitive;
+    private final Map<String, List<PatternSlot>> patternSlots = new LinkedHashMap<>();
+    private final Map<String, List<Integer>> wordSlots = new HashMap<>();
+    private final BitSet emptyPatternSlots = new BitSet();
+    private final BitSet emptyValueSlots = new BitSet();
+    private int numberOfSlots = 0;
+
+    private AhoCorasickAutomaton automaton;
+    private PatternSlot[][] automatonSlots;
+    private int[] patternLengths;
+    private Map<String, int[]> words;
+    private volatile EvaluatedValue lastEvaluated;
+
+    /**
+     * Creates field pattern index
+     *
+     * @param fieldName the name of the field
+     * @param caseInsensitive the field value and patterns are compared case-insensitively
+     */
+    public FieldPatternIndex(String fieldName, boolean caseInsensitive) {
+        this.fieldName = fieldName;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Registers a contains pattern
+     *
+     * @param pattern constant pattern without variables
+     * @param startsWith the field value needs to start with the pattern
+     * @param endsWith the field value needs to end with the pattern
+     * @return the slot of the pattern
+     */
+    public int addContainsPattern(String pattern, boolean startsWith, boolean endsWith) {
+        checkNotBuilt();
+        int slot = numberOfSlots++;
+        String currentPattern = caseInsensitive ? pattern.toLowerCase() : pattern;
+        PatternType type = startsWith && endsWith ? PatternType.EQUALS
+                : startsWith ? PatternType.STARTS_WITH
+                : endsWith ? PatternType.ENDS_WITH
+                : PatternType.CONTAINS;
+
+        if (currentPattern.isEmpty()) {
+            (type == PatternType.EQUALS ? emptyValueSlots : emptyPatternSlots).set(slot);
+        } else {
+            patternSlots.computeIfAbsent(currentPattern, x -> new ArrayList<>()).add(new PatternSlot(slot, type));
+        }
+        return slot;
+    }
+
+    /**
+     * Registers a set of words
+     *
+     * @param words constant words without variables
+     * @return the slot of the set
+     */
+    public int addWords(Collection<String> words) {
+        checkNotBuilt();
+        int slot = numberOfSlots++;
+        for (String word : words) {
+            String currentWord = caseInsensitive ? word.toLowerCase() : word;
+            List<Integer> slots = wordSlots.computeIfAbsent(currentWord, x -> new ArrayList<>());
+            if (slots.isEmpty() || slots.get(slots.size() - 1) != slot) {
+                slots.add(slot);
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Builds the index after all patterns were registered
+     */
+    public void build() {
+        checkNotBuilt();
+        List<String> patterns = new ArrayList<>(patternSlots.keySet());
+        automatonSlots = new PatternSlot[patterns.size()][];
+        patternLengths = new int[patterns.size()];
+        for (int i = 0; i < patterns.size(); i++) {
+            automatonSlots[i] = patternSlots.get(patterns.get(i)).toArray(new PatternSlot[0]);
+            patternLengths[i] = patterns.get(i).length();
+        }
+        automaton = new AhoCorasickAutomaton(patterns);
+
+        Map<String, int[]> currentWords = new HashMap<>();
+        wordSlots.forEach((key, value) -> currentWords.put(key,
+                value.stream().mapToInt(Integer::intValue).toArray()));
+        words = currentWords;
+    }
+
+    /**
+     * Provides matching status of the slot for the field value
+     *
+     * @param fieldValue the value of the field
+     * @param slot the slot obtained during the registration of the pattern
+     * @return true if the pattern in the slot matches the field value, otherwise false
+     */
+    public boolean isMatched(Object fieldValue, int slot) {
+        return getMatchedSlots(fieldValue).get(slot);
+    }
+
+    /**
+     * Provides the name of the field
+     *
+     * @return the name of the field
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Provides information whether the index is case-insensitive
+     *
+     * @return true if the index is case-insensitive, otherwise false
+     */
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    private BitSet getMatchedSlots(Object fieldValue) {
+        EvaluatedValue current = lastEvaluated;
+        if (current != null && current.value == fieldValue) {
+            return current.matchedSlots;
+        }
+
+        BitSet matchedSlots = evaluate(caseInsensitive
+                ? NormalisedValueCache.toLowerCase(fieldValue)
+                : fieldValue.toString());
+        if (NormalisedValueCache.isImmutable(fieldValue)) {
+            lastEvaluated = new EvaluatedValue(fieldValue, matchedSlots);
+        }
+        return matchedSlots;
+    }
+
+    private BitSet evaluate(String value) {
+        if (automaton == null) {
+            throw new IllegalStateException(String.format(INDEX_NOT_BUILT_MSG, fieldName));
+        }
+
+        final BitSet ret = (BitSet) emptyPatternSlots.clone();
+        if (value.isEmpty()) {
+            ret.or(emptyValueSlots);
+        }
+
+        automaton.search(value, (patternId, end) -> {
+            for (PatternSlot patternSlot : automatonSlots[patternId]) {
+                if (ret.get(patternSlot.slot)) {
+                    continue;
+                }
+
+                switch (patternSlot.type) {
+                    case CONTAINS:
+                        ret.set(patternSlot.slot);
+                        break;
+                    case STARTS_WITH:
+                        if (end == patternLengths[patternId]) {
+                            ret.set(patternSlot.slot);
+                        }
+                        break;
+                    case ENDS_WITH:
+                        if (end == value.length()) {
+                            ret.set(patternSlot.slot);
+                        }
+                        break;
+                    case EQUALS:
+                        if (end == value.length() && end == patternLengths[patternId]) {
+                            ret.set(patternSlot.slot);
+                        }
+                        break;
+                }
+            }
+        });
+
+        int[] slots = words.get(value);
+        if (slots != null) {
+            for (int slot : slots) {
+                ret.set(slot);
+            }
+        }
+        return ret;
+    }
+
+    private void checkNotBuilt() {
+        if (automaton != null) {
+            throw new IllegalStateException(String.format(INDEX_ALREADY_BUILT_MSG, fieldName));
+        }
+    }
+}
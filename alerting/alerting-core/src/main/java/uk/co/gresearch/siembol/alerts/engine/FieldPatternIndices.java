@@ -0,0 +1,37 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.HashMap;
+import java.util.Map;
+/**
+ * An object for providing field pattern indices shared by all rules of an alerting engine
+ *
+ * <p>This class provides a field pattern index for a field and case-insensitivity.
+ * The indices are created during the compilation and built after all rules have been compiled.
+ *
+ * @author  Marian Novotny
+ * @see FieldPatternIndex
+ */
+public class FieldPatternIndices {
+    private final Map<Pair<String, Boolean>, FieldPatternIndex> indices = new HashMap<>();
+
+    /**
+     * Provides the index for the field. It creates the index if it does not exist.
+     *
+     * @param fieldName the name of the field
+     * @param caseInsensitive the field value and patterns are compared case-insensitively
+     * @return the field pattern index
+     */
+    public FieldPatternIndex getIndex(String fieldName, boolean caseInsensitive) {
+        return indices.computeIfAbsent(Pair.of(fieldName, caseInsensitive),
+                x -> new FieldPatternIndex(fieldName, caseInsensitive));
+    }
+
+    /**
+     * Builds all indices after all patterns were registered
+     */
+    public void build() {
+        indices.values().forEach(FieldPatternIndex::build);
+    }
+}
@@ -1,6 +1,7 @@
 package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 
 import java.util.*;
@@ -17,9 +18,12 @@ import java.util.stream.Collectors;
  */
 public class IsInSetMatcher extends BasicMatcher {
     private final static String EMPTY_SET_OF_STRING = "Empty constantStrings of string in the matcher";
+    private final static String WRONG_PATTERN_INDEX_MSG = "The pattern index is not compatible with the matcher";
     private final Set<String> constantStrings;
-    private final List<String> variableStrings;
+    private final List<SubstitutionTemplate> variableStrings;
     private final boolean caseInsensitiveCompare;
+    private final FieldPatternIndex patternIndex;
+    private final int patternIndexSlot;
 
     /**
      * Creates is in set matcher using builder pattern.
@@ -31,11 +35,16 @@ public class IsInSetMatcher extends BasicMatcher {
         this.constantStrings = builder.constantStrings;
         this.variableStrings = builder.variableStrings;
         this.caseInsensitiveCompare = builder.caseInsensitiveCompare;
+        this.patternIndex = builder.patternIndex;
+        this.patternIndexSlot = builder.patternIndexSlot;
     }
 
     /**
-     * Evaluates fieldValue internally using set of strings. It substitutes the variables if needed.
+     * Evaluates fieldValue internally using set of strings.
+     * It substitutes the variables using the templates compiled by the builder if needed.
      * it supports case-insensitive compare if specified.
+     * Constant strings registered in the field pattern index are evaluated by the index.
+     * The lowercase field value is shared with other matchers of the event by the normalised value cache.
      *
      * @param map event as map of string to object
      * @param fieldValue value of the field for matching
@@ -44,14 +53,21 @@ public class IsInSetMatcher extends BasicMatcher {
      */
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, Object fieldValue) {
-        var fieldStringValue = fieldValue.toString();
+        if (patternIndex != null && patternIndex.isMatched(fieldValue, patternIndexSlot)) {
+            return EvaluationResult.MATCH;
+        }
+
+        if (patternIndex != null && variableStrings.isEmpty()) {
+            return EvaluationResult.NO_MATCH;
+        }
+
         var stringToMatch = caseInsensitiveCompare
-                ? fieldStringValue.toLowerCase()
-                : fieldStringValue;
+                ? NormalisedValueCache.toLowerCase(fieldValue)
+                : fieldValue.toString();
 
         boolean matchedVariable = false;
-        for (String variableString : variableStrings) {
-            Optional<String> substituted = EvaluationLibrary.substitute(map, variableString);
+        for (SubstitutionTemplate variableString : variableStrings) {
+            Optional<String> substituted = variableString.substitute(map);
             if (substituted.isEmpty()) {
                 continue;
             }
@@ -87,9 +103,24 @@ public class IsInSetMatcher extends BasicMatcher {
                         .collect(Collectors.toCollection(HashSet::new));
 
                 variableStrings = words.stream()
-                        .filter(x -> !constantStrings.contains(x))
+                        .filter(EvaluationLibrary::containsVariables)
+                        .map(SubstitutionTemplate::compile)
                         .collect(Collectors.toList());
 
+                if (patternIndex != null) {
+                    if (!patternIndex.getFieldName().equals(fieldName)
+                            || patternIndex.isCaseInsensitive() != caseInsensitiveCompare) {
+                        throw new IllegalArgumentException(WRONG_PATTERN_INDEX_MSG);
+                    }
+
+                    if (constantStrings.isEmpty()) {
+                        patternIndex = null;
+                    } else {
+                        patternIndexSlot = patternIndex.addWords(constantStrings);
+                        constantStrings = Collections.emptySet();
+                    }
+                }
+
                 return new IsInSetMatcher(this);
             }
         };
@@ -109,7 +140,9 @@ public class IsInSetMatcher extends BasicMatcher {
         protected boolean caseInsensitiveCompare = false;
         protected List<String> words;
         protected Set<String> constantStrings;
-        protected List<String> variableStrings;
+        protected List<SubstitutionTemplate> variableStrings;
+        protected FieldPatternIndex patternIndex;
+        protected int patternIndexSlot;
 
         /**
          * Sets wordDelimiter in builder
@@ -133,6 +166,18 @@ public class IsInSetMatcher extends BasicMatcher {
             return this;
         }
 
+        /**
+         * Sets field pattern index in builder.
+         * The constant strings are registered in the index and evaluated by the index.
+         *
+         * @param patternIndex the pattern index of the field with the same case-insensitivity as the matcher
+         * @return this builder
+         */
+        public IsInSetMatcher.Builder<T> patternIndex(FieldPatternIndex patternIndex) {
+            this.patternIndex = patternIndex;
+            return this;
+        }
+
         /**
          * Sets words as one string in builder
          *
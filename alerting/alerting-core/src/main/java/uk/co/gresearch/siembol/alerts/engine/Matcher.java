@@ -2,7 +2,9 @@ package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * An object for matching an event
@@ -18,6 +20,8 @@ import java.util.Map;
  * @see CompositeMatcher
  */
 public interface Matcher {
+    double DEFAULT_COST = 1;
+
     /**
      * Matches the event and returns evaluation result.
      *
@@ -39,4 +43,23 @@ public interface Matcher {
      * @return true if the matcher is negated, otherwise false
      */
     boolean isNegated();
+    /**
+     * Provides names of fields that need to be present in the event in order to match.
+     * It is used for skipping matchers that can not match the event.
+     *
+     * @return the set of field names required by the matcher, or an empty set if unknown
+     */
+    default Set<String> getRequiredFields() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Provides the estimated cost of evaluating the matcher relative to other matchers.
+     * It is used for ordering the matchers so that cheap and selective matchers are evaluated first.
+     *
+     * @return the estimated cost of the matcher
+     */
+    default double getCost() {
+        return DEFAULT_COST;
+    }
 }
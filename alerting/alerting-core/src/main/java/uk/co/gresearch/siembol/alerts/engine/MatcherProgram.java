@@ -0,0 +1,374 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+import uk.co.gresearch.siembol.alerts.compiler.MatcherType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+/**
+ * An object for matching an event by a compiled program of matchers
+ *
+ * <p>This class compiles a list of matchers into a flat program of basic matching steps.
+ * Composite matchers and negations are compiled into jumps between the steps
+ * and the field lookups of basic matchers are inlined into the program.
+ * The steps are evaluated with the same short-circuit evaluation as the matchers,
+ * so the program provides the same result as evaluating the matchers.
+ *
+ * <p>The program can count the results of the steps on sampled evaluations and
+ * it can be reordered by using the counted selectivity and the estimated cost of the matchers.
+ * The reordered program evaluates cheap and selective matchers of a conjunction or a disjunction first.
+ * The matchers that can modify the event are never reordered and the other matchers are never moved
+ * across them, so the reordered program provides the same result as the original program.
+ * The program is evaluated concurrently by the threads that share the alerting engine,
+ * so the results of the steps are counted by atomic counters.
+ *
+ * @author  Marian Novotny
+ * @see Rule
+ * @see CompositeMatcher
+ * @see BasicMatcher
+ */
+public class MatcherProgram {
+    private static final String MATCH_METHOD = "match";
+    private static final String UNSUPPORTED_MATCHER_TYPE = "Unsupported composite matcher type: %s";
+    private static final String STEP_NAME_FORMAT = "%s%s(%s)";
+    private static final String NEGATED_STEP_PREFIX = "not ";
+    private static final int MATCH = -1;
+    private static final int NO_MATCH = -2;
+
+    private final List<Node> nodes;
+    private final Node[] leaves;
+    private final Matcher[] matchers;
+    private final BasicMatcher[] basicMatchers;
+    private final String[] fieldNames;
+    private final boolean[] negated;
+    private final int[] leafIndices;
+    private final int[] onMatch;
+    private final int[] onNoMatch;
+    private final int entry;
+    private final AtomicIntegerArray sampledEvaluations;
+    private final AtomicIntegerArray sampledMatches;
+    private final AtomicInteger samples = new AtomicInteger();
+
+    private static class Node {
+        private final Matcher matcher;
+        private final List<Node> children;
+        private final int leafIndex;
+        private long evaluations = 0;
+        private long matches = 0;
+        private double selectivity;
+        private double cost;
+
+        Node(Matcher matcher, List<Node> children, int leafIndex) {
+            this.matcher = matcher;
+            this.children = children;
+            this.leafIndex = leafIndex;
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        double getRank(boolean isAnd) {
+            double shortCircuited = isAnd ? 1 - selectivity : selectivity;
+            return cost / Math.max(shortCircuited, Double.MIN_NORMAL);
+        }
+    }
+
+    private static class Builder {
+        private final List<Node> nodes = new ArrayList<>();
+        private final List<Integer> onMatch = new ArrayList<>();
+        private final List<Integer> onNoMatch = new ArrayList<>();
+
+        private int compileAll(List<Node> nodes, boolean isAnd, int onMatch, int onNoMatch) {
+            int next = isAnd ? onMatch : onNoMatch;
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                next = isAnd
+                        ? compile(nodes.get(i), next, onNoMatch)
+                        : compile(nodes.get(i), onMatch, next);
+            }
+            return next;
+        }
+
+        private int compile(Node node, int onMatch, int onNoMatch) {
+            if (!node.isLeaf()) {
+                CompositeMatcher composite = (CompositeMatcher) node.matcher;
+                int compositeOnMatch = composite.isNegated() ? onNoMatch : onMatch;
+                int compositeOnNoMatch = composite.isNegated() ? onMatch : onNoMatch;
+                return compileAll(node.children,
+                        composite.getMatcherType() == MatcherType.COMPOSITE_AND,
+                        compositeOnMatch,
+                        compositeOnNoMatch);
+            }
+
+            this.nodes.add(node);
+            this.onMatch.add(onMatch);
+            this.onNoMatch.add(onNoMatch);
+            return this.nodes.size() - 1;
+        }
+    }
+
+    /**
+     * Compiles the program from the list of matchers that are all required to match
+     *
+     * @param matchers the list of matchers
+     */
+    public MatcherProgram(List<Matcher> matchers) {
+        this(createNodes(matchers), null);
+    }
+
+    private MatcherProgram(List<Node> nodes, Node[] leaves) {
+        this.nodes = nodes;
+        this.leaves = leaves != null ? leaves : getLeaves(nodes, new ArrayList<>()).toArray(new Node[0]);
+        Builder builder = new Builder();
+        entry = builder.compileAll(nodes, true, MATCH, NO_MATCH);
+
+        int size = builder.nodes.size();
+        matchers = new Matcher[size];
+        basicMatchers = new BasicMatcher[size];
+        fieldNames = new String[size];
+        negated = new boolean[size];
+        leafIndices = new int[size];
+        onMatch = new int[size];
+        onNoMatch = new int[size];
+        sampledEvaluations = new AtomicIntegerArray(size);
+        sampledMatches = new AtomicIntegerArray(size);
+
+        for (int i = 0; i < size; i++) {
+            matchers[i] = builder.nodes.get(i).matcher;
+            leafIndices[i] = builder.nodes.get(i).leafIndex;
+            onMatch[i] = builder.onMatch.get(i);
+            onNoMatch[i] = builder.onNoMatch.get(i);
+            if (isInlinedBasicMatcher(matchers[i])) {
+                basicMatchers[i] = (BasicMatcher) matchers[i];
+                fieldNames[i] = basicMatchers[i].getFieldName();
+                negated[i] = basicMatchers[i].isNegated();
+            }
+        }
+    }
+
+    /**
+     * Evaluates the program on the event
+     *
+     * @param event map of string to object
+     * @return EvaluationResult.MATCH if the matchers match the event, otherwise EvaluationResult.NO_MATCH
+     */
+    public EvaluationResult match(Map<String, Object> event) {
+        int current = entry;
+        while (current >= 0) {
+            current = matchStep(current, event) ? onMatch[current] : onNoMatch[current];
+        }
+
+        return current == MATCH ? EvaluationResult.MATCH : EvaluationResult.NO_MATCH;
+    }
+
+    /**
+     * Evaluates the program on the event and adds the evaluation time and the result of each step into the profile
+     *
+     * @param event map of string to object
+     * @param profile the profile of the rule
+     * @return EvaluationResult.MATCH if the matchers match the event, otherwise EvaluationResult.NO_MATCH
+     */
+    EvaluationResult match(Map<String, Object> event, RuleProfile profile) {
+        int current = entry;
+        while (current >= 0) {
+            long start = System.nanoTime();
+            boolean matched = matchStep(current, event);
+            profile.addMatcherSample(leafIndices[current], matched, System.nanoTime() - start);
+            current = matched ? onMatch[current] : onNoMatch[current];
+        }
+
+        return current == MATCH ? EvaluationResult.MATCH : EvaluationResult.NO_MATCH;
+    }
+
+    /**
+     * Evaluates the program on the event and counts the results of the steps for reordering the program.
+     * It can be called concurrently since the results are counted by atomic counters.
+     *
+     * @param event map of string to object
+     * @return EvaluationResult.MATCH if the matchers match the event, otherwise EvaluationResult.NO_MATCH
+     */
+    EvaluationResult matchAndCount(Map<String, Object> event) {
+        int current = entry;
+        while (current >= 0) {
+            boolean matched = matchStep(current, event);
+            sampledEvaluations.incrementAndGet(current);
+            if (matched) {
+                sampledMatches.incrementAndGet(current);
+            }
+            current = matched ? onMatch[current] : onNoMatch[current];
+        }
+
+        samples.incrementAndGet();
+        return current == MATCH ? EvaluationResult.MATCH : EvaluationResult.NO_MATCH;
+    }
+
+    /**
+     * Provides the number of the evaluations counted by the matchAndCount method
+     *
+     * @return the number of counted evaluations
+     */
+    int getSamples() {
+        return samples.get();
+    }
+
+    /**
+     * Creates a reordered program from the counted results of the steps and the estimated costs of the matchers.
+     * The counted results are added into the statistics shared by the reordered programs
+     * and the previously counted results are halved in order to adapt to changes of the events.
+     * It should not be called concurrently on programs compiled from the same matchers.
+     *
+     * @return the reordered program that provides the same results as this program
+     */
+    MatcherProgram reorder() {
+        for (int i = 0; i < matchers.length; i++) {
+            Node leaf = leaves[leafIndices[i]];
+            leaf.evaluations = leaf.evaluations / 2 + sampledEvaluations.get(i);
+            leaf.matches = leaf.matches / 2 + sampledMatches.get(i);
+        }
+
+        return new MatcherProgram(reorderAll(nodes, true), leaves);
+    }
+
+    /**
+     * Provides the number of basic steps in the program
+     *
+     * @return the number of steps
+     */
+    public int size() {
+        return matchers.length;
+    }
+
+    /**
+     * Provides the names of the basic matchers of the program in the order of the matchers in the rule
+     *
+     * @return the list of names that include the matcher class and the field name
+     */
+    public List<String> getMatcherNames() {
+        List<String> ret = new ArrayList<>(leaves.length);
+        for (Node leaf : leaves) {
+            Matcher matcher = leaf.matcher instanceof SharedMatcher
+                    ? ((SharedMatcher) leaf.matcher).getMatcher()
+                    : leaf.matcher;
+            ret.add(String.format(STEP_NAME_FORMAT,
+                    leaf.matcher.isNegated() ? NEGATED_STEP_PREFIX : "",
+                    matcher.getClass().getSimpleName(),
+                    matcher instanceof BasicMatcher ? ((BasicMatcher) matcher).getFieldName() : ""));
+        }
+        return ret;
+    }
+
+    /**
+     * Provides the order of evaluating the basic matchers
+     *
+     * @return the list of indices of the basic matchers in the rule ordered by their evaluation
+     */
+    List<Integer> getMatcherOrder() {
+        List<Integer> ret = new ArrayList<>(leaves.length);
+        getLeaves(nodes, new ArrayList<>()).forEach(x -> ret.add(x.leafIndex));
+        return ret;
+    }
+
+    private boolean matchStep(int current, Map<String, Object> event) {
+        if (basicMatchers[current] == null) {
+            return matchers[current].match(event) == EvaluationResult.MATCH;
+        }
+
+        Object fieldValue = event.get(fieldNames[current]);
+        boolean matched = fieldValue != null
+                && basicMatchers[current].matchInternally(event, fieldValue) == EvaluationResult.MATCH;
+        return matched ^ negated[current];
+    }
+
+    private static List<Node> reorderAll(List<Node> nodes, boolean isAnd) {
+        List<Node> ret = new ArrayList<>(nodes.size());
+        int segmentStart = 0;
+        for (Node node : nodes) {
+            Node current = reorder(node);
+            if (current.matcher.canModifyEvent()) {
+                sortSegment(ret.subList(segmentStart, ret.size()), isAnd);
+                segmentStart = ret.size() + 1;
+            }
+            ret.add(current);
+        }
+
+        sortSegment(ret.subList(segmentStart, ret.size()), isAnd);
+        return ret;
+    }
+
+    private static void sortSegment(List<Node> segment, boolean isAnd) {
+        segment.sort(Comparator.comparingDouble(x -> x.getRank(isAnd)));
+    }
+
+    private static Node reorder(Node node) {
+        if (node.isLeaf()) {
+            node.selectivity = (node.matches + 1.0) / (node.evaluations + 2.0);
+            node.cost = node.matcher.getCost();
+            return node;
+        }
+
+        CompositeMatcher composite = (CompositeMatcher) node.matcher;
+        boolean isAnd = composite.getMatcherType() == MatcherType.COMPOSITE_AND;
+        Node ret = new Node(node.matcher, reorderAll(node.children, isAnd), node.leafIndex);
+
+        double evaluated = 1;
+        ret.cost = 0;
+        for (Node child : ret.children) {
+            ret.cost += evaluated * child.cost;
+            evaluated *= isAnd ? child.selectivity : 1 - child.selectivity;
+        }
+
+        double selectivity = isAnd ? evaluated : 1 - evaluated;
+        ret.selectivity = composite.isNegated() ? 1 - selectivity : selectivity;
+        return ret;
+    }
+
+    private static List<Node> createNodes(List<Matcher> matchers) {
+        return createNodes(matchers, new int[1]);
+    }
+
+    private static List<Node> createNodes(List<Matcher> matchers, int[] leavesCount) {
+        List<Node> ret = new ArrayList<>(matchers.size());
+        for (Matcher matcher : matchers) {
+            if (!(matcher instanceof CompositeMatcher)) {
+                ret.add(new Node(matcher, null, leavesCount[0]++));
+                continue;
+            }
+
+            CompositeMatcher composite = (CompositeMatcher) matcher;
+            if (composite.getMatcherType() != MatcherType.COMPOSITE_AND
+                    && composite.getMatcherType() != MatcherType.COMPOSITE_OR) {
+                throw new IllegalArgumentException(String.format(UNSUPPORTED_MATCHER_TYPE,
+                        composite.getMatcherType()));
+            }
+            ret.add(new Node(matcher, createNodes(composite.getMatchers(), leavesCount), -1));
+        }
+        return ret;
+    }
+
+    private static List<Node> getLeaves(List<Node> nodes, List<Node> leaves) {
+        for (Node node : nodes) {
+            if (node.isLeaf()) {
+                leaves.add(node);
+            } else {
+                getLeaves(node.children, leaves);
+            }
+        }
+        return leaves;
+    }
+
+    private static boolean isInlinedBasicMatcher(Matcher matcher) {
+        if (!(matcher instanceof BasicMatcher)) {
+            return false;
+        }
+
+        try {
+            return matcher.getClass().getMethod(MATCH_METHOD, Map.class).getDeclaringClass() == BasicMatcher.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
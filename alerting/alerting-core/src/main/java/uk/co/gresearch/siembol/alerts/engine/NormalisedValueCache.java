@@ -0,0 +1,136 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+/**
+ * An object for caching normalised field values of the evaluated event
+ *
+ * <p>This class caches lowercase forms of field values for case-insensitive matchers
+ * and numbers parsed from string field values for numeric compare matchers,
+ * so the matchers of all rules that evaluate the same field value of an event share one conversion.
+ * The values are cached by their identity and only immutable values are cached.
+ * Parsed numbers are stored in primitive arrays indexed by the identity hash of the string,
+ * so reading them does not require any allocation.
+ * The cache is thread local and it is cleared in a finally block by every entry point that evaluates an event
+ * such as the alerting engine and the matching evaluator of the response,
+ * so the values of an event are not retained by the thread after its evaluation.
+ * The number of cached values is limited and the cache is cleared after reaching the limit.
+ *
+ * @author  Marian Novotny
+ * @see ContainsMatcher
+ * @see IsInSetMatcher
+ * @see FieldPatternIndex
+ * @see NumericCompareMatcher
+ * @see AlertingEngineImpl
+ */
+public class NormalisedValueCache {
+    private static final int MAX_CACHED_VALUES = 1024;
+    private static final int NUMBER_SLOTS = 256;
+    private static final int NUMBER_SLOTS_MASK = NUMBER_SLOTS - 1;
+    private static final ThreadLocal<NormalisedValueCache> CACHE = ThreadLocal.withInitial(NormalisedValueCache::new);
+
+    private final Map<Object, String> lowerCaseValues = new IdentityHashMap<>();
+    private final String[] numberKeys = new String[NUMBER_SLOTS];
+    private final double[] numberValues = new double[NUMBER_SLOTS];
+    private final boolean[] numberValid = new boolean[NUMBER_SLOTS];
+    private boolean numbersCached = false;
+
+    private NormalisedValueCache() {
+    }
+
+    /**
+     * Provides the lowercase string of the field value
+     *
+     * @param fieldValue the value of a field
+     * @return the lowercase string representation of the field value
+     */
+    public static String toLowerCase(Object fieldValue) {
+        return CACHE.get().getLowerCase(fieldValue);
+    }
+
+    /**
+     * Provides the information whether the string field value represents a number
+     *
+     * @param fieldValue the string value of a field
+     * @return true if the value can be parsed as a double, otherwise false
+     */
+    public static boolean isNumber(String fieldValue) {
+        NormalisedValueCache cache = CACHE.get();
+        return cache.numberValid[cache.parseNumber(fieldValue)];
+    }
+
+    /**
+     * Provides the number parsed from the string field value
+     *
+     * @param fieldValue the string value of a field
+     * @return the parsed number if the value represents a number, otherwise Double.NaN
+     */
+    public static double toDouble(String fieldValue) {
+        NormalisedValueCache cache = CACHE.get();
+        return cache.numberValues[cache.parseNumber(fieldValue)];
+    }
+
+    /**
+     * Clears the cached values of the current thread. It is called after evaluating an event.
+     */
+    public static void clear() {
+        CACHE.get().clearValues();
+    }
+
+    static boolean isEmpty() {
+        NormalisedValueCache cache = CACHE.get();
+        return cache.lowerCaseValues.isEmpty() && !cache.numbersCached;
+    }
+
+    static boolean isImmutable(Object value) {
+        return value instanceof String
+                || value instanceof Boolean
+                || value instanceof Integer
+                || value instanceof Long
+                || value instanceof Double;
+    }
+
+    private String getLowerCase(Object fieldValue) {
+        if (!isImmutable(fieldValue)) {
+            return fieldValue.toString().toLowerCase();
+        }
+
+        String ret = lowerCaseValues.get(fieldValue);
+        if (ret == null) {
+            if (lowerCaseValues.size() >= MAX_CACHED_VALUES) {
+                lowerCaseValues.clear();
+            }
+            ret = fieldValue.toString().toLowerCase();
+            lowerCaseValues.put(fieldValue, ret);
+        }
+        return ret;
+    }
+
+    private int parseNumber(String fieldValue) {
+        int slot = System.identityHashCode(fieldValue) & NUMBER_SLOTS_MASK;
+        if (numberKeys[slot] != fieldValue) {
+            numbersCached = true;
+            numberKeys[slot] = fieldValue;
+            try {
+                numberValues[slot] = Double.parseDouble(fieldValue);
+                numberValid[slot] = true;
+            } catch (NumberFormatException e) {
+                numberValues[slot] = Double.NaN;
+                numberValid[slot] = false;
+            }
+        }
+        return slot;
+    }
+
+    private void clearValues() {
+        if (!lowerCaseValues.isEmpty()) {
+            lowerCaseValues.clear();
+        }
+
+        if (numbersCached) {
+            Arrays.fill(numberKeys, null);
+            numbersCached = false;
+        }
+    }
+}
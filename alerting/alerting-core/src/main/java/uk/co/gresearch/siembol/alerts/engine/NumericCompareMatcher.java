@@ -2,10 +2,11 @@ package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
 
-import java.util.*;
+import java.util.Map;
 import java.util.function.BiPredicate;
-import java.util.function.Function;
+import java.util.function.IntPredicate;
 
 /**
  * An object for numeric comparing a field with an expression - a constant or other field in an event
@@ -20,8 +21,11 @@ import java.util.function.Function;
 public class NumericCompareMatcher extends BasicMatcher {
     private static final String MISSING_ARGUMENTS_MSG = "Missing attributes in NumericMatcher";
     private static final String WRONG_CONSTANT_FORMAT = "Can not convert %s into a number";
+    private final IntPredicate compareResultPredicate;
     private final BiPredicate<Double, Double> comparator;
-    private final Function<Map<String, Object>, Optional<Double>> valueSupplier;
+    private final double constant;
+    private final SubstitutionTemplate expressionTemplate;
+    private final String expressionField;
 
     /**
      * Creates numeric comparison matcher using builder pattern.
@@ -30,13 +34,18 @@ public class NumericCompareMatcher extends BasicMatcher {
      */
     private NumericCompareMatcher(NumericCompareMatcher.Builder<?> builder) {
         super(builder);
+        this.compareResultPredicate = builder.compareResultPredicate;
         this.comparator = builder.comparator;
-        this.valueSupplier = builder.valueSupplier;
+        this.constant = builder.constant;
+        this.expressionTemplate = builder.expressionTemplate;
+        this.expressionField = builder.expressionField;
     }
 
     /**
      * Interprets fieldValue as a number and compares it with an expression.
      * It substitutes the variable in expression if needed.
+     * Numbers are compared as primitive values and numbers parsed from string field values are shared
+     * with other matchers of the event by the normalised value cache.
      *
      * @param map event as map of string to object
      * @param fieldValue value of the field for matching
@@ -46,46 +55,49 @@ public class NumericCompareMatcher extends BasicMatcher {
      */
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, Object fieldValue) {
-        var doubleFieldValue = getDoubleFromObject(fieldValue);
-        if (doubleFieldValue.isEmpty()) {
+        if (!isNumber(fieldValue)) {
             return EvaluationResult.NO_MATCH;
         }
+        double doubleFieldValue = toDouble(fieldValue);
 
-        var valueToCompare = valueSupplier.apply(map);
-        if (valueToCompare.isEmpty()) {
-            return EvaluationResult.NO_MATCH;
+        double valueToCompare = constant;
+        if (expressionField != null) {
+            Object expressionValue = map.get(expressionField);
+            if (!isNumber(expressionValue)) {
+                return EvaluationResult.NO_MATCH;
+            }
+            valueToCompare = toDouble(expressionValue);
+        } else if (expressionTemplate != null) {
+            var substituted = expressionTemplate.substitute(map);
+            if (substituted.isEmpty() || !isNumber(substituted.get())) {
+                return EvaluationResult.NO_MATCH;
+            }
+            valueToCompare = toDouble(substituted.get());
         }
 
-        return comparator.test(doubleFieldValue.get(), valueToCompare.get())
+        return compare(doubleFieldValue, valueToCompare)
                 ? EvaluationResult.MATCH
                 : EvaluationResult.NO_MATCH;
     }
 
-    private static Optional<Double> getDoubleFromObject(Object obj) {
-        if (obj instanceof String) {
-            try {
-                var strValue = (String)obj;
-                return Optional.of(Double.valueOf(strValue));
-            } catch (Exception e) {
-                return Optional.empty();
-            }
-        }
+    private boolean compare(double fieldValue, double valueToCompare) {
+        return compareResultPredicate != null
+                ? compareResultPredicate.test(Double.compare(fieldValue, valueToCompare))
+                : comparator.test(fieldValue, valueToCompare);
+    }
 
-        if (obj instanceof Number) {
-            return Optional.of(((Number)obj).doubleValue());
+    private static boolean isNumber(Object obj) {
+        if (obj instanceof String) {
+            return NormalisedValueCache.isNumber((String)obj);
         }
 
-        return Optional.empty();
+        return obj instanceof Number;
     }
 
-    private static Optional<Double> getDoubleFromVariableExpression(Map<String, Object> map,
-                                                                    String expression) {
-        var substituted = EvaluationLibrary.substitute(map, expression);
-        if (substituted.isEmpty()) {
-            return Optional.empty();
-        }
-
-        return getDoubleFromObject(substituted.get());
+    private static double toDouble(Object obj) {
+        return obj instanceof String
+                ? NormalisedValueCache.toDouble((String)obj)
+                : ((Number)obj).doubleValue();
     }
 
     /**
@@ -97,19 +109,20 @@ public class NumericCompareMatcher extends BasicMatcher {
         return new NumericCompareMatcher.Builder<>() {
             @Override
             public NumericCompareMatcher build() {
-                if (expression == null || comparator == null) {
+                if (expression == null || (comparator == null && compareResultPredicate == null)) {
                     throw new IllegalArgumentException(MISSING_ARGUMENTS_MSG);
                 }
 
                 if (EvaluationLibrary.containsVariables(expression)) {
-                    valueSupplier = x -> getDoubleFromVariableExpression(x, expression);
+                    expressionTemplate = SubstitutionTemplate.compile(expression);
+                    expressionField = expressionTemplate.getSingleFieldName().orElse(null);
                 } else {
-                    final var constant = getDoubleFromObject(expression);
-                    if (constant.isEmpty()) {
+                    try {
+                        constant = Double.parseDouble(expression);
+                    } catch (NumberFormatException e) {
                         throw new IllegalArgumentException(
                                 String.format(WRONG_CONSTANT_FORMAT, expression));
                     }
-                    valueSupplier = x -> constant;
                 }
 
                 return new NumericCompareMatcher(this);
@@ -126,9 +139,12 @@ public class NumericCompareMatcher extends BasicMatcher {
      * @author  Marian Novotny
      */
     public static abstract class Builder<T extends NumericCompareMatcher> extends BasicMatcher.Builder<T> {
+        protected IntPredicate compareResultPredicate;
         protected BiPredicate<Double, Double> comparator;
-        protected Function<Map<String, Object>, Optional<Double>> valueSupplier;
         protected String expression;
+        protected double constant;
+        protected SubstitutionTemplate expressionTemplate;
+        protected String expressionField;
 
         /**
          * Sets a numeric comparator in builder
@@ -141,6 +157,18 @@ public class NumericCompareMatcher extends BasicMatcher {
             return this;
         }
 
+        /**
+         * Sets a predicate of the result of Double.compare in builder.
+         * It is used instead of the comparator and it compares primitive numbers without boxing them.
+         *
+         * @param compareResultPredicate predicate of the result of comparing the field value with the expression
+         * @return this builder
+         */
+        public NumericCompareMatcher.Builder<T> compareResultPredicate(IntPredicate compareResultPredicate) {
+            this.compareResultPredicate = compareResultPredicate;
+            return this;
+        }
+
         /**
          * Sets a numeric expression in builder
          *
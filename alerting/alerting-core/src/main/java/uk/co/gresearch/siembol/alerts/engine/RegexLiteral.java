@@ -0,0 +1,263 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+/**
+ * An object that represents a literal required by a regular expression
+ *
+ * <p>This class extracts a literal that needs to be contained in any string matched by a regular expression.
+ * The extraction is conservative and the literal is not provided if the pattern is not understood.
+ * Only the leading case-insensitive flag is supported, since other flags can change the meaning of the pattern.
+ * Case-insensitive literals contain only ASCII characters except the letter i,
+ * since lower case of other characters can depend on the locale or the context.
+ *
+ * @author  Marian Novotny
+ * @see RegexMatcher
+ * @see FieldPatternIndex
+ */
+public class RegexLiteral {
+    private static final String CASE_INSENSITIVE_FLAG = "(?i)";
+    private static final String LOCALE_DEPENDENT_CHARACTERS = "[iI\\x{80}-\\x{10FFFF}]";
+    private static final String QUOTE_START = "\\Q";
+    private static final String QUOTE_END = "\\E";
+    private static final String SIMPLE_ESCAPES = "dDsSwWbBAzZGhHvVRXtnrfae";
+    private static final int NOT_UNDERSTOOD = -1;
+
+    private final String literal;
+    private final boolean caseInsensitive;
+
+    private RegexLiteral(String literal, boolean caseInsensitive) {
+        this.literal = literal;
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Provides the required literal
+     *
+     * @return the literal that is contained in all matched strings
+     */
+    public String getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Provides information whether the literal is case-insensitive
+     *
+     * @return true if the literal should be searched case-insensitively, otherwise false
+     */
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * Extracts the longest literal required by the regular expression
+     *
+     * @param pattern regular expression
+     * @return the required literal if it was extracted, otherwise Optional.empty()
+     */
+    public static Optional<RegexLiteral> fromPattern(String pattern) {
+        boolean caseInsensitive = pattern.startsWith(CASE_INSENSITIVE_FLAG);
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int index = caseInsensitive ? CASE_INSENSITIVE_FLAG.length() : 0;
+
+        while (index < pattern.length()) {
+            String atomLiteral = null;
+            char c = pattern.charAt(index);
+            switch (c) {
+                case '(':
+                    index = isFlagsGroup(pattern, index) ? NOT_UNDERSTOOD : skipGroup(pattern, index);
+                    break;
+                case '[':
+                    index = skipClass(pattern, index);
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    index++;
+                    break;
+                case '\\':
+                    if (pattern.startsWith(QUOTE_START, index)) {
+                        int end = pattern.indexOf(QUOTE_END, index + QUOTE_START.length());
+                        end = end < 0 ? pattern.length() : end;
+                        atomLiteral = pattern.substring(index + QUOTE_START.length(), end);
+                        index = Math.min(end + QUOTE_END.length(), pattern.length());
+                    } else if (index + 1 < pattern.length()) {
+                        char escaped = pattern.charAt(index + 1);
+                        if (escaped < 128 && !Character.isLetterOrDigit(escaped)) {
+                            atomLiteral = String.valueOf(escaped);
+                            index += 2;
+                        } else {
+                            index = isSimpleEscape(pattern, index) ? index + 2 : NOT_UNDERSTOOD;
+                        }
+                    } else {
+                        index = NOT_UNDERSTOOD;
+                    }
+                    break;
+                case '|':
+                case ')':
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    index = NOT_UNDERSTOOD;
+                    break;
+                default:
+                    int codePoint = pattern.codePointAt(index);
+                    atomLiteral = new String(Character.toChars(codePoint));
+                    index += Character.charCount(codePoint);
+            }
+
+            if (index == NOT_UNDERSTOOD) {
+                return Optional.empty();
+            }
+
+            boolean quantified = false;
+            boolean required = true;
+            if (index < pattern.length() && isQuantifier(pattern, index)) {
+                quantified = true;
+                required = isRequired(pattern, index);
+                index = skipQuantifier(pattern, index);
+            }
+
+            if (atomLiteral == null) {
+                addLiteral(literals, current);
+            } else if (!quantified) {
+                current.append(atomLiteral);
+            } else if (atomLiteral.isEmpty()) {
+                return Optional.empty();
+            } else {
+                //NOTE: the quantifier is applied on the last code point of the literal
+                int lastCodePoint = atomLiteral.offsetByCodePoints(atomLiteral.length(), -1);
+                current.append(atomLiteral, 0, required ? atomLiteral.length() : lastCodePoint);
+                addLiteral(literals, current);
+            }
+        }
+        addLiteral(literals, current);
+
+        Optional<String> longest = literals.stream()
+                .flatMap(x -> caseInsensitive
+                        ? List.of(x.split(LOCALE_DEPENDENT_CHARACTERS, -1)).stream()
+                        : List.of(x).stream())
+                .filter(x -> !x.isEmpty())
+                .max(Comparator.comparingInt(String::length));
+        return longest.map(x -> new RegexLiteral(x, caseInsensitive));
+    }
+
+    private static void addLiteral(List<String> literals, StringBuilder current) {
+        if (current.length() > 0) {
+            literals.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isSimpleEscape(String pattern, int index) {
+        char escaped = pattern.charAt(index + 1);
+        if (escaped == 'b' && pattern.startsWith("{", index + 2)) {
+            return false;
+        }
+        return SIMPLE_ESCAPES.indexOf(escaped) >= 0;
+    }
+
+    private static boolean isQuantifier(String pattern, int index) {
+        char c = pattern.charAt(index);
+        return c == '*' || c == '?' || c == '+' || c == '{';
+    }
+
+    private static boolean isRequired(String pattern, int index) {
+        switch (pattern.charAt(index)) {
+            case '*':
+            case '?':
+                return false;
+            case '+':
+                return true;
+            default:
+                int end = pattern.indexOf('}', index);
+                String min = pattern.substring(index + 1, end).split(",", -1)[0].trim();
+                return Integer.parseInt(min) > 0;
+        }
+    }
+
+    private static int skipQuantifier(String pattern, int index) {
+        index = pattern.charAt(index) == '{' ? pattern.indexOf('}', index) + 1 : index + 1;
+        if (index < pattern.length() && (pattern.charAt(index) == '?' || pattern.charAt(index) == '+')) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isFlagsGroup(String pattern, int index) {
+        if (!pattern.startsWith("(?", index)) {
+            return false;
+        }
+
+        for (int i = index + 2; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == ')') {
+                return true;
+            }
+            if (!Character.isLetter(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipQuote(String pattern, int index) {
+        int end = pattern.indexOf(QUOTE_END, index + QUOTE_START.length());
+        return end < 0 ? pattern.length() : end + QUOTE_END.length();
+    }
+
+    private static int skipGroup(String pattern, int index) {
+        int depth = 0;
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == '\\') {
+                index = pattern.startsWith(QUOTE_START, index) ? skipQuote(pattern, index) : index + 2;
+                continue;
+            }
+
+            if (c == '[') {
+                index = skipClass(pattern, index);
+                continue;
+            }
+
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return index + 1;
+            }
+            index++;
+        }
+        return NOT_UNDERSTOOD;
+    }
+
+    private static int skipClass(String pattern, int index) {
+        int depth = 0;
+        index++;
+        if (index < pattern.length() && pattern.charAt(index) == '^') {
+            index++;
+        }
+        if (index < pattern.length() && pattern.charAt(index) == ']') {
+            index++;
+        }
+
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == '\\') {
+                index = pattern.startsWith(QUOTE_START, index) ? skipQuote(pattern, index) : index + 2;
+                continue;
+            }
+
+            if (c == '[') {
+                depth++;
+            } else if (c == ']' && depth-- == 0) {
+                return index + 1;
+            }
+            index++;
+        }
+        return NOT_UNDERSTOOD;
+    }
+}
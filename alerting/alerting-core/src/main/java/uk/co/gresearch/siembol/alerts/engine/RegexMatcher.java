@@ -12,6 +12,7 @@ import java.util.regex.Pattern;
  *
  * @author  Marian Novotny
  * @see BasicMatcher
+ * @see EvaluationBudget
  */
 public class RegexMatcher extends BasicMatcher {
     private static final String EMPTY_PATTERN = "Empty pattern";
@@ -22,6 +23,8 @@ public class RegexMatcher extends BasicMatcher {
 
     private final Pattern pattern;
     private final List<String> variableNames;
+    private final FieldPatternIndex patternIndex;
+    private final int patternIndexSlot;
 
     /**
      * Creates regex matcher using builder pattern.
@@ -32,6 +35,8 @@ public class RegexMatcher extends BasicMatcher {
         super(builder);
         this.pattern = builder.pattern;
         this.variableNames = builder.variableNames;
+        this.patternIndex = builder.patternIndex;
+        this.patternIndexSlot = builder.patternIndexSlot;
     }
 
     /**
@@ -47,6 +52,8 @@ public class RegexMatcher extends BasicMatcher {
 
     /**
      * Evaluates fieldValue internally using pattern. It puts extracted fields if the pattern contains named groups.
+     * The pattern is not evaluated if the field value does not contain the literal required by the pattern.
+     * The matching is interrupted if the evaluation budget of the rule is exceeded.
      *
      * @param map event as map of string to object
      * @param fieldValue value of the field for matching
@@ -55,8 +62,12 @@ public class RegexMatcher extends BasicMatcher {
      */
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, Object fieldValue) {
+        if (patternIndex != null && !patternIndex.isMatched(fieldValue, patternIndexSlot)) {
+            return EvaluationResult.NO_MATCH;
+        }
+
         var fieldStringValue = fieldValue.toString();
-        Matcher matcher = pattern.matcher(fieldStringValue);
+        Matcher matcher = pattern.matcher(EvaluationBudget.getCharSequence(fieldStringValue));
         if (!matcher.matches()) {
             return EvaluationResult.NO_MATCH;
         }
@@ -82,6 +93,15 @@ public class RegexMatcher extends BasicMatcher {
                 if (pattern == null || variableNames == null) {
                     throw new IllegalArgumentException(EMPTY_PATTERN);
                 }
+
+                if (patternIndices != null) {
+                    Optional<RegexLiteral> literal = RegexLiteral.fromPattern(pattern.pattern());
+                    if (literal.isPresent()) {
+                        patternIndex = patternIndices.getIndex(fieldName, literal.get().isCaseInsensitive());
+                        patternIndexSlot = patternIndex.addContainsPattern(literal.get().getLiteral(),
+                                false, false);
+                    }
+                }
                 return new RegexMatcher(this);
             }
         };
@@ -99,6 +119,22 @@ public class RegexMatcher extends BasicMatcher {
             extends BasicMatcher.Builder<T> {
         protected Pattern pattern;
         protected List<String> variableNames;
+        protected FieldPatternIndices patternIndices;
+        protected FieldPatternIndex patternIndex;
+        protected int patternIndexSlot;
+
+        /**
+         * Sets field pattern indices in builder.
+         * A literal required by the pattern is registered in the index of the field
+         * and the pattern is evaluated only if the field value contains the literal.
+         *
+         * @param patternIndices field pattern indices shared by the rules
+         * @return this builder
+         */
+        public RegexMatcher.Builder<T> patternIndices(FieldPatternIndices patternIndices) {
+            this.patternIndices = patternIndices;
+            return this;
+        }
 
         /**
          * Compiles pattern from string in builder. Renames named groups since regular expression supports
@@ -2,12 +2,16 @@ package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.common.utils.OverlayMap;
+
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 /**
  * An object for alerting rule
  *
- * <p>This derived class of AbstractRule is implementing a standard alerting rule
- *
+ * <p>This derived class of AbstractRule is implementing a standard alerting rule.
+ * The rule can be evaluated concurrently by the threads that share the alerting engine,
+ * so the counters of the adaptive order are atomic and the program is replaced atomically.
  *
  * @author  Marian Novotny
  * @see AbstractRule
@@ -15,11 +19,21 @@ import java.util.*;
 public class Rule extends AbstractRule {
     public enum RuleFlags {
         CAN_MODIFY_EVENT,
+        VERIFY_PROGRAM,
+        ADAPTIVE_ORDER,
     }
 
     private static final String RULE_MATCH_FORMAT_STR = "Rule: %s matches with the event:";
+    private static final String PROGRAM_MISMATCH_MSG = "The compiled program of the rule %s " +
+            "provides a different result than its matchers";
+    private static final int ADAPTIVE_SAMPLING_MASK = 0xF;
+    private static final int ADAPTIVE_REORDER_SAMPLES = 1024;
     private final List<Matcher> matchers;
+    private volatile MatcherProgram program;
+    private final AtomicInteger evaluations = new AtomicInteger();
     private final EnumSet<RuleFlags> flags;
+    private final Set<String> requiredFields;
+    private final String definition;
 
     /**
      * Creates rule using builder pattern.
@@ -29,13 +43,20 @@ public class Rule extends AbstractRule {
     protected Rule(Builder<?> builder) {
         super(builder);
         this.matchers = builder.matchers;
+        this.program = builder.program;
         this.flags = builder.flags;
+        this.requiredFields = builder.requiredFields;
+        this.definition = builder.definition;
     }
 
     /**
      * Evaluates the rule by calling underlying matchers - all matchers are required to match to return MATCH result.
+     * The matchers are evaluated by the program compiled from the matchers.
+     * If the adaptive order is enabled, the results of the matchers are counted on every 16th evaluation
+     * and the program is reordered after counting 1024 evaluations.
      * It includes the matching result with attributes in alerting result.
-     * It creates a copy of the event if the rule can modify the event during the evaluation.
+     * It creates a copy-on-write overlay of the event if the rule can modify the event during the evaluation.
+     * It verifies that the program provides the same result as the matchers if the verification is enabled.
      *
      * @param event map of string to object
      * @return alerting result after evaluation
@@ -44,12 +65,40 @@ public class Rule extends AbstractRule {
      */
     @Override
     public AlertingResult match(Map<String, Object> event) {
-        Map<String, Object> current = canModifyEvent() ? new HashMap<>(event) : event;
-        for (Matcher matcher : matchers) {
-            EvaluationResult result = matcher.match(current);
-            if (result == EvaluationResult.NO_MATCH) {
-                return AlertingResult.fromEvaluationResult(EvaluationResult.NO_MATCH, current);
+        return matchInternally(event, null);
+    }
+
+    /**
+     * Evaluates the rule as the match method and adds the evaluation of matchers into the rule profile
+     *
+     * @param event map of string to object
+     * @param profile the profile of the rule
+     * @return alerting result after evaluation
+     */
+    AlertingResult match(Map<String, Object> event, RuleProfile profile) {
+        return matchInternally(event, profile);
+    }
+
+    private AlertingResult matchInternally(Map<String, Object> event, RuleProfile profile) {
+        Map<String, Object> current = canModifyEvent() ? new OverlayMap<>(event) : event;
+        MatcherProgram currentProgram = program;
+        EvaluationResult result;
+        if (profile != null) {
+            result = currentProgram.match(current, profile);
+        } else if (flags.contains(RuleFlags.ADAPTIVE_ORDER) && (evaluations.incrementAndGet() & ADAPTIVE_SAMPLING_MASK) == 0) {
+            result = currentProgram.matchAndCount(current);
+            if (currentProgram.getSamples() >= ADAPTIVE_REORDER_SAMPLES) {
+                reorderProgram(currentProgram);
             }
+        } else {
+            result = currentProgram.match(current);
+        }
+        if (flags.contains(RuleFlags.VERIFY_PROGRAM)) {
+            verifyProgram(event, current, result);
+        }
+
+        if (result == EvaluationResult.NO_MATCH) {
+            return AlertingResult.fromEvaluationResult(EvaluationResult.NO_MATCH, current);
         }
 
         if (logger.isActive()) {
@@ -60,6 +109,29 @@ public class Rule extends AbstractRule {
         return AlertingResult.fromEvaluationResult(EvaluationResult.MATCH, current);
     }
 
+    private synchronized void reorderProgram(MatcherProgram currentProgram) {
+        if (program == currentProgram) {
+            program = currentProgram.reorder();
+        }
+    }
+
+    private void verifyProgram(Map<String, Object> event,
+                               Map<String, Object> programEvent,
+                               EvaluationResult programResult) {
+        Map<String, Object> current = new HashMap<>(event);
+        EvaluationResult result = EvaluationResult.MATCH;
+        for (Matcher matcher : matchers) {
+            if (matcher.match(current) == EvaluationResult.NO_MATCH) {
+                result = EvaluationResult.NO_MATCH;
+                break;
+            }
+        }
+
+        if (result != programResult || !current.equals(programEvent)) {
+            throw new IllegalStateException(String.format(PROGRAM_MISMATCH_MSG, getFullRuleName()));
+        }
+    }
+
     /**
      * Provides information whether the rule can modify the event during evaluation.
      * It is used by match method
@@ -70,6 +142,35 @@ public class Rule extends AbstractRule {
         return flags.contains(RuleFlags.CAN_MODIFY_EVENT);
     }
 
+    /**
+     * Provides fields that need to be present in the event in order to match the rule.
+     * It is used by the alerting engine for skipping rules that can not match the event.
+     *
+     * @return the set of field names required by the rule matchers
+     */
+    public Set<String> getRequiredFields() {
+        return requiredFields;
+    }
+
+    /**
+     * Provides the program compiled from the matchers of the rule
+     *
+     * @return the matcher program
+     */
+    MatcherProgram getProgram() {
+        return program;
+    }
+
+    /**
+     * Provides the definition of the rule that was used for compiling the rule.
+     * It is used by the compiler for detecting whether the rule was changed.
+     *
+     * @return the definition of the rule or null if it was not provided
+     */
+    public String getDefinition() {
+        return definition;
+    }
+
     /**
      * A builder for an alerting rule
      *
@@ -82,7 +183,10 @@ public class Rule extends AbstractRule {
         protected static final String MISSING_MATCHERS = "Empty matchers in a rule";
         protected static final String NEGATED_MATCHERS_ONLY = "The rule contains negated matchers only";
         protected List<Matcher> matchers;
+        protected MatcherProgram program;
         protected EnumSet<RuleFlags> flags = EnumSet.noneOf(RuleFlags.class);
+        protected Set<String> requiredFields;
+        protected String definition;
 
         /**
          * Sets the list of matchers
@@ -107,13 +211,28 @@ public class Rule extends AbstractRule {
             return this;
         }
 
+        /**
+         * Sets the definition of the rule
+         *
+         * @param definition serialized definition of the rule used for compiling the rule
+         * @return this builder
+         */
+        public Builder<T> definition(String definition) {
+            this.definition = definition;
+            return this;
+        }
+
         protected void prepareBuild() {
             if (matchers == null || matchers.isEmpty()) {
                 throw new IllegalArgumentException(MISSING_MATCHERS);
             }
 
             boolean allNegatedMatchers = true;
+            requiredFields = new HashSet<>();
             for (Matcher matcher : matchers) {
+                if (!flags.contains(RuleFlags.CAN_MODIFY_EVENT)) {
+                    requiredFields.addAll(matcher.getRequiredFields());
+                }
                 if (matcher.canModifyEvent()) {
                     flags.add(RuleFlags.CAN_MODIFY_EVENT);
                 }
@@ -122,6 +241,8 @@ public class Rule extends AbstractRule {
             if (allNegatedMatchers) {
                 throw new IllegalArgumentException(NEGATED_MATCHERS_ONLY);
             }
+
+            program = new MatcherProgram(matchers);
         }
     }
 
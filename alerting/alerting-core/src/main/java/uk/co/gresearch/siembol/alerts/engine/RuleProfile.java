@@ -0,0 +1,97 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import uk.co.gresearch.siembol.alerts.common.EvaluationProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * An object for profiling evaluations of an alerting rule
+ *
+ * <p>This class counts evaluations and matches of a rule.
+ * Every n-th evaluation of the rule is sampled and the evaluation time of the rule
+ * and the evaluation counts, matches and the evaluation time of its basic matchers are measured.
+ * It is thread safe.
+ *
+ * @author  Marian Novotny
+ * @see AlertingEngineImpl
+ * @see MatcherProgram
+ */
+class RuleProfile {
+    private final String ruleName;
+    private final List<String> matcherNames;
+    private final int samplingInterval;
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong matches = new AtomicLong();
+    private final AtomicLong sampledEvaluations = new AtomicLong();
+    private final AtomicLong sampledTimeNs = new AtomicLong();
+    private final AtomicLongArray matcherEvaluations;
+    private final AtomicLongArray matcherMatches;
+    private final AtomicLongArray matcherTimeNs;
+
+    RuleProfile(Rule rule, int samplingInterval) {
+        this.ruleName = rule.getFullRuleName();
+        this.matcherNames = rule.getProgram().getMatcherNames();
+        this.samplingInterval = samplingInterval;
+        matcherEvaluations = new AtomicLongArray(matcherNames.size());
+        matcherMatches = new AtomicLongArray(matcherNames.size());
+        matcherTimeNs = new AtomicLongArray(matcherNames.size());
+    }
+
+    /**
+     * Counts an evaluation of the rule
+     *
+     * @return true if the evaluation should be sampled, otherwise false
+     */
+    boolean addEvaluation() {
+        return evaluations.incrementAndGet() % samplingInterval == 0;
+    }
+
+    void addMatch() {
+        matches.incrementAndGet();
+    }
+
+    void addSample(long timeNs) {
+        sampledEvaluations.incrementAndGet();
+        sampledTimeNs.addAndGet(timeNs);
+    }
+
+    void addMatcherSample(int index, boolean matched, long timeNs) {
+        matcherEvaluations.incrementAndGet(index);
+        if (matched) {
+            matcherMatches.incrementAndGet(index);
+        }
+        matcherTimeNs.addAndGet(index, timeNs);
+    }
+
+    /**
+     * Provides the evaluation profile of the rule and its matchers.
+     * The profiles of the matchers are provided in the order of the matchers in the rule.
+     *
+     * @param reset if true the profile is reset after providing it
+     * @return the evaluation profile of the rule
+     */
+    EvaluationProfile getProfile(boolean reset) {
+        EvaluationProfile ret = new EvaluationProfile();
+        ret.setName(ruleName);
+        ret.setEvaluations(reset ? evaluations.getAndSet(0) : evaluations.get());
+        ret.setMatches(reset ? matches.getAndSet(0) : matches.get());
+        ret.setSampledEvaluations(reset ? sampledEvaluations.getAndSet(0) : sampledEvaluations.get());
+        ret.setSampledTimeNs(reset ? sampledTimeNs.getAndSet(0) : sampledTimeNs.get());
+
+        List<EvaluationProfile> matchers = new ArrayList<>(matcherNames.size());
+        for (int i = 0; i < matcherNames.size(); i++) {
+            EvaluationProfile matcher = new EvaluationProfile();
+            matcher.setName(matcherNames.get(i));
+            long current = reset ? matcherEvaluations.getAndSet(i, 0) : matcherEvaluations.get(i);
+            matcher.setEvaluations(current);
+            matcher.setSampledEvaluations(current);
+            matcher.setMatches(reset ? matcherMatches.getAndSet(i, 0) : matcherMatches.get(i));
+            matcher.setSampledTimeNs(reset ? matcherTimeNs.getAndSet(i, 0) : matcherTimeNs.get(i));
+            matchers.add(matcher);
+        }
+        ret.setMatchers(matchers);
+        return ret;
+    }
+}
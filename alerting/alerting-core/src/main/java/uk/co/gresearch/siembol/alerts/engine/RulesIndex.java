@@ -0,0 +1,118 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.*;
+import java.util.function.Consumer;
+/**
+ * An object for selecting alerting rules that can match an event
+ *
+ * <p>This class indexes rules by fields required by their matchers.
+ * A rule is indexed by its most selective required field and
+ * it is evaluated only if the event contains all fields required by the rule.
+ * Rules without required fields are evaluated for all events.
+ * The candidate rules are provided in the same order as they were added into the index.
+ *
+ * @author  Marian Novotny
+ * @see Rule
+ * @see AlertingEngineImpl
+ */
+public class RulesIndex {
+    private final List<Rule> rules;
+    private final String[][] rulesRequiredFields;
+    private final Map<String, int[]> fieldToRules;
+    private final int[] unindexedRules;
+
+    /**
+     * Creates the rules index
+     *
+     * @param rules list of rules that should be prepared in advance
+     */
+    public RulesIndex(List<Rule> rules) {
+        this.rules = rules;
+        this.rulesRequiredFields = new String[rules.size()][];
+
+        Map<String, Integer> fieldsFrequency = new HashMap<>();
+        for (Rule rule : rules) {
+            getRuleRequiredFields(rule).forEach(x -> fieldsFrequency.merge(x, 1, Integer::sum));
+        }
+
+        Map<String, List<Integer>> fieldToRulesList = new HashMap<>();
+        List<Integer> unindexedRulesList = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            Set<String> requiredFields = getRuleRequiredFields(rules.get(i));
+            Optional<String> indexField = requiredFields.stream()
+                    .min(Comparator.comparing((String x) -> fieldsFrequency.get(x)).thenComparing(x -> x));
+
+            if (indexField.isEmpty()) {
+                unindexedRulesList.add(i);
+                rulesRequiredFields[i] = new String[0];
+                continue;
+            }
+
+            fieldToRulesList.computeIfAbsent(indexField.get(), x -> new ArrayList<>()).add(i);
+            rulesRequiredFields[i] = requiredFields.stream()
+                    .filter(x -> !x.equals(indexField.get()))
+                    .toArray(String[]::new);
+        }
+
+        fieldToRules = new HashMap<>();
+        fieldToRulesList.forEach((key, value) -> fieldToRules.put(key,
+                value.stream().mapToInt(Integer::intValue).toArray()));
+        unindexedRules = unindexedRulesList.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Calls the consumer for each rule that can match the event.
+     * The rules are provided in the order in which they were added into the index.
+     *
+     * @param event map of string to object
+     * @param consumer the consumer called for candidate rules
+     */
+    public void forEachCandidate(Map<String, Object> event, Consumer<Rule> consumer) {
+        if (fieldToRules.isEmpty()) {
+            rules.forEach(consumer);
+            return;
+        }
+
+        BitSet candidates = new BitSet(rules.size());
+        for (int index : unindexedRules) {
+            candidates.set(index);
+        }
+
+        for (Map.Entry<String, int[]> entry : fieldToRules.entrySet()) {
+            if (event.get(entry.getKey()) != null) {
+                for (int index : entry.getValue()) {
+                    candidates.set(index);
+                }
+            }
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (containsFields(event, rulesRequiredFields[i])) {
+                consumer.accept(rules.get(i));
+            }
+        }
+    }
+
+    /**
+     * Provides all rules in the index
+     *
+     * @return the list of all rules in the index
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    private static boolean containsFields(Map<String, Object> event, String[] fields) {
+        for (String field : fields) {
+            if (event.get(field) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> getRuleRequiredFields(Rule rule) {
+        Set<String> ret = rule.getRequiredFields();
+        return ret != null ? ret : Collections.emptySet();
+    }
+}
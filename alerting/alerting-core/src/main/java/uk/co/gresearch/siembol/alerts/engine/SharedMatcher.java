@@ -0,0 +1,187 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+/**
+ * An object for matching an event by a matcher shared by multiple rules
+ *
+ * <p>This class implements Matcher interface for a matcher that is referenced by several rules
+ * or several times in a rule. The result of the underlying matcher is memoised during the evaluation
+ * of an event by the alerting engine, so the matcher is evaluated at most once per event.
+ * The result is memoised only when matching the event evaluated by the engine and not a copy of the event
+ * created by a rule that can modify the event. The negated references of the matcher share the memoised result
+ * with the not negated reference. The underlying matcher can not modify the event.
+ *
+ * <p>The event scope is opened by the alerting engine before evaluating an event and closed after the evaluation.
+ * The matcher is evaluated without memoising the result if the event scope is not opened.
+ *
+ * @author  Marian Novotny
+ * @see SharedMatchers
+ * @see AlertingEngineImpl
+ */
+public class SharedMatcher implements Matcher {
+    private static final String MODIFYING_MATCHER_MSG = "The shared matcher can not modify the event";
+    private static final ThreadLocal<EventScope> CURRENT_SCOPE = new ThreadLocal<>();
+
+    /**
+     * An object for representing the evaluation of an event
+     */
+    static class EventScope {
+        private volatile Map<String, Object> event;
+
+        private EventScope(Map<String, Object> event) {
+            this.event = event;
+        }
+    }
+
+    private static class MemoisedResult {
+        private final EventScope scope;
+        private final EvaluationResult result;
+
+        MemoisedResult(EventScope scope, EvaluationResult result) {
+            this.scope = scope;
+            this.result = result;
+        }
+    }
+
+    private final Matcher matcher;
+    private final boolean isNegated;
+    private final SharedMatcher memoising;
+    private volatile MemoisedResult lastResult;
+
+    /**
+     * Creates the shared matcher
+     *
+     * @param matcher the underlying not negated matcher that can not modify the event
+     * @throws IllegalArgumentException if the matcher can modify the event
+     */
+    SharedMatcher(Matcher matcher) {
+        if (matcher.canModifyEvent()) {
+            throw new IllegalArgumentException(MODIFYING_MATCHER_MSG);
+        }
+
+        this.matcher = matcher;
+        this.isNegated = false;
+        this.memoising = this;
+    }
+
+    private SharedMatcher(SharedMatcher sharedMatcher) {
+        this.matcher = sharedMatcher.matcher;
+        this.isNegated = !sharedMatcher.isNegated;
+        this.memoising = sharedMatcher.memoising;
+    }
+
+    /**
+     * Creates the negated reference of the shared matcher that shares the memoised result
+     *
+     * @return the negated shared matcher
+     */
+    SharedMatcher negate() {
+        return new SharedMatcher(this);
+    }
+
+    /**
+     * Opens the event scope of the current thread
+     *
+     * @param event the event evaluated by the alerting engine
+     * @return the opened event scope
+     */
+    static EventScope openScope(Map<String, Object> event) {
+        EventScope scope = new EventScope(event);
+        CURRENT_SCOPE.set(scope);
+        return scope;
+    }
+
+    /**
+     * Sets the opened event scope in the current thread. It is used by threads evaluating shards of rules.
+     *
+     * @param scope the event scope opened by the alerting engine
+     */
+    static void setScope(EventScope scope) {
+        CURRENT_SCOPE.set(scope);
+    }
+
+    /**
+     * Closes the event scope. The memoised results of the scope are not used after closing the scope.
+     *
+     * @param scope the event scope opened by the alerting engine
+     */
+    static void closeScope(EventScope scope) {
+        scope.event = null;
+        CURRENT_SCOPE.remove();
+    }
+
+    /**
+     * Matches the event by the underlying matcher or provides the memoised result of the event
+     *
+     * @param event map of string to object
+     * @return the evaluation result after evaluation
+     */
+    @Override
+    public EvaluationResult match(Map<String, Object> event) {
+        EvaluationResult result = memoising.matchMemoised(event);
+        return isNegated ? EvaluationResult.negate(result) : result;
+    }
+
+    private EvaluationResult matchMemoised(Map<String, Object> event) {
+        EventScope scope = CURRENT_SCOPE.get();
+        if (scope == null || scope.event != event) {
+            return matcher.match(event);
+        }
+
+        MemoisedResult last = lastResult;
+        if (last != null && last.scope == scope) {
+            return last.result;
+        }
+
+        EvaluationResult result = matcher.match(event);
+        lastResult = new MemoisedResult(scope, result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canModifyEvent() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNegated() {
+        return isNegated;
+    }
+
+    /**
+     * Provides the fields required by the underlying matcher. Negated matchers do not require any fields.
+     *
+     * @return the set of field names required by the matcher
+     */
+    @Override
+    public Set<String> getRequiredFields() {
+        return isNegated ? Collections.emptySet() : matcher.getRequiredFields();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getCost() {
+        return matcher.getCost();
+    }
+
+    /**
+     * Provides the underlying matcher
+     *
+     * @return the not negated underlying matcher
+     */
+    public Matcher getMatcher() {
+        return matcher;
+    }
+}
@@ -0,0 +1,75 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+/**
+ * An object for providing matchers shared by all rules of an alerting engine
+ *
+ * <p>This class hash-conses equivalent matchers of the rules by their canonical definitions.
+ * The definitions of the matchers are added before the compilation and the matchers with a definition
+ * that occurs more than once are compiled once and shared by all their references.
+ * The result of a shared matcher is memoised during the evaluation of an event.
+ *
+ * @author  Marian Novotny
+ * @see SharedMatcher
+ */
+public class SharedMatchers {
+    private final Map<String, Integer> definitionCounts = new HashMap<>();
+    private final Map<String, Optional<SharedMatcher>> matchers = new HashMap<>();
+    private final Map<String, SharedMatcher> negatedMatchers = new HashMap<>();
+
+    /**
+     * Adds the definition of a matcher referenced by a rule
+     *
+     * @param definition the canonical definition of the matcher without its negation
+     */
+    public void addDefinition(String definition) {
+        definitionCounts.merge(definition, 1, Integer::sum);
+    }
+
+    /**
+     * Provides information whether the matcher with the definition should be shared
+     *
+     * @param definition the canonical definition of the matcher without its negation
+     * @return true if the definition was added more than once, otherwise false
+     */
+    public boolean isShared(String definition) {
+        return definitionCounts.getOrDefault(definition, 0) > 1;
+    }
+
+    /**
+     * Provides the shared matcher for the definition. It creates the matcher if it does not exist.
+     *
+     * @param definition the canonical definition of the matcher without its negation
+     * @param negated the reference of the matcher is negated
+     * @param factory the factory for creating the not negated matcher from the definition
+     * @return the shared matcher, or Optional.empty() if the matcher can modify the event and can not be shared
+     */
+    public Optional<Matcher> getMatcher(String definition, boolean negated, Supplier<Matcher> factory) {
+        Optional<SharedMatcher> matcher = matchers.get(definition);
+        if (matcher == null) {
+            //NOTE: the factory can create shared matchers of a composite matcher recursively
+            Matcher current = factory.get();
+            matcher = current.canModifyEvent() ? Optional.empty() : Optional.of(new SharedMatcher(current));
+            matchers.put(definition, matcher);
+        }
+
+        if (matcher.isEmpty() || !negated) {
+            return matcher.map(x -> x);
+        }
+
+        SharedMatcher positive = matcher.get();
+        return Optional.of(negatedMatchers.computeIfAbsent(definition, x -> positive.negate()));
+    }
+
+    /**
+     * Provides the number of shared matchers
+     *
+     * @return the number of matchers shared by the rules
+     */
+    public int size() {
+        return (int) matchers.values().stream().filter(Optional::isPresent).count();
+    }
+}
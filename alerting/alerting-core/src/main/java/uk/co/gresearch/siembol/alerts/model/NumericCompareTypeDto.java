@@ -5,6 +5,7 @@ import com.github.reinert.jjschema.Attributes;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 
 import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
 /**
  * An enum for representing a comparing type used in numeric matcher
  *
@@ -18,21 +19,23 @@ import java.util.function.BiPredicate;
 @Attributes(title = "numeric compare type", description = "Type of numeric comparison")
 public enum NumericCompareTypeDto {
     @JsonProperty("equal")
-    EQUAL("equal", (x, y) -> x.compareTo(y) == 0),
+    EQUAL("equal", x -> x == 0),
     @JsonProperty("lesser_equal")
-    LESSER_EQUAL("lesser_equal", (x, y) -> x.compareTo(y) <= 0),
+    LESSER_EQUAL("lesser_equal", x -> x <= 0),
     @JsonProperty("lesser")
-    LESSER("lesser", (x, y) -> x.compareTo(y) < 0),
+    LESSER("lesser", x -> x < 0),
     @JsonProperty("greater")
-    GREATER("greater", (x, y) -> x.compareTo(y) > 0),
+    GREATER("greater", x -> x > 0),
     @JsonProperty("greater_equal")
-    GREATER_EQUAL("greater_equal", (x, y) -> x.compareTo(y) >= 0);
+    GREATER_EQUAL("greater_equal", x -> x >= 0);
     private final String name;
+    private final IntPredicate compareResultPredicate;
     private final BiPredicate<Double, Double> comparator;
 
-    NumericCompareTypeDto(String name, BiPredicate<Double, Double> comparator) {
+    NumericCompareTypeDto(String name, IntPredicate compareResultPredicate) {
         this.name = name;
-        this.comparator = comparator;
+        this.compareResultPredicate = compareResultPredicate;
+        this.comparator = (x, y) -> compareResultPredicate.test(x.compareTo(y));
     }
 
     @Override
@@ -48,4 +51,14 @@ public enum NumericCompareTypeDto {
     public BiPredicate<Double, Double> getComparator() {
         return comparator;
     }
+
+    /**
+     * Provides the predicate for the result of Double.compare of two primitive numbers.
+     * It allows comparing numbers of the compare type without boxing them.
+     *
+     * @return      the predicate of the compare result for the compare type
+     */
+    public IntPredicate getCompareResultPredicate() {
+        return compareResultPredicate;
+    }
 }
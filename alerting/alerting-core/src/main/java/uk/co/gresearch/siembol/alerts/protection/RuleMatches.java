@@ -0,0 +1,72 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+/**
+ * An object that represents hourly and daily matches of a rule
+ *
+ * <p>This class represents hourly and daily matches of a rule in the hour and the day when they were counted.
+ * It is used for json (de)serialisation of rule matches exchanged between workers.
+ *
+ * @author  Marian Novotny
+ * @see SharedRuleProtectionSystem
+ *
+ */
+public class RuleMatches {
+    private final int day;
+    private final int hour;
+    private final int dailyMatches;
+    private final int hourlyMatches;
+
+    @JsonCreator
+    public RuleMatches(@JsonProperty("day") int day,
+                       @JsonProperty("hour") int hour,
+                       @JsonProperty("daily_matches") int dailyMatches,
+                       @JsonProperty("hourly_matches") int hourlyMatches) {
+        this.day = day;
+        this.hour = hour;
+        this.dailyMatches = dailyMatches;
+        this.hourlyMatches = hourlyMatches;
+    }
+
+    @JsonProperty("day")
+    public int getDay() {
+        return day;
+    }
+
+    @JsonProperty("hour")
+    public int getHour() {
+        return hour;
+    }
+
+    @JsonProperty("daily_matches")
+    public int getDailyMatches() {
+        return dailyMatches;
+    }
+
+    @JsonProperty("hourly_matches")
+    public int getHourlyMatches() {
+        return hourlyMatches;
+    }
+
+    /**
+     * Provides daily matches if they were counted in the day
+     *
+     * @param day the day of the year
+     * @return daily matches in the day, otherwise 0
+     */
+    public int getDailyMatches(int day) {
+        return this.day == day ? dailyMatches : 0;
+    }
+
+    /**
+     * Provides hourly matches if they were counted in the hour
+     *
+     * @param day the day of the year
+     * @param hour the hour of the day
+     * @return hourly matches in the hour, otherwise 0
+     */
+    public int getHourlyMatches(int day, int hour) {
+        return this.day == day && this.hour == hour ? hourlyMatches : 0;
+    }
+}
@@ -0,0 +1,77 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import java.util.concurrent.atomic.AtomicLong;
+/**
+ * An object that counts hourly and daily matches shared by multiple threads
+ *
+ * <p>This object counts hourly and daily matches without locking.
+ * Each counter is stored in an atomic long together with the hour or the day of counting,
+ * so the counter is reset atomically by the first increment in a new hour or day.
+ *
+ * @author  Marian Novotny
+ * @see SimpleCounter
+ *
+ */
+public class SharedCounter {
+    private static final int HOURS_PER_DAY = 24;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+    private static final long INITIAL_VALUE = pack(-1, 0);
+    private final AtomicLong daily = new AtomicLong(INITIAL_VALUE);
+    private final AtomicLong hourly = new AtomicLong(INITIAL_VALUE);
+
+    /**
+     * Increments hourly and daily matches
+     *
+     * @param day the current day of the year
+     * @param hour the current hour of the day
+     * @return rule matches after incrementing
+     */
+    public RuleMatches increment(int day, int hour) {
+        int dailyMatches = increment(daily, day);
+        int hourlyMatches = increment(hourly, getHourPeriod(day, hour));
+        return new RuleMatches(day, hour, dailyMatches, hourlyMatches);
+    }
+
+    /**
+     * Provides hourly and daily matches
+     *
+     * @param day the current day of the year
+     * @param hour the current hour of the day
+     * @return rule matches in the day and the hour
+     */
+    public RuleMatches get(int day, int hour) {
+        return new RuleMatches(day, hour, get(daily, day), get(hourly, getHourPeriod(day, hour)));
+    }
+
+    private static int increment(AtomicLong counter, int period) {
+        long current;
+        long next;
+        do {
+            current = counter.get();
+            int count = getPeriod(current) == period ? getCount(current) + 1 : 1;
+            next = pack(period, count);
+        } while (!counter.compareAndSet(current, next));
+        return getCount(next);
+    }
+
+    private static int get(AtomicLong counter, int period) {
+        long current = counter.get();
+        return getPeriod(current) == period ? getCount(current) : 0;
+    }
+
+    private static int getHourPeriod(int day, int hour) {
+        return day * HOURS_PER_DAY + hour;
+    }
+
+    private static long pack(int period, int count) {
+        return ((long) period << Integer.SIZE) | (count & COUNT_MASK);
+    }
+
+    private static int getPeriod(long value) {
+        return (int) (value >> Integer.SIZE);
+    }
+
+    private static int getCount(long value) {
+        return (int) value;
+    }
+}
@@ -0,0 +1,113 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import uk.co.gresearch.siembol.alerts.common.AlertingAttributes;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.common.utils.TimeProvider;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+/**
+ * An object for counting rule matches shared by multiple threads and merged with remote matches
+ *
+ * <p>This class implements RuleProtectionSystem interface using lock-free counters that can be shared
+ * by multiple executors of a worker.
+ * The matches counted by other workers can be set as remote matches, and they are added to the local matches.
+ * The remote matches are replaced atomically and they are considered only in the hour and the day of counting.
+ *
+ * @author  Marian Novotny
+ * @see RuleProtectionSystem
+ * @see SharedCounter
+ *
+ */
+public class SharedRuleProtectionSystem implements RuleProtectionSystem {
+    private static final String UNKNOWN_RULE = "No matches of the rule %s";
+    private final Map<String, SharedCounter> ruleCounters = new ConcurrentHashMap<>();
+    private final TimeProvider timeProvider;
+    private volatile Map<String, RuleMatches> remoteMatches = new HashMap<>();
+
+    public SharedRuleProtectionSystem() {
+        this(new TimeProvider());
+    }
+
+    SharedRuleProtectionSystem(TimeProvider timeProvider) {
+        this.timeProvider = timeProvider;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AlertingResult incrementRuleMatches(String fullRuleName) {
+        int day = timeProvider.getDays();
+        int hour = timeProvider.getHour();
+        RuleMatches local = ruleCounters.computeIfAbsent(fullRuleName, x -> new SharedCounter())
+                .increment(day, hour);
+        return createResult(local, remoteMatches.get(fullRuleName), day, hour);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AlertingResult getRuleMatches(String fullRuleName) {
+        SharedCounter counter = ruleCounters.get(fullRuleName);
+        RuleMatches remote = remoteMatches.get(fullRuleName);
+        if (counter == null && remote == null) {
+            return AlertingResult.fromErrorMessage(String.format(UNKNOWN_RULE, fullRuleName));
+        }
+
+        int day = timeProvider.getDays();
+        int hour = timeProvider.getHour();
+        RuleMatches local = counter != null ? counter.get(day, hour) : new RuleMatches(day, hour, 0, 0);
+        return createResult(local, remote, day, hour);
+    }
+
+    /**
+     * Provides the matches counted locally in the current hour and day
+     *
+     * @return the map of full rule names to rule matches
+     */
+    public Map<String, RuleMatches> getLocalMatches() {
+        int day = timeProvider.getDays();
+        int hour = timeProvider.getHour();
+        Map<String, RuleMatches> ret = new HashMap<>();
+        ruleCounters.forEach((x, y) -> {
+            RuleMatches current = y.get(day, hour);
+            if (current.getDailyMatches() > 0) {
+                ret.put(x, current);
+            }
+        });
+        return ret;
+    }
+
+    /**
+     * Replaces the remote matches by the sum of matches counted by other workers in the current hour and day
+     *
+     * @param remoteWorkersMatches the list of matches of other workers
+     */
+    public void setRemoteMatches(List<Map<String, RuleMatches>> remoteWorkersMatches) {
+        int day = timeProvider.getDays();
+        int hour = timeProvider.getHour();
+        Map<String, RuleMatches> current = new HashMap<>();
+        for (Map<String, RuleMatches> workerMatches : remoteWorkersMatches) {
+            workerMatches.forEach((x, y) -> {
+                RuleMatches previous = current.getOrDefault(x, new RuleMatches(day, hour, 0, 0));
+                current.put(x, new RuleMatches(day, hour,
+                        previous.getDailyMatches() + y.getDailyMatches(day),
+                        previous.getHourlyMatches() + y.getHourlyMatches(day, hour)));
+            });
+        }
+        remoteMatches = current;
+    }
+
+    private AlertingResult createResult(RuleMatches local, RuleMatches remote, int day, int hour) {
+        AlertingAttributes attr = new AlertingAttributes();
+        attr.setHourlyMatches(local.getHourlyMatches()
+                + (remote != null ? remote.getHourlyMatches(day, hour) : 0));
+        attr.setDailyMatches(local.getDailyMatches()
+                + (remote != null ? remote.getDailyMatches(day) : 0));
+        return new AlertingResult(AlertingResult.StatusCode.OK, attr);
+    }
+}
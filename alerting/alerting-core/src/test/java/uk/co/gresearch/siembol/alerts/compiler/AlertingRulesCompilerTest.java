@@ -1,15 +1,19 @@
 package uk.co.gresearch.siembol.alerts.compiler;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
 import uk.co.gresearch.siembol.alerts.common.CompositeAlertingEngine;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.alerts.engine.AlertingEngineImpl;
+import uk.co.gresearch.siembol.alerts.engine.Rule;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 public class AlertingRulesCompilerTest {
     private final String alertRules = """
@@ -94,6 +98,203 @@ public class AlertingRulesCompilerTest {
             }
             """;
 
+    private final String rulesSharingMatchers = """
+            {
+              "rules_version" :1,
+              "tags" : [ { "tag_name" : "detection_source", "tag_value" : "alerts" } ],
+              "rules" : [ {
+                  "rule_name" : "alert_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "matcher_type" : "IS_IN_SET",
+                        "field" : "source_type",
+                        "data" : "secret"
+                      },
+                      {
+                        "matcher_type" : "REGEX_MATCH",
+                        "field" : "is_alert",
+                        "data" : "(?i)true"
+                      },
+                      {
+                        "matcher_type" : "REGEX_MATCH",
+                        "field" : "source_type",
+                        "data" : "(?<sensor>.*)"
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "no_alert_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "matcher_type" : "IS_IN_SET",
+                        "description" : "the same matcher with a description",
+                        "field" : "source_type",
+                        "data" : "secret"
+                      },
+                      {
+                        "matcher_type" : "REGEX_MATCH",
+                        "is_negated" : true,
+                        "field" : "is_alert",
+                        "data" : "(?i)true"
+                      },
+                      {
+                        "matcher_type" : "REGEX_MATCH",
+                        "field" : "source_type",
+                        "data" : "(?<sensor>.*)"
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "composite_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "matcher_type" : "COMPOSITE_OR",
+                        "matchers" : [ {
+                            "matcher_type" : "NUMERIC_COMPARE",
+                            "field" : "dummy_field_int",
+                            "compare_type" : "equal",
+                            "expression" : "1"
+                          },
+                          {
+                            "is_enabled" : false,
+                            "matcher_type" : "IS_IN_SET",
+                            "field" : "source_type",
+                            "data" : "unknown"
+                          },
+                          {
+                            "matcher_type" : "REGEX_MATCH",
+                            "field" : "is_alert",
+                            "data" : "(?i)true"
+                          }
+                        ]
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "negated_composite_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "matcher_type" : "IS_IN_SET",
+                        "field" : "source_type",
+                        "data" : "secret"
+                      },
+                      {
+                        "matcher_type" : "COMPOSITE_OR",
+                        "is_negated" : true,
+                        "matchers" : [ {
+                            "matcher_type" : "NUMERIC_COMPARE",
+                            "field" : "dummy_field_int",
+                            "compare_type" : "equal",
+                            "expression" : "1"
+                          },
+                          {
+                            "matcher_type" : "REGEX_MATCH",
+                            "field" : "is_alert",
+                            "data" : "(?i)true"
+                          }
+                        ]
+                      }
+                  ]
+              }]
+            }
+            """;
+
+    private final String rulesWithBacktrackingRegex = """
+            {
+              "rules_version" :1,
+              "tags" : [ { "tag_name" : "detection_source", "tag_value" : "alerts" } ],
+              "rules" : [ {
+                  "rule_name" : "backtracking_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "secret",
+                  "matchers" : [ {
+                        "matcher_type" : "REGEX_MATCH",
+                        "field" : "payload",
+                        "data" : "(.*a){20}b"
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "good_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "source_type" : "secret",
+                  "matchers" : [ {
+                        "matcher_type" : "REGEX_MATCH",
+                        "field" : "payload",
+                        "data" : "a+b!"
+                      }
+                  ]
+              }]
+            }
+            """;
+
+    private final String rulesSharingField = """
+            {
+              "rules_version" :1,
+              "tags" : [ { "tag_name" : "detection_source", "tag_value" : "alerts" } ],
+              "rules" : [ {
+                  "rule_name" : "contains_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "rule_description": "Test rule - is_alert contains ue",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "is_enabled" : true,
+                        "matcher_type" : "CONTAINS",
+                        "is_negated" : false,
+                        "field" : "is_alert",
+                        "data" : "UE",
+                        "case_insensitive" : true,
+                        "starts_with" : false,
+                        "ends_with" : true
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "set_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "rule_description": "Test rule - is_alert is in set",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "is_enabled" : true,
+                        "matcher_type" : "IS_IN_SET",
+                        "is_negated" : false,
+                        "field" : "is_alert",
+                        "data" : "true\\nyes",
+                        "case_insensitive" : true
+                      }
+                  ]
+              },
+              {
+                  "rule_name" : "case_sensitive_set_rule",
+                  "rule_version" : 1,
+                  "rule_author" : "dummy",
+                  "rule_description": "Test rule - is_alert is in set",
+                  "source_type" : "*",
+                  "matchers" : [ {
+                        "is_enabled" : true,
+                        "matcher_type" : "IS_IN_SET",
+                        "is_negated" : false,
+                        "field" : "is_alert",
+                        "data" : "true\\nyes",
+                        "case_insensitive" : false
+                      }
+                  ]
+              }]
+            }
+            """;
+
     private final String ruleWithCompositeMatchers = """
             {
               "rule_name": "siembol_alert_generic_with_composite_matchers",
@@ -390,5 +591,183 @@ public class AlertingRulesCompilerTest {
         AlertingResult compileResult = compiler.compile(Arrays.asList(alertRules, "INVALID"));
         Assert.assertEquals(AlertingResult.StatusCode.ERROR, compileResult.getStatusCode());
     }
-}
 
+    @Test
+    public void compileRulesSharingField() {
+        AlertingResult compileResult = compiler.compile(rulesSharingField);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+
+        AlertingResult matchResult = compileResult.getAttributes().getEngine().evaluate(goodAlert);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, matchResult.getStatusCode());
+        Assert.assertEquals(EvaluationResult.MATCH, matchResult.getAttributes().getEvaluationResult());
+        Assert.assertEquals(2, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("contains_rule",
+                matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+        Assert.assertEquals("set_rule",
+                matchResult.getAttributes().getOutputEvents().get(1).get("siembol_alerts_rule_name"));
+
+        matchResult = compileResult.getAttributes().getEngine().evaluate(goodAlert.replace("TruE", "true"));
+        Assert.assertEquals(3, matchResult.getAttributes().getOutputEvents().size());
+
+        matchResult = compileResult.getAttributes().getEngine().evaluate(goodAlert.replace("TruE", "TruEs"));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matchResult.getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void compileWithPreviousEngineReusesUnchangedRules() {
+        AlertingEngineImpl previous = (AlertingEngineImpl) compiler.compile(List.of(rulesSharingField))
+                .getAttributes().getEngine();
+        String updatedRules = rulesSharingField.replace(
+                "\"rule_name\" : \"set_rule\",\n      \"rule_version\" : 1",
+                "\"rule_name\" : \"set_rule\",\n      \"rule_version\" : 2");
+        Assert.assertNotEquals(rulesSharingField, updatedRules);
+
+        AlertingResult compileResult = compiler.compile(List.of(updatedRules), previous);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+        AlertingEngineImpl current = (AlertingEngineImpl) compileResult.getAttributes().getEngine();
+        Assert.assertEquals(3, current.getRules().size());
+        Assert.assertSame(previous.getRules().get(0).getValue(), current.getRules().get(0).getValue());
+        Assert.assertNotSame(previous.getRules().get(1).getValue(), current.getRules().get(1).getValue());
+        Assert.assertEquals("set_rule_v2", current.getRules().get(1).getValue().getFullRuleName());
+        Assert.assertSame(previous.getRules().get(2).getValue(), current.getRules().get(2).getValue());
+
+        AlertingResult matchResult = current.evaluate(goodAlert.replace("TruE", "true"));
+        Assert.assertEquals(3, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("set_rule_v2",
+                matchResult.getAttributes().getOutputEvents().get(1).get("siembol_alerts_full_rule_name"));
+
+        String changedRules = rulesSharingField.replace("\"data\" : \"UE\"", "\"data\" : \"XX\"");
+        current = (AlertingEngineImpl) compiler.compile(List.of(changedRules), previous)
+                .getAttributes().getEngine();
+        Assert.assertNotSame(previous.getRules().get(0).getValue(), current.getRules().get(0).getValue());
+        Assert.assertSame(previous.getRules().get(1).getValue(), current.getRules().get(1).getValue());
+        matchResult = current.evaluate(goodAlert);
+        Assert.assertEquals(1, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("set_rule",
+                matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+    }
+
+    @Test
+    public void compileRulesListWithPreviousEngine() {
+        CompositeAlertingEngine previous = (CompositeAlertingEngine) compiler
+                .compile(Arrays.asList(rulesSharingField, alertRules))
+                .getAttributes().getEngine();
+
+        AlertingResult compileResult = compiler.compile(Arrays.asList(rulesSharingField, alertRules), previous);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+        CompositeAlertingEngine current = (CompositeAlertingEngine) compileResult.getAttributes().getEngine();
+        for (int i = 0; i < 2; i++) {
+            List<Pair<String, Rule>> previousRules =
+                    ((AlertingEngineImpl) previous.getAlertingEngines().get(i)).getRules();
+            List<Pair<String, Rule>> currentRules =
+                    ((AlertingEngineImpl) current.getAlertingEngines().get(i)).getRules();
+            Assert.assertEquals(previousRules.size(), currentRules.size());
+            for (int j = 0; j < previousRules.size(); j++) {
+                Assert.assertSame(previousRules.get(j).getValue(), currentRules.get(j).getValue());
+            }
+        }
+
+        compileResult = compiler.compile(List.of(alertRules), previous);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+        AlertingEngineImpl engine = (AlertingEngineImpl) compileResult.getAttributes().getEngine();
+        Assert.assertNotSame(((AlertingEngineImpl) previous.getAlertingEngines().get(1)).getRules().get(0).getValue(),
+                engine.getRules().get(0).getValue());
+    }
+
+    @Test
+    public void compileRulesSharingMatchers() {
+        AlertingResult compileResult = compiler.compile(rulesSharingMatchers);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+        AlertingEngineImpl engine = (AlertingEngineImpl) compileResult.getAttributes().getEngine();
+        Assert.assertEquals(4, engine.getRules().size());
+
+        AlertingResult matchResult = engine.evaluate(goodAlert);
+        Assert.assertEquals(EvaluationResult.MATCH, matchResult.getAttributes().getEvaluationResult());
+        Assert.assertEquals(2, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("alert_rule",
+                matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+        Assert.assertEquals("secret", matchResult.getAttributes().getOutputEvents().get(0).get("sensor"));
+        Assert.assertEquals("composite_rule",
+                matchResult.getAttributes().getOutputEvents().get(1).get("siembol_alerts_rule_name"));
+
+        matchResult = engine.evaluate(goodAlert.replace("TruE", "false"));
+        Assert.assertEquals(2, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("no_alert_rule",
+                matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+        Assert.assertEquals("composite_rule",
+                matchResult.getAttributes().getOutputEvents().get(1).get("siembol_alerts_rule_name"));
+
+        matchResult = engine.evaluate(goodAlert.replace("TruE", "false").replace("\"dummy_field_int\" : 1",
+                "\"dummy_field_int\" : 2"));
+        Assert.assertEquals(2, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("no_alert_rule",
+                matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+        Assert.assertEquals("negated_composite_rule",
+                matchResult.getAttributes().getOutputEvents().get(1).get("siembol_alerts_rule_name"));
+
+        AlertingResult testResult = compiler.testRules(rulesSharingMatchers, goodAlert);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, testResult.getStatusCode());
+        Assert.assertEquals(EvaluationResult.MATCH, testResult.getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void evaluationBudgetDisablesRule() {
+        AlertingResult compileResult = compiler.compile(rulesWithBacktrackingRegex);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, compileResult.getStatusCode());
+        AlertingEngine engine = compileResult.getAttributes().getEngine();
+        engine.setEvaluationBudget(10, 2);
+        String event = String.format("{\"source_type\" : \"secret\", \"payload\" : \"%s\"}", "a".repeat(64) + "b!");
+
+        for (int i = 1; i <= 3; i++) {
+            AlertingResult matchResult = engine.evaluate(event);
+            Assert.assertEquals(AlertingResult.StatusCode.OK, matchResult.getStatusCode());
+            Assert.assertEquals(EvaluationResult.MATCH, matchResult.getAttributes().getEvaluationResult());
+            Assert.assertEquals(1, matchResult.getAttributes().getOutputEvents().size());
+            Assert.assertEquals("good_rule",
+                    matchResult.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+            Assert.assertEquals(1, matchResult.getAttributes().getExceptionEvents().size());
+            Map<String, Object> exceptionEvent = matchResult.getAttributes().getExceptionEvents().get(0);
+            Assert.assertEquals("backtracking_rule", exceptionEvent.get("siembol_alerts_rule_name"));
+            String exception = exceptionEvent.get("siembol_alerts_exception").toString();
+            if (i == 3) {
+                Assert.assertTrue(exception.contains("is disabled after exceeding its evaluation budget"));
+                continue;
+            }
+
+            Assert.assertTrue(exception.contains("EvaluationBudgetExceededException"));
+            Assert.assertEquals(i == 2, exception.contains("was disabled after exceeding its evaluation budget 2 times"));
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> engine.setEvaluationBudget(-1, 1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> engine.setEvaluationBudget(10, 0));
+    }
+
+    @Test
+    public void evaluationBudgetDisabledRuleAfterUpdate() {
+        AlertingEngineImpl previous = (AlertingEngineImpl) compiler.compile(List.of(rulesWithBacktrackingRegex))
+                .getAttributes().getEngine();
+        previous.setEvaluationBudget(10, 1);
+        String event = String.format("{\"source_type\" : \"secret\", \"payload\" : \"%s\"}", "a".repeat(64) + "b!");
+        previous.evaluate(event);
+        Assert.assertEquals(1, previous.getBudgetOverruns().get("backtracking_rule_v1").get());
+
+        String updatedRules = rulesWithBacktrackingRegex.replace("a+b!", "a*b!");
+        AlertingEngineImpl current = (AlertingEngineImpl) compiler.compile(List.of(updatedRules), previous)
+                .getAttributes().getEngine();
+        current.setEvaluationBudget(10, 1);
+        Assert.assertSame(previous.getRules().get(0).getValue(), current.getRules().get(0).getValue());
+        Assert.assertEquals(1, current.getBudgetOverruns().get("backtracking_rule_v1").get());
+
+        AlertingResult matchResult = current.evaluate(event);
+        Assert.assertEquals(1, matchResult.getAttributes().getOutputEvents().size());
+        Assert.assertEquals(1, matchResult.getAttributes().getExceptionEvents().size());
+        Assert.assertTrue(matchResult.getAttributes().getExceptionEvents().get(0).get("siembol_alerts_exception")
+                .toString().contains("is disabled after exceeding its evaluation budget"));
+
+        updatedRules = rulesWithBacktrackingRegex.replaceFirst("\"rule_version\" : 1", "\"rule_version\" : 2");
+        Assert.assertNotEquals(rulesWithBacktrackingRegex, updatedRules);
+        current = (AlertingEngineImpl) compiler.compile(List.of(updatedRules), previous).getAttributes().getEngine();
+        Assert.assertEquals(0, current.getBudgetOverruns().get("backtracking_rule_v2").get());
+        Assert.assertNull(current.getBudgetOverruns().get("backtracking_rule_v1"));
+    }
+}
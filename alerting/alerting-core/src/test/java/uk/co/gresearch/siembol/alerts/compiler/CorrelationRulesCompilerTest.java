@@ -4,6 +4,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.correlationengine.CompositeCorrelationAlertingEngine;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationAlertingEngine;
+
+import java.util.Arrays;
 
 public class CorrelationRulesCompilerTest {
     private final String rulesWithSimpleCorrelationRule = """
@@ -155,5 +159,15 @@ public class CorrelationRulesCompilerTest {
         compiler.testRule(simpleCorrelationRule, "dummy");
     }
 
-}
+    @Test
+    public void compileRulesListCorrelationEngine() {
+        AlertingResult ret = compiler.compile(Arrays.asList(rulesWithSimpleCorrelationRule,
+                rulesWithSimpleCorrelationRule));
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertTrue(ret.getAttributes().getEngine() instanceof CompositeCorrelationAlertingEngine);
 
+        ret = compiler.compile(Arrays.asList(rulesWithSimpleCorrelationRule));
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertTrue(ret.getAttributes().getEngine() instanceof CorrelationAlertingEngine);
+    }
+}
@@ -32,8 +32,10 @@ public class AlertCounterTest {
             Assert.assertEquals(i, alertCounter.getSize());
         }
 
+        Assert.assertEquals(counterMetadata.getThreshold(), alertCounter.getNewest().longValue());
         alertCounter.update(new AlertContext(8, new Object[]{"secret", 1001}));
         Assert.assertEquals(2, alertCounter.getOldest().longValue());
+        Assert.assertEquals(counterMetadata.getThreshold(), alertCounter.getNewest().longValue());
         Assert.assertEquals(counterMetadata.getThreshold(), alertCounter.getSize());
         var fieldsToSend = alertCounter.getCorrelatedAlerts(fieldNames);
         Assert.assertFalse(fieldsToSend.isEmpty());
@@ -116,4 +118,46 @@ public class AlertCounterTest {
             }
         }
     }
+
+    @Test
+    public void outOfOrderUpdates() {
+        counterMetadata = new AlertCounterMetadata("dummy",
+                4, 1000, EnumSet.noneOf(AlertCounterMetadata.Flags.class));
+        alertCounter = new AlertCounter(counterMetadata);
+        for (long timestamp : new long[]{5, 3, 7, 1, 6}) {
+            alertCounter.update(timestamp, new Object[]{"secret", timestamp});
+        }
+
+        Assert.assertEquals(4, alertCounter.getSize());
+        Assert.assertTrue(alertCounter.matchThreshold());
+        Assert.assertEquals(3, alertCounter.getOldest().longValue());
+        Assert.assertEquals(7, alertCounter.getNewest().longValue());
+        List<AlertContext> contexts = alertCounter.getAlertContexts();
+        Assert.assertEquals(Arrays.asList(3L, 5L, 6L, 7L),
+                Arrays.asList(contexts.get(0).getTimestamp(), contexts.get(1).getTimestamp(),
+                        contexts.get(2).getTimestamp(), contexts.get(3).getTimestamp()));
+        Assert.assertEquals(6L, contexts.get(2).getFieldsToSend()[1]);
+
+        alertCounter.clean(6);
+        Assert.assertEquals(2, alertCounter.getSize());
+        alertCounter.update(2, new Object[]{"secret", 2L});
+        Assert.assertEquals(2, alertCounter.getOldest().longValue());
+        Assert.assertEquals(7, alertCounter.getNewest().longValue());
+    }
+
+    @Test
+    public void updatesWithoutFields() {
+        alertCounter.update(1, new Object[0]);
+        alertCounter.update(2, new Object[0]);
+        Assert.assertEquals(2, alertCounter.getSize());
+        var fieldsToSend = alertCounter.getCorrelatedAlerts(fieldNames);
+        Assert.assertEquals(2, fieldsToSend.size());
+        Assert.assertTrue(fieldsToSend.get(0).isEmpty());
+        Assert.assertEquals(0, alertCounter.getAlertContexts().get(1).getFieldsToSend().length);
+
+        alertCounter.update(3, new Object[]{"secret", 3});
+        fieldsToSend = alertCounter.getCorrelatedAlerts(fieldNames);
+        Assert.assertTrue(fieldsToSend.get(1).isEmpty());
+        Assert.assertEquals("secret", fieldsToSend.get(2).get("constant"));
+    }
 }
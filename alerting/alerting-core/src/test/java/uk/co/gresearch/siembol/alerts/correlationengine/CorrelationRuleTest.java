@@ -311,6 +311,162 @@ public class CorrelationRuleTest {
         Assert.assertEquals(MATCH, ret.getAttributes().getEvaluationResult());
     }
 
+    @Test
+    public void stateRestoredInNewRule() {
+        rule = builder.build();
+        rule.enableStateTracking();
+        Assert.assertEquals(0, rule.getStateSize());
+        for (Map<String, Object> alert : createAlert(1, correlationKey, "alert1", 30000)) {
+            rule.match(alert);
+        }
+        for (Map<String, Object> alert : createAlert(2, correlationKey, "alert2", 30001)) {
+            rule.match(alert);
+        }
+        for (Map<String, Object> alert : createAlert(2, correlationKey, "alert3", 30002)) {
+            rule.match(alert);
+        }
+
+        Assert.assertEquals(1, rule.getStateSize());
+        List<CorrelationStateEntry> changed = rule.getState(true);
+        Assert.assertEquals(1, changed.size());
+        Assert.assertEquals(ruleName + "_v1", changed.get(0).getFullRuleName());
+        Assert.assertEquals(correlationKey, changed.get(0).getCorrelationKey());
+        Assert.assertEquals(3, changed.get(0).getAlertCounters().size());
+        Assert.assertEquals(2, changed.get(0).getAlertCounters().get(2).size());
+        Assert.assertTrue(rule.getState(true).isEmpty());
+
+        CorrelationRule restored = CorrelationRule.builder()
+                .timeWindowInMs(timeWindowInMs)
+                .maxLagTimeInSec(maxTimeLagInSec)
+                .addAlertCounter("alert1", 1, counterFlags)
+                .addAlertCounter("alert2", 2, counterFlags)
+                .addAlertCounter("alert3", 3, counterFlags)
+                .fieldNamesToSend(fieldNames)
+                .name(ruleName)
+                .version(1)
+                .build();
+        restored.enableStateTracking();
+        Assert.assertTrue(restored.restoreState(rule.getState(false).get(0)));
+        Assert.assertEquals(1, restored.getStateSize());
+        Assert.assertTrue(restored.getState(true).isEmpty());
+
+        AlertingResult ret = restored.match(createAlert(1, correlationKey, "alert3", 30003).get(0));
+        Assert.assertEquals(OK, ret.getStatusCode());
+        Assert.assertEquals(MATCH, ret.getAttributes().getEvaluationResult());
+
+        List<CorrelationStateEntry> removed = restored.getState(true);
+        Assert.assertEquals(1, removed.size());
+        Assert.assertNull(removed.get(0).getAlertCounters());
+        Assert.assertTrue(restored.restoreState(removed.get(0)));
+        Assert.assertEquals(0, restored.getStateSize());
+    }
+
+    @Test
+    public void stateMergedIntoRule() {
+        CorrelationRule previousOwner = CorrelationRule.builder()
+                .timeWindowInMs(timeWindowInMs)
+                .maxLagTimeInSec(maxTimeLagInSec)
+                .addAlertCounter("alert1", 1, counterFlags)
+                .addAlertCounter("alert2", 2, counterFlags)
+                .addAlertCounter("alert3", 3, counterFlags)
+                .fieldNamesToSend(fieldNames)
+                .name(ruleName)
+                .version(1)
+                .build();
+        for (Map<String, Object> alert : createAlert(1, correlationKey, "alert1", 30000)) {
+            previousOwner.match(alert);
+        }
+        for (Map<String, Object> alert : createAlert(2, correlationKey, "alert2", 30001)) {
+            previousOwner.match(alert);
+        }
+        CorrelationStateEntry entry = previousOwner.getState(false).get(0);
+
+        rule = builder.build();
+        rule.enableStateTracking();
+        for (Map<String, Object> alert : createAlert(2, correlationKey, "alert3", 30002)) {
+            AlertingResult ret = rule.match(alert);
+            Assert.assertEquals(NO_MATCH, ret.getAttributes().getEvaluationResult());
+        }
+        Assert.assertEquals(1, rule.getState(true).size());
+
+        Assert.assertTrue(rule.mergeState(entry));
+        Assert.assertEquals(1, rule.getStateSize());
+        List<CorrelationStateEntry> changed = rule.getState(true);
+        Assert.assertEquals(1, changed.size());
+        Assert.assertEquals(2, changed.get(0).getAlertCounters().get(1).size());
+        Assert.assertEquals(2, changed.get(0).getAlertCounters().get(2).size());
+
+        AlertingResult ret = rule.match(createAlert(1, correlationKey, "alert3", 30003).get(0));
+        Assert.assertEquals(OK, ret.getStatusCode());
+        Assert.assertEquals(MATCH, ret.getAttributes().getEvaluationResult());
+
+        Assert.assertFalse(rule.mergeState(new CorrelationStateEntry(ruleName + "_v1", correlationKey, null)));
+        entry.setFullRuleName(ruleName + "_v2");
+        Assert.assertFalse(rule.mergeState(entry));
+    }
+
+    @Test
+    public void restoreStateOfDifferentRule() {
+        rule = builder.build();
+        CorrelationStateEntry entry = new CorrelationStateEntry(ruleName + "_v2", correlationKey,
+                Arrays.asList(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        Assert.assertFalse(rule.restoreState(entry));
+
+        entry.setFullRuleName(ruleName + "_v1");
+        entry.setAlertCounters(Collections.singletonList(new ArrayList<>()));
+        Assert.assertFalse(rule.restoreState(entry));
+        Assert.assertEquals(0, rule.getStateSize());
+    }
+
+    @Test
+    public void cleanTracksRemovedKeys() {
+        rule = builder.build();
+        rule.enableStateTracking();
+        rule.match(createAlert(1, correlationKey, "alert1", 30000).get(0));
+        Assert.assertEquals(1, rule.getState(true).size());
+
+        rule.clean(30000 + 15000);
+        Assert.assertEquals(0, rule.getStateSize());
+        List<CorrelationStateEntry> changed = rule.getState(true);
+        Assert.assertEquals(1, changed.size());
+        Assert.assertNull(changed.get(0).getAlertCounters());
+    }
+
+    @Test
+    public void changedKeysNotTrackedWithoutStateTracking() {
+        rule = builder.build();
+        rule.match(createAlert(1, correlationKey, "alert1", 30000).get(0));
+        Assert.assertEquals(1, rule.getStateSize());
+        Assert.assertTrue(rule.getState(true).isEmpty());
+
+        rule.clean(30000 + 15000);
+        Assert.assertEquals(0, rule.getStateSize());
+        Assert.assertTrue(rule.getState(true).isEmpty());
+
+        rule.enableStateTracking();
+        rule.match(createAlert(1, correlationKey, "alert1", 50000).get(0));
+        Assert.assertEquals(1, rule.getState(true).size());
+        Assert.assertTrue(rule.getState(true).isEmpty());
+    }
+
+    @Test
+    public void cleanExpiresOnlyExpiredKeys() {
+        rule = builder.build();
+        rule.match(createAlert(1, correlationKey, "alert1", 30000).get(0));
+        rule.match(createAlert(1, correlationKey + "2", "alert1", 35000).get(0));
+        rule.match(createAlert(1, correlationKey, "alert2", 38000).get(0));
+        Assert.assertEquals(2, rule.getStateSize());
+
+        rule.clean(40001);
+        Assert.assertEquals(2, rule.getStateSize());
+        rule.clean(45001);
+        Assert.assertEquals(1, rule.getStateSize());
+        Assert.assertEquals(correlationKey, rule.getState(false).get(0).getCorrelationKey());
+        Assert.assertTrue(rule.getState(false).get(0).getAlertCounters().get(0).isEmpty());
+        rule.clean(48001);
+        Assert.assertEquals(0, rule.getStateSize());
+    }
+
     private List<Map<String, Object>> createAlert(int numbers, String key, String alertName, long processingTime) {
         Map<String, Object> alert = new HashMap<>();
         alert.put("constant", "secret");
@@ -0,0 +1,96 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CorrelationStateCheckpointerTest {
+    private CorrelationStateStore store;
+    private CorrelationAlertingEngine engine;
+    private CorrelationStateCheckpointer checkpointer;
+    private List<CorrelationStateEntry> changed;
+    private List<CorrelationStateEntry> state;
+
+    @Before
+    public void setUp() {
+        store = Mockito.mock(CorrelationStateStore.class);
+        engine = Mockito.mock(CorrelationAlertingEngine.class);
+        changed = Arrays.asList(new CorrelationStateEntry("rule_v1", "key1", null),
+                new CorrelationStateEntry("rule_v1", "key2", null));
+        state = Collections.singletonList(new CorrelationStateEntry("rule_v1", "key3", new ArrayList<>()));
+        when(engine.getState(true)).thenReturn(changed);
+        when(engine.getState(false)).thenReturn(state);
+        when(engine.getStateSize()).thenReturn(1);
+        checkpointer = new CorrelationStateCheckpointer(store, 3);
+    }
+
+    @Test
+    public void checkpointAppendsChanges() throws IOException {
+        when(store.getJournalSize()).thenReturn(1);
+        checkpointer.checkpoint(engine);
+        verify(store, times(1)).append(changed);
+        verify(store, never()).compact(any());
+    }
+
+    @Test
+    public void checkpointCompactsLargeJournal() throws IOException {
+        when(store.getJournalSize()).thenReturn(2);
+        checkpointer.checkpoint(engine);
+        verify(store, never()).append(any());
+        verify(store, times(1)).compact(state);
+    }
+
+    @Test
+    public void checkpointNoChanges() throws IOException {
+        when(engine.getState(true)).thenReturn(new ArrayList<>());
+        checkpointer.checkpoint(engine);
+        verify(store, never()).append(any());
+        verify(store, never()).compact(any());
+    }
+
+    @Test
+    public void restore() throws IOException {
+        when(store.load()).thenReturn(changed);
+        checkpointer.restore(engine);
+        verify(engine, times(1)).enableStateTracking();
+        verify(engine, times(1)).restoreState(changed);
+        verify(store, times(1)).compact(state);
+    }
+
+    @Test
+    public void restoreOwned() throws IOException {
+        CorrelationStateEntry moved = new CorrelationStateEntry("rule_v1", "key4", new ArrayList<>());
+        CorrelationStateEntry owned = new CorrelationStateEntry("rule_v1", "key3", new ArrayList<>());
+        when(store.load()).thenReturn(Arrays.asList(moved, changed.get(0), owned,
+                new CorrelationStateEntry("rule_v1", "key4", null),
+                new CorrelationStateEntry("rule_v1", "key5", new ArrayList<>()),
+                moved));
+
+        List<CorrelationStateEntry> notOwned = checkpointer.restore(engine, x -> !x.getCorrelationKey().equals("key4")
+                && !x.getCorrelationKey().equals("key5"));
+        verify(engine, times(1)).restoreState(Arrays.asList(changed.get(0), owned));
+        verify(store, times(1)).compact(state);
+        Assert.assertEquals(2, notOwned.size());
+        Assert.assertEquals("key5", notOwned.get(0).getCorrelationKey());
+        Assert.assertSame(moved, notOwned.get(1));
+    }
+
+    @Test
+    public void release() throws IOException {
+        when(store.load()).thenReturn(Arrays.asList(state.get(0), changed.get(0)));
+        List<CorrelationStateEntry> released = checkpointer.release();
+        Assert.assertEquals(state, released);
+        verify(store, times(1)).clear();
+        verify(engine, never()).restoreState(any());
+    }
+}
@@ -0,0 +1,84 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FileCorrelationStateStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Path directory;
+    private FileCorrelationStateStore store;
+    private CorrelationStateEntry entry1;
+    private CorrelationStateEntry entry2;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath().resolve("state");
+        store = new FileCorrelationStateStore(directory);
+        entry1 = new CorrelationStateEntry("rule_v1", "key1", Arrays.asList(
+                Collections.singletonList(new AlertContext(1L, new Object[]{"a", 1})),
+                Collections.emptyList()));
+        entry2 = new CorrelationStateEntry("rule_v1", "key2", null);
+    }
+
+    @Test
+    public void loadEmpty() throws IOException {
+        Assert.assertTrue(store.load().isEmpty());
+        Assert.assertEquals(0, store.getJournalSize());
+    }
+
+    @Test
+    public void appendAndCompact() throws IOException {
+        store.compact(Collections.singletonList(entry1));
+        store.append(Arrays.asList(entry2, entry1));
+        Assert.assertEquals(2, store.getJournalSize());
+
+        List<CorrelationStateEntry> loaded = new FileCorrelationStateStore(directory).load();
+        Assert.assertEquals(3, loaded.size());
+        Assert.assertEquals("key1", loaded.get(0).getCorrelationKey());
+        Assert.assertEquals("rule_v1", loaded.get(0).getFullRuleName());
+        AlertContext context = loaded.get(0).getAlertCounters().get(0).get(0);
+        Assert.assertEquals(1L, context.getTimestamp());
+        Assert.assertArrayEquals(new Object[]{"a", 1}, context.getFieldsToSend());
+        Assert.assertTrue(loaded.get(0).getAlertCounters().get(1).isEmpty());
+        Assert.assertNull(loaded.get(1).getAlertCounters());
+
+        store.compact(Collections.singletonList(entry2));
+        Assert.assertEquals(0, store.getJournalSize());
+        loaded = store.load();
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertEquals("key2", loaded.get(0).getCorrelationKey());
+    }
+
+    @Test
+    public void clear() throws IOException {
+        store.compact(Collections.singletonList(entry1));
+        store.append(Collections.singletonList(entry2));
+        store.clear();
+        Assert.assertEquals(0, store.getJournalSize());
+        Assert.assertTrue(new FileCorrelationStateStore(directory).load().isEmpty());
+    }
+
+    @Test
+    public void incompleteJournalLineIgnored() throws IOException {
+        store.append(Collections.singletonList(entry1));
+        Files.write(directory.resolve("journal.json"), "{\"rule\":\"rule_v1\",\"ke".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        List<CorrelationStateEntry> loaded = store.load();
+        Assert.assertEquals(1, loaded.size());
+        Assert.assertEquals(1, store.getJournalSize());
+    }
+}
@@ -0,0 +1,84 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class TimerWheelTest {
+    private TimerWheel<String> timerWheel;
+
+    @Before
+    public void setUp() {
+        timerWheel = new TimerWheel<>(10, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongArguments() {
+        new TimerWheel<String>(0, 8);
+    }
+
+    @Test
+    public void advanceEmpty() {
+        Assert.assertTrue(timerWheel.advance(1000).isEmpty());
+        Assert.assertEquals(0, timerWheel.size());
+    }
+
+    @Test
+    public void expireInOrder() {
+        timerWheel.advance(0);
+        timerWheel.schedule("a", 15);
+        timerWheel.schedule("b", 25);
+        timerWheel.schedule("c", 25);
+        Assert.assertEquals(3, timerWheel.size());
+
+        Assert.assertTrue(timerWheel.advance(14).isEmpty());
+        Assert.assertEquals(Collections.singletonList("a"), timerWheel.advance(15));
+        Assert.assertTrue(timerWheel.advance(24).isEmpty());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b", "c")), new HashSet<>(timerWheel.advance(30)));
+        Assert.assertEquals(0, timerWheel.size());
+    }
+
+    @Test
+    public void deadlineBeyondSpan() {
+        timerWheel.advance(0);
+        timerWheel.schedule("a", 25);
+        timerWheel.schedule("b", 105);
+        Assert.assertEquals(Collections.singletonList("a"), timerWheel.advance(30));
+        Assert.assertTrue(timerWheel.advance(100).isEmpty());
+        Assert.assertEquals(Collections.singletonList("b"), timerWheel.advance(110));
+    }
+
+    @Test
+    public void advanceOverMoreRotations() {
+        timerWheel.advance(0);
+        for (int i = 0; i < 100; i++) {
+            timerWheel.schedule(String.valueOf(i), i * 7L);
+        }
+
+        List<String> expired = timerWheel.advance(500);
+        Assert.assertEquals(72, expired.size());
+        Assert.assertEquals(28, timerWheel.size());
+        Assert.assertEquals(28, timerWheel.advance(10000).size());
+    }
+
+    @Test
+    public void scheduleInPast() {
+        timerWheel.advance(1000);
+        timerWheel.schedule("a", 5);
+        timerWheel.schedule("b", Long.MIN_VALUE);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(timerWheel.advance(1000)));
+    }
+
+    @Test
+    public void fromSpan() {
+        TimerWheel<String> wheel = TimerWheel.fromSpan(3600_000L);
+        wheel.schedule("a", 3600_000L);
+        Assert.assertTrue(wheel.advance(3599_999L).isEmpty());
+        Assert.assertEquals(Collections.singletonList("a"), wheel.advance(3600_000L));
+    }
+}
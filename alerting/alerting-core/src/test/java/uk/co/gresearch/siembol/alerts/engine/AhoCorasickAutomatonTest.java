@@ -0,0 +1,46 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AhoCorasickAutomatonTest {
+    private final List<Pair<Integer, Integer>> matches = new ArrayList<>();
+
+    @Test
+    public void searchOverlappingPatterns() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(List.of("he", "she", "his", "hers"));
+        automaton.search("ushers", (id, end) -> matches.add(Pair.of(id, end)));
+        Assert.assertEquals(List.of(Pair.of(1, 4), Pair.of(0, 4), Pair.of(3, 6)), matches);
+    }
+
+    @Test
+    public void searchRepeatedOccurrences() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(List.of("aa", "a"));
+        automaton.search("aaa", (id, end) -> matches.add(Pair.of(id, end)));
+        Assert.assertEquals(List.of(Pair.of(1, 1), Pair.of(0, 2), Pair.of(1, 2),
+                Pair.of(0, 3), Pair.of(1, 3)), matches);
+    }
+
+    @Test
+    public void searchNoMatch() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(List.of("secret", "siembol"));
+        automaton.search("public sie", (id, end) -> matches.add(Pair.of(id, end)));
+        Assert.assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    public void searchEmptyAutomaton() {
+        AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(new ArrayList<>());
+        automaton.search("secret", (id, end) -> matches.add(Pair.of(id, end)));
+        Assert.assertTrue(matches.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPattern() {
+        new AhoCorasickAutomaton(List.of("secret", ""));
+    }
+}
@@ -6,13 +6,19 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
+import uk.co.gresearch.siembol.alerts.common.AlertingBatchResult;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
 import uk.co.gresearch.siembol.alerts.common.AlertingFields;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.common.EvaluationProfile;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AlertingEngineImplTest {
@@ -120,6 +126,46 @@ public class AlertingEngineImplTest {
                 ret.getAttributes().getOutputEvents().get(1).get("siembol_alerts_max_per_hour"));
     }
 
+    @Test
+    public void testBatchEvaluation() {
+        String otherSourceType = knownSourceType.replace(sourceType, "other_source");
+        String missingSourceType = "{\"dummy_field\" : \"true\"}";
+        AlertingBatchResult ret = engine.evaluate(
+                List.of(otherSourceType, knownSourceType, "INVALID", missingSourceType, knownSourceType));
+
+        Assert.assertEquals(5, ret.size());
+        Assert.assertNull(ret.getErrorMessage(0));
+        Assert.assertEquals(1, ret.getOutputEvents(0).size());
+        Assert.assertEquals("rule2", ret.getOutputEvents(0).get(0).get("siembol_alerts_rule_name"));
+
+        for (int index : List.of(1, 4)) {
+            Assert.assertTrue(ret.hasResult(index));
+            Assert.assertEquals(2, ret.getOutputEvents(index).size());
+            Assert.assertEquals("rule1", ret.getOutputEvents(index).get(0).get("siembol_alerts_rule_name"));
+            Assert.assertEquals("rule2", ret.getOutputEvents(index).get(1).get("siembol_alerts_rule_name"));
+            Assert.assertNull(ret.getExceptionEvents(index));
+        }
+
+        Assert.assertTrue(ret.getErrorMessage(2).contains("JsonParseException"));
+        Assert.assertNull(ret.getOutputEvents(2));
+        Assert.assertFalse(ret.hasResult(3));
+        verify(rule1, Mockito.times(2)).match(ArgumentMatchers.any());
+        verify(rule2, Mockito.times(3)).match(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testBatchEvaluationException() {
+        when(rule1.match(ArgumentMatchers.any())).thenThrow(new IllegalStateException());
+        AlertingBatchResult ret = engine.evaluate(List.of(knownSourceType, knownSourceType));
+        for (int index : List.of(0, 1)) {
+            Assert.assertNull(ret.getErrorMessage(index));
+            Assert.assertEquals(1, ret.getExceptionEvents(index).size());
+            Assert.assertEquals("rule1", ret.getExceptionEvents(index).get(0).get("siembol_alerts_rule_name"));
+            Assert.assertEquals(1, ret.getOutputEvents(index).size());
+            Assert.assertEquals("rule2", ret.getOutputEvents(index).get(0).get("siembol_alerts_rule_name"));
+        }
+    }
+
     @Test
     public void testMatchWildcardOnly() {
         resultRule1.getAttributes().setEvaluationResult(EvaluationResult.NO_MATCH);
@@ -162,6 +208,40 @@ public class AlertingEngineImplTest {
                 .get(AlertingFields.EXCEPTION.getAlertingName()).toString().contains("java.lang.RuntimeException"));
     }
 
+    @Test
+    public void normalisedValuesClearedAfterEvaluation() {
+        when(rule1.match(ArgumentMatchers.any())).thenAnswer(x -> {
+            NormalisedValueCache.toLowerCase(x.<Map<String, Object>>getArgument(0).get("dummy_field"));
+            NormalisedValueCache.isNumber("1");
+            throw new RuntimeException();
+        });
+
+        AlertingResult ret = engine.evaluate(knownSourceType);
+        Assert.assertEquals(1, ret.getAttributes().getExceptionEvents().size());
+        Assert.assertTrue(NormalisedValueCache.isEmpty());
+    }
+
+    @Test
+    public void testSkipRuleWithMissingRequiredField() {
+        when(rule1.getRequiredFields()).thenReturn(Set.of("missing_field"));
+        when(rule2.getRequiredFields()).thenReturn(Set.of("dummy_field"));
+        engine = new AlertingEngineImpl.Builder()
+                .constants(constants)
+                .protections(protections)
+                .rules(rules)
+                .sourceField("source_type")
+                .wildcardSource("*")
+                .build();
+
+        AlertingResult ret = engine.evaluate(knownSourceType);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertEquals(EvaluationResult.MATCH, ret.getAttributes().getEvaluationResult());
+        Assert.assertEquals(1, ret.getAttributes().getOutputEvents().size());
+        Assert.assertEquals("rule2",
+                ret.getAttributes().getOutputEvents().get(0).get("siembol_alerts_rule_name"));
+        verify(rule1, never()).match(ArgumentMatchers.any());
+    }
+
     @Test
     public void testWrongJsonEvent() {
         AlertingResult ret = engine.evaluate("INVALID JSON");
@@ -185,4 +265,114 @@ public class AlertingEngineImplTest {
                 .wildcardSource("*")
                 .build();
     }
+
+    @Test
+    public void profilingDisabledByDefault() {
+        engine.evaluate(knownSourceType);
+        Assert.assertTrue(engine.getProfile(false).isEmpty());
+    }
+
+    @Test
+    public void profilingRules() {
+        Rule profiledRule = Rule.builder()
+                .matchers(List.of(
+                        IsInSetMatcher.builder().data("true").fieldName("dummy_field").build(),
+                        IsInSetMatcher.builder().data("secret").fieldName("secret_field").isNegated(true).build()))
+                .name("profiled_rule")
+                .version(1)
+                .build();
+        engine = new AlertingEngineImpl.Builder()
+                .constants(constants)
+                .protections(protections)
+                .rules(List.of(Pair.of(sourceType, profiledRule)))
+                .sourceField("source_type")
+                .wildcardSource("*")
+                .build();
+
+        engine.setProfiling(2);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(EvaluationResult.MATCH,
+                    engine.evaluate(knownSourceType).getAttributes().getEvaluationResult());
+            engine.evaluate("{\"source_type\" : \"test_source\", \"dummy_field\" : \"false\"}");
+        }
+
+        List<EvaluationProfile> profile = engine.getProfile(true);
+        Assert.assertEquals(1, profile.size());
+        EvaluationProfile ruleProfile = profile.get(0);
+        Assert.assertEquals("profiled_rule_v1", ruleProfile.getName());
+        Assert.assertEquals(8, ruleProfile.getEvaluations());
+        Assert.assertEquals(4, ruleProfile.getMatches());
+        Assert.assertEquals(0.5, ruleProfile.getSelectivity(), 0.001);
+        Assert.assertEquals(4, ruleProfile.getSampledEvaluations());
+        Assert.assertTrue(ruleProfile.getSampledTimeNs() > 0);
+
+        Assert.assertEquals(2, ruleProfile.getMatchers().size());
+        EvaluationProfile first = ruleProfile.getMatchers().get(0);
+        Assert.assertEquals("IsInSetMatcher(dummy_field)", first.getName());
+        Assert.assertEquals(4, first.getEvaluations());
+        Assert.assertEquals(0, first.getMatches());
+        EvaluationProfile second = ruleProfile.getMatchers().get(1);
+        Assert.assertEquals("not IsInSetMatcher(secret_field)", second.getName());
+        Assert.assertEquals(0, second.getEvaluations());
+
+        ruleProfile = engine.getProfile(false).get(0);
+        Assert.assertEquals(0, ruleProfile.getEvaluations());
+        Assert.assertEquals(0, ruleProfile.getMatchers().get(0).getEvaluations());
+
+        engine.setProfiling(0);
+        Assert.assertTrue(engine.getProfile(false).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongProfilingSamplingInterval() {
+        engine.setProfiling(-1);
+    }
+
+    @Test
+    public void parallelEvaluation() throws InterruptedException {
+        List<Pair<String, Rule>> manyRules = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Rule rule = Mockito.mock(Rule.class);
+            when(rule.getRuleName()).thenReturn("rule" + i);
+            when(rule.getFullRuleName()).thenReturn("rule" + i + "_v1");
+            if (i % 10 == 3) {
+                when(rule.match(ArgumentMatchers.any())).thenThrow(new RuntimeException());
+            } else {
+                when(rule.match(ArgumentMatchers.any())).thenReturn(AlertingResult.fromEvaluationResult(
+                        i % 2 == 0 ? EvaluationResult.MATCH : EvaluationResult.NO_MATCH, new HashMap<>()));
+            }
+            manyRules.add(Pair.of(i % 3 == 0 ? "*" : sourceType, rule));
+        }
+
+        engine = new AlertingEngineImpl.Builder()
+                .constants(constants)
+                .protections(protections)
+                .rules(manyRules)
+                .sourceField("source_type")
+                .wildcardSource("*")
+                .build();
+        AlertingResult expected = engine.evaluate(knownSourceType);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            engine.setEvaluationPool(pool);
+            AlertingResult ret = engine.evaluate(knownSourceType);
+            Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+            Assert.assertEquals(EvaluationResult.MATCH, ret.getAttributes().getEvaluationResult());
+            Assert.assertEquals(50, ret.getAttributes().getOutputEvents().size());
+            Assert.assertEquals(10, ret.getAttributes().getExceptionEvents().size());
+            Assert.assertEquals(expected.getAttributes().getOutputEvents(), ret.getAttributes().getOutputEvents());
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(
+                        expected.getAttributes().getExceptionEvents().get(i).get("siembol_alerts_rule_name"),
+                        ret.getAttributes().getExceptionEvents().get(i).get("siembol_alerts_rule_name"));
+            }
+
+            AlertingBatchResult batchResult = engine.evaluate(List.of(knownSourceType, knownSourceType));
+            Assert.assertEquals(expected.getAttributes().getOutputEvents(), batchResult.getOutputEvents(1));
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
 }
@@ -206,4 +206,49 @@ public class CompositeMatcherTest {
         verify(matcher2, times(0)).match(eq(event));
     }
 
+
+    @Test
+    public void requiredFieldsCompositeAnd() {
+        when(matcher1.getRequiredFields()).thenReturn(Set.of("a", "b"));
+        when(matcher2.getRequiredFields()).thenReturn(Set.of("c"));
+        compositeMatcher = builder
+                .isNegated(false)
+                .matcherType(MatcherType.COMPOSITE_AND)
+                .build();
+        Assert.assertEquals(Set.of("a", "b", "c"), compositeMatcher.getRequiredFields());
+    }
+
+    @Test
+    public void requiredFieldsCompositeAndModifyingEvent() {
+        when(matcher1.canModifyEvent()).thenReturn(true);
+        when(matcher1.getRequiredFields()).thenReturn(Set.of("a", "b"));
+        when(matcher2.getRequiredFields()).thenReturn(Set.of("c"));
+        compositeMatcher = builder
+                .isNegated(false)
+                .matcherType(MatcherType.COMPOSITE_AND)
+                .build();
+        Assert.assertEquals(Set.of("a", "b"), compositeMatcher.getRequiredFields());
+    }
+
+    @Test
+    public void requiredFieldsCompositeOr() {
+        when(matcher1.getRequiredFields()).thenReturn(Set.of("a", "b"));
+        when(matcher2.getRequiredFields()).thenReturn(Set.of("b", "c"));
+        compositeMatcher = builder
+                .isNegated(false)
+                .matcherType(MatcherType.COMPOSITE_OR)
+                .build();
+        Assert.assertEquals(Set.of("b"), compositeMatcher.getRequiredFields());
+    }
+
+    @Test
+    public void requiredFieldsNegatedComposite() {
+        when(matcher1.getRequiredFields()).thenReturn(Set.of("a", "b"));
+        when(matcher2.getRequiredFields()).thenReturn(Set.of("b", "c"));
+        compositeMatcher = builder
+                .isNegated(true)
+                .matcherType(MatcherType.COMPOSITE_AND)
+                .build();
+        Assert.assertTrue(compositeMatcher.getRequiredFields().isEmpty());
+    }
 }
@@ -0,0 +1,150 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FieldPatternIndexTest {
+    private final String field = "test_field";
+    private FieldPatternIndex index;
+    private Map<String, Object> event;
+
+    @Before
+    public void setUp() {
+        index = new FieldPatternIndex(field, false);
+        event = new HashMap<>();
+        event.put("project", "siembol");
+    }
+
+    @Test
+    public void containsPatterns() {
+        int contains = index.addContainsPattern("secret", false, false);
+        int startsWith = index.addContainsPattern("secret", true, false);
+        int endsWith = index.addContainsPattern("secret", false, true);
+        int equals = index.addContainsPattern("secret", true, true);
+        index.build();
+
+        Assert.assertTrue(index.isMatched("aasecretbb", contains));
+        Assert.assertFalse(index.isMatched("aasecretbb", startsWith));
+        Assert.assertFalse(index.isMatched("aasecretbb", endsWith));
+        Assert.assertFalse(index.isMatched("aasecretbb", equals));
+
+        Assert.assertTrue(index.isMatched("secretsecret", startsWith));
+        Assert.assertTrue(index.isMatched("secretsecret", endsWith));
+        Assert.assertFalse(index.isMatched("secretsecret", equals));
+
+        Assert.assertTrue(index.isMatched("secret", equals));
+        Assert.assertFalse(index.isMatched("SECRET", contains));
+    }
+
+    @Test
+    public void emptyContainsPatterns() {
+        int contains = index.addContainsPattern("", false, false);
+        int equals = index.addContainsPattern("", true, true);
+        index.build();
+
+        Assert.assertTrue(index.isMatched("secret", contains));
+        Assert.assertFalse(index.isMatched("secret", equals));
+        Assert.assertTrue(index.isMatched("", contains));
+        Assert.assertTrue(index.isMatched("", equals));
+    }
+
+    @Test
+    public void wordsCaseInsensitive() {
+        index = new FieldPatternIndex(field, true);
+        int words1 = index.addWords(List.of("Secret", "public"));
+        int words2 = index.addWords(List.of("SECRET", "private"));
+        int contains = index.addContainsPattern("CRE", false, false);
+        index.build();
+
+        Assert.assertTrue(index.isMatched("secret", words1));
+        Assert.assertTrue(index.isMatched("secret", words2));
+        Assert.assertTrue(index.isMatched("secret", contains));
+        Assert.assertTrue(index.isMatched("PUBLIC", words1));
+        Assert.assertFalse(index.isMatched("PUBLIC", words2));
+        Assert.assertFalse(index.isMatched("PUBLIC", contains));
+    }
+
+    @Test
+    public void numericValues() {
+        int words = index.addWords(List.of("1", "2"));
+        int contains = index.addContainsPattern("2", false, false);
+        index.build();
+
+        Assert.assertTrue(index.isMatched(1, words));
+        Assert.assertFalse(index.isMatched(1, contains));
+        Assert.assertFalse(index.isMatched(12, words));
+        Assert.assertTrue(index.isMatched(12, contains));
+    }
+
+    @Test
+    public void sharedIndexMatchers() {
+        FieldPatternIndex index = new FieldPatternIndex(field, false);
+        ContainsMatcher containsMatcher = ContainsMatcher.builder()
+                .data("secret")
+                .patternIndex(index)
+                .fieldName(field)
+                .build();
+        ContainsMatcher variableMatcher = ContainsMatcher.builder()
+                .data("${project}")
+                .patternIndex(index)
+                .fieldName(field)
+                .build();
+        IsInSetMatcher setMatcher = IsInSetMatcher.builder()
+                .data("secret\n${project}")
+                .patternIndex(index)
+                .fieldName(field)
+                .isNegated(true)
+                .build();
+        index.build();
+
+        event.put(field, "secret");
+        Assert.assertEquals(EvaluationResult.MATCH, containsMatcher.match(event));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, variableMatcher.match(event));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, setMatcher.match(event));
+
+        event.put(field, "siembol");
+        Assert.assertEquals(EvaluationResult.NO_MATCH, containsMatcher.match(event));
+        Assert.assertEquals(EvaluationResult.MATCH, variableMatcher.match(event));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, setMatcher.match(event));
+
+        event.put(field, "public");
+        Assert.assertEquals(EvaluationResult.MATCH, setMatcher.match(event));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongCaseInsensitiveIndex() {
+        ContainsMatcher.builder()
+                .data("secret")
+                .isCaseInsensitiveCompare(true)
+                .patternIndex(index)
+                .fieldName(field)
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongFieldIndex() {
+        IsInSetMatcher.builder()
+                .data("secret")
+                .patternIndex(index)
+                .fieldName("different_field")
+                .build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void notBuiltIndex() {
+        int slot = index.addContainsPattern("secret", false, false);
+        index.isMatched("secret", slot);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registerAfterBuild() {
+        index.build();
+        index.addContainsPattern("secret", false, false);
+    }
+}
@@ -0,0 +1,215 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+import uk.co.gresearch.siembol.alerts.compiler.MatcherType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MatcherProgramTest {
+    private List<Map<String, Object>> events;
+    private List<Matcher> matchers;
+
+    @Before
+    public void setUp() {
+        events = new ArrayList<>();
+        for (String host : List.of("secret.com", "public.com", "secret.org")) {
+            for (String user : List.of("john", "root")) {
+                Map<String, Object> event = new HashMap<>();
+                event.put("host", host);
+                event.put("user", user);
+                events.add(event);
+                Map<String, Object> eventWithoutUser = new HashMap<>(event);
+                eventWithoutUser.remove("user");
+                events.add(eventWithoutUser);
+            }
+        }
+
+        Matcher secretHost = ContainsMatcher.builder()
+                .data("secret")
+                .isStartsWith(true)
+                .fieldName("host")
+                .build();
+        Matcher comDomain = RegexMatcher.builder()
+                .pattern(".*\\.(?<domain>com)")
+                .fieldName("host")
+                .build();
+        Matcher rootUser = IsInSetMatcher.builder()
+                .data("root\nadmin")
+                .fieldName("user")
+                .build();
+        Matcher notRootUser = IsInSetMatcher.builder()
+                .data("root")
+                .fieldName("user")
+                .isNegated(true)
+                .build();
+
+        Matcher orMatcher = CompositeMatcher.builder()
+                .matcherType(MatcherType.COMPOSITE_OR)
+                .matchers(List.of(rootUser, secretHost))
+                .isNegated(false)
+                .build();
+        Matcher negatedAndMatcher = CompositeMatcher.builder()
+                .matcherType(MatcherType.COMPOSITE_AND)
+                .matchers(List.of(secretHost, notRootUser))
+                .isNegated(true)
+                .build();
+        Matcher negatedOrMatcher = CompositeMatcher.builder()
+                .matcherType(MatcherType.COMPOSITE_OR)
+                .matchers(List.of(negatedAndMatcher, rootUser))
+                .isNegated(true)
+                .build();
+
+        matchers = List.of(orMatcher, negatedAndMatcher, negatedOrMatcher, comDomain);
+    }
+
+    private void assertEquivalent(List<Matcher> matchers) {
+        MatcherProgram program = new MatcherProgram(matchers);
+        for (Map<String, Object> event : events) {
+            Map<String, Object> interpretedEvent = new HashMap<>(event);
+            EvaluationResult expected = EvaluationResult.MATCH;
+            for (Matcher matcher : matchers) {
+                if (matcher.match(interpretedEvent) == EvaluationResult.NO_MATCH) {
+                    expected = EvaluationResult.NO_MATCH;
+                    break;
+                }
+            }
+
+            Map<String, Object> programEvent = new HashMap<>(event);
+            Assert.assertEquals(expected, program.match(programEvent));
+            Assert.assertEquals(interpretedEvent, programEvent);
+        }
+    }
+
+    @Test
+    public void singleMatchers() {
+        for (Matcher matcher : matchers) {
+            assertEquivalent(List.of(matcher));
+        }
+    }
+
+    @Test
+    public void allMatchers() {
+        assertEquivalent(matchers);
+        assertEquivalent(List.of(matchers.get(3), matchers.get(0)));
+        assertEquivalent(List.of(matchers.get(1), matchers.get(3)));
+    }
+
+    @Test
+    public void programSize() {
+        Assert.assertEquals(8, new MatcherProgram(matchers).size());
+    }
+
+    @Test
+    public void matchedEvent() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("host", "secret.com");
+        event.put("user", "root");
+        MatcherProgram program = new MatcherProgram(List.of(matchers.get(0), matchers.get(3)));
+        Assert.assertEquals(EvaluationResult.MATCH, program.match(event));
+        Assert.assertEquals("com", event.get("domain"));
+    }
+
+    private MatcherProgram countAndReorder(MatcherProgram program) {
+        for (int i = 0; i < 10; i++) {
+            for (Map<String, Object> event : events) {
+                program.matchAndCount(new HashMap<>(event));
+            }
+        }
+        return program.reorder();
+    }
+
+    @Test
+    public void concurrentCounting() throws Exception {
+        MatcherProgram program = new MatcherProgram(matchers);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    for (Map<String, Object> event : events) {
+                        program.matchAndCount(new HashMap<>(event));
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        Assert.assertEquals(4 * 1000 * events.size(), program.getSamples());
+    }
+
+    @Test
+    public void reorderedProgramEquivalent() {
+        MatcherProgram program = new MatcherProgram(matchers);
+        MatcherProgram reordered = countAndReorder(program);
+        Assert.assertEquals(program.size(), reordered.size());
+        Assert.assertEquals(program.getMatcherNames(), reordered.getMatcherNames());
+
+        for (Map<String, Object> event : events) {
+            Map<String, Object> programEvent = new HashMap<>(event);
+            Map<String, Object> reorderedEvent = new HashMap<>(event);
+            Assert.assertEquals(program.match(programEvent), reordered.match(reorderedEvent));
+            Assert.assertEquals(programEvent, reorderedEvent);
+        }
+    }
+
+    @Test
+    public void cheapSelectiveMatcherFirst() {
+        Matcher expensiveHost = RegexMatcher.builder()
+                .pattern("^.*\\..*$")
+                .fieldName("host")
+                .cost(MatcherType.REGEX_MATCH.getCost())
+                .build();
+        Matcher publicHost = IsInSetMatcher.builder()
+                .data("public.com")
+                .fieldName("host")
+                .cost(MatcherType.IS_IN_SET.getCost())
+                .build();
+
+        MatcherProgram program = new MatcherProgram(List.of(expensiveHost, publicHost));
+        Assert.assertEquals(List.of(0, 1), program.getMatcherOrder());
+        MatcherProgram reordered = countAndReorder(program);
+        Assert.assertEquals(List.of(1, 0), reordered.getMatcherOrder());
+
+        Matcher orMatcher = CompositeMatcher.builder()
+                .matcherType(MatcherType.COMPOSITE_OR)
+                .matchers(List.of(expensiveHost, publicHost))
+                .isNegated(false)
+                .build();
+        reordered = countAndReorder(new MatcherProgram(List.of(orMatcher)));
+        Assert.assertEquals(List.of(1, 0), reordered.getMatcherOrder());
+    }
+
+    @Test
+    public void matcherModifyingEventNotReordered() {
+        Matcher expensiveHost = RegexMatcher.builder()
+                .pattern("^.*\\..*$")
+                .fieldName("host")
+                .cost(MatcherType.REGEX_MATCH.getCost())
+                .build();
+        Matcher domain = RegexMatcher.builder()
+                .pattern(".*\\.(?<domain>com)")
+                .fieldName("host")
+                .cost(MatcherType.REGEX_MATCH.getCost())
+                .build();
+        Matcher comDomain = IsInSetMatcher.builder()
+                .data("com")
+                .fieldName("domain")
+                .isNegated(true)
+                .build();
+
+        MatcherProgram reordered = countAndReorder(new MatcherProgram(List.of(expensiveHost, domain, comDomain)));
+        Assert.assertEquals(List.of(0, 1, 2), reordered.getMatcherOrder());
+    }
+}
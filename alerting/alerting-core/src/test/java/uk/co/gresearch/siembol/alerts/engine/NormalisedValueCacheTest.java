@@ -0,0 +1,70 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NormalisedValueCacheTest {
+    private final String value = "Secret.COM";
+
+    @Before
+    public void setUp() {
+        NormalisedValueCache.clear();
+    }
+
+    @Test
+    public void lowerCaseCached() {
+        String lowerCase = NormalisedValueCache.toLowerCase(value);
+        Assert.assertEquals("secret.com", lowerCase);
+        Assert.assertSame(lowerCase, NormalisedValueCache.toLowerCase(value));
+        Assert.assertEquals("true", NormalisedValueCache.toLowerCase(Boolean.TRUE));
+    }
+
+    @Test
+    public void cacheCleared() {
+        String lowerCase = NormalisedValueCache.toLowerCase(value);
+        NormalisedValueCache.isNumber(value);
+        Assert.assertFalse(NormalisedValueCache.isEmpty());
+        NormalisedValueCache.clear();
+        Assert.assertTrue(NormalisedValueCache.isEmpty());
+        String current = NormalisedValueCache.toLowerCase(value);
+        Assert.assertEquals(lowerCase, current);
+        Assert.assertNotSame(lowerCase, current);
+    }
+
+    @Test
+    public void equalValuesCachedByIdentity() {
+        String other = new String(value);
+        String lowerCase = NormalisedValueCache.toLowerCase(value);
+        String otherLowerCase = NormalisedValueCache.toLowerCase(other);
+        Assert.assertEquals(lowerCase, otherLowerCase);
+        Assert.assertNotSame(lowerCase, otherLowerCase);
+    }
+
+    @Test
+    public void mutableValuesNotCached() {
+        List<String> list = new ArrayList<>(List.of("A"));
+        Assert.assertEquals("[a]", NormalisedValueCache.toLowerCase(list));
+        list.add("B");
+        Assert.assertEquals("[a, b]", NormalisedValueCache.toLowerCase(list));
+    }
+
+    @Test
+    public void numbersParsed() {
+        String number = "1.5";
+        Assert.assertTrue(NormalisedValueCache.isNumber(number));
+        Assert.assertEquals(1.5, NormalisedValueCache.toDouble(number), 0);
+        Assert.assertEquals(1.5, NormalisedValueCache.toDouble(number), 0);
+        Assert.assertEquals(-2, NormalisedValueCache.toDouble(" -2 "), 0);
+
+        Assert.assertFalse(NormalisedValueCache.isNumber(value));
+        Assert.assertTrue(Double.isNaN(NormalisedValueCache.toDouble(value)));
+
+        Assert.assertTrue(NormalisedValueCache.isNumber("NaN"));
+        NormalisedValueCache.clear();
+        Assert.assertEquals(1.5, NormalisedValueCache.toDouble(number), 0);
+    }
+}
@@ -262,6 +262,50 @@ public class NumericCompareTest {
         Assert.assertEquals(EvaluationResult.NO_MATCH, result);
     }
 
+    @Test
+    public void compareResultPredicateConstant() {
+        event.put(field, "1.5");
+        matcher = NumericCompareMatcher.builder()
+                .expression("1")
+                .compareResultPredicate(NumericCompareTypeDto.GREATER.getCompareResultPredicate())
+                .fieldName(field)
+                .build();
+        Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+        event.put(field, 0.5);
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+        event.put(field, "not a number");
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+    }
+
+    @Test
+    public void compareResultPredicateVariables() {
+        event.put(field, "1");
+        event.put(variableField, "2");
+        matcher = NumericCompareMatcher.builder()
+                .expression(variableExpression)
+                .compareResultPredicate(NumericCompareTypeDto.LESSER.getCompareResultPredicate())
+                .fieldName(field)
+                .build();
+        Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+        event.put(variableField, true);
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+
+        event.put("other_field", 0);
+        matcher = NumericCompareMatcher.builder()
+                .expression("${other_field}${compare_field}")
+                .compareResultPredicate(NumericCompareTypeDto.EQUAL.getCompareResultPredicate())
+                .fieldName(field)
+                .build();
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+        event.put(variableField, 1);
+        Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+        event.put(field, 10L);
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+        event.put("other_field", "1");
+        event.put(variableField, 0);
+        Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void missingArguments() {
         matcher = NumericCompareMatcher.builder()
@@ -0,0 +1,72 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class RegexLiteralTest {
+    private String getLiteral(String pattern) {
+        Optional<RegexLiteral> literal = RegexLiteral.fromPattern(pattern);
+        Assert.assertTrue(literal.isPresent());
+        return literal.get().getLiteral();
+    }
+
+    private void assertNoLiteral(String pattern) {
+        Assert.assertFalse(RegexLiteral.fromPattern(pattern).isPresent());
+    }
+
+    @Test
+    public void plainLiteral() {
+        Assert.assertEquals("secret", getLiteral("secret"));
+        Assert.assertFalse(RegexLiteral.fromPattern("secret").get().isCaseInsensitive());
+    }
+
+    @Test
+    public void longestLiteral() {
+        Assert.assertEquals("powershell", getLiteral(".*cmd.*powershell\\s+-enc.*"));
+        Assert.assertEquals("Threat Level=", getLiteral("Threat Level=(?<var0>\\d) Category=(?<var1>\\S+)"));
+        Assert.assertEquals("a.b", getLiteral("^a\\.b[0-9]+$"));
+        Assert.assertEquals("x(y)z", getLiteral("\\Qx(y)z\\E"));
+    }
+
+    @Test
+    public void quantifiedCharacters() {
+        Assert.assertEquals("abc", getLiteral("abcd?e"));
+        Assert.assertEquals("abc", getLiteral("abcd*de"));
+        Assert.assertEquals("abcd", getLiteral("abcd+e"));
+        Assert.assertEquals("abcd", getLiteral("abcd{2,3}e"));
+        Assert.assertEquals("abc", getLiteral("abcd{0,3}?e"));
+        Assert.assertEquals("xyz", getLiteral("\\Qxyzw\\E*"));
+    }
+
+    @Test
+    public void caseInsensitive() {
+        Optional<RegexLiteral> literal = RegexLiteral.fromPattern("(?i)mimikatz");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertTrue(literal.get().isCaseInsensitive());
+        Assert.assertEquals("katz", literal.get().getLiteral());
+        Assert.assertEquals("abc", getLiteral("(?i)éabcé"));
+        Assert.assertEquals("true", getLiteral("(?i)true"));
+    }
+
+    @Test
+    public void noLiteral() {
+        assertNoLiteral("");
+        assertNoLiteral(".*");
+        assertNoLiteral("(?i)i.*");
+        assertNoLiteral("[abc]+(secret)");
+        assertNoLiteral("\\d+\\s*");
+    }
+
+    @Test
+    public void notUnderstoodPatterns() {
+        assertNoLiteral("secret|public");
+        assertNoLiteral("(?s)secret");
+        assertNoLiteral("abc(?x) d e f");
+        assertNoLiteral("secret\\x41");
+        assertNoLiteral("secret\\p{Alpha}");
+        assertNoLiteral("(a)secret\\1");
+        assertNoLiteral("abc\\Q\\E*");
+    }
+}
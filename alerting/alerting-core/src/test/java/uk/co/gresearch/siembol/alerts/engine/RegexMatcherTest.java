@@ -182,4 +182,61 @@ public class RegexMatcherTest {
                 .pattern("valid")
                 .build();
     }
+
+    @Test
+    public void testRequiredLiteralIndex() {
+        FieldPatternIndices indices = new FieldPatternIndices();
+        matcher = RegexMatcher.builder()
+                .pattern(goodVofDetail)
+                .patternIndices(indices)
+                .fieldName(field)
+                .build();
+        RegexMatcher caseInsensitiveMatcher = RegexMatcher.builder()
+                .pattern("(?i)^.*CATEGORY=unknown")
+                .patternIndices(indices)
+                .fieldName(field)
+                .build();
+        indices.build();
+
+        event.put(field, vofDetailInstance);
+        Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, caseInsensitiveMatcher.match(event));
+        Assert.assertEquals(4, event.size());
+
+        event.clear();
+        event.put(field, "Category=UNKNOWN");
+        Assert.assertEquals(EvaluationResult.NO_MATCH, matcher.match(event));
+        Assert.assertEquals(EvaluationResult.MATCH, caseInsensitiveMatcher.match(event));
+        Assert.assertEquals(1, event.size());
+    }
+
+    @Test
+    public void testEvaluationBudget() {
+        matcher = RegexMatcher.builder()
+                .pattern(goodVofDetail)
+                .fieldName(field)
+                .build();
+        RegexMatcher backtrackingMatcher = RegexMatcher.builder()
+                .pattern("(.*a){20}b")
+                .fieldName(field)
+                .build();
+
+        EvaluationBudget.start(10_000_000L);
+        try {
+            event.put(field, vofDetailInstance);
+            Assert.assertEquals(EvaluationResult.MATCH, matcher.match(event));
+            Assert.assertEquals("UNKNOWN", event.get("vof_threat_cat"));
+            Assert.assertEquals("a\nbc", event.get("vof_threat_type"));
+
+            event.put(field, "a".repeat(64) + "b!");
+            Assert.assertThrows(EvaluationBudget.EvaluationBudgetExceededException.class,
+                    () -> backtrackingMatcher.match(event));
+        } finally {
+            EvaluationBudget.stop();
+        }
+
+        event.put(field, "a".repeat(20) + "b");
+        Assert.assertEquals(EvaluationResult.MATCH, backtrackingMatcher.match(event));
+        Assert.assertEquals("aab", EvaluationBudget.getCharSequence("aab"));
+    }
 }
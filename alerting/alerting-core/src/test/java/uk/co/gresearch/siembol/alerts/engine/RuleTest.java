@@ -214,4 +214,62 @@ public class RuleTest {
                 .build();
         Assert.assertNotNull(rule);
     }
+
+    @Test
+    public void ruleVerifyProgramOk() {
+        rule = Rule.builder()
+                .matchers(List.of(matcher))
+                .flags(EnumSet.of(Rule.RuleFlags.VERIFY_PROGRAM))
+                .name(name)
+                .version(version)
+                .build();
+
+        AlertingResult ret = rule.match(event);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertEquals(EvaluationResult.MATCH, ret.getAttributes().getEvaluationResult());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void ruleVerifyProgramMismatch() {
+        when(matcher.match(ArgumentMatchers.any())).thenReturn(EvaluationResult.MATCH, EvaluationResult.NO_MATCH);
+        rule = Rule.builder()
+                .matchers(List.of(matcher))
+                .flags(EnumSet.of(Rule.RuleFlags.VERIFY_PROGRAM))
+                .name(name)
+                .version(version)
+                .build();
+
+        rule.match(event);
+    }
+
+    @Test
+    public void adaptiveOrderRule() {
+        Matcher expensiveMatcher = RegexMatcher.builder()
+                .pattern("^.*$")
+                .fieldName("host")
+                .cost(10)
+                .build();
+        Matcher cheapMatcher = IsInSetMatcher.builder()
+                .data("secret")
+                .fieldName("host")
+                .build();
+        rule = Rule.builder()
+                .matchers(List.of(expensiveMatcher, cheapMatcher))
+                .flags(EnumSet.of(Rule.RuleFlags.ADAPTIVE_ORDER))
+                .name(name)
+                .version(version)
+                .build();
+
+        Map<String, Object> matchingEvent = Map.of("host", "secret");
+        Map<String, Object> notMatchingEvent = Map.of("host", "public");
+        for (int i = 0; i < 20000; i++) {
+            Assert.assertEquals(EvaluationResult.MATCH,
+                    rule.match(matchingEvent).getAttributes().getEvaluationResult());
+            for (int j = 0; j < 3; j++) {
+                Assert.assertEquals(EvaluationResult.NO_MATCH,
+                        rule.match(notMatchingEvent).getAttributes().getEvaluationResult());
+            }
+        }
+        Assert.assertEquals(List.of(1, 0), rule.getProgram().getMatcherOrder());
+    }
 }
@@ -0,0 +1,71 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.mockito.Mockito.when;
+
+public class RulesIndexTest {
+    private Map<String, Object> event;
+    private Rule rule1;
+    private Rule rule2;
+    private Rule rule3;
+    private List<Rule> candidates;
+
+    @Before
+    public void setUp() {
+        event = new HashMap<>();
+        event.put("source_type", "secret");
+        event.put("host", "dummy");
+
+        rule1 = Mockito.mock(Rule.class);
+        rule2 = Mockito.mock(Rule.class);
+        rule3 = Mockito.mock(Rule.class);
+        when(rule1.getRequiredFields()).thenReturn(Set.of("host", "source_type"));
+        when(rule2.getRequiredFields()).thenReturn(Set.of());
+        when(rule3.getRequiredFields()).thenReturn(Set.of("host", "user"));
+        candidates = new ArrayList<>();
+    }
+
+    @Test
+    public void allRequiredFieldsPresent() {
+        event.put("user", "john");
+        RulesIndex index = new RulesIndex(List.of(rule1, rule2, rule3));
+        index.forEachCandidate(event, candidates::add);
+        Assert.assertEquals(List.of(rule1, rule2, rule3), candidates);
+    }
+
+    @Test
+    public void missingRequiredField() {
+        RulesIndex index = new RulesIndex(List.of(rule1, rule2, rule3));
+        index.forEachCandidate(event, candidates::add);
+        Assert.assertEquals(List.of(rule1, rule2), candidates);
+    }
+
+    @Test
+    public void nullValueOfRequiredField() {
+        event.put("user", null);
+        RulesIndex index = new RulesIndex(List.of(rule3, rule2, rule1));
+        index.forEachCandidate(event, candidates::add);
+        Assert.assertEquals(List.of(rule2, rule1), candidates);
+    }
+
+    @Test
+    public void missingIndexedField() {
+        event.remove("host");
+        RulesIndex index = new RulesIndex(List.of(rule1, rule2, rule3));
+        index.forEachCandidate(event, candidates::add);
+        Assert.assertEquals(List.of(rule2), candidates);
+    }
+
+    @Test
+    public void noRequiredFields() {
+        RulesIndex index = new RulesIndex(List.of(rule2, rule2));
+        index.forEachCandidate(new HashMap<>(), candidates::add);
+        Assert.assertEquals(List.of(rule2, rule2), candidates);
+    }
+}
@@ -0,0 +1,105 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SharedMatcherTest {
+    private final String definition = "{\"field\":\"is_alert\"}";
+    private Map<String, Object> event;
+    private Matcher matcher;
+    private SharedMatchers sharedMatchers;
+    private SharedMatcher.EventScope scope;
+
+    @Before
+    public void setUp() {
+        event = new HashMap<>();
+        event.put("is_alert", "true");
+        matcher = Mockito.mock(Matcher.class);
+        when(matcher.match(event)).thenReturn(EvaluationResult.MATCH);
+        when(matcher.getRequiredFields()).thenReturn(Set.of("is_alert"));
+        when(matcher.getCost()).thenReturn(2.0);
+        sharedMatchers = new SharedMatchers();
+    }
+
+    @After
+    public void tearDown() {
+        if (scope != null) {
+            SharedMatcher.closeScope(scope);
+        }
+    }
+
+    @Test
+    public void sharedDefinitions() {
+        sharedMatchers.addDefinition(definition);
+        Assert.assertFalse(sharedMatchers.isShared(definition));
+        sharedMatchers.addDefinition(definition);
+        Assert.assertTrue(sharedMatchers.isShared(definition));
+
+        Matcher shared = sharedMatchers.getMatcher(definition, false, () -> matcher).get();
+        Matcher negated = sharedMatchers.getMatcher(definition, true, () -> matcher).get();
+        Assert.assertSame(shared, sharedMatchers.getMatcher(definition, false, () -> matcher).get());
+        Assert.assertSame(negated, sharedMatchers.getMatcher(definition, true, () -> matcher).get());
+        Assert.assertEquals(1, sharedMatchers.size());
+
+        Assert.assertFalse(shared.isNegated());
+        Assert.assertTrue(negated.isNegated());
+        Assert.assertFalse(shared.canModifyEvent());
+        Assert.assertEquals(Set.of("is_alert"), shared.getRequiredFields());
+        Assert.assertTrue(negated.getRequiredFields().isEmpty());
+        Assert.assertEquals(2.0, shared.getCost(), 0);
+        Assert.assertSame(matcher, ((SharedMatcher) negated).getMatcher());
+    }
+
+    @Test
+    public void modifyingMatcherNotShared() {
+        when(matcher.canModifyEvent()).thenReturn(true);
+        Optional<Matcher> shared = sharedMatchers.getMatcher(definition, false, () -> matcher);
+        Assert.assertTrue(shared.isEmpty());
+        Assert.assertEquals(0, sharedMatchers.size());
+    }
+
+    @Test
+    public void resultMemoisedInScope() {
+        Matcher shared = sharedMatchers.getMatcher(definition, false, () -> matcher).get();
+        Matcher negated = sharedMatchers.getMatcher(definition, true, () -> matcher).get();
+
+        scope = SharedMatcher.openScope(event);
+        Assert.assertEquals(EvaluationResult.MATCH, shared.match(event));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, negated.match(event));
+        Assert.assertEquals(EvaluationResult.MATCH, shared.match(event));
+        verify(matcher, times(1)).match(event);
+
+        Map<String, Object> copy = new HashMap<>(event);
+        copy.put("sensor", "secret");
+        when(matcher.match(copy)).thenReturn(EvaluationResult.NO_MATCH);
+        Assert.assertEquals(EvaluationResult.NO_MATCH, shared.match(copy));
+        Assert.assertEquals(EvaluationResult.NO_MATCH, shared.match(copy));
+        verify(matcher, times(2)).match(copy);
+
+        SharedMatcher.closeScope(scope);
+        scope = SharedMatcher.openScope(event);
+        Assert.assertEquals(EvaluationResult.MATCH, shared.match(event));
+        verify(matcher, times(2)).match(event);
+    }
+
+    @Test
+    public void resultNotMemoisedWithoutScope() {
+        Matcher shared = sharedMatchers.getMatcher(definition, false, () -> matcher).get();
+        Assert.assertEquals(EvaluationResult.MATCH, shared.match(event));
+        Assert.assertEquals(EvaluationResult.MATCH, shared.match(event));
+        verify(matcher, times(2)).match(event);
+    }
+}
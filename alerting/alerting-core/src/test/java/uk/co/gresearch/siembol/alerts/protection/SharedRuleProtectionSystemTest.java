@@ -0,0 +1,100 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.common.utils.TimeProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+public class SharedRuleProtectionSystemTest {
+    private final String ruleName = "test";
+    private TimeProvider timeProvider;
+    private SharedRuleProtectionSystem protection;
+
+    @Before
+    public void setUp() {
+        timeProvider = Mockito.mock(TimeProvider.class);
+        when(timeProvider.getDays()).thenReturn(10);
+        when(timeProvider.getHour()).thenReturn(5);
+        protection = new SharedRuleProtectionSystem(timeProvider);
+    }
+
+    @Test
+    public void testUnknown() {
+        AlertingResult ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(AlertingResult.StatusCode.ERROR, ret.getStatusCode());
+        Assert.assertEquals("No matches of the rule test", ret.getAttributes().getMessage());
+    }
+
+    @Test
+    public void testIncrementAndReset() {
+        protection.incrementRuleMatches(ruleName);
+        AlertingResult ret = protection.incrementRuleMatches(ruleName);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertEquals(Integer.valueOf(2), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(2), ret.getAttributes().getHourlyMatches());
+
+        when(timeProvider.getHour()).thenReturn(6);
+        ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(2), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(0), ret.getAttributes().getHourlyMatches());
+        ret = protection.incrementRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(3), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getHourlyMatches());
+
+        when(timeProvider.getDays()).thenReturn(11);
+        ret = protection.incrementRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getHourlyMatches());
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    protection.incrementRuleMatches(ruleName);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        AlertingResult ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(4000), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(4000), ret.getAttributes().getHourlyMatches());
+    }
+
+    @Test
+    public void testRemoteMatches() {
+        protection.incrementRuleMatches(ruleName);
+        Map<String, RuleMatches> local = protection.getLocalMatches();
+        Assert.assertEquals(1, local.size());
+        Assert.assertEquals(1, local.get(ruleName).getHourlyMatches());
+
+        protection.setRemoteMatches(Arrays.asList(
+                Map.of(ruleName, new RuleMatches(10, 5, 10, 4), "other", new RuleMatches(10, 5, 1, 1)),
+                Map.of(ruleName, new RuleMatches(10, 4, 7, 7)),
+                Map.of(ruleName, new RuleMatches(9, 5, 100, 100))));
+
+        AlertingResult ret = protection.incrementRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(19), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(6), ret.getAttributes().getHourlyMatches());
+
+        ret = protection.getRuleMatches("other");
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(1, protection.getLocalMatches().size());
+    }
+}
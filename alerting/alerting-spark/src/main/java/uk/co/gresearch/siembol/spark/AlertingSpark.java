@@ -34,6 +34,9 @@ public class AlertingSpark {
                 .maxResultSize(attributes.getMaxResultSize())
                 .alertingRules(attributes.getRules())
                 .filesPaths(attributes.getFilesPaths())
+                .filesFormat(attributes.getFilesFormat())
+                .earlyTermination(attributes.getEarlyTermination())
+                .samplingRate(attributes.getSamplingRate())
                 .build();
 
         AlertingSparkResult ret = job.eval();
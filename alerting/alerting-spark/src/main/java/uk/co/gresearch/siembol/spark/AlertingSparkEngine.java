@@ -2,18 +2,27 @@ package uk.co.gresearch.siembol.spark;
 
 import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
 import uk.co.gresearch.siembol.alerts.compiler.AlertingRulesCompiler;
-import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 /**
  * An object for integration of an alerting engine into a spark application
  *
  * <p>This class implements Serializable interface.
  *  It serializes engine using alerting rules json string.
- *  It provides functionality for evaluating an event using the alerting engine.
+ *  It provides functionality for evaluating an event or a batch of events using the alerting engine.
+ *  The compiled engines are cached in the JVM by a hash of the rules, so the rules are compiled once
+ *  per executor and the engine is reused by all tasks and stages that evaluate the same rules.
+ *  The engine is intended to be shared with executors using a broadcast variable.
  *
  * @author Marian Novotny
  * @see AlertingEngine
@@ -23,34 +32,76 @@ import java.io.Serializable;
 public class AlertingSparkEngine implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final String ALERTING_RULE_COMPILATION_ERROR = "Exception during compiling alerting rules";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int MAX_CACHED_ENGINES = 16;
+    private static final Map<String, AlertingEngine> COMPILED_ENGINES = new ConcurrentHashMap<>();
+
     private transient AlertingEngine alertingEngine;
     private String rules;
+    private String rulesHash;
 
     public AlertingSparkResult eval(String event, int maxResult) {
         return new AlertingSparkResult(alertingEngine.evaluate(event), maxResult);
     }
 
+    public AlertingSparkResult eval(List<String> events, int maxResult) {
+        return new AlertingSparkResult(alertingEngine.evaluate(events), maxResult);
+    }
+
     public AlertingSparkEngine(String rules) throws Exception {
         this.rules = rules;
-        alertingEngine = AlertingRulesCompiler
+        rulesHash = getHash(rules);
+        alertingEngine = getEngine(rules, rulesHash);
+    }
+
+    /**
+     * Provides the hash of the rules used as the key of the compiled engine
+     *
+     * @return the Base64 encoded SHA-256 hash of the rules
+     */
+    public String getRulesHash() {
+        return rulesHash;
+    }
+
+    AlertingEngine getAlertingEngine() {
+        return alertingEngine;
+    }
+
+    private static AlertingEngine getEngine(String rules, String rulesHash) throws Exception {
+        AlertingEngine ret = COMPILED_ENGINES.get(rulesHash);
+        if (ret != null) {
+            return ret;
+        }
+
+        ret = AlertingRulesCompiler
                 .createAlertingRulesCompiler()
                 .compile(rules)
                 .getAttributes()
                 .getEngine();
+
+        if (COMPILED_ENGINES.size() >= MAX_CACHED_ENGINES) {
+            COMPILED_ENGINES.clear();
+        }
+        //NOTE: concurrent tasks can compile the same rules, the first compiled engine is shared
+        AlertingEngine current = COMPILED_ENGINES.putIfAbsent(rulesHash, ret);
+        return current != null ? current : ret;
+    }
+
+    private static String getHash(String rules) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(rules.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
     }
 
     private void writeObject(ObjectOutputStream os) throws IOException {
         os.writeUTF(rules);
+        os.writeUTF(rulesHash);
     }
 
     private void readObject(ObjectInputStream is) throws IOException, ClassNotFoundException {
         rules = is.readUTF();
+        rulesHash = is.readUTF();
         try {
-            alertingEngine = AlertingRulesCompiler
-                    .createAlertingRulesCompiler()
-                    .compile(rules)
-                    .getAttributes()
-                    .getEngine();
+            alertingEngine = getEngine(rules, rulesHash);
         } catch (Exception e) {
             throw new IOException(ALERTING_RULE_COMPILATION_ERROR);
         }
@@ -2,43 +2,135 @@ package uk.co.gresearch.siembol.spark;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import uk.co.gresearch.siembol.common.model.testing.FilesFormatDto;
+import uk.co.gresearch.siembol.common.testing.AlertingTestingPartition;
+import uk.co.gresearch.siembol.common.testing.AlertingTestingResult;
 
 import java.io.Serializable;
-import java.util.List;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.apache.spark.sql.functions.col;
 /**
  * An object for a spark job that evaluates events using an alerting spark engine
  *
  * <p>This class implements Serializable interface.
  *  It uses initialised AlertingSparkEngine instance to evaluate
  *  resilient distributed dataset (RDD) of json strings of events using the MapReduce technique.
+ *  The events of a partition are evaluated in batches.
+ *  The events are read from json lines files or from parquet files. Only the columns of parquet files
+ *  referenced by the rules are read and the rows with a source type that can not be matched by the rules are
+ *  filtered by a predicate pushed down to the parquet reader, so row groups that can not match are skipped.
+ *  The events can be deterministically sampled and the evaluation can be terminated early
+ *  after the list of matched events is full. The evaluation of a partition is provided by
+ *  AlertingTestingPartition that is shared with the local files tester.
  *  AlertingSparkEngine, RDD of events and a Spark context  are provided by the builder in the constructor.
+ *  AlertingSparkEngine is shared with executors using a broadcast variable.
  *
  * @author Marian Novotny
  * @see AlertingSparkEngine
  * @see JavaRDD
+ * @see Broadcast
  * @see Builder
  * @see AlertingSparkResult
+ * @see AlertingTestingPartition
  *
  */
 public class AlertingSparkJob implements Serializable {
     private static final long serialVersionUID = 1L;
     private final JavaRDD<String> rdd;
-    private final AlertingSparkEngine alertingSparkEngine;
+    private final Broadcast<AlertingSparkEngine> alertingSparkEngine;
     private final int maxResult;
+    private final int batchSize;
+    private final boolean earlyTermination;
+    private final double samplingRate;
 
     public AlertingSparkJob(Builder builder) {
         this.rdd = builder.rdd;
         this.alertingSparkEngine = builder.alertingSparkEngine;
         this.maxResult = builder.maxResult;
+        this.batchSize = builder.batchSize;
+        this.earlyTermination = builder.earlyTermination;
+        this.samplingRate = builder.samplingRate;
     }
 
     AlertingSparkResult eval() {
-        return rdd
-                .filter(x -> !x.isEmpty())
-                .map(x -> alertingSparkEngine.eval(x, maxResult))
-                .filter(x -> !x.isEmpty())
-                .fold(AlertingSparkResult.emptyResult(maxResult), AlertingSparkResult::merge);
+        JavaRDD<AlertingSparkResult> results = rdd.mapPartitionsWithIndex((index, events) -> evalPartition(
+                events, alertingSparkEngine.value(), maxResult, batchSize, earlyTermination,
+                AlertingTestingPartition.createSampler(samplingRate, index)), false);
+
+        AlertingSparkResult ret = earlyTermination
+                ? evalWithEarlyTermination(results.getNumPartitions(),
+                Math.max(1, results.context().defaultParallelism()),
+                maxResult,
+                x -> Arrays.asList(results.collectPartitions(x)))
+                : results.fold(AlertingSparkResult.emptyResult(maxResult), AlertingSparkResult::merge);
+        return ret.samplingRate(samplingRate);
+    }
+
+    /**
+     * Merges the results of partitions that are evaluated in waves.
+     * The global match budget is checked between the waves and the remaining waves are not evaluated
+     * after the list of matched events is full.
+     *
+     * @param numPartitions the number of partitions
+     * @param waveSize the number of partitions evaluated in one wave
+     * @param maxResult the maximum size of the list of matched events
+     * @param collectPartitions the function that evaluates the partitions with the indices and collects their results
+     * @return the merged result
+     */
+    static AlertingSparkResult evalWithEarlyTermination(
+            int numPartitions,
+            int waveSize,
+            int maxResult,
+            Function<int[], List<List<AlertingSparkResult>>> collectPartitions) {
+        AlertingSparkResult ret = AlertingSparkResult.emptyResult(maxResult);
+        for (int first = 0; first < numPartitions; first += waveSize) {
+            if (ret.isFull()) {
+                return ret.terminatedEarly();
+            }
+
+            int[] partitions = IntStream.range(first, Math.min(first + waveSize, numPartitions)).toArray();
+            for (List<AlertingSparkResult> partitionResults : collectPartitions.apply(partitions)) {
+                partitionResults.forEach(ret::merge);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Evaluates the events of a partition in batches by AlertingTestingPartition.
+     * The empty events are skipped and the remaining events can be sampled.
+     *
+     * @param events the iterator of the events of the partition
+     * @param engine the alerting spark engine
+     * @param maxResult the maximum size of the list of matched events
+     * @param batchSize the size of a batch of events
+     * @param earlyTermination if true the evaluation is terminated after the list of matched events is full
+     * @param sampler the supplier that decides whether the next non empty event is sampled for the evaluation
+     * @return the iterator with the result of the partition
+     */
+    static Iterator<AlertingSparkResult> evalPartition(Iterator<String> events,
+                                                       AlertingSparkEngine engine,
+                                                       int maxResult,
+                                                       int batchSize,
+                                                       boolean earlyTermination,
+                                                       BooleanSupplier sampler) {
+        AlertingTestingResult ret = AlertingTestingPartition.evaluate(events,
+                x -> engine.eval(x, maxResult).getTestingResult(),
+                maxResult,
+                batchSize,
+                x -> earlyTermination && x.isFull(),
+                sampler);
+        return Collections.singletonList(new AlertingSparkResult(ret)).iterator();
     }
 
     /**
@@ -46,6 +138,8 @@ public class AlertingSparkJob implements Serializable {
      *
      * <p>This class uses Builder pattern.
      *  It initialises AlertingSparkEngine from rules, RDD of events from files paths and a Spark context.
+     *  The events of parquet files are projected to the fields referenced by the rules,
+     *  so the alerts contain only these fields.
      *
      * @author Marian Novotny
      * @see AlertingSparkEngine
@@ -57,14 +151,20 @@ public class AlertingSparkJob implements Serializable {
     public static class Builder {
         private static final String MISSING_ARGUMENTS_MSG = "Missing arguments for alerts spark job";
         private static final String EMPTY_FILES_PATHS_MSG = "Files paths are empty";
+        private static final String WRONG_BATCH_SIZE_MSG = "Batch size should be positive";
+        private static final String WRONG_SAMPLING_RATE_MSG = "Sampling rate should be in the interval (0, 1]";
         private int maxResult = 100;
+        private int batchSize = 1000;
+        private boolean earlyTermination = false;
+        private double samplingRate = 1.0;
         private String rules;
 
         private JavaSparkContext sc;
         private JavaRDD<String> rdd;
 
         private List<String> filesPaths;
-        private AlertingSparkEngine alertingSparkEngine;
+        private FilesFormatDto filesFormat = FilesFormatDto.JSON;
+        private Broadcast<AlertingSparkEngine> alertingSparkEngine;
 
         public Builder alertingRules(String rules) {
             this.rules = rules;
@@ -76,11 +176,31 @@ public class AlertingSparkJob implements Serializable {
             return this;
         }
 
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder earlyTermination(boolean earlyTermination) {
+            this.earlyTermination = earlyTermination;
+            return this;
+        }
+
+        public Builder samplingRate(double samplingRate) {
+            this.samplingRate = samplingRate;
+            return this;
+        }
+
         public Builder filesPaths(List<String> filesPaths) {
             this.filesPaths = filesPaths;
             return this;
         }
 
+        public Builder filesFormat(FilesFormatDto filesFormat) {
+            this.filesFormat = filesFormat;
+            return this;
+        }
+
         public Builder sparkContext(JavaSparkContext sc) {
             this.sc = sc;
             return this;
@@ -98,20 +218,90 @@ public class AlertingSparkJob implements Serializable {
                 throw new IllegalArgumentException(MISSING_ARGUMENTS_MSG);
             }
 
-            alertingSparkEngine = new AlertingSparkEngine(rules);
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException(WRONG_BATCH_SIZE_MSG);
+            }
+
+            if (!(samplingRate > 0 && samplingRate <= 1.0)) {
+                throw new IllegalArgumentException(WRONG_SAMPLING_RATE_MSG);
+            }
+
+            alertingSparkEngine = sc.broadcast(new AlertingSparkEngine(rules));
             if (rdd == null) {
                 if (filesPaths == null || filesPaths.isEmpty()) {
                     throw new IllegalArgumentException(EMPTY_FILES_PATHS_MSG);
                 }
 
-                List<JavaRDD<String>> dateRddList = filesPaths.stream()
-                        .map(x -> sc.textFile(x))
-                        .collect(Collectors.toList());
+                if (filesFormat == FilesFormatDto.PARQUET) {
+                    rdd = readParquetFiles(AlertingSparkProjection.fromRules(rules));
+                } else {
+                    List<JavaRDD<String>> dateRddList = filesPaths.stream()
+                            .map(x -> sc.textFile(x))
+                            .collect(Collectors.toList());
 
-                rdd = sc.union(dateRddList.toArray(new JavaRDD[dateRddList.size()]));
+                    rdd = sc.union(dateRddList.toArray(new JavaRDD[dateRddList.size()]));
+                }
             }
 
             return new AlertingSparkJob(this);
         }
+
+        private JavaRDD<String> readParquetFiles(AlertingSparkProjection projection) {
+            Dataset<Row> events = SparkSession.builder()
+                    .sparkContext(sc.sc())
+                    .getOrCreate()
+                    .read()
+                    .parquet(filesPaths.toArray(new String[0]));
+
+            Optional<Column[]> selectedColumns = getSelectedColumns(projection, events.columns());
+            if (selectedColumns.isEmpty()) {
+                return sc.emptyRDD();
+            }
+
+            Optional<Column> sourceTypeFilter = getSourceTypeFilter(projection);
+            if (sourceTypeFilter.isPresent()) {
+                events = events.where(sourceTypeFilter.get());
+            }
+
+            return events.select(selectedColumns.get()).toJSON().javaRDD();
+        }
+
+        /**
+         * Provides the columns of parquet files that are read by the job
+         *
+         * @param projection the projection of the rules
+         * @param columns the columns of the parquet files
+         * @return the columns of the files referenced by the rules,
+         *         or empty if the files do not contain the source type column
+         */
+        static Optional<Column[]> getSelectedColumns(AlertingSparkProjection projection, String[] columns) {
+            Set<String> fileColumns = new HashSet<>(Arrays.asList(columns));
+            if (!fileColumns.contains(projection.getSourceField())) {
+                //NOTE: events without the source type field can not be matched by any rule
+                return Optional.empty();
+            }
+
+            return Optional.of(projection.getFields().stream()
+                    .filter(fileColumns::contains)
+                    .map(Builder::getColumn)
+                    .toArray(Column[]::new));
+        }
+
+        /**
+         * Provides the predicate on the source type column pushed down to the parquet reader
+         *
+         * @param projection the projection of the rules
+         * @return the predicate that filters the source types of the rules,
+         *         or empty if a rule is evaluated on all source types
+         */
+        static Optional<Column> getSourceTypeFilter(AlertingSparkProjection projection) {
+            return projection.getSourceTypes()
+                    .map(x -> getColumn(projection.getSourceField()).isin(x.toArray()));
+        }
+
+        static Column getColumn(String name) {
+            //NOTE: field names can contain dots and other special characters
+            return col(String.format("`%s`", name.replace("`", "``")));
+        }
     }
 }
@@ -0,0 +1,128 @@
+package uk.co.gresearch.siembol.spark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import uk.co.gresearch.siembol.alerts.model.MatcherDto;
+import uk.co.gresearch.siembol.alerts.model.RuleDto;
+import uk.co.gresearch.siembol.alerts.model.RulesDto;
+import uk.co.gresearch.siembol.alerts.model.TagDto;
+import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
+
+import java.io.Serializable;
+import java.util.*;
+/**
+ * An object for representing the fields and the source types of events that can be matched by alerting rules
+ *
+ * <p>This class implements Serializable interface.
+ *  It derives the fields referenced by the rules from the fields of enabled matchers and from the variables
+ *  used in the matchers and in the tags. It derives the source types of the rules.
+ *  It is used for reading only the referenced columns of columnar files and for skipping
+ *  the events with a source type that can not be matched by any rule.
+ *
+ * @author Marian Novotny
+ * @see AlertingSparkJob
+ *
+ */
+public class AlertingSparkProjection implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final ObjectReader JSON_RULES_READER = new ObjectMapper().readerFor(RulesDto.class);
+    private static final String SOURCE_FIELD = SiembolMessageFields.SENSOR_TYPE.toString();
+    private static final String WILDCARD_SOURCE = "*";
+
+    private final Set<String> fields;
+    private final Set<String> sourceTypes;
+
+    private AlertingSparkProjection(Set<String> fields, Set<String> sourceTypes) {
+        this.fields = fields;
+        this.sourceTypes = sourceTypes;
+    }
+
+    /**
+     * Provides the field names referenced by the rules including the source type field
+     *
+     * @return the set of field names
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Provides the source types of the rules
+     *
+     * @return the set of source types, or Optional.empty() if a rule matches all source types
+     */
+    public Optional<Set<String>> getSourceTypes() {
+        return Optional.ofNullable(sourceTypes);
+    }
+
+    /**
+     * Provides the name of the source type field
+     *
+     * @return the name of the field with the source type of an event
+     */
+    public String getSourceField() {
+        return SOURCE_FIELD;
+    }
+
+    /**
+     * Creates the projection from alerting rules
+     *
+     * @param rules alerting rules json string
+     * @return the projection of the rules
+     * @throws Exception if the rules can not be parsed
+     */
+    public static AlertingSparkProjection fromRules(String rules) throws Exception {
+        RulesDto rulesDto = JSON_RULES_READER.readValue(rules);
+        Set<String> fields = new TreeSet<>();
+        Set<String> sourceTypes = new TreeSet<>();
+        boolean allSources = false;
+
+        fields.add(SOURCE_FIELD);
+        addTagsFields(rulesDto.getTags(), fields);
+        for (RuleDto rule : rulesDto.getRules()) {
+            if (WILDCARD_SOURCE.equals(rule.getSourceType())) {
+                allSources = true;
+            } else {
+                sourceTypes.add(rule.getSourceType());
+            }
+
+            addMatchersFields(rule.getMatchers(), fields);
+            addTagsFields(rule.getTags(), fields);
+        }
+
+        return new AlertingSparkProjection(Collections.unmodifiableSet(fields),
+                allSources ? null : Collections.unmodifiableSet(sourceTypes));
+    }
+
+    private static void addMatchersFields(List<MatcherDto> matchers, Set<String> fields) {
+        if (matchers == null) {
+            return;
+        }
+
+        for (MatcherDto matcher : matchers) {
+            if (!matcher.isEnabled()) {
+                continue;
+            }
+
+            if (matcher.getField() != null) {
+                fields.add(matcher.getField());
+            }
+            addVariables(matcher.getData(), fields);
+            addVariables(matcher.getExpression(), fields);
+            addMatchersFields(matcher.getMatchers(), fields);
+        }
+    }
+
+    private static void addTagsFields(List<TagDto> tags, Set<String> fields) {
+        if (tags != null) {
+            tags.forEach(x -> addVariables(x.getTagValue(), fields));
+        }
+    }
+
+    private static void addVariables(String template, Set<String> fields) {
+        if (template != null) {
+            fields.addAll(SubstitutionTemplate.compile(template).getFieldNames());
+        }
+    }
+}
@@ -1,94 +1,69 @@
 package uk.co.gresearch.siembol.spark;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import uk.co.gresearch.siembol.alerts.common.AlertingBatchResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+import uk.co.gresearch.siembol.common.testing.AlertingTestingResult;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Map;
 /**
  * An object for representing alerting spark result
  *
  * <p>This class implements Serializable interface. It contains a list of matched events (json strings) and
  *  the list of exceptions (json strings of ErrorMessages).
  *  It provides functionality for merging two alerting results that is used in the map reduce job.
+ *  The accounting of the events, matches and exceptions is provided by AlertingTestingResult
+ *  that is shared with the local files tester.
  *
  * @author Marian Novotny
  * @see AlertingSparkTestingResultDto
+ * @see AlertingTestingResult
  *
  */
 public class AlertingSparkResult implements Serializable {
     private static final long serialVersionUID = 1L;
-
-    private static final ObjectWriter JSON_GENERIC_WRITER = new ObjectMapper()
-            .writerFor(new TypeReference<Map<String, Object>>() { });
     private static final ObjectWriter JSON_ALERTING_RESULT_WRITER = new ObjectMapper()
             .enable(SerializationFeature.INDENT_OUTPUT)
             .writerFor(AlertingSparkTestingResultDto.class);
-    private final int maxResult;
-    private int matchesTotal = 0;
-    private int exceptionsTotal = 0;
-    private final ArrayList<String> matches = new ArrayList<>();
-    private final ArrayList<String> exceptions = new ArrayList<>();
+    private final AlertingTestingResult result;
 
     private AlertingSparkResult(int maxResult) {
-        this.maxResult = maxResult;
+        this(new AlertingTestingResult(maxResult));
     }
 
-    public AlertingSparkResult(AlertingResult alertingResult, int maxResult) {
-        this.maxResult = maxResult;
-        if (alertingResult.getStatusCode() != AlertingResult.StatusCode.OK) {
-            exceptionsTotal += 1;
-        }
+    AlertingSparkResult(AlertingTestingResult result) {
+        this.result = result;
+    }
 
-        if (alertingResult.getAttributes().getExceptionEvents() != null) {
-            exceptionsTotal += alertingResult.getAttributes().getExceptionEvents().size();
-            alertingResult.getAttributes().getExceptionEvents().stream().takeWhile(x -> exceptions.size() < maxResult)
-                    .forEach(x -> {
-                        try {
-                            exceptions.add(JSON_GENERIC_WRITER.writeValueAsString(x));
-                        } catch (JsonProcessingException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-        }
+    public AlertingSparkResult(AlertingResult alertingResult, int maxResult) {
+        this(maxResult);
+        result.addEvent(alertingResult.getStatusCode() != AlertingResult.StatusCode.OK,
+                alertingResult.getAttributes().getExceptionEvents(),
+                alertingResult.getAttributes().getOutputEvents());
+    }
 
-        if (alertingResult.getAttributes().getOutputEvents() != null) {
-            matchesTotal += alertingResult.getAttributes().getOutputEvents().size();
-            alertingResult.getAttributes().getOutputEvents().stream().takeWhile(x -> matches.size() < maxResult)
-                    .forEach(x -> {
-                        try {
-                            matches.add(JSON_GENERIC_WRITER.writeValueAsString(x));
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+    public AlertingSparkResult(AlertingBatchResult alertingBatchResult, int maxResult) {
+        this(maxResult);
+        for (int i = 0; i < alertingBatchResult.size(); i++) {
+            result.addEvent(alertingBatchResult.getErrorMessage(i) != null,
+                    alertingBatchResult.getExceptionEvents(i),
+                    alertingBatchResult.getOutputEvents(i));
         }
     }
 
     public AlertingSparkResult merge(AlertingSparkResult other) {
-        matchesTotal += other.matchesTotal;
-        exceptionsTotal += other.exceptionsTotal;
-
-        other.matches.stream().takeWhile(x -> matches.size() < maxResult).forEach(matches::add);
-        other.exceptions.stream().takeWhile(x -> exceptions.size() < maxResult).forEach(exceptions::add);
-
+        result.merge(other.result);
         return this;
     }
 
     public AlertingSparkTestingResultDto toAlertingSparkTestingResult() {
-        var ret = new AlertingSparkTestingResultDto();
-        ret.setMatchesTotal(matchesTotal);
-        ret.setExceptionsTotal(exceptionsTotal);
-        ret.setExceptionsStrings(exceptions);
-        ret.setMatchesStrings(matches);
-        return ret;
+        return result.toAlertingSparkTestingResult();
     }
+
     public String toString() {
         try {
             return JSON_ALERTING_RESULT_WRITER.writeValueAsString(toAlertingSparkTestingResult());
@@ -97,8 +72,42 @@ public class AlertingSparkResult implements Serializable {
         }
     }
 
+    /**
+     * Provides information whether the list of matched events is full
+     *
+     * @return true if the result contains the maximum number of matched events, otherwise false
+     */
+    public boolean isFull() {
+        return result.isFull();
+    }
+
+    /**
+     * Marks the result as terminated early. Some events were not evaluated and the counts are lower bounds.
+     *
+     * @return this result
+     */
+    public AlertingSparkResult terminatedEarly() {
+        result.terminatedEarly();
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the events that were sampled for the evaluation
+     *
+     * @param samplingRate the sampling rate in the interval (0, 1]
+     * @return this result
+     */
+    public AlertingSparkResult samplingRate(double samplingRate) {
+        result.samplingRate(samplingRate);
+        return this;
+    }
+
+    AlertingTestingResult getTestingResult() {
+        return result;
+    }
+
     public boolean isEmpty() {
-        return matchesTotal == 0 && exceptionsTotal == 0;
+        return result.isEmpty();
     }
 
     public static AlertingSparkResult emptyResult(int maxResult) {
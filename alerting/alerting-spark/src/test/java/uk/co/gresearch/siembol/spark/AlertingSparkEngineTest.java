@@ -4,6 +4,8 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+
 public class AlertingSparkEngineTest {
     private final String isAlertRules = """
             {
@@ -38,6 +40,19 @@ public class AlertingSparkEngineTest {
             }
             """;
 
+    @Test
+    public void batchTest() throws Exception {
+        AlertingSparkEngine engine = new AlertingSparkEngine(
+                isAlertRules.replace("\"source_type\" : \" \"", "\"source_type\" : \"*\""));
+        AlertingSparkResult ret = engine.eval(List.of(goodAlert, "INVALID", goodAlert), 100);
+        var alertingResult = ret.toAlertingSparkTestingResult();
+        Assert.assertEquals(2, alertingResult.getMatchesTotal());
+        Assert.assertEquals(1, alertingResult.getExceptionsTotal());
+        Assert.assertEquals(2, alertingResult.getMatches().size());
+        Assert.assertEquals(engine.eval(goodAlert, 100).toAlertingSparkTestingResult().getMatches().get(0),
+                alertingResult.getMatches().get(0));
+    }
+
     @Test
     public void serializableTest() throws Exception {
         AlertingSparkEngine engine = new AlertingSparkEngine(isAlertRules);
@@ -56,4 +71,19 @@ public class AlertingSparkEngineTest {
         Assert.assertEquals(alertingResult.getExceptions(), retCloneResult.getExceptions());
         Assert.assertEquals(alertingResult.getMatches(), retCloneResult.getMatches());
     }
+
+    @Test
+    public void compiledEngineSharedTest() throws Exception {
+        AlertingSparkEngine engine = new AlertingSparkEngine(isAlertRules);
+        AlertingSparkEngine clone = SerializationUtils.clone(engine);
+        AlertingSparkEngine other = new AlertingSparkEngine(isAlertRules);
+        Assert.assertEquals(engine.getRulesHash(), clone.getRulesHash());
+        Assert.assertSame(engine.getAlertingEngine(), clone.getAlertingEngine());
+        Assert.assertSame(engine.getAlertingEngine(), other.getAlertingEngine());
+
+        AlertingSparkEngine different = new AlertingSparkEngine(
+                isAlertRules.replace("\"source_type\" : \" \"", "\"source_type\" : \"*\""));
+        Assert.assertNotEquals(engine.getRulesHash(), different.getRulesHash());
+        Assert.assertNotSame(engine.getAlertingEngine(), different.getAlertingEngine());
+    }
 }
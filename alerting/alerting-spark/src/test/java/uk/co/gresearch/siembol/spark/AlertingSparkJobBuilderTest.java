@@ -0,0 +1,110 @@
+package uk.co.gresearch.siembol.spark;
+
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.expressions.In;
+import org.apache.spark.sql.catalyst.analysis.UnresolvedAttribute;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.collection.JavaConverters;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class AlertingSparkJobBuilderTest {
+    private final String rules = """
+            {
+               "rules_version" :1,
+               "tags" : [ { "tag_name" : "detection_source", "tag_value" : "siembol_alerts" } ],
+               "rules" : [ {
+                   "rule_name" : "test_rule",
+                   "rule_version" : 1,
+                   "rule_author" : "dummy",
+                   "rule_protection" : {
+                       "max_per_hour" : 100,
+                       "max_per_day" : 10000
+                   },
+                   "rule_description": "Testing rule",
+                   "source_type" : "secret",
+                   "matchers" : [ {
+                       "matcher_type" : "REGEX_MATCH",
+                       "is_negated" : false,
+                       "field" : "is_alert",
+                       "data" : "(?i)true" },
+                       {
+                       "matcher_type" : "IS_IN_SET",
+                       "field" : "dns.query`name",
+                       "data" : "secret.com" }
+                   ]
+               }]
+            }
+            """;
+
+    private AlertingSparkProjection projection;
+
+    @Before
+    public void setUp() throws Exception {
+        projection = AlertingSparkProjection.fromRules(rules);
+    }
+
+    private static String getColumnName(Column column) {
+        Assert.assertTrue(column.expr() instanceof UnresolvedAttribute);
+        List<String> nameParts = JavaConverters.seqAsJavaList(((UnresolvedAttribute) column.expr()).nameParts());
+        Assert.assertEquals(1, nameParts.size());
+        return nameParts.get(0);
+    }
+
+    @Test
+    public void selectedColumnsPruned() {
+        Optional<Column[]> columns = AlertingSparkJob.Builder.getSelectedColumns(projection,
+                new String[]{"source_type", "is_alert", "dns.query`name", "unused_field", "timestamp"});
+        Assert.assertTrue(columns.isPresent());
+        Set<String> names = Arrays.stream(columns.get())
+                .map(AlertingSparkJobBuilderTest::getColumnName)
+                .collect(Collectors.toSet());
+        Assert.assertEquals(Set.of("source_type", "is_alert", "dns.query`name"), names);
+    }
+
+    @Test
+    public void selectedColumnsMissingFields() {
+        Optional<Column[]> columns = AlertingSparkJob.Builder.getSelectedColumns(projection,
+                new String[]{"source_type", "unused_field"});
+        Assert.assertTrue(columns.isPresent());
+        Assert.assertEquals(1, columns.get().length);
+        Assert.assertEquals("source_type", getColumnName(columns.get()[0]));
+    }
+
+    @Test
+    public void selectedColumnsMissingSourceType() {
+        Optional<Column[]> columns = AlertingSparkJob.Builder.getSelectedColumns(projection,
+                new String[]{"is_alert", "dns.query`name"});
+        Assert.assertTrue(columns.isEmpty());
+    }
+
+    @Test
+    public void columnNameQuoted() {
+        Assert.assertEquals("dns.query", getColumnName(AlertingSparkJob.Builder.getColumn("dns.query")));
+        Assert.assertEquals("a`b", getColumnName(AlertingSparkJob.Builder.getColumn("a`b")));
+    }
+
+    @Test
+    public void sourceTypeFilter() {
+        Optional<Column> filter = AlertingSparkJob.Builder.getSourceTypeFilter(projection);
+        Assert.assertTrue(filter.isPresent());
+        Assert.assertTrue(filter.get().expr() instanceof In);
+        In in = (In) filter.get().expr();
+        Assert.assertEquals("source_type", ((UnresolvedAttribute) in.value()).name());
+        Assert.assertEquals(1, in.list().size());
+        Assert.assertEquals("secret", in.list().head().toString());
+    }
+
+    @Test
+    public void sourceTypeFilterAllSourceTypes() throws Exception {
+        AlertingSparkProjection allSources = AlertingSparkProjection.fromRules(
+                rules.replace("\"source_type\" : \"secret\"", "\"source_type\" : \"*\""));
+        Assert.assertTrue(AlertingSparkJob.Builder.getSourceTypeFilter(allSources).isEmpty());
+    }
+}
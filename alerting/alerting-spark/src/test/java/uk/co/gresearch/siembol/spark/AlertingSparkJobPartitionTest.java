@@ -0,0 +1,187 @@
+package uk.co.gresearch.siembol.spark;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class AlertingSparkJobPartitionTest {
+    private final String isAlertRules = """
+            {
+               "rules_version" :1,
+               "tags" : [ { "tag_name" : "detection_source", "tag_value" : "siembol_alerts" } ],
+               "rules" : [ {
+                   "rule_name" : "test_rule",
+                   "rule_version" : 1,
+                   "rule_author" : "dummy",
+                   "rule_protection" : {
+                       "max_per_hour" : 100000,
+                       "max_per_day" : 100000
+                   },
+                   "rule_description": "Testing rule",
+                   "source_type" : "*",
+                   "matchers" : [ {
+                       "matcher_type" : "REGEX_MATCH",
+                       "is_negated" : false,
+                       "field" : "is_alert",
+                       "data" : "(?i)true" }
+                       ]
+               }]
+            }
+            """;
+
+    private final String goodAlert = """
+            { "source_type" : "secret", "is_alert" : "TruE", "dummy_field_int" : 1 }
+            """;
+
+    private final String eventWithoutAlert = """
+            { "source_type" : "secret", "dummy_field_int" : 1 }
+            """;
+
+    private final int maxResultSize = 100;
+    private final BooleanSupplier allEvents = () -> true;
+    private AlertingSparkEngine engine;
+
+    @Before
+    public void setup() throws Exception {
+        engine = new AlertingSparkEngine(isAlertRules);
+    }
+
+    private List<String> createEvents(int size) {
+        List<String> ret = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ret.add(goodAlert);
+            ret.add(eventWithoutAlert);
+            ret.add("");
+        }
+        return ret;
+    }
+
+    private List<String> createAlerts(int size) {
+        List<String> ret = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ret.add(goodAlert);
+        }
+        return ret;
+    }
+
+    private AlertingSparkTestingResultDto evalPartition(List<String> events,
+                                                        int batchSize,
+                                                        boolean earlyTermination,
+                                                        BooleanSupplier sampler) {
+        Iterator<AlertingSparkResult> ret = AlertingSparkJob.evalPartition(events.iterator(),
+                engine, maxResultSize, batchSize, earlyTermination, sampler);
+        Assert.assertTrue(ret.hasNext());
+        AlertingSparkResult result = ret.next();
+        Assert.assertFalse(ret.hasNext());
+        return result.toAlertingSparkTestingResult();
+    }
+
+    @Test
+    public void evalPartitionInBatches() {
+        var result = evalPartition(createEvents(25), 10, false, allEvents);
+        Assert.assertEquals(50, result.getEventsTotal());
+        Assert.assertEquals(25, result.getMatchesTotal());
+        Assert.assertEquals(25, result.getMatches().size());
+        Assert.assertEquals(0, result.getExceptionsTotal());
+        Assert.assertFalse(result.isTerminatedEarly());
+    }
+
+    @Test
+    public void evalPartitionEmpty() {
+        var result = evalPartition(List.of("", ""), 10, true, allEvents);
+        Assert.assertEquals(0, result.getEventsTotal());
+        Assert.assertEquals(0, result.getMatchesTotal());
+        Assert.assertFalse(result.isTerminatedEarly());
+    }
+
+    @Test
+    public void evalPartitionWithoutEarlyTermination() {
+        var result = evalPartition(createEvents(1000), 10, false, allEvents);
+        Assert.assertEquals(2000, result.getEventsTotal());
+        Assert.assertEquals(1000, result.getMatchesTotal());
+        Assert.assertEquals(maxResultSize, result.getMatches().size());
+        Assert.assertFalse(result.isTerminatedEarly());
+        Assert.assertEquals(Long.valueOf(1000), result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    public void evalPartitionEarlyTermination() {
+        var result = evalPartition(createEvents(1000), 10, true, allEvents);
+        Assert.assertTrue(result.isTerminatedEarly());
+        Assert.assertEquals(maxResultSize, result.getMatches().size());
+        Assert.assertEquals(maxResultSize, result.getMatchesTotal());
+        Assert.assertEquals(2 * maxResultSize, result.getEventsTotal());
+        Assert.assertNull(result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    public void evalPartitionEarlyTerminationNotFull() {
+        var result = evalPartition(createEvents(50), 10, true, allEvents);
+        Assert.assertFalse(result.isTerminatedEarly());
+        Assert.assertEquals(50, result.getMatchesTotal());
+        Assert.assertEquals(100, result.getEventsTotal());
+    }
+
+    @Test
+    public void evalPartitionSampling() {
+        List<String> events = createEvents(5000);
+        SplittableRandom random = new SplittableRandom(1L);
+        var result = evalPartition(events, 10, false, () -> random.nextDouble() < 0.1);
+        SplittableRandom randomAgain = new SplittableRandom(1L);
+        var resultAgain = evalPartition(events, 10, false, () -> randomAgain.nextDouble() < 0.1);
+
+        Assert.assertEquals(result.getMatchesTotal(), resultAgain.getMatchesTotal());
+        Assert.assertEquals(result.getEventsTotal(), resultAgain.getEventsTotal());
+        Assert.assertEquals(1000, result.getEventsTotal(), 200);
+        Assert.assertEquals(500, result.getMatchesTotal(), 100);
+        Assert.assertFalse(result.isTerminatedEarly());
+    }
+
+    @Test
+    public void evalWithEarlyTerminationStopsAfterFullWave() {
+        List<int[]> waves = new ArrayList<>();
+        AlertingSparkResult result = AlertingSparkJob.evalWithEarlyTermination(10, 2, maxResultSize, x -> {
+            waves.add(x);
+            List<List<AlertingSparkResult>> ret = new ArrayList<>();
+            for (int i = 0; i < x.length; i++) {
+                ret.add(List.of(engine.eval(createAlerts(30), maxResultSize)));
+            }
+            return ret;
+        });
+
+        Assert.assertEquals(2, waves.size());
+        Assert.assertArrayEquals(new int[]{0, 1}, waves.get(0));
+        Assert.assertArrayEquals(new int[]{2, 3}, waves.get(1));
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertTrue(testingResult.isTerminatedEarly());
+        Assert.assertEquals(120, testingResult.getMatchesTotal());
+        Assert.assertEquals(maxResultSize, testingResult.getMatches().size());
+    }
+
+    @Test
+    public void evalWithEarlyTerminationAllWaves() {
+        AtomicInteger collectedPartitions = new AtomicInteger();
+        AlertingSparkResult result = AlertingSparkJob.evalWithEarlyTermination(5, 2, maxResultSize, x -> {
+            collectedPartitions.addAndGet(x.length);
+            List<List<AlertingSparkResult>> ret = new ArrayList<>();
+            for (int i = 0; i < x.length; i++) {
+                ret.add(List.of(engine.eval(createAlerts(10), maxResultSize)));
+            }
+            return ret;
+        });
+
+        Assert.assertEquals(5, collectedPartitions.get());
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertFalse(testingResult.isTerminatedEarly());
+        Assert.assertEquals(50, testingResult.getMatchesTotal());
+        Assert.assertEquals(50, testingResult.getEventsTotal());
+    }
+}
@@ -3,9 +3,14 @@ package uk.co.gresearch.siembol.spark;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Encoders;
+import org.apache.spark.sql.SparkSession;
 import org.junit.*;
+import uk.co.gresearch.siembol.common.model.testing.FilesFormatDto;
 
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
 
 public class AlertingSparkJobTest {
     private final String isAlertRules = """
@@ -128,4 +133,96 @@ public class AlertingSparkJobTest {
         AlertingSparkResult result = job.eval();
         Assert.assertFalse(result.isEmpty());
     }
+
+    @Test
+    @Ignore
+    public void parquetFilesTest() throws Exception {
+        ArrayList<String> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(goodAlert);
+            events.add(eventWithoutAlert);
+            events.add(goodAlert.replace("secret", "public"));
+        }
+
+        SparkSession spark = SparkSession.builder().sparkContext(sc.sc()).getOrCreate();
+        String path = Files.createTempDirectory("alerts").resolve("events.parquet").toString();
+        spark.read().json(spark.createDataset(events, Encoders.STRING())).write().parquet(path);
+
+        job = new AlertingSparkJob.Builder()
+                .sparkContext(sc)
+                .filesPaths(List.of(path))
+                .filesFormat(FilesFormatDto.PARQUET)
+                .alertingRules(isAlertRules.replace("\"*\"", "\"secret\""))
+                .maxResultSize(maxResultSize)
+                .build();
+
+        var result = job.eval().toAlertingSparkTestingResult();
+        Assert.assertEquals(200, result.getMatchesTotal());
+        Assert.assertEquals(0, result.getExceptionsTotal());
+        Assert.assertFalse(result.getMatches().get(0).containsKey("dummy_field_int"));
+    }
+
+    @Test
+    @Ignore
+    public void earlyTerminationTest() throws Exception {
+        ArrayList<String> events = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            events.add(goodAlert);
+        }
+
+        JavaRDD<String> eventsRdd = sc.parallelize(events, 10);
+        job = new AlertingSparkJob.Builder()
+                .sparkContext(sc)
+                .rdd(eventsRdd)
+                .alertingRules(isAlertRules)
+                .maxResultSize(maxResultSize)
+                .batchSize(10)
+                .earlyTermination(true)
+                .build();
+
+        var result = job.eval().toAlertingSparkTestingResult();
+        Assert.assertTrue(result.isTerminatedEarly());
+        Assert.assertEquals(maxResultSize, result.getMatches().size());
+        Assert.assertTrue(result.getEventsTotal() < 10000);
+        Assert.assertEquals(result.getEventsTotal(), result.getMatchesTotal());
+        Assert.assertNull(result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    @Ignore
+    public void samplingTest() throws Exception {
+        ArrayList<String> events = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            events.add(goodAlert);
+            events.add(eventWithoutAlert);
+        }
+
+        JavaRDD<String> eventsRdd = sc.parallelize(events, 4);
+        job = new AlertingSparkJob.Builder()
+                .sparkContext(sc)
+                .rdd(eventsRdd)
+                .alertingRules(isAlertRules)
+                .maxResultSize(maxResultSize)
+                .samplingRate(0.1)
+                .build();
+
+        var result = job.eval().toAlertingSparkTestingResult();
+        var resultAgain = job.eval().toAlertingSparkTestingResult();
+        Assert.assertEquals(result.getMatchesTotal(), resultAgain.getMatchesTotal());
+        Assert.assertTrue(result.getEventsTotal() < 2000);
+        Assert.assertEquals(0.5, result.getMatchRate(), 0.1);
+        Assert.assertEquals(5000, result.getEstimatedMatchesTotal(), 1000);
+        Assert.assertFalse(result.isTerminatedEarly());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @Ignore
+    public void wrongSamplingRateTest() throws Exception {
+        new AlertingSparkJob.Builder()
+                .sparkContext(sc)
+                .rdd(sc.parallelize(List.of(goodAlert)))
+                .alertingRules(isAlertRules)
+                .samplingRate(0)
+                .build();
+    }
 }
@@ -0,0 +1,81 @@
+package uk.co.gresearch.siembol.spark;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+public class AlertingSparkProjectionTest {
+    private final String rules = """
+            {
+               "rules_version" :1,
+               "tags" : [ { "tag_name" : "detection_source", "tag_value" : "siembol_alerts" } ],
+               "rules" : [ {
+                   "rule_name" : "test_rule",
+                   "rule_version" : 1,
+                   "rule_author" : "dummy",
+                   "rule_protection" : {
+                       "max_per_hour" : 100,
+                       "max_per_day" : 10000
+                   },
+                   "rule_description": "Testing rule",
+                   "source_type" : "secret",
+                   "matchers" : [ {
+                       "matcher_type" : "REGEX_MATCH",
+                       "is_negated" : false,
+                       "field" : "is_alert",
+                       "data" : "(?i)true" },
+                       {
+                       "matcher_type" : "COMPOSITE_OR",
+                       "matchers" : [ {
+                           "matcher_type" : "IS_IN_SET",
+                           "is_negated" : true,
+                           "field" : "host",
+                           "data" : "${dst_host}" },
+                           {
+                           "matcher_type" : "REGEX_MATCH",
+                           "is_enabled" : false,
+                           "field" : "disabled_field",
+                           "data" : "secret" }
+                       ]}
+                   ],
+                   "tags" : [ { "tag_name" : "user", "tag_value" : "${user}" } ]
+               },
+               {
+                   "rule_name" : "test_rule2",
+                   "rule_version" : 1,
+                   "rule_author" : "dummy",
+                   "rule_description": "Testing rule",
+                   "source_type" : "public",
+                   "matchers" : [ {
+                       "matcher_type" : "IS_IN_SET",
+                       "field" : "ip",
+                       "data" : "1.2.3.4" }
+                   ]
+               }]
+            }
+            """;
+
+    @Test
+    public void fieldsAndSourceTypes() throws Exception {
+        AlertingSparkProjection projection = AlertingSparkProjection.fromRules(rules);
+        Assert.assertEquals(Set.of("source_type", "is_alert", "host", "dst_host", "user", "ip"),
+                projection.getFields());
+        Assert.assertEquals(Optional.of(Set.of("secret", "public")), projection.getSourceTypes());
+        Assert.assertEquals("source_type", projection.getSourceField());
+    }
+
+    @Test
+    public void allSourceTypes() throws Exception {
+        AlertingSparkProjection projection = AlertingSparkProjection.fromRules(
+                rules.replace("\"source_type\" : \"public\"", "\"source_type\" : \"*\""));
+        Assert.assertTrue(projection.getSourceTypes().isEmpty());
+        Assert.assertTrue(projection.getFields().contains("ip"));
+    }
+
+    @Test(expected = Exception.class)
+    public void invalidRules() throws Exception {
+        AlertingSparkProjection.fromRules("INVALID");
+    }
+}
@@ -163,4 +163,44 @@ public class SparkResultTest {
         Assert.assertEquals("true", cloneTestingResult.getMatches().get(0).get("test"));
     }
 
+    @Test
+    public void samplingEstimateTest() {
+        event.put("test", "true");
+        attributes.setOutputEvents(List.of(event));
+        var sparkResult = AlertingSparkResult.emptyResult(maxResult);
+        for (int i = 0; i < 4; i++) {
+            sparkResult.merge(new AlertingSparkResult(alertingResult, maxResult));
+            sparkResult.merge(new AlertingSparkResult(
+                    new AlertingResult(AlertingResult.StatusCode.OK, new AlertingAttributes()), maxResult));
+        }
+
+        alertingSparkTestResult = sparkResult.samplingRate(0.1).toAlertingSparkTestingResult();
+        Assert.assertEquals(4, alertingSparkTestResult.getMatchesTotal());
+        Assert.assertEquals(8, alertingSparkTestResult.getEventsTotal());
+        Assert.assertEquals(0.5, alertingSparkTestResult.getMatchRate(), 0.0001);
+        Assert.assertEquals(0.1, alertingSparkTestResult.getSamplingRate(), 0.0001);
+        Assert.assertEquals(Long.valueOf(40), alertingSparkTestResult.getEstimatedMatchesTotal());
+        Assert.assertFalse(alertingSparkTestResult.isTerminatedEarly());
+    }
+
+    @Test
+    public void terminatedEarlyTest() {
+        event.put("test", "true");
+        ArrayList<Map<String, Object>> events = new ArrayList<>();
+        for (int i = 0; i < maxResult; i++) {
+            events.add(event);
+        }
+
+        attributes.setOutputEvents(events);
+        var sparkResult = new AlertingSparkResult(alertingResult, maxResult);
+        Assert.assertTrue(sparkResult.isFull());
+        Assert.assertFalse(AlertingSparkResult.emptyResult(maxResult).isFull());
+
+        alertingSparkTestResult = AlertingSparkResult.emptyResult(maxResult)
+                .merge(sparkResult.terminatedEarly())
+                .toAlertingSparkTestingResult();
+        Assert.assertTrue(alertingSparkTestResult.isTerminatedEarly());
+        Assert.assertEquals(maxResult, alertingSparkTestResult.getMatchesTotal());
+        Assert.assertNull(alertingSparkTestResult.getEstimatedMatchesTotal());
+    }
 }
@@ -22,9 +22,10 @@ import uk.co.gresearch.siembol.common.metrics.storm.StormMetricsRegistrarFactory
 import uk.co.gresearch.siembol.common.metrics.storm.StormMetricsRegistrarFactoryImpl;
 import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
 import uk.co.gresearch.siembol.common.zookeeper.*;
-import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+import uk.co.gresearch.siembol.alerts.common.AlertingBatchResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.common.EvaluationProfile;
 import uk.co.gresearch.siembol.alerts.compiler.AlertingRulesCompiler;
 import uk.co.gresearch.siembol.alerts.storm.model.AlertMessage;
 import uk.co.gresearch.siembol.alerts.storm.model.AlertMessages;
@@ -33,14 +34,23 @@ import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.storm.utils.TupleUtils.isTick;
+import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentConfig;
 /**
  * An object for integration of an alerting engine into a storm bolt
  *
  * <p>This class extends a Storm BaseRichBolt class to implement a Storm bolt, that
  *  evaluates events using an engine initialised from the rules cached in the ZooKeeper,
  *  watches for the rules update in ZooKeeper and updates the rules without need to restart the topology or the bolt,
+ *  the unchanged rules of the current engine are reused during the update,
  *  emits alerts and exceptions after matching.
+ *  It evaluates the events in batches of the configured size and
+ *  the events of an incomplete batch are evaluated after receiving a tick tuple.
+ *  It optionally profiles the rules and reports their profiles into metrics.
+ *  It optionally evaluates shards of the rules of an event in parallel by a fork-join pool of the executor.
  * @author Marian Novotny
  * @see AlertingEngine
  * @see ZooKeeperConnector
@@ -58,6 +68,7 @@ public class AlertingEngineBolt extends BaseRichBolt {
     private static final String ENGINE_UPDATE_COMPLETED = "Alerting Engine update completed";
     private static final String ENGINE_UPDATE_TRY_MSG_FORMAT = "Alerting Engine is trying to update the rules: %s";
     private static final String ACK_NO_MATCH_LOG = "Ack-ing event {}, since no further processing required";
+    private static final int TICK_INTERVAL_SEC = 1;
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private static final ObjectWriter JSON_WRITER = new ObjectMapper()
             .writerFor(new TypeReference<Map<String, Object>>() { });
@@ -71,6 +82,15 @@ public class AlertingEngineBolt extends BaseRichBolt {
     private final ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory;
     private final ZooKeeperAttributesDto zooKeeperAttributes;
     private final StormMetricsRegistrarFactory metricsFactory;
+    private final int batchSize;
+    private final int evaluationParallelism;
+    private final int ruleEvaluationBudgetMs;
+    private final int ruleMaxBudgetOverruns;
+    private final int profilingSamplingInterval;
+    private final int profilingReportIntervalTicks;
+    private transient List<Tuple> batch;
+    private int ticksFromProfilingReport = 0;
+    private transient ForkJoinPool evaluationPool;
 
 
     AlertingEngineBolt(AlertingStormAttributesDto attributes,
@@ -79,6 +99,13 @@ public class AlertingEngineBolt extends BaseRichBolt {
         this.zooKeeperAttributes = attributes.getZookeperAttributes();
         this.zooKeeperConnectorFactory = zooKeeperConnectorFactory;
         this.metricsFactory = metricsFactory;
+        this.batchSize = attributes.getAlertingEngineBatchSize();
+        this.evaluationParallelism = attributes.getAlertingEngineParallelism();
+        this.ruleEvaluationBudgetMs = attributes.getAlertingEngineRuleEvaluationBudgetMs();
+        this.ruleMaxBudgetOverruns = attributes.getAlertingEngineRuleMaxBudgetOverruns();
+        this.profilingSamplingInterval = attributes.getAlertingEngineProfilingSamplingInterval();
+        this.profilingReportIntervalTicks = attributes.getAlertingEngineProfilingReportIntervalSec()
+                / TICK_INTERVAL_SEC;
     }
 
     AlertingEngineBolt(AlertingStormAttributesDto attributes) {
@@ -89,10 +116,14 @@ public class AlertingEngineBolt extends BaseRichBolt {
     @Override
     public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
         this.collector = outputCollector;
+        this.batch = new ArrayList<>();
         try {
             LOG.info(ENGINE_INIT_START);
             zooKeeperConnector = zooKeeperConnectorFactory.createZookeeperConnector(zooKeeperAttributes);
             metricsRegistrar = metricsFactory.createSiembolMetricsRegistrar(topologyContext);
+            if (evaluationParallelism > 1) {
+                evaluationPool = new ForkJoinPool(evaluationParallelism);
+            }
 
             updateRules();
             if (AlertingEngine.get() == null) {
@@ -115,7 +146,16 @@ public class AlertingEngineBolt extends BaseRichBolt {
             List<String> rulesList = zooKeeperConnector.getData();
             LOG.info(String.format(ENGINE_UPDATE_TRY_MSG_FORMAT, getRulesListInfo(rulesList)));
 
-            AlertingEngine engine = getAlertingEngine(rulesList);
+            AlertingEngine engine = getAlertingEngine(rulesList, AlertingEngine.get());
+            if (profilingSamplingInterval > 0) {
+                engine.setProfiling(profilingSamplingInterval);
+            }
+            if (evaluationPool != null) {
+                engine.setEvaluationPool(evaluationPool);
+            }
+            if (ruleEvaluationBudgetMs > 0) {
+                engine.setEvaluationBudget(ruleEvaluationBudgetMs, ruleMaxBudgetOverruns);
+            }
             AlertingEngine.set(engine);
 
             metricsRegistrar.registerCounter(SiembolMetrics.ALERTING_RULES_UPDATE.getMetricName()).increment();
@@ -132,9 +172,10 @@ public class AlertingEngineBolt extends BaseRichBolt {
         return builder.toString();
     }
 
-    protected AlertingEngine getAlertingEngine(List<String> rulesList) {
+    protected AlertingEngine getAlertingEngine(List<String> rulesList, AlertingEngine previousEngine) {
         try {
-            AlertingResult engineResult =  AlertingRulesCompiler.createAlertingRulesCompiler().compile(rulesList);
+            AlertingResult engineResult =  AlertingRulesCompiler.createAlertingRulesCompiler()
+                    .compile(rulesList, previousEngine);
             if (engineResult.getStatusCode() != AlertingResult.StatusCode.OK) {
                 String errorMsg = String.format(COMPILER_EXCEPTION_MSG_FORMAT,
                         engineResult.getAttributes().getException());
@@ -150,15 +191,82 @@ public class AlertingEngineBolt extends BaseRichBolt {
         }
     }
 
+    protected SiembolMetricsRegistrar getMetricsRegistrar() {
+        return metricsRegistrar;
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        return batchSize > 1 || profilingSamplingInterval > 0
+                ? putTickFrequencyIntoComponentConfig(null, TICK_INTERVAL_SEC)
+                : null;
+    }
+
     @Override
     public void execute(Tuple tuple) {
+        if (isTick(tuple)) {
+            evaluateBatch();
+            if (profilingSamplingInterval > 0 && ++ticksFromProfilingReport >= profilingReportIntervalTicks) {
+                ticksFromProfilingReport = 0;
+                reportProfile(AlertingEngine.get());
+            }
+            return;
+        }
+
+        batch.add(tuple);
+        if (batch.size() >= batchSize) {
+            evaluateBatch();
+        }
+    }
+
+    private void reportProfile(AlertingEngine currentEngine) {
+        for (EvaluationProfile ruleProfile : currentEngine.getProfile(true)) {
+            String ruleName = ruleProfile.getName();
+            metricsRegistrar.registerCounter(SiembolMetrics.ALERTING_RULE_EVALUATIONS.getMetricName(ruleName))
+                    .increment((int) ruleProfile.getEvaluations());
+            metricsRegistrar.registerGauge(SiembolMetrics.ALERTING_RULE_SELECTIVITY.getMetricName(ruleName))
+                    .setValue(ruleProfile.getSelectivity());
+            if (ruleProfile.getSampledEvaluations() == 0) {
+                continue;
+            }
+
+            metricsRegistrar.registerGauge(SiembolMetrics.ALERTING_RULE_EVALUATION_TIME_NS.getMetricName(ruleName))
+                    .setValue(ruleProfile.getAverageTimeNs());
+            for (int i = 0; i < ruleProfile.getMatchers().size(); i++) {
+                EvaluationProfile matcherProfile = ruleProfile.getMatchers().get(i);
+                if (matcherProfile.getEvaluations() == 0) {
+                    continue;
+                }
+                metricsRegistrar.registerGauge(SiembolMetrics.ALERTING_RULE_MATCHER_EVALUATION_TIME_NS
+                        .getMetricName(ruleName, i)).setValue(matcherProfile.getAverageTimeNs());
+                metricsRegistrar.registerGauge(SiembolMetrics.ALERTING_RULE_MATCHER_SELECTIVITY
+                        .getMetricName(ruleName, i)).setValue(matcherProfile.getSelectivity());
+            }
+        }
+    }
+
+    protected void evaluateBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+
         AlertingEngine currentEngine = AlertingEngine.get();
-        String event = tuple.getStringByField(TupleFieldNames.EVENT.toString());
-        AlertingResult ret = currentEngine.evaluate(event);
+        List<String> events = new ArrayList<>(batch.size());
+        batch.forEach(x -> events.add(x.getStringByField(TupleFieldNames.EVENT.toString())));
+        AlertingBatchResult ret = currentEngine.evaluate(events);
+
+        for (int i = 0; i < batch.size(); i++) {
+            processResult(currentEngine, batch.get(i), events.get(i), ret, i);
+        }
+        batch.clear();
+    }
 
-        if (ret.getStatusCode() == AlertingResult.StatusCode.OK
-                && ret.getAttributes().getEvaluationResult() == EvaluationResult.NO_MATCH
-                && ret.getAttributes().getExceptionEvents() == null) {
+    private void processResult(AlertingEngine currentEngine,
+                               Tuple tuple,
+                               String event,
+                               AlertingBatchResult ret,
+                               int index) {
+        if (!ret.hasResult(index)) {
             LOG.debug(ACK_NO_MATCH_LOG, event);
             collector.ack(tuple);
             return;
@@ -167,14 +275,14 @@ public class AlertingEngineBolt extends BaseRichBolt {
         AlertMessages matches = new AlertMessages();
         ExceptionMessages exceptions = new ExceptionMessages();
 
-        if (ret.getStatusCode() != AlertingResult.StatusCode.OK) {
+        if (ret.getErrorMessage(index) != null) {
             exceptions.add(String.format(EXCEPTION_MSG_FORMAT,
-                    ret.getAttributes().getException(),
+                    ret.getErrorMessage(index),
                     event));
         }
 
-        if (ret.getAttributes().getExceptionEvents() != null) {
-            ret.getAttributes().getExceptionEvents()
+        if (ret.getExceptionEvents(index) != null) {
+            ret.getExceptionEvents(index)
                     .forEach( x -> {
                         try {
                             exceptions.add(JSON_WRITER.writeValueAsString(x));
@@ -184,8 +292,8 @@ public class AlertingEngineBolt extends BaseRichBolt {
                     });
         }
 
-        if (ret.getAttributes().getOutputEvents() != null) {
-            ret.getAttributes().getOutputEvents()
+        if (ret.getOutputEvents(index) != null) {
+            ret.getOutputEvents(index)
                     .forEach( x -> {
                         try {
                             matches.add(new AlertMessage(currentEngine.getAlertingEngineType(),
@@ -201,6 +309,13 @@ public class AlertingEngineBolt extends BaseRichBolt {
         collector.ack(tuple);
     }
 
+    @Override
+    public void cleanup() {
+        if (evaluationPool != null) {
+            evaluationPool.shutdown();
+        }
+    }
+
     @Override
     public void declareOutputFields(OutputFieldsDeclarer declarer) {
         declarer.declare(new Fields(TupleFieldNames.ALERTING_MATCHES.toString(),
@@ -10,7 +10,6 @@ import uk.co.gresearch.siembol.common.error.ErrorMessage;
 import uk.co.gresearch.siembol.common.error.ErrorType;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystem;
-import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystemImpl;
 import uk.co.gresearch.siembol.alerts.storm.model.*;
 import uk.co.gresearch.siembol.common.metrics.SiembolMetrics;
 import uk.co.gresearch.siembol.common.metrics.storm.StormMetricsRegistrarFactory;
@@ -18,6 +17,7 @@ import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 import uk.co.gresearch.siembol.common.storm.KafkaWriterAnchor;
 import uk.co.gresearch.siembol.common.storm.KafkaWriterBoltBase;
 import uk.co.gresearch.siembol.common.storm.KafkaWriterMessage;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
 
 /**
@@ -27,6 +27,7 @@ import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
  *  evaluates events using an engine initialised from the rules cached in the ZooKeeper,
  *  watches for the rules update in ZooKeeper and updates the rules without need to restart the topology or the bolt and
  *  emits alerts and exceptions after matching.
+ *  The rule protection counters can be shared by all bolts of the worker and merged with other workers.
  *
  * @author Marian Novotny
  * @see KafkaWriterBoltBase
@@ -47,6 +48,10 @@ public class AlertingKafkaWriterBolt extends KafkaWriterBoltBase {
     private final String errorTopic;
     private final String outputTopic;
     private final String correlationTopic;
+    private final boolean ruleProtectionShared;
+    private final ZooKeeperAttributesDto ruleProtectionZooKeeperAttributes;
+    private final Integer ruleProtectionSyncIntervalSec;
+    private final String topologyName;
     private RuleProtectionSystem ruleProtection;
 
     public AlertingKafkaWriterBolt(AlertingStormAttributesDto attributes,  StormMetricsRegistrarFactory metricsFactory) {
@@ -54,6 +59,10 @@ public class AlertingKafkaWriterBolt extends KafkaWriterBoltBase {
         this.outputTopic = attributes.getOutputTopic();
         this.errorTopic = attributes.getKafkaErrorTopic();
         this.correlationTopic = attributes.getCorrelationOutputTopic();
+        this.ruleProtectionShared = Boolean.TRUE.equals(attributes.getRuleProtectionShared());
+        this.ruleProtectionZooKeeperAttributes = attributes.getRuleProtectionZooKeeperAttributes();
+        this.ruleProtectionSyncIntervalSec = attributes.getRuleProtectionSyncIntervalSec();
+        this.topologyName = attributes.getTopologyName();
         AlertingEngineType engineType = AlertingEngineType.valueOfName(attributes.getAlertingEngine());
         errorSensorType = engineType.toString();
     }
@@ -136,7 +145,18 @@ public class AlertingKafkaWriterBolt extends KafkaWriterBoltBase {
 
     @Override
     public void prepareInternally() {
-        ruleProtection = new RuleProtectionSystemImpl();
+        ruleProtection = WorkerRuleProtectionProvider.getRuleProtection(ruleProtectionShared,
+                ruleProtectionZooKeeperAttributes,
+                ruleProtectionSyncIntervalSec,
+                topologyName);
+    }
+
+    @Override
+    public void cleanup() {
+        if (ruleProtection != null) {
+            WorkerRuleProtectionProvider.releaseRuleProtection(ruleProtection);
+        }
+        super.cleanup();
     }
 
     private String getErrorMessageToSend(String errorMsg) {
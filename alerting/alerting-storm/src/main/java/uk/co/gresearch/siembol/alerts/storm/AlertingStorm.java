@@ -96,7 +96,7 @@ public class AlertingStorm {
         builder.setBolt(AlertingEngineType.SIEMBOL_CORRELATION_ALERTS.getEngineName(),
                 new CorrelationAlertingEngineBolt(attributes, zooKeeperConnectorFactory, metricsFactory),
                 attributes.getAlertingEngineBoltNumExecutors())
-                .fieldsGrouping(KAFKA_SPOUT, new Fields(TupleFieldNames.CORRELATION_KEY.toString()));
+                .customGrouping(KAFKA_SPOUT, new CorrelationKeyGrouping());
 
         builder.setBolt(KAFKA_WRITER,
                 new AlertingKafkaWriterBolt(attributes, metricsFactory), attributes.getKafkaWriterBoltNumExecutors())
@@ -0,0 +1,99 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import java.util.Arrays;
+/**
+ * An object for assigning correlation keys to shards by consistent hashing
+ *
+ * <p>This class places virtual nodes of every shard on a hash ring and assigns a key to the shard
+ * of the first virtual node following the hash of the key.
+ * After changing the number of shards, only the keys of the ranges taken by the added shards or released
+ * by the removed shards are moved, the other keys keep their shards.
+ * The ring is immutable and thread safe.
+ *
+ * @author Marian Novotny
+ * @see CorrelationKeyGrouping
+ *
+ */
+public class ConsistentHashRing {
+    private static final String WRONG_NUMBER_OF_SHARDS = "Wrong number of shards: %d";
+    private static final int VIRTUAL_NODES_PER_SHARD = 128;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String EMPTY_KEY = "";
+
+    private final int numberOfShards;
+    private final long[] positions;
+    private final int[] shards;
+
+    /**
+     * Creates the ring
+     *
+     * @param numberOfShards the number of shards
+     * @throws IllegalArgumentException if the number of shards is not positive
+     */
+    public ConsistentHashRing(int numberOfShards) {
+        if (numberOfShards <= 0) {
+            throw new IllegalArgumentException(String.format(WRONG_NUMBER_OF_SHARDS, numberOfShards));
+        }
+
+        this.numberOfShards = numberOfShards;
+        int size = numberOfShards * VIRTUAL_NODES_PER_SHARD;
+        long[][] nodes = new long[size][];
+        for (int shard = 0; shard < numberOfShards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES_PER_SHARD; node++) {
+                nodes[shard * VIRTUAL_NODES_PER_SHARD + node] = new long[]{ hash(shard + ":" + node), shard };
+            }
+        }
+        Arrays.sort(nodes, (x, y) -> x[0] != y[0] ? Long.compare(x[0], y[0]) : Long.compare(x[1], y[1]));
+
+        positions = new long[size];
+        shards = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = nodes[i][0];
+            shards[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * Provides the shard of the key
+     *
+     * @param key the correlation key, null is treated as an empty key
+     * @return the index of the shard from 0 to the number of shards - 1
+     */
+    public int getShard(String key) {
+        if (numberOfShards == 1) {
+            return 0;
+        }
+
+        int index = Arrays.binarySearch(positions, hash(key != null ? key : EMPTY_KEY));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return shards[index < positions.length ? index : 0];
+    }
+
+    /**
+     * Provides the number of shards
+     *
+     * @return the number of shards of the ring
+     */
+    public int getNumberOfShards() {
+        return numberOfShards;
+    }
+
+    private static long hash(String value) {
+        //NOTE: FNV-1a followed by the murmur3 finaliser for spreading similar keys on the ring
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
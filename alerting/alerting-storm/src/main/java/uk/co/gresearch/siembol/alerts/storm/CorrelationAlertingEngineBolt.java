@@ -1,9 +1,16 @@
 package uk.co.gresearch.siembol.alerts.storm;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationAlertingEngine;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationStateCheckpointer;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationStateEntry;
+import uk.co.gresearch.siembol.alerts.correlationengine.FileCorrelationStateStore;
+import uk.co.gresearch.siembol.common.metrics.SiembolMetrics;
 import uk.co.gresearch.siembol.common.metrics.storm.StormMetricsRegistrarFactory;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperCompositeConnectorFactory;
 import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
@@ -12,9 +19,16 @@ import uk.co.gresearch.siembol.alerts.compiler.AlertingCorrelationRulesCompiler;
 import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import static org.apache.storm.utils.TupleUtils.isTick;
 import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentConfig;
 /**
@@ -25,26 +39,89 @@ import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentCon
  *  watches for the rules update in ZooKeeper and updates the rules without need to restart the topology or the bolt,
  *  emits alerts and exceptions after matching.
  *  It cleans regularly internal state of counters by calling clean method of the alerting engine.
+ *  It checkpoints regularly internal state of counters into a local directory if it is configured,
+ *  the state is restored after preparing the bolt and after updating the rules.
+ *  The checkpoints are stored per task index and the correlation keys are assigned to the tasks by consistent hashing,
+ *  so after changing the number of tasks the state of the moved correlation keys and the state of the removed tasks
+ *  is handed off to the new owners of the keys in the same worker through a local handoff channel.
  *
  * @author Marian Novotny
- * @see AlertingEngine
+ * @see CorrelationAlertingEngine
  * @see ZooKeeperConnector
+ * @see CorrelationKeyGrouping
+ * @see CorrelationStateHandoff
  *
  */
 public class CorrelationAlertingEngineBolt extends AlertingEngineBolt {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String STATE_INIT_EXCEPTION_MSG_FORMAT =
+            "Exception during initialising correlation state store: %s";
+    private static final String STATE_RESTORE_EXCEPTION_LOG = "Exception during restoring correlation state: {}";
+    private static final String STATE_CHECKPOINT_EXCEPTION_LOG =
+            "Exception during checkpointing correlation state: {}";
+    private static final String STATE_RELEASE_EXCEPTION_LOG =
+            "Exception during releasing correlation state of a removed task: {}";
+    private static final String STATE_HANDOFF_DROPPED_LOG =
+            "Dropping correlation state of {} keys owned by the task {} in another worker";
+    private static final String WRONG_ENGINE_MSG = "Correlation alerting engine is required for correlation rules";
+    private static final String STATE_DIRECTORY_FORMAT = "%s_%d";
+    private static final String STATE_DIRECTORY_REGEX = "%s_(\\d+)";
     private final int cleanIntervalSec;
+    private final String stateDirectory;
+    private final int checkpointIntervalTicks;
+    private transient CorrelationStateCheckpointer checkpointer;
+    private transient CorrelationAlertingEngine checkpointedEngine;
+    private transient ConsistentHashRing shardRing;
+    private transient String topologyId;
+    private transient String componentId;
+    private transient int taskIndex;
+    private transient List<Integer> componentTasks;
+    private transient Set<Integer> workerTasks;
+    private int ticksFromCheckpoint = 0;
 
     public CorrelationAlertingEngineBolt(AlertingStormAttributesDto attributes,
                                          ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory,
                                          StormMetricsRegistrarFactory metricsFactory) {
         super(attributes, zooKeeperConnectorFactory, metricsFactory);
         cleanIntervalSec = attributes.getAlertingEngineCleanIntervalSec();
+        stateDirectory = attributes.getAlertingEngineStateDirectory();
+        checkpointIntervalTicks = (attributes.getAlertingEngineStateCheckpointIntervalSec() + cleanIntervalSec - 1)
+                / cleanIntervalSec;
     }
 
+    @SuppressWarnings("rawtypes")
     @Override
-    protected AlertingEngine getAlertingEngine(List<String> rulesList) {
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+        super.prepare(map, topologyContext, outputCollector);
+        if (stateDirectory == null) {
+            return;
+        }
+
+        List<CorrelationStateEntry> removedTasksState;
+        try {
+            topologyId = topologyContext.getStormId();
+            componentId = topologyContext.getThisComponentId();
+            taskIndex = topologyContext.getThisTaskIndex();
+            componentTasks = new ArrayList<>(topologyContext.getComponentTasks(componentId));
+            Collections.sort(componentTasks);
+            workerTasks = new HashSet<>(topologyContext.getThisWorkerTasks());
+            shardRing = new ConsistentHashRing(Math.max(1, componentTasks.size()));
+
+            checkpointer = new CorrelationStateCheckpointer(new FileCorrelationStateStore(Paths.get(stateDirectory,
+                    String.format(STATE_DIRECTORY_FORMAT, componentId, taskIndex))));
+            removedTasksState = releaseRemovedTasksState();
+        } catch (Exception e) {
+            String msg = String.format(STATE_INIT_EXCEPTION_MSG_FORMAT, ExceptionUtils.getStackTrace(e));
+            LOG.error(msg);
+            throw new IllegalStateException(msg);
+        }
+        synchroniseState();
+        handOffState(getCorrelationEngine(), removedTasksState);
+    }
+
+    @Override
+    protected AlertingEngine getAlertingEngine(List<String> rulesList, AlertingEngine previousEngine) {
         try {
             AlertingResult engineResult =  AlertingCorrelationRulesCompiler
                     .createAlertingCorrelationRulesCompiler()
@@ -55,6 +132,10 @@ public class CorrelationAlertingEngineBolt extends AlertingEngineBolt {
                 LOG.error(errorMsg);
                 throw new IllegalStateException(errorMsg);
             }
+
+            if (!(engineResult.getAttributes().getEngine() instanceof CorrelationAlertingEngine)) {
+                throw new IllegalStateException(WRONG_ENGINE_MSG);
+            }
             return engineResult.getAttributes().getEngine();
         } catch (Exception e) {
             String errorMsg = String.format(COMPILER_EXCEPTION_MSG_FORMAT,
@@ -72,11 +153,129 @@ public class CorrelationAlertingEngineBolt extends AlertingEngineBolt {
     @Override
     public void execute(Tuple tuple) {
         if (isTick(tuple)) {
-            AlertingEngine currentEngine = AlertingEngine.get();
+            evaluateBatch();
+            synchroniseState();
+            CorrelationAlertingEngine currentEngine = getCorrelationEngine();
             currentEngine.clean();
+            if (checkpointer != null && ++ticksFromCheckpoint >= checkpointIntervalTicks) {
+                ticksFromCheckpoint = 0;
+                checkpoint(currentEngine);
+            }
             return;
         }
 
         super.execute(tuple);
     }
+
+    @Override
+    protected void evaluateBatch() {
+        synchroniseState();
+        super.evaluateBatch();
+    }
+
+    private CorrelationAlertingEngine getCorrelationEngine() {
+        return (CorrelationAlertingEngine) AlertingEngine.get();
+    }
+
+    private void synchroniseState() {
+        if (checkpointer == null) {
+            return;
+        }
+
+        CorrelationAlertingEngine currentEngine = getCorrelationEngine();
+        if (currentEngine != checkpointedEngine) {
+            restoreState(currentEngine);
+        }
+
+        List<CorrelationStateEntry> received = CorrelationStateHandoff.receive(topologyId, componentId, taskIndex);
+        if (!received.isEmpty()) {
+            currentEngine.mergeState(received);
+            getMetricsRegistrar().registerCounter(
+                    SiembolMetrics.ALERTING_ENGINE_STATE_HANDOFF_RECEIVED.getMetricName()).increment(received.size());
+        }
+    }
+
+    private void restoreState(CorrelationAlertingEngine currentEngine) {
+        if (checkpointedEngine != null) {
+            checkpoint(checkpointedEngine);
+        }
+
+        checkpointedEngine = currentEngine;
+        try {
+            List<CorrelationStateEntry> moved = checkpointer.restore(currentEngine,
+                    x -> shardRing.getShard(x.getCorrelationKey()) == taskIndex);
+            getMetricsRegistrar().registerCounter(SiembolMetrics.ALERTING_ENGINE_STATE_RESTORE.getMetricName())
+                    .increment();
+            handOffState(currentEngine, moved);
+        } catch (Exception e) {
+            LOG.error(STATE_RESTORE_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+            getMetricsRegistrar().registerCounter(SiembolMetrics.ALERTING_ENGINE_STATE_ERROR_RESTORE.getMetricName())
+                    .increment();
+        }
+    }
+
+    private List<CorrelationStateEntry> releaseRemovedTasksState() throws IOException {
+        List<CorrelationStateEntry> ret = new ArrayList<>();
+        Pattern directoryPattern = Pattern.compile(String.format(STATE_DIRECTORY_REGEX, Pattern.quote(componentId)));
+        List<Path> directories;
+        try (Stream<Path> paths = Files.list(Paths.get(stateDirectory))) {
+            directories = paths.collect(Collectors.toList());
+        }
+
+        int numberOfShards = shardRing.getNumberOfShards();
+        for (Path directory : directories) {
+            Matcher matcher = directoryPattern.matcher(directory.getFileName().toString());
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            //NOTE: the state of a removed task is released by the task with the same index modulo number of tasks
+            int index = Integer.parseInt(matcher.group(1));
+            if (index < numberOfShards || index % numberOfShards != taskIndex) {
+                continue;
+            }
+
+            try {
+                ret.addAll(new CorrelationStateCheckpointer(new FileCorrelationStateStore(directory)).release());
+                Files.deleteIfExists(directory);
+            } catch (Exception e) {
+                LOG.error(STATE_RELEASE_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+                getMetricsRegistrar().registerCounter(
+                        SiembolMetrics.ALERTING_ENGINE_STATE_ERROR_RESTORE.getMetricName()).increment();
+            }
+        }
+        return ret;
+    }
+
+    private void handOffState(CorrelationAlertingEngine currentEngine, List<CorrelationStateEntry> entries) {
+        Map<Integer, List<CorrelationStateEntry>> shardEntries = new HashMap<>();
+        entries.forEach(x -> shardEntries.computeIfAbsent(shardRing.getShard(x.getCorrelationKey()),
+                y -> new ArrayList<>()).add(x));
+
+        shardEntries.forEach((shard, current) -> {
+            if (shard == taskIndex) {
+                currentEngine.mergeState(current);
+            } else if (workerTasks.contains(componentTasks.get(shard))) {
+                CorrelationStateHandoff.send(topologyId, componentId, shard, current);
+                getMetricsRegistrar().registerCounter(
+                        SiembolMetrics.ALERTING_ENGINE_STATE_HANDOFF_SENT.getMetricName()).increment(current.size());
+            } else {
+                LOG.warn(STATE_HANDOFF_DROPPED_LOG, current.size(), componentTasks.get(shard));
+                getMetricsRegistrar().registerCounter(
+                        SiembolMetrics.ALERTING_ENGINE_STATE_HANDOFF_DROPPED.getMetricName()).increment(current.size());
+            }
+        });
+    }
+
+    private void checkpoint(CorrelationAlertingEngine engine) {
+        try {
+            checkpointer.checkpoint(engine);
+            getMetricsRegistrar().registerCounter(SiembolMetrics.ALERTING_ENGINE_STATE_CHECKPOINT.getMetricName())
+                    .increment();
+        } catch (Exception e) {
+            LOG.error(STATE_CHECKPOINT_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+            getMetricsRegistrar().registerCounter(
+                    SiembolMetrics.ALERTING_ENGINE_STATE_ERROR_CHECKPOINT.getMetricName()).increment();
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.grouping.CustomStreamGrouping;
+import org.apache.storm.task.WorkerTopologyContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+/**
+ * An object for grouping the tuples of correlation alerting by their correlation keys
+ *
+ * <p>This class implements Storm CustomStreamGrouping interface by assigning the correlation keys
+ * to the tasks of the correlation alerting engine bolt using a consistent hash ring.
+ * The shards of the ring are the indices of the sorted target tasks, the same as the task indices of the bolt,
+ * so after changing the number of tasks only the keys of the moved key ranges change their tasks.
+ *
+ * @author Marian Novotny
+ * @see ConsistentHashRing
+ * @see CorrelationAlertingEngineBolt
+ *
+ */
+public class CorrelationKeyGrouping implements CustomStreamGrouping {
+    private static final long serialVersionUID = 1L;
+    private transient ConsistentHashRing ring;
+    private transient List<List<Integer>> shardTasks;
+    private transient int keyIndex;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void prepare(WorkerTopologyContext context, GlobalStreamId stream, List<Integer> targetTasks) {
+        List<Integer> tasks = new ArrayList<>(targetTasks);
+        Collections.sort(tasks);
+        ring = new ConsistentHashRing(tasks.size());
+        shardTasks = new ArrayList<>(tasks.size());
+        tasks.forEach(x -> shardTasks.add(Collections.singletonList(x)));
+        keyIndex = context.getComponentOutputFields(stream).fieldIndex(TupleFieldNames.CORRELATION_KEY.toString());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Integer> chooseTasks(int taskId, List<Object> values) {
+        Object key = values.get(keyIndex);
+        return shardTasks.get(ring.getShard(key != null ? key.toString() : null));
+    }
+}
@@ -0,0 +1,66 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationStateEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+/**
+ * An object for handing off correlation state between the correlation alerting bolts of a worker
+ *
+ * <p>This class provides local handoff channels for the tasks of a correlation alerting bolt in a worker.
+ * A task that restores the state of correlation keys owned by another task of the worker sends the state
+ * into the channel of the owner, and the owner receives it and merges it into its alerting engine.
+ * The channels are identified by the topology, the component and the task index, so the state can be sent
+ * before the owner task is prepared. It is thread safe.
+ *
+ * @author Marian Novotny
+ * @see CorrelationAlertingEngineBolt
+ *
+ */
+public class CorrelationStateHandoff {
+    private static final String CHANNEL_FORMAT = "%s_%s_%d";
+    private static final Map<String, Queue<CorrelationStateEntry>> CHANNELS = new ConcurrentHashMap<>();
+
+    private CorrelationStateHandoff() {
+    }
+
+    /**
+     * Sends the state entries to the task
+     *
+     * @param topologyId the id of the topology
+     * @param componentId the id of the bolt component
+     * @param taskIndex the index of the task that owns the correlation keys of the entries
+     * @param entries the state entries
+     */
+    public static void send(String topologyId, String componentId, int taskIndex, List<CorrelationStateEntry> entries) {
+        CHANNELS.computeIfAbsent(getChannelName(topologyId, componentId, taskIndex),
+                x -> new ConcurrentLinkedQueue<>()).addAll(entries);
+    }
+
+    /**
+     * Receives the state entries sent to the task
+     *
+     * @param topologyId the id of the topology
+     * @param componentId the id of the bolt component
+     * @param taskIndex the index of the task
+     * @return the state entries sent to the task since the previous call, empty if there are no entries
+     */
+    public static List<CorrelationStateEntry> receive(String topologyId, String componentId, int taskIndex) {
+        List<CorrelationStateEntry> ret = new ArrayList<>();
+        Queue<CorrelationStateEntry> channel = CHANNELS.get(getChannelName(topologyId, componentId, taskIndex));
+        if (channel != null) {
+            for (CorrelationStateEntry entry = channel.poll(); entry != null; entry = channel.poll()) {
+                ret.add(entry);
+            }
+        }
+        return ret;
+    }
+
+    private static String getChannelName(String topologyId, String componentId, int taskIndex) {
+        return String.format(CHANNEL_FORMAT, topologyId, componentId, taskIndex);
+    }
+}
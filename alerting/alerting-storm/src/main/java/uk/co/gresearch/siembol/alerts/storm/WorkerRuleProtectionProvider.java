@@ -0,0 +1,106 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystem;
+import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystemImpl;
+import uk.co.gresearch.siembol.alerts.protection.SharedRuleProtectionSystem;
+import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
+
+import java.util.HashMap;
+import java.util.Map;
+/**
+ * An object for providing rule protection systems to kafka writer bolts
+ *
+ * <p>This class provides a rule protection system for a kafka writer bolt.
+ * If the rule protection is shared, all bolts of the topology in the worker use the same rule protection system,
+ * and its counters are merged with the counters of other workers if ZooKeeper attributes are configured.
+ * Otherwise, each bolt uses its own rule protection system.
+ * The shared rule protection system is reference counted and its ZooKeeper synchroniser is closed
+ * after it is released by all bolts.
+ *
+ * @author Marian Novotny
+ * @see SharedRuleProtectionSystem
+ * @see ZooKeeperRuleProtectionSynchroniser
+ *
+ */
+public class WorkerRuleProtectionProvider {
+    private static final String UNKNOWN_TOPOLOGY = "";
+    private static final Map<String, SharedRuleProtection> SHARED_RULE_PROTECTIONS = new HashMap<>();
+
+    private static class SharedRuleProtection {
+        private final SharedRuleProtectionSystem ruleProtection = new SharedRuleProtectionSystem();
+        private ZooKeeperRuleProtectionSynchroniser synchroniser;
+        private int references = 0;
+    }
+
+    private WorkerRuleProtectionProvider() {
+    }
+
+    /**
+     * Provides a rule protection system for a bolt
+     *
+     * @param attributes alerting storm attributes
+     * @return the rule protection system
+     */
+    public static RuleProtectionSystem getRuleProtection(AlertingStormAttributesDto attributes) {
+        return getRuleProtection(Boolean.TRUE.equals(attributes.getRuleProtectionShared()),
+                attributes.getRuleProtectionZooKeeperAttributes(),
+                attributes.getRuleProtectionSyncIntervalSec(),
+                attributes.getTopologyName());
+    }
+
+    /**
+     * Provides a rule protection system for a bolt
+     *
+     * @param shared the rule protection is shared by the bolts of the topology in the worker
+     * @param zooKeeperAttributes ZooKeeper attributes for merging the counters of workers, or null
+     * @param syncIntervalSec the period of merging the counters of workers in seconds
+     * @param topologyName the name of the topology
+     * @return the rule protection system
+     */
+    public static synchronized RuleProtectionSystem getRuleProtection(boolean shared,
+                                                                      ZooKeeperAttributesDto zooKeeperAttributes,
+                                                                      Integer syncIntervalSec,
+                                                                      String topologyName) {
+        if (!shared) {
+            return new RuleProtectionSystemImpl();
+        }
+
+        SharedRuleProtection current = SHARED_RULE_PROTECTIONS.computeIfAbsent(
+                topologyName != null ? topologyName : UNKNOWN_TOPOLOGY, x -> {
+                    SharedRuleProtection ret = new SharedRuleProtection();
+                    if (zooKeeperAttributes != null) {
+                        ret.synchroniser = ZooKeeperRuleProtectionSynchroniser
+                                .create(zooKeeperAttributes, ret.ruleProtection);
+                        ret.synchroniser.start(syncIntervalSec);
+                    }
+                    return ret;
+                });
+        current.references++;
+        return current.ruleProtection;
+    }
+
+    /**
+     * Releases the rule protection system of a bolt.
+     * The shared rule protection system is removed and its synchroniser is closed after the last release.
+     *
+     * @param ruleProtection the rule protection system provided to the bolt
+     */
+    public static synchronized void releaseRuleProtection(RuleProtectionSystem ruleProtection) {
+        var iterator = SHARED_RULE_PROTECTIONS.values().iterator();
+        while (iterator.hasNext()) {
+            SharedRuleProtection current = iterator.next();
+            if (current.ruleProtection != ruleProtection) {
+                continue;
+            }
+
+            if (--current.references <= 0) {
+                iterator.remove();
+                if (current.synchroniser != null) {
+                    current.synchroniser.close();
+                }
+            }
+            return;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.ExponentialBackoffRetry;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooDefs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.gresearch.siembol.alerts.protection.RuleMatches;
+import uk.co.gresearch.siembol.alerts.protection.SharedRuleProtectionSystem;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+/**
+ * An object for merging rule protection counters of workers using ZooKeeper
+ *
+ * <p>This class periodically publishes the rule matches counted by the worker into an ephemeral ZooKeeper node
+ * and sets the rule matches published by other workers as the remote matches of the shared rule protection system.
+ * The nodes of the workers are children of the configured ZooKeeper path,
+ * and they are removed by ZooKeeper after the worker session expires.
+ *
+ * @author Marian Novotny
+ * @see SharedRuleProtectionSystem
+ *
+ */
+public class ZooKeeperRuleProtectionSynchroniser implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .writerFor(new TypeReference<Map<String, RuleMatches>>() { });
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, RuleMatches>>() { });
+    private static final String SYNC_EXCEPTION_LOG = "Exception during merging rule protection counters: {}";
+    private static final String WRONG_WORKER_DATA_LOG = "Wrong rule protection data of the worker {}: {}";
+
+    private final CuratorFramework client;
+    private final String path;
+    private final String workerId;
+    private final String workerPath;
+    private final SharedRuleProtectionSystem ruleProtection;
+    private ScheduledExecutorService executor;
+
+    ZooKeeperRuleProtectionSynchroniser(CuratorFramework client,
+                                        String path,
+                                        String workerId,
+                                        SharedRuleProtectionSystem ruleProtection) {
+        this.client = client;
+        this.path = path;
+        this.workerId = workerId;
+        this.workerPath = ZKPaths.makePath(path, workerId);
+        this.ruleProtection = ruleProtection;
+    }
+
+    /**
+     * Creates the synchroniser with a new ZooKeeper client and a unique worker id
+     *
+     * @param attributes ZooKeeper attributes with the path of the parent node of workers
+     * @param ruleProtection the shared rule protection system of the worker
+     * @return the synchroniser
+     */
+    public static ZooKeeperRuleProtectionSynchroniser create(ZooKeeperAttributesDto attributes,
+                                                             SharedRuleProtectionSystem ruleProtection) {
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+                .connectString(attributes.getZkUrl())
+                .retryPolicy(new ExponentialBackoffRetry(attributes.getZkBaseSleepMs(), attributes.getZkMaxRetries()))
+                .build();
+        client.start();
+        return new ZooKeeperRuleProtectionSynchroniser(client,
+                attributes.getZkPath(),
+                UUID.randomUUID().toString(),
+                ruleProtection);
+    }
+
+    /**
+     * Publishes the local rule matches of the worker and merges the rule matches of other workers
+     *
+     * @throws Exception on ZooKeeper error
+     */
+    public void synchronise() throws Exception {
+        byte[] data = JSON_WRITER.writeValueAsBytes(ruleProtection.getLocalMatches());
+        if (client.checkExists().forPath(workerPath) == null) {
+            client.create()
+                    .creatingParentsIfNeeded()
+                    .withMode(CreateMode.EPHEMERAL)
+                    .withACL(ZooDefs.Ids.OPEN_ACL_UNSAFE)
+                    .forPath(workerPath, data);
+        } else {
+            client.setData().forPath(workerPath, data);
+        }
+
+        List<Map<String, RuleMatches>> remoteMatches = new ArrayList<>();
+        for (String worker : client.getChildren().forPath(path)) {
+            if (workerId.equals(worker)) {
+                continue;
+            }
+
+            try {
+                remoteMatches.add(JSON_READER.readValue(client.getData().forPath(ZKPaths.makePath(path, worker))));
+            } catch (KeeperException.NoNodeException e) {
+                continue;
+            } catch (Exception e) {
+                LOG.error(WRONG_WORKER_DATA_LOG, worker, ExceptionUtils.getStackTrace(e));
+            }
+        }
+        ruleProtection.setRemoteMatches(remoteMatches);
+    }
+
+    /**
+     * Starts merging the rule matches periodically in a daemon thread
+     *
+     * @param intervalSec the period of merging in seconds
+     */
+    public void start(int intervalSec) {
+        executor = Executors.newSingleThreadScheduledExecutor(x -> {
+            Thread thread = new Thread(x);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                synchronise();
+            } catch (Exception e) {
+                LOG.error(SYNC_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+            }
+        }, 0, intervalSec, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops merging and closes the ZooKeeper client
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        client.close();
+    }
+}
@@ -3,6 +3,7 @@ package uk.co.gresearch.siembol.alerts.storm;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.storm.Constants;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
@@ -184,6 +185,25 @@ public class AlertingEngineBoltTest {
         verify(collector, times(1)).ack(eq(tuple));
     }
 
+    @Test
+    public void testMatchRuleWithEvaluationBudget() {
+        stormAttributes.setAlertingEngineRuleEvaluationBudgetMs(100);
+        stormAttributes.setAlertingEngineRuleMaxBudgetOverruns(1);
+        AlertingEngineBolt = new AlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        AlertingEngineBolt.prepare(null, null, collector);
+
+        AlertingEngineBolt.execute(tuple);
+        Values values = argumentEmitCaptor.getValue();
+        Assert.assertNotNull(values);
+        AlertMessages alerts = (AlertMessages)values.get(0);
+        Assert.assertEquals(1, alerts.size());
+        Assert.assertEquals("siembol_alert_generic_v1", alerts.get(0).getFullRuleName());
+        Assert.assertTrue(((ExceptionMessages)values.get(1)).isEmpty());
+        verify(collector, times(1)).ack(eq(tuple));
+    }
+
     @Test
     public void testNoMatchRule() {
         Assert.assertEquals(1,
@@ -248,6 +268,88 @@ public class AlertingEngineBoltTest {
         Assert.assertTrue(((ExceptionMessages)values.get(1)).get(0).contains("JsonParseException"));
     }
 
+    @Test
+    public void testBatch() {
+        stormAttributes.setAlertingEngineBatchSize(3);
+        AlertingEngineBolt = new AlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        AlertingEngineBolt.prepare(null, null, collector);
+        Assert.assertNotNull(AlertingEngineBolt.getComponentConfiguration());
+
+        Tuple noMatchTuple = Mockito.mock(Tuple.class);
+        when(noMatchTuple.getStringByField(eq(TupleFieldNames.EVENT.toString())))
+                .thenReturn(event.replaceAll("is_alert", "unknown"));
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+
+        AlertingEngineBolt.execute(tuple);
+        AlertingEngineBolt.execute(noMatchTuple);
+        verify(collector, never()).emit(ArgumentMatchers.any());
+        verify(collector, never()).ack(ArgumentMatchers.any());
+
+        AlertingEngineBolt.execute(tickTuple);
+        verify(collector, times(1)).emit(eq(tuple), ArgumentMatchers.any());
+        verify(collector, times(1)).ack(eq(tuple));
+        verify(collector, times(1)).ack(eq(noMatchTuple));
+        verify(collector, never()).ack(eq(tickTuple));
+
+        AlertMessages alerts = (AlertMessages)argumentEmitCaptor.getValue().get(0);
+        Assert.assertEquals(1, alerts.size());
+        Assert.assertEquals("siembol_alert_generic_v1", alerts.get(0).getFullRuleName());
+
+        AlertingEngineBolt.execute(noMatchTuple);
+        AlertingEngineBolt.execute(noMatchTuple);
+        verify(collector, times(1)).ack(eq(noMatchTuple));
+        AlertingEngineBolt.execute(tuple);
+        verify(collector, times(2)).emit(eq(tuple), ArgumentMatchers.any());
+        verify(collector, times(3)).ack(eq(noMatchTuple));
+    }
+
+    @Test
+    public void profilingReported() {
+        stormAttributes.setAlertingEngineProfilingSamplingInterval(1);
+        stormAttributes.setAlertingEngineProfilingReportIntervalSec(2);
+        AlertingEngineBolt = new AlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        AlertingEngineBolt.prepare(null, null, collector);
+        Assert.assertNotNull(AlertingEngineBolt.getComponentConfiguration());
+
+        Tuple noMatchTuple = Mockito.mock(Tuple.class);
+        when(noMatchTuple.getStringByField(eq(TupleFieldNames.EVENT.toString())))
+                .thenReturn(event.replaceAll("TruE", "false"));
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+
+        AlertingEngineBolt.execute(tuple);
+        AlertingEngineBolt.execute(noMatchTuple);
+        AlertingEngineBolt.execute(tickTuple);
+        AlertingEngineBolt.execute(tickTuple);
+
+        String ruleName = "siembol_alert_generic_v1";
+        Assert.assertEquals(2, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_RULE_EVALUATIONS.getMetricName(ruleName)));
+        Assert.assertEquals(0.5, metricsTestRegistrarFactory.getGaugeValue(
+                SiembolMetrics.ALERTING_RULE_SELECTIVITY.getMetricName(ruleName)), 0.001);
+        Assert.assertTrue(metricsTestRegistrarFactory.getGaugeValue(
+                SiembolMetrics.ALERTING_RULE_EVALUATION_TIME_NS.getMetricName(ruleName)) > 0);
+        Assert.assertEquals(0.5, metricsTestRegistrarFactory.getGaugeValue(
+                SiembolMetrics.ALERTING_RULE_MATCHER_SELECTIVITY.getMetricName(ruleName, 0)), 0.001);
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getGaugeValue(
+                SiembolMetrics.ALERTING_RULE_MATCHER_SELECTIVITY.getMetricName(ruleName, 1)), 0.001);
+
+        AlertingEngineBolt.execute(tuple);
+        AlertingEngineBolt.execute(tickTuple);
+        AlertingEngineBolt.execute(tickTuple);
+        Assert.assertEquals(3, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_RULE_EVALUATIONS.getMetricName(ruleName)));
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getGaugeValue(
+                SiembolMetrics.ALERTING_RULE_SELECTIVITY.getMetricName(ruleName)), 0.001);
+    }
+
     @Test
     public void updateOk() {
         zooKeeperCallback.getValue().run();
@@ -0,0 +1,86 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import org.apache.storm.generated.GlobalStreamId;
+import org.apache.storm.task.WorkerTopologyContext;
+import org.apache.storm.tuple.Fields;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+public class ConsistentHashRingTest {
+    private final int numberOfKeys = 20000;
+
+    @Test
+    public void keysBalanced() {
+        ConsistentHashRing ring = new ConsistentHashRing(4);
+        int[] counts = new int[4];
+        for (int i = 0; i < numberOfKeys; i++) {
+            counts[ring.getShard("10.0." + i / 256 + "." + i % 256)]++;
+        }
+
+        for (int count : counts) {
+            Assert.assertTrue(count > numberOfKeys / 4 * 0.7);
+            Assert.assertTrue(count < numberOfKeys / 4 * 1.3);
+        }
+    }
+
+    @Test
+    public void onlyMovedRangesChangeShards() {
+        ConsistentHashRing ring = new ConsistentHashRing(4);
+        ConsistentHashRing scaledUpRing = new ConsistentHashRing(5);
+        int moved = 0;
+        for (int i = 0; i < numberOfKeys; i++) {
+            String key = "key_" + i;
+            int shard = ring.getShard(key);
+            int newShard = scaledUpRing.getShard(key);
+            Assert.assertEquals(shard, new ConsistentHashRing(4).getShard(key));
+            if (shard != newShard) {
+                Assert.assertEquals(4, newShard);
+                moved++;
+            }
+        }
+
+        Assert.assertTrue(moved > numberOfKeys / 5 * 0.7);
+        Assert.assertTrue(moved < numberOfKeys / 5 * 1.3);
+    }
+
+    @Test
+    public void singleShard() {
+        ConsistentHashRing ring = new ConsistentHashRing(1);
+        Assert.assertEquals(1, ring.getNumberOfShards());
+        Assert.assertEquals(0, ring.getShard("key"));
+        Assert.assertEquals(0, ring.getShard(null));
+        Assert.assertEquals(new ConsistentHashRing(3).getShard(""), new ConsistentHashRing(3).getShard(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfShards() {
+        new ConsistentHashRing(0);
+    }
+
+    @Test
+    public void groupingByCorrelationKey() {
+        WorkerTopologyContext context = Mockito.mock(WorkerTopologyContext.class);
+        GlobalStreamId stream = new GlobalStreamId("kafka-spout", "default");
+        when(context.getComponentOutputFields(stream)).thenReturn(new Fields(
+                TupleFieldNames.CORRELATION_KEY.toString(), TupleFieldNames.EVENT.toString()));
+
+        CorrelationKeyGrouping grouping = new CorrelationKeyGrouping();
+        grouping.prepare(context, stream, Arrays.asList(7, 3, 5));
+        ConsistentHashRing ring = new ConsistentHashRing(3);
+        List<Integer> sortedTasks = Arrays.asList(3, 5, 7);
+        for (int i = 0; i < 100; i++) {
+            String key = "key_" + i;
+            Assert.assertEquals(Collections.singletonList(sortedTasks.get(ring.getShard(key))),
+                    grouping.chooseTasks(1, Arrays.asList(key, "{}")));
+        }
+        Assert.assertEquals(Collections.singletonList(sortedTasks.get(ring.getShard(null))),
+                grouping.chooseTasks(1, Arrays.asList(null, "{}")));
+    }
+}
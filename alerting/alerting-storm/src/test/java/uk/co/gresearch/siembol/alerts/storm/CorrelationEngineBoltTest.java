@@ -3,12 +3,16 @@ package uk.co.gresearch.siembol.alerts.storm;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.storm.Constants;
 import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
@@ -108,6 +112,9 @@ public class CorrelationEngineBoltTest {
             """;
 
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Tuple tuple;
     private OutputCollector collector;
     private CorrelationAlertingEngineBolt correlationAlertingEngineBolt;
@@ -235,4 +242,104 @@ public class CorrelationEngineBoltTest {
         Assert.assertEquals(1,
                 metricsTestRegistrarFactory.getCounterValue(SiembolMetrics.ALERTING_RULES_ERROR_UPDATE.getMetricName()));
     }
+
+    @Test
+    public void stateRestoredAfterRestart() {
+        stormAttributes.setAlertingEngineStateDirectory(folder.getRoot().getAbsolutePath());
+        stormAttributes.setAlertingEngineStateCheckpointIntervalSec(1);
+        TopologyContext topologyContext = Mockito.mock(TopologyContext.class);
+        when(topologyContext.getThisComponentId()).thenReturn("correlation");
+        when(topologyContext.getThisTaskId()).thenReturn(1);
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+        when(tuple.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(alert1, alert1, alert2);
+
+        correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        correlationAlertingEngineBolt.prepare(null, topologyContext, collector);
+        correlationAlertingEngineBolt.execute(tuple);
+        correlationAlertingEngineBolt.execute(tickTuple);
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_ENGINE_STATE_CHECKPOINT.getMetricName()));
+
+        correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        correlationAlertingEngineBolt.prepare(null, topologyContext, collector);
+        Assert.assertEquals(2, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_ENGINE_STATE_RESTORE.getMetricName()));
+
+        correlationAlertingEngineBolt.execute(tuple);
+        correlationAlertingEngineBolt.execute(tuple);
+        verify(collector, times(3)).ack(eq(tuple));
+
+        AlertMessages alerts = (AlertMessages) argumentEmitCaptor.getValue().get(0);
+        Assert.assertEquals(1, alerts.size());
+        Assert.assertEquals("test_rule_v1", alerts.get(0).getFullRuleName());
+    }
+
+    @Test
+    public void stateHandedOffAfterScalingUp() {
+        stormAttributes.setAlertingEngineStateDirectory(folder.getRoot().getAbsolutePath());
+        stormAttributes.setAlertingEngineStateCheckpointIntervalSec(1);
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+        when(tuple.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(alert1, alert1, alert2);
+
+        correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        correlationAlertingEngineBolt.prepare(null, createTopologyContext(0, 1), collector);
+        correlationAlertingEngineBolt.execute(tuple);
+        correlationAlertingEngineBolt.execute(tickTuple);
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_ENGINE_STATE_CHECKPOINT.getMetricName()));
+
+        int numberOfTasks = 2;
+        while (new ConsistentHashRing(numberOfTasks).getShard("evil") == 0) {
+            numberOfTasks++;
+        }
+        int owner = new ConsistentHashRing(numberOfTasks).getShard("evil");
+
+        CorrelationAlertingEngineBolt previousOwnerBolt = new CorrelationAlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        previousOwnerBolt.prepare(null, createTopologyContext(0, numberOfTasks), collector);
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_ENGINE_STATE_HANDOFF_SENT.getMetricName()));
+
+        correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes,
+                zooKeeperConnectorFactory,
+                metricsTestRegistrarFactory);
+        correlationAlertingEngineBolt.prepare(null, createTopologyContext(owner, numberOfTasks), collector);
+        Assert.assertEquals(1, metricsTestRegistrarFactory.getCounterValue(
+                SiembolMetrics.ALERTING_ENGINE_STATE_HANDOFF_RECEIVED.getMetricName()));
+
+        correlationAlertingEngineBolt.execute(tuple);
+        correlationAlertingEngineBolt.execute(tuple);
+        verify(collector, times(3)).ack(eq(tuple));
+
+        AlertMessages alerts = (AlertMessages) argumentEmitCaptor.getValue().get(0);
+        Assert.assertEquals(1, alerts.size());
+        Assert.assertEquals("test_rule_v1", alerts.get(0).getFullRuleName());
+    }
+
+    private TopologyContext createTopologyContext(int taskIndex, int numberOfTasks) {
+        List<Integer> tasks = new ArrayList<>();
+        for (int i = 0; i < numberOfTasks; i++) {
+            tasks.add(i + 1);
+        }
+
+        TopologyContext topologyContext = Mockito.mock(TopologyContext.class);
+        when(topologyContext.getStormId()).thenReturn("handoff_topology");
+        when(topologyContext.getThisComponentId()).thenReturn("correlation");
+        when(topologyContext.getThisTaskId()).thenReturn(taskIndex + 1);
+        when(topologyContext.getThisTaskIndex()).thenReturn(taskIndex);
+        when(topologyContext.getComponentTasks("correlation")).thenReturn(tasks);
+        when(topologyContext.getThisWorkerTasks()).thenReturn(tasks);
+        return topologyContext;
+    }
 }
@@ -0,0 +1,106 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.junit.*;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystem;
+import uk.co.gresearch.siembol.alerts.protection.SharedRuleProtectionSystem;
+import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
+
+public class ZooKeeperRuleProtectionSynchroniserTest {
+    private static TestingServer TESTING_SERVER;
+    private final String path = "/siembol/rule_protection";
+    private final String ruleName = "rule_v1";
+    private CuratorFramework client1;
+    private CuratorFramework client2;
+    private SharedRuleProtectionSystem protection1;
+    private SharedRuleProtectionSystem protection2;
+    private ZooKeeperRuleProtectionSynchroniser synchroniser1;
+    private ZooKeeperRuleProtectionSynchroniser synchroniser2;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        TESTING_SERVER = new TestingServer();
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        TESTING_SERVER.close();
+    }
+
+    @Before
+    public void setUp() {
+        client1 = CuratorFrameworkFactory.newClient(TESTING_SERVER.getConnectString(), new RetryOneTime(100));
+        client2 = CuratorFrameworkFactory.newClient(TESTING_SERVER.getConnectString(), new RetryOneTime(100));
+        client1.start();
+        client2.start();
+        protection1 = new SharedRuleProtectionSystem();
+        protection2 = new SharedRuleProtectionSystem();
+        synchroniser1 = new ZooKeeperRuleProtectionSynchroniser(client1, path, "worker1", protection1);
+        synchroniser2 = new ZooKeeperRuleProtectionSynchroniser(client2, path, "worker2", protection2);
+    }
+
+    @After
+    public void tearDown() {
+        synchroniser1.close();
+        synchroniser2.close();
+    }
+
+    @Test
+    public void mergeWorkersMatches() throws Exception {
+        protection1.incrementRuleMatches(ruleName);
+        protection1.incrementRuleMatches(ruleName);
+        protection2.incrementRuleMatches(ruleName);
+
+        synchroniser1.synchronise();
+        synchroniser2.synchronise();
+        synchroniser1.synchronise();
+
+        AlertingResult ret = protection1.incrementRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(4), ret.getAttributes().getHourlyMatches());
+        Assert.assertEquals(Integer.valueOf(4), ret.getAttributes().getDailyMatches());
+
+        ret = protection2.getRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(3), ret.getAttributes().getHourlyMatches());
+        Assert.assertEquals(Integer.valueOf(3), ret.getAttributes().getDailyMatches());
+    }
+
+    @Test
+    public void workerNodeRemovedAfterClose() throws Exception {
+        protection2.incrementRuleMatches(ruleName);
+        synchroniser2.synchronise();
+        synchroniser1.synchronise();
+        Assert.assertEquals(Integer.valueOf(1), protection1.getRuleMatches(ruleName).getAttributes().getDailyMatches());
+
+        synchroniser2.close();
+        synchroniser1.synchronise();
+        Assert.assertEquals(AlertingResult.StatusCode.ERROR, protection1.getRuleMatches(ruleName).getStatusCode());
+    }
+
+    @Test
+    public void sharedRuleProtectionProvider() {
+        AlertingStormAttributesDto attributes = new AlertingStormAttributesDto();
+        attributes.setTopologyName("shared_protection_test");
+        RuleProtectionSystem notShared = WorkerRuleProtectionProvider.getRuleProtection(attributes);
+        Assert.assertNotSame(notShared, WorkerRuleProtectionProvider.getRuleProtection(attributes));
+
+        attributes.setRuleProtectionShared(true);
+        ZooKeeperAttributesDto zooKeeperAttributes = new ZooKeeperAttributesDto();
+        zooKeeperAttributes.setZkUrl(TESTING_SERVER.getConnectString());
+        zooKeeperAttributes.setZkPath(path + "_provider");
+        attributes.setRuleProtectionZooKeeperAttributes(zooKeeperAttributes);
+        RuleProtectionSystem shared = WorkerRuleProtectionProvider.getRuleProtection(attributes);
+        Assert.assertTrue(shared instanceof SharedRuleProtectionSystem);
+        Assert.assertSame(shared, WorkerRuleProtectionProvider.getRuleProtection(attributes));
+
+        WorkerRuleProtectionProvider.releaseRuleProtection(shared);
+        Assert.assertSame(shared, WorkerRuleProtectionProvider.getRuleProtection(attributes));
+        WorkerRuleProtectionProvider.releaseRuleProtection(shared);
+        WorkerRuleProtectionProvider.releaseRuleProtection(shared);
+        Assert.assertNotSame(shared, WorkerRuleProtectionProvider.getRuleProtection(attributes));
+    }
+}
@@ -4,6 +4,7 @@ import uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult;
 import uk.co.gresearch.siembol.configeditor.model.ConfigTesterDto;
 
 import java.util.EnumSet;
+import java.util.function.Consumer;
 /**
  * An object for testing configurations
  *
@@ -74,6 +75,22 @@ public interface ConfigTester {
         return ConfigEditorResult.fromMessage(ConfigEditorResult.StatusCode.BAD_REQUEST, NOT_SUPPORTED_MSG);
     }
 
+    /**
+     * Tests a configuration against a test specification and provides partial results during the testing.
+     * The partial results are streamed to the client by the server-sent events testing endpoint.
+     * @param configuration a json string with configuration
+     * @param testSpecification a json string with test specification
+     * @param partialResultConsumer a consumer of config editor results with partial test results.
+     *                              The testers that do not provide partial results do not call the consumer.
+     * @return a config editor result with test result if the test was successful, otherwise
+     *         the result with ERROR status.
+     */
+    default ConfigEditorResult testConfiguration(String configuration,
+                                                 String testSpecification,
+                                                 Consumer<ConfigEditorResult> partialResultConsumer) {
+        return testConfiguration(configuration, testSpecification);
+    }
+
     /**
      * Tests a configurations against a test specification
      * @param configurations a json string with configurations
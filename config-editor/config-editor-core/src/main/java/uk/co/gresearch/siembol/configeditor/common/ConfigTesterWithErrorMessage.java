@@ -6,6 +6,7 @@ import uk.co.gresearch.siembol.configeditor.model.ErrorResolutions;
 import uk.co.gresearch.siembol.configeditor.model.ErrorTitles;
 
 import java.util.EnumSet;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 /**
  * An object for configuration tester with enhanced error messages
@@ -60,6 +61,21 @@ public class ConfigTesterWithErrorMessage  extends ServiceWithErrorMessage<Confi
                 ErrorResolutions.GENERIC_BAD_REQUEST.getResolution());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConfigEditorResult testConfiguration(String configuration,
+                                                String testSpecification,
+                                                Consumer<ConfigEditorResult> partialResultConsumer) {
+        Supplier<ConfigEditorResult> fun = () -> service.testConfiguration(configuration,
+                testSpecification,
+                partialResultConsumer);
+        return executeInternally(fun, ErrorTitles.TESTING_GENERIC.getTitle(),
+                ErrorMessages.TESTING_GENERIC.getMessage(),
+                ErrorResolutions.GENERIC_BAD_REQUEST.getResolution());
+    }
+
     /**
      * {@inheritDoc}
      */
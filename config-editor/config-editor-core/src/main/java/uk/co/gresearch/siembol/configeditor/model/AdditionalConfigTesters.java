@@ -8,6 +8,7 @@ package uk.co.gresearch.siembol.configeditor.model;
  */
 public class AdditionalConfigTesters {
     private SparkHdfsTesterProperties sparkHdfs;
+    private LocalFilesTesterProperties localFiles;
 
     public SparkHdfsTesterProperties getSparkHdfs() {
         return sparkHdfs;
@@ -16,4 +17,12 @@ public class AdditionalConfigTesters {
     public void setSparkHdfs(SparkHdfsTesterProperties sparkHdfs) {
         this.sparkHdfs = sparkHdfs;
     }
+
+    public LocalFilesTesterProperties getLocalFiles() {
+        return localFiles;
+    }
+
+    public void setLocalFiles(LocalFilesTesterProperties localFiles) {
+        this.localFiles = localFiles;
+    }
 }
@@ -0,0 +1,40 @@
+package uk.co.gresearch.siembol.configeditor.model;
+/**
+ * An object that represents an alerting local files tester properties
+ *
+ * <p>This class represents an alerting local files tester properties. It is used by the local alerting tester
+ * in order to specify the folder with logs and the number of threads used for the testing.
+ *
+ * @author  Marian Novotny
+ */
+public class LocalFilesTesterProperties {
+    private String folderPath;
+
+    private String fileExtension;
+
+    private int threads = 4;
+
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    public void setFolderPath(String folderPath) {
+        this.folderPath = folderPath;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public void setFileExtension(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -1,5 +1,7 @@
 package uk.co.gresearch.siembol.configeditor.model;
 
+import uk.co.gresearch.siembol.common.model.testing.FilesFormatDto;
+
 import java.util.HashMap;
 import java.util.Map;
 /**
@@ -17,6 +19,8 @@ public class SparkHdfsTesterProperties {
 
     private String fileExtension;
 
+    private FilesFormatDto filesFormat = FilesFormatDto.JSON;
+
     Map<String, Object> attributes = new HashMap<>();
 
     public String getUrl() {
@@ -50,4 +54,12 @@ public class SparkHdfsTesterProperties {
     public void setFileExtension(String fileExtension) {
         this.fileExtension = fileExtension;
     }
-}
\ No newline at end of file
+
+    public FilesFormatDto getFilesFormat() {
+        return filesFormat;
+    }
+
+    public void setFilesFormat(FilesFormatDto filesFormat) {
+        this.filesFormat = filesFormat;
+    }
+}
@@ -7,6 +7,8 @@ import org.mockito.Mockito;
 import uk.co.gresearch.siembol.configeditor.model.ConfigEditorAttributes;
 import uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult;
 
+import java.util.function.Consumer;
+
 import static org.mockito.Mockito.*;
 
 public class ConfigTesterWithErrorMessageTest {
@@ -58,6 +60,19 @@ public class ConfigTesterWithErrorMessageTest {
         Assert.assertNotNull(ret.getAttributes().getErrorTitle());
     }
 
+    @Test
+    public void testConfigurationWithPartialResultsOk() {
+        Consumer<ConfigEditorResult> partialResultConsumer = x -> {};
+        when(configTester.testConfiguration(eq(configuration), eq(testSpecification), eq(partialResultConsumer)))
+                .thenReturn(result);
+        var ret = configTesterWithErrorMessage.testConfiguration(configuration,
+                testSpecification,
+                partialResultConsumer);
+        Assert.assertEquals(ret, result);
+        verify(configTester, times(1))
+                .testConfiguration(eq(configuration), eq(testSpecification), eq(partialResultConsumer));
+    }
+
     @Test
     public void testConfigurationsOk() {
         when(configTester.testConfigurations(eq(configurations), eq(testSpecification))).thenReturn(result);
@@ -6,6 +6,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import uk.co.gresearch.siembol.configeditor.common.ConfigSchemaService;
 import uk.co.gresearch.siembol.configeditor.common.ServiceUserRole;
@@ -16,7 +17,10 @@ import uk.co.gresearch.siembol.configeditor.model.ImportConfigRequestDto;
 import uk.co.gresearch.siembol.configeditor.rest.common.UserInfoProvider;
 import uk.co.gresearch.siembol.configeditor.serviceaggregator.ServiceAggregator;
 
+import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static uk.co.gresearch.siembol.common.authorisation.SiembolAuthorisationProperties.SWAGGER_AUTH_SCHEMA;
 import static uk.co.gresearch.siembol.configeditor.rest.common.ConfigEditorHelper.getFileContent;
@@ -25,6 +29,12 @@ import static uk.co.gresearch.siembol.configeditor.rest.common.ConfigEditorHelpe
 @SecurityRequirement(name = SWAGGER_AUTH_SCHEMA)
 public class ConfigSchemaController {
     private static final String MISSING_ATTRIBUTES = "missing required attributes for testing";
+    private static final String PARTIAL_RESULT_EVENT = "partial_result";
+    private static final String RESULT_EVENT = "result";
+    private static final String ERROR_RESULT_EVENT = "error_result";
+    private static final long STREAMING_TEST_TIMEOUT_MS = 600_000L;
+    private static final int STREAMING_TEST_THREADS = 4;
+    private final ExecutorService testingExecutorService = Executors.newFixedThreadPool(STREAMING_TEST_THREADS);
     @Autowired
     private ServiceAggregator serviceAggregator;
     @Autowired
@@ -123,6 +133,33 @@ public class ConfigSchemaController {
                 : tester.testConfigurations(config.get(), attributes.getTestSpecification()).toResponseEntity();
     }
 
+    @CrossOrigin
+    @PostMapping(value = "/api/v1/{service}/configs/test/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter testStream(
+            @AuthenticationPrincipal Object principal,
+            @PathVariable("service") String serviceName,
+            @RequestParam(required = false, defaultValue = "default") String testerName,
+            @RequestBody ConfigEditorAttributes attributes) {
+        SseEmitter emitter = new SseEmitter(STREAMING_TEST_TIMEOUT_MS);
+        Optional<String> config = getFileContent(attributes);
+        if (!config.isPresent() || attributes.getTestSpecification() == null) {
+            sendResult(emitter,
+                    ConfigEditorResult.fromMessage(ConfigEditorResult.StatusCode.BAD_REQUEST, MISSING_ATTRIBUTES));
+            return emitter;
+        }
+
+        UserInfo user = userInfoProvider.getUserInfo(principal);
+        var tester = serviceAggregator
+                .getConfigSchema(user, serviceName)
+                .getConfigTester(testerName)
+                .withErrorMessage();
+
+        testingExecutorService.submit(() -> sendResult(emitter,
+                tester.testConfiguration(config.get(), attributes.getTestSpecification(),
+                        x -> sendEvent(emitter, PARTIAL_RESULT_EVENT, x.getAttributes()))));
+        return emitter;
+    }
+
     @CrossOrigin
     @PostMapping(value = "/api/v1/{service}/configs/validatetest", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ConfigEditorAttributes> validateTest(
@@ -176,4 +213,20 @@ public class ConfigSchemaController {
                 .importConfig(user, req.getImporterName(), req.getImporterAttributes(), req.getConfigToImport())
                 .toResponseEntity();
     }
+
+    private static void sendResult(SseEmitter emitter, ConfigEditorResult result) {
+        ResponseEntity<ConfigEditorAttributes> response = result.toResponseEntity();
+        sendEvent(emitter,
+                response.getStatusCode().is2xxSuccessful() ? RESULT_EVENT : ERROR_RESULT_EVENT,
+                response.getBody());
+        emitter.complete();
+    }
+
+    private static void sendEvent(SseEmitter emitter, String eventName, ConfigEditorAttributes attributes) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(attributes, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            //NOTE: the client has disconnected or the emitter has timed out, the remaining events are dropped
+        }
+    }
 }
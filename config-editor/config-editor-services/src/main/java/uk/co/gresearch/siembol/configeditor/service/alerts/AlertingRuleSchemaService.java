@@ -23,6 +23,8 @@ import uk.co.gresearch.siembol.alerts.compiler.AlertingCompiler;
 import uk.co.gresearch.siembol.alerts.compiler.AlertingCorrelationRulesCompiler;
 import uk.co.gresearch.siembol.alerts.compiler.AlertingRulesCompiler;
 import uk.co.gresearch.siembol.configeditor.service.alerts.sigma.SigmaRuleImporter;
+import uk.co.gresearch.siembol.configeditor.service.alerts.spark.AlertingLocalConfigTester;
+import uk.co.gresearch.siembol.configeditor.service.alerts.spark.AlertingLocalTestingProvider;
 import uk.co.gresearch.siembol.configeditor.service.alerts.spark.AlertingSparkConfigTester;
 import uk.co.gresearch.siembol.configeditor.service.alerts.spark.AlertingSparkTestingProvider;
 import uk.co.gresearch.siembol.configeditor.service.common.ConfigSchemaServiceAbstract;
@@ -43,6 +45,7 @@ public class AlertingRuleSchemaService extends ConfigSchemaServiceAbstract {
     private static final String SCHEMA_INIT_ERROR = "Error during computing rules schema";
     private static final String SIGMA_IMPORTER_NAME = "sigma";
     private static final String MISSING_SPARK_HDFS_TESTER_PROPS = "Missing spark hdfs additional tester properties";
+    private static final String MISSING_LOCAL_FILES_TESTER_PROPS = "Missing local files additional tester properties";
     private final AlertingCompiler alertingCompiler;
 
     AlertingRuleSchemaService(AlertingCompiler alertingCompiler,
@@ -111,6 +114,10 @@ public class AlertingRuleSchemaService extends ConfigSchemaServiceAbstract {
                 && additionalConfigTesters.get().getSparkHdfs() != null) {
             configTestersList.add(getSparkHdfsConfigTester(additionalConfigTesters.get().getSparkHdfs()));
         }
+        if (additionalConfigTesters.isPresent()
+                && additionalConfigTesters.get().getLocalFiles() != null) {
+            configTestersList.add(getLocalFilesConfigTester(additionalConfigTesters.get().getLocalFiles()));
+        }
         context.setConfigTesters(configTestersList);
 
         LOG.info("Initialising alerts rule schema service completed");
@@ -139,6 +146,22 @@ public class AlertingRuleSchemaService extends ConfigSchemaServiceAbstract {
         return new AlertingSparkConfigTester(testValidator, testSchema, sparkTestingProvider, sparkHdfsProperties);
     }
 
+    private static ConfigTester getLocalFilesConfigTester(
+            LocalFilesTesterProperties localFilesProperties) throws Exception {
+        if (localFilesProperties.getFileExtension() == null
+                || localFilesProperties.getFolderPath() == null) {
+            throw new IllegalArgumentException(MISSING_LOCAL_FILES_TESTER_PROPS);
+        }
+        AlertingLocalTestingProvider localTestingProvider = new AlertingLocalTestingProvider(
+                localFilesProperties.getThreads());
+
+        SiembolJsonSchemaValidator testValidator = new SiembolJsonSchemaValidator(
+                AlertingSparkTestingSpecificationDto.class);
+        String testSchema = testValidator.getJsonSchema().getAttributes().getJsonSchema();
+
+        return new AlertingLocalConfigTester(testValidator, testSchema, localTestingProvider, localFilesProperties);
+    }
+
     public static ConfigSchemaService createAlertingCorrelationRuleSchemaService(
             ConfigEditorUiLayout uiLayout) throws Exception {
         LOG.info("Initialising alerts correlation rule schema service");
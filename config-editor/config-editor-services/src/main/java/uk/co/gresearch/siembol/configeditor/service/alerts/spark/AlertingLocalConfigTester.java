@@ -0,0 +1,124 @@
+package uk.co.gresearch.siembol.configeditor.service.alerts.spark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import uk.co.gresearch.siembol.alerts.compiler.AlertingCompiler;
+import uk.co.gresearch.siembol.alerts.compiler.AlertingRulesCompiler;
+import uk.co.gresearch.siembol.common.jsonschema.SiembolJsonSchemaValidator;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkArgumentDto;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingSpecificationDto;
+import uk.co.gresearch.siembol.configeditor.common.ConfigTesterBase;
+import uk.co.gresearch.siembol.configeditor.common.ConfigTesterFlag;
+import uk.co.gresearch.siembol.configeditor.model.ConfigEditorAttributes;
+import uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult;
+import uk.co.gresearch.siembol.configeditor.model.LocalFilesTesterProperties;
+
+import java.util.EnumSet;
+import java.util.function.Consumer;
+
+import static uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult.StatusCode.*;
+/**
+ * An object for testing alerting rules on local files
+ *
+ * <p>This class extends ConfigTesterBase and it tests an alerting rule on local files
+ * using AlertingLocalTestingProvider in the config editor process.
+ * It uses the alerting spark test specification and it provides the alerting spark testing result.
+ * The partial results are provided to a consumer after evaluating a file and
+ * they are streamed to the client by the server-sent events testing endpoint.
+ * It returns BAD_REQUEST if the test specification is invalid or a directory of the files is missing.
+ *
+ * @author  Marian Novotny
+ * @see AlertingLocalTestingProvider
+ * @see AlertingSparkConfigTester
+ */
+public class AlertingLocalConfigTester extends ConfigTesterBase<AlertingLocalTestingProvider> {
+    public static final String CONFIG_TESTER_NAME = "local_files";
+
+    private static final ObjectReader TEST_SPECIFICATION_READER = new ObjectMapper()
+            .readerFor(AlertingSparkTestingSpecificationDto.class);
+    private static final ObjectWriter TEST_RESULT_WRITER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writerFor(AlertingSparkTestingResultDto.class);
+    private static final String TEST_RESULT_MSG = "Evaluated events: %d, matches: %d, exceptions: %d%s";
+    private static final String TERMINATED_EARLY_MSG = ", the testing was terminated early";
+    private final LocalFilesTesterProperties localFilesTesterProperties;
+    private final AlertingCompiler alertingCompiler;
+
+    public AlertingLocalConfigTester(SiembolJsonSchemaValidator testValidator,
+                                     String testSchema,
+                                     AlertingLocalTestingProvider testProvider,
+                                     LocalFilesTesterProperties localFilesTesterProperties) throws Exception {
+        super(testValidator, testSchema, testProvider);
+        this.localFilesTesterProperties = localFilesTesterProperties;
+        this.alertingCompiler = AlertingRulesCompiler.createAlertingRulesCompiler();
+    }
+
+    @Override
+    public ConfigEditorResult testConfiguration(String configuration, String testSpecificationStr) {
+        return testConfiguration(configuration, testSpecificationStr, x -> {});
+    }
+
+    @Override
+    public ConfigEditorResult testConfiguration(String configuration,
+                                                String testSpecificationStr,
+                                                Consumer<ConfigEditorResult> partialResultConsumer) {
+        var argument = new AlertingSparkArgumentDto();
+        try {
+            AlertingSparkTestingSpecificationDto testSpecification = TEST_SPECIFICATION_READER
+                    .readValue(testSpecificationStr);
+            argument.setRules(alertingCompiler.wrapRuleToRules(configuration));
+            argument.setMaxResultSize(testSpecification.getMaxResult());
+            argument.setEarlyTermination(testSpecification.getEarlyTermination());
+            argument.setSamplingRate(testSpecification.getSamplingRate());
+            argument.setFilesPaths(AlertingSparkConfigTester.getPaths(localFilesTesterProperties.getFolderPath(),
+                    localFilesTesterProperties.getFileExtension(),
+                    testSpecification.getFromDate(),
+                    testSpecification.getToDate()));
+        } catch (Exception e) {
+            return ConfigEditorResult.fromException(BAD_REQUEST, e);
+        }
+
+        try {
+            AlertingSparkTestingResultDto result = testProvider.test(argument,
+                    x -> partialResultConsumer.accept(fromTestingResult(x)));
+            return fromTestingResult(result);
+        } catch (IllegalArgumentException e) {
+            return ConfigEditorResult.fromException(BAD_REQUEST, e);
+        } catch (Exception e) {
+            return ConfigEditorResult.fromException(ERROR, e);
+        }
+    }
+
+    private static ConfigEditorResult fromTestingResult(AlertingSparkTestingResultDto result) {
+        var retAttributes = new ConfigEditorAttributes();
+        retAttributes.setTestResultOutput(getTestResultMessage(result));
+        try {
+            retAttributes.setTestResultRawOutput(TEST_RESULT_WRITER.writeValueAsString(result));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return new ConfigEditorResult(OK, retAttributes);
+    }
+
+    private static String getTestResultMessage(AlertingSparkTestingResultDto result) {
+        return String.format(TEST_RESULT_MSG,
+                result.getEventsTotal(),
+                result.getMatchesTotal(),
+                result.getExceptionsTotal(),
+                result.isTerminatedEarly() ? TERMINATED_EARLY_MSG : "");
+    }
+
+    @Override
+    public EnumSet<ConfigTesterFlag> getFlags() {
+        return EnumSet.of(ConfigTesterFlag.CONFIG_TESTING);
+    }
+
+    @Override
+    public String getName() {
+        return CONFIG_TESTER_NAME;
+    }
+}
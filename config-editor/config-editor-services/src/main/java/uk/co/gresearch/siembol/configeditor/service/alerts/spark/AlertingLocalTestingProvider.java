@@ -0,0 +1,189 @@
+package uk.co.gresearch.siembol.configeditor.service.alerts.spark;
+
+import uk.co.gresearch.siembol.alerts.common.AlertingBatchResult;
+import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.compiler.AlertingRulesCompiler;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkArgumentDto;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+import uk.co.gresearch.siembol.common.model.testing.FilesFormatDto;
+import uk.co.gresearch.siembol.common.testing.AlertingTestingPartition;
+import uk.co.gresearch.siembol.common.testing.AlertingTestingResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Consumer;
+/**
+ * An object for testing alerting rules on local files
+ *
+ * <p>This class evaluates alerting rules on local json lines files in the config editor process.
+ * A file is evaluated as a partition by AlertingTestingPartition shared with the alerting spark job
+ * on a bounded thread pool. The events can be deterministically sampled and the evaluation can be terminated
+ * after the list of matched events is full. The partial result is provided to a consumer after evaluating a file.
+ * The accounting of the results is provided by AlertingTestingResult shared with the alerting spark job.
+ *
+ * @author  Marian Novotny
+ * @see AlertingLocalConfigTester
+ * @see AlertingSparkArgumentDto
+ * @see AlertingSparkTestingResultDto
+ * @see AlertingTestingResult
+ * @see AlertingTestingPartition
+ */
+public class AlertingLocalTestingProvider {
+    private static final String UNSUPPORTED_FORMAT_MSG = "Unsupported files format %s, only json files are supported";
+    private static final String WRONG_THREADS_MSG = "Number of threads should be positive";
+    private static final String MISSING_DIRECTORY_MSG = "Missing directory of the files %s";
+    private static final String WRONG_SAMPLING_RATE_MSG = "Sampling rate should be in the interval (0, 1]";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final ExecutorService executorService;
+    private final int batchSize;
+
+    public AlertingLocalTestingProvider(int threads) {
+        this(threads, DEFAULT_BATCH_SIZE);
+    }
+
+    AlertingLocalTestingProvider(int threads, int batchSize) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(WRONG_THREADS_MSG);
+        }
+
+        this.batchSize = batchSize;
+        executorService = Executors.newFixedThreadPool(threads, x -> {
+            Thread thread = new Thread(x);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Evaluates the rules on the files of the argument
+     *
+     * @param argument the alerting spark argument with rules and files paths.
+     *                 A file name of a path can be a glob pattern e.g., /logs/2022-06-01/*.json
+     * @param partialResultConsumer the consumer of partial results
+     * @return the result of the testing
+     * @throws IllegalArgumentException if the argument or the rules are invalid or a directory of the files is missing
+     * @throws Exception if the files can not be read
+     */
+    public AlertingSparkTestingResultDto test(AlertingSparkArgumentDto argument,
+                                              Consumer<AlertingSparkTestingResultDto> partialResultConsumer)
+            throws Exception {
+        if (argument.getFilesFormat() != FilesFormatDto.JSON) {
+            throw new IllegalArgumentException(String.format(UNSUPPORTED_FORMAT_MSG, argument.getFilesFormat()));
+        }
+
+        double samplingRate = argument.getSamplingRate();
+        if (!(samplingRate > 0 && samplingRate <= 1.0)) {
+            throw new IllegalArgumentException(WRONG_SAMPLING_RATE_MSG);
+        }
+
+        AlertingResult compileResult = AlertingRulesCompiler.createAlertingRulesCompiler()
+                .compile(argument.getRules());
+        if (compileResult.getStatusCode() != AlertingResult.StatusCode.OK) {
+            throw new IllegalArgumentException(compileResult.getAttributes().getException());
+        }
+
+        AlertingEngine engine = compileResult.getAttributes().getEngine();
+        List<Path> files = getFiles(argument.getFilesPaths());
+        AlertingTestingResult result = new AlertingTestingResult(argument.getMaxResultSize())
+                .samplingRate(samplingRate);
+        AtomicInteger matchesCount = new AtomicInteger();
+        Predicate<AlertingTestingResult> isFull = x -> argument.getEarlyTermination()
+                && matchesCount.get() >= argument.getMaxResultSize();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            int fileIndex = i;
+            futures.add(executorService.submit(() -> {
+                AlertingTestingResult fileResult = evaluateFile(
+                        engine, file, fileIndex, argument, isFull, matchesCount);
+                AlertingSparkTestingResultDto partialResult;
+                synchronized (result) {
+                    partialResult = result.merge(fileResult).toAlertingSparkTestingResult();
+                }
+                partialResultConsumer.accept(partialResult);
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(x -> x.cancel(true));
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        synchronized (result) {
+            return result.toAlertingSparkTestingResult();
+        }
+    }
+
+    private AlertingTestingResult evaluateFile(AlertingEngine engine,
+                                               Path file,
+                                               int fileIndex,
+                                               AlertingSparkArgumentDto argument,
+                                               Predicate<AlertingTestingResult> isFull,
+                                               AtomicInteger matchesCount) throws IOException {
+        int maxResult = argument.getMaxResultSize();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return AlertingTestingPartition.evaluate(reader.lines().iterator(),
+                    x -> getBatchResult(engine.evaluate(x), maxResult, matchesCount),
+                    maxResult,
+                    batchSize,
+                    isFull,
+                    AlertingTestingPartition.createSampler(argument.getSamplingRate(), fileIndex));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static AlertingTestingResult getBatchResult(AlertingBatchResult batchResult,
+                                                        int maxResult,
+                                                        AtomicInteger matchesCount) {
+        AlertingTestingResult ret = new AlertingTestingResult(maxResult);
+        for (int i = 0; i < batchResult.size(); i++) {
+            ret.addEvent(batchResult.getErrorMessage(i) != null,
+                    batchResult.getExceptionEvents(i),
+                    batchResult.getOutputEvents(i));
+        }
+        matchesCount.addAndGet(ret.getMatchesTotal());
+        return ret;
+    }
+
+    private static List<Path> getFiles(List<String> filesPaths) throws IOException {
+        List<Path> ret = new ArrayList<>();
+        for (String filesPath : filesPaths) {
+            Path path = Paths.get(filesPath);
+            Path directory = path.getParent();
+            if (directory == null || !Files.isDirectory(directory)) {
+                throw new IllegalArgumentException(String.format(MISSING_DIRECTORY_MSG, filesPath));
+            }
+
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, path.getFileName().toString())) {
+                files.forEach(x -> {
+                    if (Files.isRegularFile(x)) {
+                        ret.add(x);
+                    }
+                });
+            }
+        }
+        return ret;
+    }
+}
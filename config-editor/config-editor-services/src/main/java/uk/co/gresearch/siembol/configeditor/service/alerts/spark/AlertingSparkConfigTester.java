@@ -56,11 +56,14 @@ public class AlertingSparkConfigTester  extends ConfigTesterBase<AlertingSparkTe
                     .readValue(testSpecificationStr);
             sparkAppArgument.setRules(alertingCompiler.wrapRuleToRules(configuration));
             sparkAppArgument.setMaxResultSize(testSpecification.getMaxResult());
+            sparkAppArgument.setEarlyTermination(testSpecification.getEarlyTermination());
+            sparkAppArgument.setSamplingRate(testSpecification.getSamplingRate());
             var paths = getPaths(sparkHdfsTesterProperties.getFolderPath(),
                     sparkHdfsTesterProperties.getFileExtension(),
                     testSpecification.getFromDate(),
                     testSpecification.getToDate());
             sparkAppArgument.setFilesPaths(paths);
+            sparkAppArgument.setFilesFormat(sparkHdfsTesterProperties.getFilesFormat());
             String argString = ARGUMENT_WRITER.writeValueAsString(sparkAppArgument);
             argBase64 = Base64.getEncoder().encodeToString(argString.getBytes());
         } catch (Exception e) {
@@ -77,7 +80,7 @@ public class AlertingSparkConfigTester  extends ConfigTesterBase<AlertingSparkTe
         }
     }
 
-    private List<String> getPaths(String logPrefix, String suffix, String fromDate, String toDate) {
+    static List<String> getPaths(String logPrefix, String suffix, String fromDate, String toDate) {
         List<String> paths = new ArrayList<>();
         LocalDate start = LocalDate.from(DATE_FORMATTER.parse(fromDate));
         LocalDate end = LocalDate.from(DATE_FORMATTER.parse(toDate));
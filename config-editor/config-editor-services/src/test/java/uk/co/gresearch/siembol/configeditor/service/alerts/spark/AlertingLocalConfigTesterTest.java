@@ -0,0 +1,178 @@
+package uk.co.gresearch.siembol.configeditor.service.alerts.spark;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import uk.co.gresearch.siembol.common.jsonschema.SiembolJsonSchemaValidator;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkArgumentDto;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+import uk.co.gresearch.siembol.configeditor.common.ConfigTesterFlag;
+import uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult;
+import uk.co.gresearch.siembol.configeditor.model.LocalFilesTesterProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static uk.co.gresearch.siembol.configeditor.model.ConfigEditorResult.StatusCode.*;
+
+public class AlertingLocalConfigTesterTest {
+    private final String testSpecification = """
+            {
+              "source_type": "siembol-logs",
+              "max_result": 1000,
+              "from_date": "2022-06-01",
+              "to_date": "2022-06-05",
+              "early_termination": true,
+              "sampling_rate": 0.5
+            }
+            """;
+
+    private final String testSpecificationWrongStartDate = """
+            {
+              "source_type": "siembol-logs",
+              "max_result": 1000,
+              "from_date": "2022-06-05",
+              "to_date": "2022-06-01"
+            }
+            """;
+
+    private final String rule = """
+            {
+              "rule_name": "siembol_alert_generic",
+              "rule_version": 1,
+              "rule_author": "dummy",
+              "rule_description": "Test rule - is_alert is equal to true",
+              "source_type": "*",
+              "matchers": [
+                {
+                  "is_enabled": true,
+                  "matcher_type": "REGEX_MATCH",
+                  "is_negated": false,
+                  "field": "is_alert",
+                  "data": "(?i)true"
+                }
+              ]
+            }
+            """;
+    private AlertingLocalConfigTester configTester;
+    private final String testSchema = "dummy schema";
+    private SiembolJsonSchemaValidator testValidator;
+    private AlertingLocalTestingProvider testingProvider;
+    private LocalFilesTesterProperties localFilesTesterProperties;
+    private AlertingSparkTestingResultDto testResult;
+    ArgumentCaptor<AlertingSparkArgumentDto> argumentCaptor;
+
+    @Before
+    public void setUp() throws Exception {
+        localFilesTesterProperties = new LocalFilesTesterProperties();
+        localFilesTesterProperties.setFolderPath("/folder");
+        localFilesTesterProperties.setFileExtension("json");
+        testingProvider = Mockito.mock(AlertingLocalTestingProvider.class);
+        testValidator = Mockito.mock(SiembolJsonSchemaValidator.class);
+        argumentCaptor = ArgumentCaptor.forClass(AlertingSparkArgumentDto.class);
+        testResult = new AlertingSparkTestingResultDto();
+        testResult.setMatchesTotal(1);
+        testResult.setEventsTotal(2);
+        testResult.setMatches(new ArrayList<>());
+        testResult.setExceptions(new ArrayList<>());
+
+        Mockito.when(testingProvider.test(argumentCaptor.capture(), ArgumentMatchers.any())).thenReturn(testResult);
+
+        configTester = new AlertingLocalConfigTester(testValidator, testSchema,
+                testingProvider, localFilesTesterProperties);
+    }
+
+    @Test
+    public void getFlags() {
+        var flags = configTester.getFlags();
+        Assert.assertTrue(flags.contains(ConfigTesterFlag.CONFIG_TESTING));
+        Assert.assertFalse(flags.contains(ConfigTesterFlag.INCOMPLETE_RESULT));
+    }
+
+    @Test
+    public void getName() {
+        Assert.assertEquals(AlertingLocalConfigTester.CONFIG_TESTER_NAME, configTester.getName());
+    }
+
+    @Test
+    public void testConfigurationOk() {
+        var result = configTester.testConfiguration(rule, testSpecification);
+        Assert.assertEquals(OK, result.getStatusCode());
+        Assert.assertNotNull(result.getAttributes().getTestResultRawOutput());
+        Assert.assertTrue(result.getAttributes().getTestResultOutput().contains("Evaluated events: 2"));
+
+        AlertingSparkArgumentDto argument = argumentCaptor.getValue();
+        Assert.assertEquals(1000, argument.getMaxResultSize().intValue());
+        Assert.assertTrue(argument.getEarlyTermination());
+        Assert.assertEquals(0.5, argument.getSamplingRate(), 0.0001);
+        Assert.assertEquals(5, argument.getFilesPaths().size());
+        Assert.assertEquals("/folder/2022-06-01/*.json", argument.getFilesPaths().get(0));
+        Assert.assertNotNull(argument.getRules());
+    }
+
+    @Test
+    public void testConfigurationWrongSpecification() {
+        var result = configTester.testConfiguration(rule, "INVALID");
+        Assert.assertEquals(BAD_REQUEST, result.getStatusCode());
+        Assert.assertNotNull(result.getAttributes().getException());
+    }
+
+    @Test
+    public void testConfigurationWrongStartDate() {
+        var result = configTester.testConfiguration(rule, testSpecificationWrongStartDate);
+        Assert.assertEquals(BAD_REQUEST, result.getStatusCode());
+        Assert.assertNotNull(result.getAttributes().getException());
+    }
+
+    @Test
+    public void testConfigurationPartialResults() throws Exception {
+        Mockito.when(testingProvider.test(argumentCaptor.capture(), ArgumentMatchers.any())).thenAnswer(x -> {
+            Consumer<AlertingSparkTestingResultDto> partialResultConsumer = x.getArgument(1);
+            partialResultConsumer.accept(testResult);
+            return testResult;
+        });
+
+        List<ConfigEditorResult> partialResults = new ArrayList<>();
+        var result = configTester.testConfiguration(rule, testSpecification, partialResults::add);
+        Assert.assertEquals(OK, result.getStatusCode());
+        Assert.assertEquals(1, partialResults.size());
+        Assert.assertEquals(OK, partialResults.get(0).getStatusCode());
+        Assert.assertNotNull(partialResults.get(0).getAttributes().getTestResultRawOutput());
+        Assert.assertTrue(partialResults.get(0).getAttributes().getTestResultOutput()
+                .contains("Evaluated events: 2"));
+    }
+
+    @Test
+    public void testConfigurationMissingDirectory() throws Exception {
+        Mockito.when(testingProvider.test(argumentCaptor.capture(), ArgumentMatchers.any()))
+                .thenThrow(new IllegalArgumentException());
+
+        var result = configTester.testConfiguration(rule, testSpecification);
+        Assert.assertEquals(BAD_REQUEST, result.getStatusCode());
+        Assert.assertNotNull(result.getAttributes().getException());
+    }
+
+    @Test
+    public void testConfigurationProviderError() throws Exception {
+        Mockito.when(testingProvider.test(argumentCaptor.capture(), ArgumentMatchers.any()))
+                .thenThrow(new IllegalStateException());
+
+        var result = configTester.testConfiguration(rule, testSpecification);
+        Assert.assertEquals(ERROR, result.getStatusCode());
+        Assert.assertNotNull(result.getAttributes().getException());
+    }
+
+    @Test
+    public void getTesterInfo() {
+        var ret = configTester.getConfigTesterInfo();
+        Assert.assertEquals(AlertingLocalConfigTester.CONFIG_TESTER_NAME, ret.getName());
+        Assert.assertTrue(ret.isConfigTesting());
+        Assert.assertFalse(ret.isReleaseTesting());
+        Assert.assertFalse(ret.isIncompleteResult());
+    }
+}
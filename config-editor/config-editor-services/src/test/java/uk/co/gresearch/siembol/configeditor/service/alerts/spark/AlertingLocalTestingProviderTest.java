@@ -0,0 +1,158 @@
+package uk.co.gresearch.siembol.configeditor.service.alerts.spark;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkArgumentDto;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+import uk.co.gresearch.siembol.common.model.testing.FilesFormatDto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AlertingLocalTestingProviderTest {
+    private final String rules = """
+            {
+               "rules_version" :1,
+               "tags" : [ { "tag_name" : "detection_source", "tag_value" : "siembol_alerts" } ],
+               "rules" : [ {
+                   "rule_name" : "test_rule",
+                   "rule_version" : 1,
+                   "rule_author" : "dummy",
+                   "rule_protection" : {
+                       "max_per_hour" : 100,
+                       "max_per_day" : 10000
+                   },
+                   "rule_description": "Testing rule",
+                   "source_type" : "*",
+                   "matchers" : [ {
+                       "matcher_type" : "REGEX_MATCH",
+                       "is_negated" : false,
+                       "field" : "is_alert",
+                       "data" : "(?i)true" }
+                       ]
+               }]
+            }
+            """;
+
+    private final String goodAlert = "{\"source_type\" : \"secret\", \"is_alert\" : \"TruE\"}";
+    private final String eventWithoutAlert = "{\"source_type\" : \"secret\", \"is_alert\" : \"false\"}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private AlertingLocalTestingProvider provider;
+    private AlertingSparkArgumentDto argument;
+    private List<AlertingSparkTestingResultDto> partialResults;
+
+    @Before
+    public void setUp() throws Exception {
+        provider = new AlertingLocalTestingProvider(2, 10);
+        partialResults = new ArrayList<>();
+        argument = new AlertingSparkArgumentDto();
+        argument.setRules(rules);
+        argument.setMaxResultSize(10);
+
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(goodAlert);
+            events.add(eventWithoutAlert);
+            events.add("");
+        }
+
+        for (String date : List.of("2022-06-01", "2022-06-02")) {
+            Path directory = folder.newFolder(date).toPath();
+            Files.write(directory.resolve("events_1.json"), events);
+            Files.write(directory.resolve("events_2.json"), events);
+            Files.write(directory.resolve("events.txt"), List.of("INVALID"));
+        }
+
+        argument.setFilesPaths(List.of(
+                folder.getRoot() + "/2022-06-01/*.json",
+                folder.getRoot() + "/2022-06-02/*.json"));
+    }
+
+    private synchronized void addPartialResult(AlertingSparkTestingResultDto result) {
+        partialResults.add(result);
+    }
+
+    @Test
+    public void testAllFiles() throws Exception {
+        AlertingSparkTestingResultDto result = provider.test(argument, this::addPartialResult);
+        Assert.assertEquals(400, result.getMatchesTotal());
+        Assert.assertEquals(0, result.getExceptionsTotal());
+        Assert.assertEquals(800, result.getEventsTotal());
+        Assert.assertEquals(10, result.getMatches().size());
+        Assert.assertEquals(0.5, result.getMatchRate(), 0.0001);
+        Assert.assertEquals(Long.valueOf(400), result.getEstimatedMatchesTotal());
+        Assert.assertFalse(result.isTerminatedEarly());
+        Assert.assertEquals(4, partialResults.size());
+        Assert.assertTrue(partialResults.stream().allMatch(x -> x.getMatchesTotal() <= 400));
+        Assert.assertTrue(partialResults.stream().anyMatch(x -> x.getMatchesTotal() == 400));
+    }
+
+    @Test
+    public void testEarlyTermination() throws Exception {
+        argument.setEarlyTermination(true);
+        AlertingSparkTestingResultDto result = provider.test(argument, this::addPartialResult);
+        Assert.assertTrue(result.isTerminatedEarly());
+        Assert.assertTrue(result.getEventsTotal() < 800);
+        Assert.assertEquals(10, result.getMatches().size());
+        Assert.assertNull(result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    public void testSampling() throws Exception {
+        argument.setSamplingRate(0.5);
+        AlertingSparkTestingResultDto result = provider.test(argument, this::addPartialResult);
+        AlertingSparkTestingResultDto resultAgain = provider.test(argument, this::addPartialResult);
+        Assert.assertEquals(result.getMatchesTotal(), resultAgain.getMatchesTotal());
+        Assert.assertEquals(result.getEventsTotal(), resultAgain.getEventsTotal());
+        Assert.assertTrue(result.getEventsTotal() < 800);
+        Assert.assertEquals(Long.valueOf(Math.round(result.getMatchesTotal() / 0.5)),
+                result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    public void testExceptions() throws Exception {
+        argument.setFilesPaths(List.of(folder.getRoot() + "/2022-06-01/*.txt"));
+        AlertingSparkTestingResultDto result = provider.test(argument, this::addPartialResult);
+        Assert.assertEquals(0, result.getMatchesTotal());
+        Assert.assertEquals(1, result.getExceptionsTotal());
+        Assert.assertEquals(1, result.getEventsTotal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingDirectory() throws Exception {
+        argument.setFilesPaths(List.of(
+                folder.getRoot() + "/2022-06-01/*.json",
+                folder.getRoot() + "/2022-06-03/*.json"));
+        provider.test(argument, this::addPartialResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRules() throws Exception {
+        argument.setRules("INVALID");
+        provider.test(argument, this::addPartialResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParquetFormat() throws Exception {
+        argument.setFilesFormat(FilesFormatDto.PARQUET);
+        provider.test(argument, this::addPartialResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongSamplingRate() throws Exception {
+        argument.setSamplingRate(0.0);
+        provider.test(argument, this::addPartialResult);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongThreads() {
+        new AlertingLocalTestingProvider(0);
+    }
+}
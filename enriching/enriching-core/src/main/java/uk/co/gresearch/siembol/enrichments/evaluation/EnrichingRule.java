@@ -7,7 +7,7 @@ import org.slf4j.LoggerFactory;
 import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
-import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
+import uk.co.gresearch.siembol.common.utils.SubstitutionTemplate;
 import uk.co.gresearch.siembol.alerts.engine.Rule;
 
 import java.lang.invoke.MethodHandles;
@@ -27,20 +27,20 @@ public class EnrichingRule extends Rule {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private static final String COMMAND_FIELD_ERROR_MSG = "Enrichment command field already in event: %s";
     private final String tableName;
-    private final String key;
+    private final SubstitutionTemplate key;
     private final ArrayList<Pair<String, String>> enrichmentTags;
     private final ArrayList<Pair<String, String>> enrichmentFields;
 
     private EnrichingRule(Builder<?> builder) {
         super(builder);
         this.tableName = builder.tableName;
-        this.key = builder.key;
+        this.key = SubstitutionTemplate.compile(builder.key);
         this.enrichmentTags = builder.enrichmentTags;
         this.enrichmentFields = builder.enrichmentFields;
     }
 
     private Optional<EnrichmentCommand> createEnrichmentCommand(Map<String, Object> log) {
-        Optional<String> currentKey = EvaluationLibrary.substitute(log, key);
+        Optional<String> currentKey = key.substitute(log);
         if (!currentKey.isPresent()) {
             return Optional.empty();
         }
@@ -2,6 +2,7 @@ package uk.co.gresearch.siembol.response.evaluators.matching;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.engine.IsInSetMatcher;
+import uk.co.gresearch.siembol.alerts.engine.NormalisedValueCache;
 import uk.co.gresearch.siembol.alerts.engine.RegexMatcher;
 import uk.co.gresearch.siembol.alerts.engine.BasicMatcher;
 import uk.co.gresearch.siembol.response.common.Evaluable;
@@ -46,15 +47,19 @@ public class MatchingEvaluator implements Evaluable {
     @Override
     public RespondingResult evaluate(ResponseAlert alert) {
         ResponseAlert current = (ResponseAlert)alert.clone();
-        for (BasicMatcher matcher : matchers) {
-            EvaluationResult result = matcher.match(current);
-            if (result == EvaluationResult.NO_MATCH) {
-                return RespondingResult.fromEvaluationResult(
-                        matchingResult.computeFromEvaluationResult(EvaluationResult.NO_MATCH), alert);
+        try {
+            for (BasicMatcher matcher : matchers) {
+                EvaluationResult result = matcher.match(current);
+                if (result == EvaluationResult.NO_MATCH) {
+                    return RespondingResult.fromEvaluationResult(
+                            matchingResult.computeFromEvaluationResult(EvaluationResult.NO_MATCH), alert);
+                }
             }
+            return RespondingResult.fromEvaluationResult(
+                    matchingResult.computeFromEvaluationResult(EvaluationResult.MATCH), current);
+        } finally {
+            NormalisedValueCache.clear();
         }
-        return RespondingResult.fromEvaluationResult(
-                matchingResult.computeFromEvaluationResult(EvaluationResult.MATCH), current);
     }
 
     private BasicMatcher createMatcher(MatcherDto matcherDto) {
@@ -38,10 +38,22 @@ public enum SiembolMetrics {
     ALERTING_RULE_CORRELATION_MATCHES("siembol_counter_alerting_rule_for_correlation_matches_%s"),
     ALERTING_RULE_ERROR_MATCHES("siembol_counter_alerting_rule_error_match_%s"),
     ALERTING_RULE_PROTECTION("siembol_counter_alerting_rule_protection_%s"),
+    ALERTING_RULE_EVALUATIONS("siembol_counter_alerting_rule_evaluations_%s"),
+    ALERTING_RULE_EVALUATION_TIME_NS("siembol_gauge_alerting_rule_evaluation_time_ns_%s"),
+    ALERTING_RULE_SELECTIVITY("siembol_gauge_alerting_rule_selectivity_%s"),
+    ALERTING_RULE_MATCHER_EVALUATION_TIME_NS("siembol_gauge_alerting_rule_matcher_evaluation_time_ns_%s_%d"),
+    ALERTING_RULE_MATCHER_SELECTIVITY("siembol_gauge_alerting_rule_matcher_selectivity_%s_%d"),
     ALERTING_ENGINE_MATCHES("siembol_counter_alerting_engine_rules_matches"),
     ALERTING_ENGINE_ERROR_MATCHES("siembol_counter_alerting_engine_error_matches"),
     ALERTING_ENGINE_CORRELATION_MATCHES("siembol_counter_alerting_engine_rules_for_correlation_matches"),
     ALERTING_ENGINE_RULE_PROTECTION("siembol_counter_alerting_engine_rules_protection_matches"),
+    ALERTING_ENGINE_STATE_CHECKPOINT("siembol_counter_alerting_engine_state_checkpoint"),
+    ALERTING_ENGINE_STATE_ERROR_CHECKPOINT("siembol_counter_alerting_engine_state_error_checkpoint"),
+    ALERTING_ENGINE_STATE_RESTORE("siembol_counter_alerting_engine_state_restore"),
+    ALERTING_ENGINE_STATE_ERROR_RESTORE("siembol_counter_alerting_engine_state_error_restore"),
+    ALERTING_ENGINE_STATE_HANDOFF_SENT("siembol_counter_alerting_engine_state_handoff_sent"),
+    ALERTING_ENGINE_STATE_HANDOFF_RECEIVED("siembol_counter_alerting_engine_state_handoff_received"),
+    ALERTING_ENGINE_STATE_HANDOFF_DROPPED("siembol_counter_alerting_engine_state_handoff_dropped"),
 
     RESPONSE_RULE_MATCHES("siembol_counter_response_rule_matches_%s"),
     RESPONSE_RULE_ERROR_MATCHES("siembol_counter_response_rule_error_matches_%s"),
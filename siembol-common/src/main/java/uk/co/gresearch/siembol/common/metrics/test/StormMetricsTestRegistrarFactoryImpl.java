@@ -30,4 +30,8 @@ public class StormMetricsTestRegistrarFactoryImpl implements StormMetricsRegistr
     public int getCounterValue(String name) {
         return metricsRegistrar.getCounterValue(name);
     }
+
+    public double getGaugeValue(String name) {
+        return metricsRegistrar.getGaugeValue(name);
+    }
 }
@@ -57,6 +57,45 @@ public class AlertingStormAttributesDto extends AdminConfigDto implements Serial
     @Attributes(required = true, description = "The number of executors for producing alerts to output topic", minimum = 1)
     @JsonProperty("kafka.writer.bolt.num.executors")
     private Integer kafkaWriterBoltNumExecutors = 1;
+    @Attributes(description = "The maximum number of events evaluated by the alerting engine in one batch", minimum = 1)
+    @JsonProperty("alerts.engine.batch.size")
+    private Integer alertingEngineBatchSize = 1;
+    @Attributes(description = "The number of threads of an alerting engine executor for evaluating shards " +
+            "of the rules in parallel, the rules are evaluated sequentially if it is 1", minimum = 1)
+    @JsonProperty("alerts.engine.parallelism")
+    private Integer alertingEngineParallelism = 1;
+    @Attributes(description = "The evaluation time budget of a rule in milliseconds, the evaluation of a rule " +
+            "exceeding the budget is interrupted and reported, the budgets are not enforced if it is 0", minimum = 0)
+    @JsonProperty("alerts.engine.rule.evaluation.budget.ms")
+    private Integer alertingEngineRuleEvaluationBudgetMs = 0;
+    @Attributes(description = "The number of exceeded evaluation budgets of a rule after which the rule is disabled " +
+            "until the rules are updated", minimum = 1)
+    @JsonProperty("alerts.engine.rule.max.budget.overruns")
+    private Integer alertingEngineRuleMaxBudgetOverruns = 10;
+    @Attributes(description = "The interval n for sampling every n-th evaluation of a rule by the profiler, " +
+            "the rules are not profiled if it is 0", minimum = 0)
+    @JsonProperty("alerts.engine.profiling.sampling.interval")
+    private Integer alertingEngineProfilingSamplingInterval = 0;
+    @Attributes(description = "The number of seconds between reporting the rules profiles into metrics", minimum = 1)
+    @JsonProperty("alerts.engine.profiling.report.interval.sec")
+    private Integer alertingEngineProfilingReportIntervalSec = 60;
+    @Attributes(description = "The local directory for checkpointing correlation state, the state is not checkpointed if it is not set")
+    @JsonProperty("alerts.engine.state.directory")
+    private String alertingEngineStateDirectory;
+    @Attributes(description = "The number of seconds between checkpoints of correlation state", minimum = 1)
+    @JsonProperty("alerts.engine.state.checkpoint.interval.sec")
+    private Integer alertingEngineStateCheckpointIntervalSec = 60;
+    @Attributes(description = "Sharing rule protection counters by all kafka writer executors of a worker")
+    @JsonProperty("alerts.rule.protection.shared")
+    private Boolean ruleProtectionShared = false;
+    @Attributes(description = "The zookeeper attributes for merging shared rule protection counters of workers, " +
+            "the counters are not merged if they are not set")
+    @JsonProperty("alerts.rule.protection.zookeeper.attributes")
+    private ZooKeeperAttributesDto ruleProtectionZooKeeperAttributes;
+    @Attributes(description = "The number of seconds between merges of rule protection counters of workers",
+            minimum = 1)
+    @JsonProperty("alerts.rule.protection.sync.interval.sec")
+    private Integer ruleProtectionSyncIntervalSec = 10;
 
     public String getAlertingEngine() {
         return alertingEngine;
@@ -146,6 +185,94 @@ public class AlertingStormAttributesDto extends AdminConfigDto implements Serial
         this.kafkaWriterBoltNumExecutors = kafkaWriterBoltNumExecutors;
     }
 
+    public Integer getAlertingEngineBatchSize() {
+        return alertingEngineBatchSize;
+    }
+
+    public void setAlertingEngineBatchSize(Integer alertingEngineBatchSize) {
+        this.alertingEngineBatchSize = alertingEngineBatchSize;
+    }
+
+    public Integer getAlertingEngineParallelism() {
+        return alertingEngineParallelism;
+    }
+
+    public void setAlertingEngineParallelism(Integer alertingEngineParallelism) {
+        this.alertingEngineParallelism = alertingEngineParallelism;
+    }
+
+    public Integer getAlertingEngineRuleEvaluationBudgetMs() {
+        return alertingEngineRuleEvaluationBudgetMs;
+    }
+
+    public void setAlertingEngineRuleEvaluationBudgetMs(Integer alertingEngineRuleEvaluationBudgetMs) {
+        this.alertingEngineRuleEvaluationBudgetMs = alertingEngineRuleEvaluationBudgetMs;
+    }
+
+    public Integer getAlertingEngineRuleMaxBudgetOverruns() {
+        return alertingEngineRuleMaxBudgetOverruns;
+    }
+
+    public void setAlertingEngineRuleMaxBudgetOverruns(Integer alertingEngineRuleMaxBudgetOverruns) {
+        this.alertingEngineRuleMaxBudgetOverruns = alertingEngineRuleMaxBudgetOverruns;
+    }
+
+    public Integer getAlertingEngineProfilingSamplingInterval() {
+        return alertingEngineProfilingSamplingInterval;
+    }
+
+    public void setAlertingEngineProfilingSamplingInterval(Integer alertingEngineProfilingSamplingInterval) {
+        this.alertingEngineProfilingSamplingInterval = alertingEngineProfilingSamplingInterval;
+    }
+
+    public Integer getAlertingEngineProfilingReportIntervalSec() {
+        return alertingEngineProfilingReportIntervalSec;
+    }
+
+    public void setAlertingEngineProfilingReportIntervalSec(Integer alertingEngineProfilingReportIntervalSec) {
+        this.alertingEngineProfilingReportIntervalSec = alertingEngineProfilingReportIntervalSec;
+    }
+
+    public String getAlertingEngineStateDirectory() {
+        return alertingEngineStateDirectory;
+    }
+
+    public void setAlertingEngineStateDirectory(String alertingEngineStateDirectory) {
+        this.alertingEngineStateDirectory = alertingEngineStateDirectory;
+    }
+
+    public Integer getAlertingEngineStateCheckpointIntervalSec() {
+        return alertingEngineStateCheckpointIntervalSec;
+    }
+
+    public void setAlertingEngineStateCheckpointIntervalSec(Integer alertingEngineStateCheckpointIntervalSec) {
+        this.alertingEngineStateCheckpointIntervalSec = alertingEngineStateCheckpointIntervalSec;
+    }
+
+    public Boolean getRuleProtectionShared() {
+        return ruleProtectionShared;
+    }
+
+    public void setRuleProtectionShared(Boolean ruleProtectionShared) {
+        this.ruleProtectionShared = ruleProtectionShared;
+    }
+
+    public ZooKeeperAttributesDto getRuleProtectionZooKeeperAttributes() {
+        return ruleProtectionZooKeeperAttributes;
+    }
+
+    public void setRuleProtectionZooKeeperAttributes(ZooKeeperAttributesDto ruleProtectionZooKeeperAttributes) {
+        this.ruleProtectionZooKeeperAttributes = ruleProtectionZooKeeperAttributes;
+    }
+
+    public Integer getRuleProtectionSyncIntervalSec() {
+        return ruleProtectionSyncIntervalSec;
+    }
+
+    public void setRuleProtectionSyncIntervalSec(Integer ruleProtectionSyncIntervalSec) {
+        this.ruleProtectionSyncIntervalSec = ruleProtectionSyncIntervalSec;
+    }
+
     public ZooKeeperAttributesDto getZookeperAttributes() {
         return zookeperAttributes;
     }
@@ -18,6 +18,12 @@ public class AlertingSparkArgumentDto {
     private String rules;
     @JsonProperty("files_paths")
     private List<String> filesPaths;
+    @JsonProperty("files_format")
+    private FilesFormatDto filesFormat = FilesFormatDto.JSON;
+    @JsonProperty("early_termination")
+    private Boolean earlyTermination = false;
+    @JsonProperty("sampling_rate")
+    private Double samplingRate = 1.0;
 
     public Integer getMaxResultSize() {
         return maxResultSize;
@@ -42,4 +48,28 @@ public class AlertingSparkArgumentDto {
     public void setFilesPaths(List<String> filePaths) {
         this.filesPaths = filePaths;
     }
+
+    public FilesFormatDto getFilesFormat() {
+        return filesFormat;
+    }
+
+    public void setFilesFormat(FilesFormatDto filesFormat) {
+        this.filesFormat = filesFormat;
+    }
+
+    public Boolean getEarlyTermination() {
+        return earlyTermination;
+    }
+
+    public void setEarlyTermination(Boolean earlyTermination) {
+        this.earlyTermination = earlyTermination;
+    }
+
+    public Double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public void setSamplingRate(Double samplingRate) {
+        this.samplingRate = samplingRate;
+    }
 }
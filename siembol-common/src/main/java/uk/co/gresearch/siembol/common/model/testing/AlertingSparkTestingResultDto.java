@@ -29,6 +29,21 @@ public class AlertingSparkTestingResultDto {
     @JsonProperty("exceptions_total")
     private int exceptionsTotal;
 
+    @JsonProperty("events_total")
+    private long eventsTotal;
+
+    @JsonProperty("terminated_early")
+    private boolean terminatedEarly;
+
+    @JsonProperty("sampling_rate")
+    private double samplingRate = 1.0;
+
+    @JsonProperty("match_rate")
+    private double matchRate;
+
+    @JsonProperty("estimated_matches_total")
+    private Long estimatedMatchesTotal;
+
     private List<Map<String, Object>> matches;
     private List<Map<String, Object>> exceptions;
 
@@ -48,6 +63,46 @@ public class AlertingSparkTestingResultDto {
         this.exceptionsTotal = exceptionsTotal;
     }
 
+    public long getEventsTotal() {
+        return eventsTotal;
+    }
+
+    public void setEventsTotal(long eventsTotal) {
+        this.eventsTotal = eventsTotal;
+    }
+
+    public boolean isTerminatedEarly() {
+        return terminatedEarly;
+    }
+
+    public void setTerminatedEarly(boolean terminatedEarly) {
+        this.terminatedEarly = terminatedEarly;
+    }
+
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public void setSamplingRate(double samplingRate) {
+        this.samplingRate = samplingRate;
+    }
+
+    public double getMatchRate() {
+        return matchRate;
+    }
+
+    public void setMatchRate(double matchRate) {
+        this.matchRate = matchRate;
+    }
+
+    public Long getEstimatedMatchesTotal() {
+        return estimatedMatchesTotal;
+    }
+
+    public void setEstimatedMatchesTotal(Long estimatedMatchesTotal) {
+        this.estimatedMatchesTotal = estimatedMatchesTotal;
+    }
+
     public List<Map<String, Object>> getMatches() {
         return matches;
     }
@@ -77,7 +132,7 @@ public class AlertingSparkTestingResultDto {
     private List<Map<String, Object>> convertToMapList(List<String> objects) {
         return objects.stream().map(x -> {
             try {
-                return (Map<String, Object>) JSON_GENERIC_READER.readValue(x);
+                return JSON_GENERIC_READER.<Map<String, Object>>readValue(x);
             } catch (JsonProcessingException e) {
                 throw new RuntimeException(e);
             }
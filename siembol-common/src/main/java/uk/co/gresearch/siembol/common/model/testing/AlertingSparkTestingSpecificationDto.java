@@ -32,6 +32,14 @@ public class AlertingSparkTestingSpecificationDto {
     @Attributes(required = true, description = "The end date of logs in ISO format YYYY-MM-DD",
             pattern = "^\\d{4}-\\d\\d-\\d\\d$")
     private String toDate;
+    @JsonProperty("early_termination")
+    @Attributes(description = "Stop evaluating logs after the result array of matched events is full. " +
+            "The matching counts are lower bounds if the evaluation is terminated early")
+    private Boolean earlyTermination = false;
+    @JsonProperty("sampling_rate")
+    @Attributes(description = "The fraction of logs in the interval (0, 1] that are deterministically sampled " +
+            "for testing. The total count of matches is extrapolated from the sampled logs")
+    private Double samplingRate = 1.0;
 
     public String getSourceType() {
         return sourceType;
@@ -64,4 +72,20 @@ public class AlertingSparkTestingSpecificationDto {
     public void setToDate(String toDate) {
         this.toDate = toDate;
     }
+
+    public Boolean getEarlyTermination() {
+        return earlyTermination;
+    }
+
+    public void setEarlyTermination(Boolean earlyTermination) {
+        this.earlyTermination = earlyTermination;
+    }
+
+    public Double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public void setSamplingRate(Double samplingRate) {
+        this.samplingRate = samplingRate;
+    }
 }
@@ -0,0 +1,27 @@
+package uk.co.gresearch.siembol.common.model.testing;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+/**
+ * An enum for representing a format of files with events used in alerting spark testing
+ *
+ * <p>This enum is used for json (de)serialisation of a format of files with events used in alerting spark testing.
+ *
+ * @author  Marian Novotny
+ * @see com.fasterxml.jackson.annotation.JsonProperty
+ * @see #JSON
+ * @see #PARQUET
+ */
+public enum FilesFormatDto {
+    @JsonProperty("json") JSON("json"),
+    @JsonProperty("parquet") PARQUET("parquet");
+    private final String name;
+
+    FilesFormatDto(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.co.gresearch.siembol.common.testing;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+/**
+ * An object for evaluating a partition of events when testing alerting rules
+ *
+ * <p>This class provides the evaluation loop of a partition of events and the deterministic sampler of the events.
+ *  It is shared by the alerting spark job and by the local files tester in order to provide the same results.
+ *  The events of a partition are evaluated in batches, the empty events are skipped and the remaining events
+ *  can be sampled. The termination condition is checked before reading each event, so the evaluation of
+ *  a partition is terminated early only if some events were not evaluated.
+ *
+ * @author Marian Novotny
+ * @see AlertingTestingResult
+ *
+ */
+public class AlertingTestingPartition {
+    private static final long SAMPLING_SEED = 1L;
+
+    private AlertingTestingPartition() {
+    }
+
+    /**
+     * Creates the sampler of the events of a partition
+     *
+     * @param samplingRate the fraction of the events that are sampled in the interval (0, 1]
+     * @param partitionIndex the index of the partition
+     * @return the supplier that decides whether the next event is sampled for the evaluation
+     */
+    public static BooleanSupplier createSampler(double samplingRate, int partitionIndex) {
+        if (samplingRate >= 1.0) {
+            return () -> true;
+        }
+
+        //NOTE: events of a partition are sampled with the same seed, so repeated tests evaluate the same events
+        SplittableRandom random = new SplittableRandom(SAMPLING_SEED + partitionIndex);
+        return () -> random.nextDouble() < samplingRate;
+    }
+
+    /**
+     * Evaluates the events of a partition in batches
+     *
+     * @param events the iterator of the events of the partition
+     * @param batchEvaluator the function that evaluates a batch of events
+     * @param maxResult the maximum size of the lists of matched events and exceptions
+     * @param batchSize the size of a batch of events
+     * @param terminationCondition the predicate on the partition result that terminates the evaluation
+     * @param sampler the supplier that decides whether the next non empty event is sampled for the evaluation
+     * @return the result of the partition
+     */
+    public static AlertingTestingResult evaluate(Iterator<String> events,
+                                                 Function<List<String>, AlertingTestingResult> batchEvaluator,
+                                                 int maxResult,
+                                                 int batchSize,
+                                                 Predicate<AlertingTestingResult> terminationCondition,
+                                                 BooleanSupplier sampler) {
+        AlertingTestingResult ret = new AlertingTestingResult(maxResult);
+        List<String> batch = new ArrayList<>();
+        while (events.hasNext()) {
+            if (terminationCondition.test(ret)) {
+                return ret.terminatedEarly();
+            }
+
+            String event = events.next();
+            if (!event.isEmpty() && sampler.getAsBoolean()) {
+                batch.add(event);
+            }
+
+            if (!batch.isEmpty() && (batch.size() >= batchSize || !events.hasNext())) {
+                ret.merge(batchEvaluator.apply(batch));
+                batch.clear();
+            }
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,175 @@
+package uk.co.gresearch.siembol.common.testing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import uk.co.gresearch.siembol.common.model.testing.AlertingSparkTestingResultDto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+/**
+ * An object for accounting the result of testing alerting rules on a set of events
+ *
+ * <p>This class implements Serializable interface. It contains a bounded list of matched events and
+ *  a bounded list of exceptions stored as json strings.
+ *  It counts the evaluated events, the matches and the exceptions and it provides functionality
+ *  for merging two results of evaluated parts of the events.
+ *  It provides the match rate of the evaluated events and the total count of matches is extrapolated
+ *  if the events were sampled and the evaluation was not terminated early.
+ *  It is shared by the alerting spark job and by the local files tester in order to provide the same results.
+ *  The object is not thread safe.
+ *
+ * @author Marian Novotny
+ * @see AlertingSparkTestingResultDto
+ *
+ */
+public class AlertingTestingResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final ObjectWriter JSON_GENERIC_WRITER = new ObjectMapper()
+            .writerFor(new TypeReference<Map<String, Object>>() { });
+
+    private final int maxResult;
+    private int matchesTotal = 0;
+    private int exceptionsTotal = 0;
+    private long eventsTotal = 0;
+    private boolean terminatedEarly = false;
+    private double samplingRate = 1.0;
+    private final ArrayList<String> matches = new ArrayList<>();
+    private final ArrayList<String> exceptions = new ArrayList<>();
+
+    /**
+     * Creates an empty result
+     *
+     * @param maxResult the maximum size of the lists of matched events and exceptions
+     */
+    public AlertingTestingResult(int maxResult) {
+        this.maxResult = maxResult;
+    }
+
+    /**
+     * Adds the result of the evaluation of an event
+     *
+     * @param error true if the evaluation of the event failed
+     * @param exceptionEvents the list of exception events or null
+     * @param outputEvents the list of matched events or null
+     * @return this result
+     */
+    public AlertingTestingResult addEvent(boolean error,
+                                          List<Map<String, Object>> exceptionEvents,
+                                          List<Map<String, Object>> outputEvents) {
+        eventsTotal++;
+        if (error) {
+            exceptionsTotal++;
+        }
+
+        if (exceptionEvents != null) {
+            exceptionsTotal += exceptionEvents.size();
+            exceptionEvents.stream().takeWhile(x -> exceptions.size() < maxResult)
+                    .forEach(x -> exceptions.add(writeEvent(x)));
+        }
+
+        if (outputEvents != null) {
+            matchesTotal += outputEvents.size();
+            outputEvents.stream().takeWhile(x -> matches.size() < maxResult)
+                    .forEach(x -> matches.add(writeEvent(x)));
+        }
+        return this;
+    }
+
+    /**
+     * Merges the other result into this result
+     *
+     * @param other the result of another part of the events
+     * @return this result
+     */
+    public AlertingTestingResult merge(AlertingTestingResult other) {
+        matchesTotal += other.matchesTotal;
+        exceptionsTotal += other.exceptionsTotal;
+        eventsTotal += other.eventsTotal;
+        terminatedEarly |= other.terminatedEarly;
+
+        other.matches.stream().takeWhile(x -> matches.size() < maxResult).forEach(matches::add);
+        other.exceptions.stream().takeWhile(x -> exceptions.size() < maxResult).forEach(exceptions::add);
+        return this;
+    }
+
+    /**
+     * Provides information whether the list of matched events is full
+     *
+     * @return true if the result contains the maximum number of matched events, otherwise false
+     */
+    public boolean isFull() {
+        return matches.size() >= maxResult;
+    }
+
+    /**
+     * Provides information whether the result does not contain any match or exception
+     *
+     * @return true if the result does not contain any match or exception, otherwise false
+     */
+    public boolean isEmpty() {
+        return matchesTotal == 0 && exceptionsTotal == 0;
+    }
+
+    /**
+     * Provides the number of matches
+     *
+     * @return the total number of matches including the matches that are not in the list of matched events
+     */
+    public int getMatchesTotal() {
+        return matchesTotal;
+    }
+
+    /**
+     * Marks the result as terminated early. Some events were not evaluated and the counts are lower bounds.
+     *
+     * @return this result
+     */
+    public AlertingTestingResult terminatedEarly() {
+        terminatedEarly = true;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the events that were sampled for the evaluation
+     *
+     * @param samplingRate the sampling rate in the interval (0, 1]
+     * @return this result
+     */
+    public AlertingTestingResult samplingRate(double samplingRate) {
+        this.samplingRate = samplingRate;
+        return this;
+    }
+
+    /**
+     * Provides the alerting testing result
+     *
+     * @return the alerting testing result with the match rate and the estimated total count of matches
+     */
+    public AlertingSparkTestingResultDto toAlertingSparkTestingResult() {
+        var ret = new AlertingSparkTestingResultDto();
+        ret.setMatchesTotal(matchesTotal);
+        ret.setExceptionsTotal(exceptionsTotal);
+        ret.setEventsTotal(eventsTotal);
+        ret.setTerminatedEarly(terminatedEarly);
+        ret.setSamplingRate(samplingRate);
+        ret.setMatchRate(eventsTotal > 0 ? (double) matchesTotal / eventsTotal : 0);
+        if (!terminatedEarly) {
+            ret.setEstimatedMatchesTotal(Math.round(matchesTotal / samplingRate));
+        }
+        ret.setExceptionsStrings(exceptions);
+        ret.setMatchesStrings(matches);
+        return ret;
+    }
+
+    private static String writeEvent(Map<String, Object> event) {
+        try {
+            return JSON_GENERIC_WRITER.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.*;
+/**
+ * An object for representing a json object as a map that decodes its fields on demand
+ *
+ * <p>This class implements a map of a json object using Jackson streaming parser.
+ * The json string is validated and the offsets of the top level fields are indexed during the creation.
+ * Numbers, booleans and nulls are decoded during the creation,
+ * strings, objects and arrays are decoded when they are requested for the first time.
+ * The map is fully decoded before iterating or modifying it.
+ * The decoded values are the same as values deserialized by Jackson into Map&lt;String, Object&gt;.
+ * The map is not thread safe.
+ *
+ * @author  Marian Novotny
+ */
+public class LazyJsonMap extends AbstractMap<String, Object> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectReader JSON_VALUE_READER = new ObjectMapper()
+            .readerFor(Object.class);
+    private static final ObjectReader JSON_MAP_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, Object>>() { });
+
+    private final String json;
+    private final Map<String, Integer> offsets;
+    private Map<String, Object> decoded;
+    private Map<String, Object> materialized;
+
+    private LazyJsonMap(String json, Map<String, Integer> offsets, Map<String, Object> decoded) {
+        this.json = json;
+        this.offsets = offsets;
+        this.decoded = decoded;
+    }
+
+    /**
+     * Creates a map from a json object string. It validates the json string and indexes its top level fields.
+     * It deserializes the json string if it is not a json object in order to provide the same result and exception
+     * as deserializing the string into a map.
+     *
+     * @param json json object string
+     * @return the map of the json object
+     * @throws IOException if the json string is not valid
+     */
+    public static Map<String, Object> fromJson(String json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return JSON_MAP_READER.readValue(json);
+            }
+
+            Map<String, Integer> offsets = new LinkedHashMap<>();
+            Map<String, Object> decoded = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                offsets.put(fieldName, (int) parser.getTokenLocation().getCharOffset());
+                decoded.remove(fieldName);
+                if (token.isNumeric()) {
+                    decoded.put(fieldName, parser.getNumberValue());
+                } else if (token.isScalarValue() && token != JsonToken.VALUE_STRING) {
+                    decoded.put(fieldName, token == JsonToken.VALUE_NULL ? null : parser.getBooleanValue());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            return new LazyJsonMap(json, offsets, decoded);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The value is decoded when it is requested for the first time.
+     */
+    @Override
+    public Object get(Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+
+        if (decoded.containsKey(key)) {
+            return decoded.get(key);
+        }
+
+        Integer offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+
+        Object value = decodeValue(offset);
+        decoded.put((String) key, value);
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return materialized != null ? materialized.containsKey(key) : offsets.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return materialized != null ? materialized.size() : offsets.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map is fully decoded before modifying it.
+     */
+    @Override
+    public Object put(String key, Object value) {
+        return getMaterialized().put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map is fully decoded before modifying it.
+     */
+    @Override
+    public Object remove(Object key) {
+        return getMaterialized().remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        getMaterialized().clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The map is fully decoded before iterating it.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return getMaterialized().entrySet();
+    }
+
+    /**
+     * Provides information whether the map was fully decoded
+     *
+     * @return true if all fields of the map were decoded, otherwise false
+     */
+    public boolean isMaterialized() {
+        return materialized != null;
+    }
+
+    /**
+     * Decodes all fields of the map.
+     * The decoded map can be read by multiple threads if it is not modified.
+     */
+    public void materialize() {
+        getMaterialized();
+    }
+
+    private Map<String, Object> getMaterialized() {
+        if (materialized == null) {
+            Map<String, Object> current = new LinkedHashMap<>();
+            offsets.keySet().forEach(x -> current.put(x, get(x)));
+            materialized = current;
+            decoded = null;
+        }
+        return materialized;
+    }
+
+    private Object decodeValue(int offset) {
+        try (StringReader reader = new StringReader(json)) {
+            reader.skip(offset);
+            return JSON_VALUE_READER.readValue(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import java.util.*;
+/**
+ * An object for representing a copy-on-write view of a map
+ *
+ * <p>This class implements a map that reads through to a base map and stores only its own modifications.
+ * Added and updated entries are stored in an overlay and removed entries of the base map are hidden.
+ * The base map is never modified by the overlay map, and it should not be modified while the overlay map is used.
+ * The entries of the base map are iterated first, in the order of the base map, followed by the added entries.
+ * The map is not thread safe.
+ *
+ * @author  Marian Novotny
+ */
+public class OverlayMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> base;
+    private final Map<K, V> overlay = new LinkedHashMap<>();
+    private final Set<Object> removed = new HashSet<>();
+    private int addedKeys = 0;
+
+    /**
+     * Creates an overlay map over the base map
+     *
+     * @param base the map that is read through and not modified
+     */
+    public OverlayMap(Map<K, V> base) {
+        this.base = base;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        if (overlay.containsKey(key)) {
+            return overlay.get(key);
+        }
+        return removed.contains(key) ? null : base.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return overlay.containsKey(key) || !removed.contains(key) && base.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return base.size() - removed.size() + addedKeys;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entry is stored in the overlay and the base map is not modified.
+     */
+    @Override
+    public V put(K key, V value) {
+        V previous = get(key);
+        if (!overlay.containsKey(key) && !removed.remove(key) && !base.containsKey(key)) {
+            addedKeys++;
+        }
+        overlay.put(key, value);
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entry of the base map is hidden and the base map is not modified.
+     */
+    @Override
+    public V remove(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+
+        V previous = get(key);
+        overlay.remove(key);
+        if (base.containsKey(key)) {
+            removed.add(key);
+        } else {
+            addedKeys--;
+        }
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        overlay.clear();
+        removed.addAll(base.keySet());
+        addedKeys = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The entries of the base map are iterated first followed by the entries added into the overlay.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new OverlayIterator();
+            }
+
+            @Override
+            public int size() {
+                return OverlayMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Provides information whether the map was modified
+     *
+     * @return true if an entry was put into the map or removed from the map, otherwise false
+     */
+    public boolean isModified() {
+        return !overlay.isEmpty() || !removed.isEmpty();
+    }
+
+    private class OverlayEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        OverlayEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    private class OverlayIterator implements Iterator<Entry<K, V>> {
+        private final Iterator<Entry<K, V>> baseIterator = base.entrySet().iterator();
+        private final Iterator<K> addedIterator = new ArrayList<>(overlay.keySet()).iterator();
+        private Entry<K, V> next;
+        private K last;
+        private boolean hasLast = false;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && baseIterator.hasNext()) {
+                Entry<K, V> current = baseIterator.next();
+                K key = current.getKey();
+                if (!removed.contains(key)) {
+                    next = new OverlayEntry(key, overlay.containsKey(key) ? overlay.get(key) : current.getValue());
+                }
+            }
+
+            while (next == null && addedIterator.hasNext()) {
+                K key = addedIterator.next();
+                if (overlay.containsKey(key) && !base.containsKey(key)) {
+                    next = new OverlayEntry(key, overlay.get(key));
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Entry<K, V> ret = next;
+            next = null;
+            last = ret.getKey();
+            hasLast = true;
+            return ret;
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            }
+            OverlayMap.this.remove(last);
+            hasLast = false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+/**
+ * An object for representing a pre-parsed substitution template
+ *
+ * <p>This class represents a string with variables e.g. ${host} that are substituted by the fields of an event.
+ * The template is parsed once when it is compiled into literal segments and names of the referenced fields,
+ * so the substitution only appends the segments and the field values into a string builder.
+ * The substitution provides the same result as EvaluationLibrary::substitute.
+ * The template is immutable and thread safe.
+ *
+ * @author  Marian Novotny
+ * @see EvaluationLibrary
+ */
+public class SubstitutionTemplate {
+    private static final String VARIABLE_START = "${";
+    private static final int VARIABLE_START_LEN = VARIABLE_START.length();
+    private static final char VARIABLE_END = '}';
+    private static final int ESTIMATED_FIELD_VALUE_LEN = 16;
+
+    private final String template;
+    private final String[] literals;
+    private final String[] fieldNames;
+    private final boolean valid;
+    private final int sizeHint;
+
+    private SubstitutionTemplate(String template, List<String> literals, List<String> fieldNames, boolean valid) {
+        this.template = template;
+        this.literals = literals.toArray(new String[0]);
+        this.fieldNames = fieldNames.toArray(new String[0]);
+        this.valid = valid;
+        this.sizeHint = literals.stream().mapToInt(String::length).sum()
+                + fieldNames.size() * ESTIMATED_FIELD_VALUE_LEN;
+    }
+
+    /**
+     * Compiles the template
+     *
+     * @param template a string that can contain variables e.g. ${host}
+     * @return the compiled template
+     */
+    public static SubstitutionTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> fieldNames = new ArrayList<>();
+
+        int startIndex = 0;
+        int variableIndex = template.indexOf(VARIABLE_START);
+        while (variableIndex > -1) {
+            int endVariable = template.indexOf(VARIABLE_END, variableIndex);
+            if (endVariable == -1) {
+                return new SubstitutionTemplate(template, literals, fieldNames, false);
+            }
+
+            literals.add(template.substring(startIndex, variableIndex));
+            fieldNames.add(template.substring(variableIndex + VARIABLE_START_LEN, endVariable));
+            startIndex = endVariable + 1;
+            variableIndex = template.indexOf(VARIABLE_START, startIndex);
+        }
+
+        literals.add(template.substring(startIndex));
+        return new SubstitutionTemplate(template, literals, fieldNames, true);
+    }
+
+    /**
+     * Substitutes the variables of the template by the fields of the event
+     *
+     * @param event a map of string to object used for the substitution
+     * @return the substituted string, or Optional.empty() if a referenced field is missing in the event
+     *         or the template contains an unterminated variable
+     */
+    public Optional<String> substitute(Map<String, Object> event) {
+        if (!valid) {
+            return Optional.empty();
+        }
+
+        if (fieldNames.length == 0) {
+            return Optional.of(template);
+        }
+
+        StringBuilder sb = new StringBuilder(sizeHint);
+        for (int i = 0; i < fieldNames.length; i++) {
+            Object value = event.get(fieldNames[i]);
+            if (value == null) {
+                return Optional.empty();
+            }
+            sb.append(literals[i]).append(value);
+        }
+
+        return Optional.of(sb.append(literals[fieldNames.length]).toString());
+    }
+
+    /**
+     * Provides the information whether the template references fields of an event
+     *
+     * @return true if the template contains a variable, otherwise false
+     */
+    public boolean hasVariables() {
+        return fieldNames.length > 0;
+    }
+
+    /**
+     * Provides the names of the fields referenced by the variables of the template
+     *
+     * @return the list of field names in the order of the variables in the template
+     */
+    public List<String> getFieldNames() {
+        return List.of(fieldNames);
+    }
+
+    /**
+     * Provides the field name if the template consists of one variable only e.g. ${host}
+     *
+     * @return the name of the field if the template is one variable, otherwise Optional.empty()
+     */
+    public Optional<String> getSingleFieldName() {
+        return valid && fieldNames.length == 1 && literals[0].isEmpty() && literals[1].isEmpty()
+                ? Optional.of(fieldNames[0])
+                : Optional.empty();
+    }
+
+    /**
+     * Provides the template string
+     *
+     * @return the string that was compiled into the template
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,103 @@
+package uk.co.gresearch.siembol.common.testing;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+public class AlertingTestingPartitionTest {
+    private final int maxResult = 10;
+    private final Map<String, Object> event = Map.of("is_alert", "true");
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private Function<List<String>, AlertingTestingResult> batchEvaluator;
+
+    @Before
+    public void setUp() {
+        batchEvaluator = x -> {
+            batchSizes.add(x.size());
+            AlertingTestingResult ret = new AlertingTestingResult(maxResult);
+            x.forEach(y -> ret.addEvent(false, null, y.equals("alert") ? List.of(event) : null));
+            return ret;
+        };
+    }
+
+    private List<String> createEvents(int size) {
+        List<String> ret = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ret.add("alert");
+            ret.add("event");
+            ret.add("");
+        }
+        return ret;
+    }
+
+    @Test
+    public void evaluateInBatches() {
+        var result = AlertingTestingPartition.evaluate(createEvents(25).iterator(), batchEvaluator,
+                maxResult, 10, x -> false, () -> true).toAlertingSparkTestingResult();
+        Assert.assertEquals(List.of(10, 10, 10, 10, 10), batchSizes);
+        Assert.assertEquals(50, result.getEventsTotal());
+        Assert.assertEquals(25, result.getMatchesTotal());
+        Assert.assertEquals(maxResult, result.getMatches().size());
+        Assert.assertFalse(result.isTerminatedEarly());
+    }
+
+    @Test
+    public void evaluateEmptyEvents() {
+        var result = AlertingTestingPartition.evaluate(List.of("", "").iterator(), batchEvaluator,
+                maxResult, 10, AlertingTestingResult::isFull, () -> true);
+        Assert.assertTrue(batchSizes.isEmpty());
+        Assert.assertTrue(result.isEmpty());
+        Assert.assertFalse(result.toAlertingSparkTestingResult().isTerminatedEarly());
+    }
+
+    @Test
+    public void evaluateTerminatedEarly() {
+        var result = AlertingTestingPartition.evaluate(createEvents(100).iterator(), batchEvaluator,
+                maxResult, 4, AlertingTestingResult::isFull, () -> true).toAlertingSparkTestingResult();
+        Assert.assertTrue(result.isTerminatedEarly());
+        Assert.assertEquals(20, result.getEventsTotal());
+        Assert.assertEquals(maxResult, result.getMatchesTotal());
+        Assert.assertNull(result.getEstimatedMatchesTotal());
+    }
+
+    @Test
+    public void evaluateFullWithoutRemainingEvents() {
+        List<String> events = createEvents(10);
+        events.remove(events.size() - 1);
+        var result = AlertingTestingPartition.evaluate(events.iterator(), batchEvaluator,
+                maxResult, 4, AlertingTestingResult::isFull, () -> true).toAlertingSparkTestingResult();
+        Assert.assertFalse(result.isTerminatedEarly());
+        Assert.assertEquals(maxResult, result.getMatchesTotal());
+    }
+
+    @Test
+    public void samplerIsDeterministicPerPartition() {
+        BooleanSupplier sampler = AlertingTestingPartition.createSampler(0.1, 3);
+        BooleanSupplier samplerAgain = AlertingTestingPartition.createSampler(0.1, 3);
+        BooleanSupplier otherSampler = AlertingTestingPartition.createSampler(0.1, 4);
+        int sampled = 0;
+        boolean differentPartitions = false;
+        for (int i = 0; i < 10000; i++) {
+            boolean current = sampler.getAsBoolean();
+            Assert.assertEquals(current, samplerAgain.getAsBoolean());
+            differentPartitions |= current != otherSampler.getAsBoolean();
+            sampled += current ? 1 : 0;
+        }
+        Assert.assertEquals(1000, sampled, 200);
+        Assert.assertTrue(differentPartitions);
+    }
+
+    @Test
+    public void samplerWithoutSampling() {
+        BooleanSupplier sampler = AlertingTestingPartition.createSampler(1.0, 0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(sampler.getAsBoolean());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package uk.co.gresearch.siembol.common.testing;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class AlertingTestingResultTest {
+    private final int maxResult = 2;
+    private final Map<String, Object> event = Map.of("is_alert", "true");
+    private AlertingTestingResult result;
+
+    @Before
+    public void setUp() {
+        result = new AlertingTestingResult(maxResult);
+    }
+
+    @Test
+    public void emptyResult() {
+        Assert.assertTrue(result.isEmpty());
+        Assert.assertFalse(result.isFull());
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertEquals(0, testingResult.getEventsTotal());
+        Assert.assertEquals(0, testingResult.getMatchRate(), 0.0001);
+        Assert.assertEquals(Long.valueOf(0), testingResult.getEstimatedMatchesTotal());
+        Assert.assertTrue(testingResult.getMatches().isEmpty());
+    }
+
+    @Test
+    public void addEvents() {
+        result.addEvent(false, null, List.of(event, event, event));
+        result.addEvent(true, List.of(event), null);
+        result.addEvent(false, null, null);
+        Assert.assertFalse(result.isEmpty());
+        Assert.assertTrue(result.isFull());
+        Assert.assertEquals(3, result.getMatchesTotal());
+
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertEquals(3, testingResult.getEventsTotal());
+        Assert.assertEquals(3, testingResult.getMatchesTotal());
+        Assert.assertEquals(2, testingResult.getExceptionsTotal());
+        Assert.assertEquals(maxResult, testingResult.getMatches().size());
+        Assert.assertEquals(1, testingResult.getExceptions().size());
+        Assert.assertEquals("true", testingResult.getMatches().get(0).get("is_alert"));
+        Assert.assertEquals(1.0, testingResult.getMatchRate(), 0.0001);
+    }
+
+    @Test
+    public void mergeSampledResults() {
+        var other = new AlertingTestingResult(maxResult).addEvent(false, null, List.of(event));
+        result.addEvent(false, null, null).addEvent(false, null, List.of(event));
+        result.merge(SerializationUtils.clone(other)).samplingRate(0.5);
+
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertEquals(3, testingResult.getEventsTotal());
+        Assert.assertEquals(2, testingResult.getMatchesTotal());
+        Assert.assertEquals(maxResult, testingResult.getMatches().size());
+        Assert.assertEquals(0.5, testingResult.getSamplingRate(), 0.0001);
+        Assert.assertEquals(Long.valueOf(4), testingResult.getEstimatedMatchesTotal());
+        Assert.assertFalse(testingResult.isTerminatedEarly());
+    }
+
+    @Test
+    public void mergeTerminatedEarly() {
+        var other = new AlertingTestingResult(maxResult).terminatedEarly();
+        result.addEvent(false, null, List.of(event)).merge(other);
+
+        var testingResult = result.toAlertingSparkTestingResult();
+        Assert.assertTrue(testingResult.isTerminatedEarly());
+        Assert.assertNull(testingResult.getEstimatedMatchesTotal());
+    }
+}
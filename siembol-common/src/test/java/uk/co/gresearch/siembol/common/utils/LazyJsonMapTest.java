@@ -0,0 +1,122 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class LazyJsonMapTest {
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, Object>>() { });
+
+    private final String event = """
+            {
+              "source_type" : "secret",
+              "is_alert" : "Tru\\u0045",
+              "int_field" : 1,
+              "long_field" : 12345678901,
+              "big_field" : 123456789012345678901234567890,
+              "double_field" : 1.5,
+              "boolean_field" : false,
+              "null_field" : null,
+              "object_field" : { "a" : [1, "b", { "c" : null }], "d" : {} },
+              "array_field" : [],
+              "source_type" : "public"
+            }
+            """;
+
+    @Test
+    public void decodedLikeJackson() throws IOException {
+        Map<String, Object> expected = JSON_READER.readValue(event);
+        Map<String, Object> map = LazyJsonMap.fromJson(event);
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (String key : expected.keySet()) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+            Assert.assertTrue(map.containsKey(key));
+        }
+        Assert.assertEquals("public", map.get("source_type"));
+        Assert.assertEquals("TruE", map.get("is_alert"));
+        Assert.assertTrue(map.get("long_field") instanceof Long);
+        Assert.assertTrue(map.get("big_field") instanceof BigInteger);
+        Assert.assertNull(map.get("unknown"));
+        Assert.assertFalse(map.containsKey("unknown"));
+        Assert.assertTrue(map.containsKey("null_field"));
+        Assert.assertFalse(((LazyJsonMap) map).isMaterialized());
+
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        Assert.assertTrue(((LazyJsonMap) map).isMaterialized());
+    }
+
+    @Test
+    public void materialized() throws IOException {
+        Map<String, Object> expected = JSON_READER.readValue(event);
+        LazyJsonMap map = (LazyJsonMap) LazyJsonMap.fromJson(event);
+        map.materialize();
+        Assert.assertTrue(map.isMaterialized());
+        Assert.assertEquals(expected, map);
+    }
+
+    @Test
+    public void decodedOnce() throws IOException {
+        Map<String, Object> map = LazyJsonMap.fromJson(event);
+        Object value = map.get("object_field");
+        Assert.assertSame(value, map.get("object_field"));
+        Assert.assertSame(value, map.entrySet().stream()
+                .filter(x -> x.getKey().equals("object_field"))
+                .findFirst().get().getValue());
+    }
+
+    @Test
+    public void modifyMap() throws IOException {
+        Map<String, Object> map = LazyJsonMap.fromJson(event);
+        map.put("new_field", "new");
+        map.remove("source_type");
+        Assert.assertEquals(10, map.size());
+        Assert.assertEquals("new", map.get("new_field"));
+        Assert.assertFalse(map.containsKey("source_type"));
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void notObject() throws IOException {
+        Assert.assertEquals(null, LazyJsonMap.fromJson("null"));
+        Assert.assertTrue(LazyJsonMap.fromJson("{}").isEmpty());
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void arrayJson() throws IOException {
+        LazyJsonMap.fromJson("[1, 2]");
+    }
+
+    @Test(expected = MismatchedInputException.class)
+    public void emptyJson() throws IOException {
+        LazyJsonMap.fromJson("");
+    }
+
+    @Test
+    public void invalidJson() {
+        for (String invalid : List.of("INVALID", "{\"a\" : ", "{\"a\" : \"b}", "{\"a\" : \"\\q\"}",
+                "{\"a\" : [1, }", "{\"a\" : 1 \"b\" : 2}", "{\"a\" : tru}")) {
+            try {
+                LazyJsonMap.fromJson(invalid);
+                Assert.fail(invalid);
+            } catch (JsonParseException e) {
+                Assert.assertNotNull(e.getMessage());
+            } catch (IOException e) {
+                Assert.fail(invalid);
+            }
+        }
+    }
+}
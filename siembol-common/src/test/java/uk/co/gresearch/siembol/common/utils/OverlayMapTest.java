@@ -0,0 +1,137 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+public class OverlayMapTest {
+    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+            .writerFor(new TypeReference<Map<String, Object>>() { });
+
+    private Map<String, Object> base;
+    private Map<String, Object> baseCopy;
+    private OverlayMap<String, Object> overlayMap;
+
+    @Before
+    public void setUp() {
+        base = new LinkedHashMap<>();
+        base.put("a", "1");
+        base.put("b", 2);
+        base.put("c", null);
+        baseCopy = new LinkedHashMap<>(base);
+        overlayMap = new OverlayMap<>(base);
+    }
+
+    @Test
+    public void readThrough() {
+        Assert.assertEquals(base, overlayMap);
+        Assert.assertEquals(3, overlayMap.size());
+        Assert.assertEquals("1", overlayMap.get("a"));
+        Assert.assertTrue(overlayMap.containsKey("c"));
+        Assert.assertFalse(overlayMap.containsKey("d"));
+        Assert.assertFalse(overlayMap.isModified());
+    }
+
+    @Test
+    public void putAndRemove() {
+        Map<String, Object> expected = new HashMap<>(base);
+
+        Assert.assertEquals("1", overlayMap.put("a", "updated"));
+        expected.put("a", "updated");
+        Assert.assertNull(overlayMap.put("d", true));
+        expected.put("d", true);
+        Assert.assertEquals(2, overlayMap.remove("b"));
+        expected.remove("b");
+        Assert.assertNull(overlayMap.remove("unknown"));
+
+        Assert.assertTrue(overlayMap.isModified());
+        Assert.assertEquals(expected, overlayMap);
+        Assert.assertEquals(3, overlayMap.size());
+        Assert.assertFalse(overlayMap.containsKey("b"));
+        Assert.assertNull(overlayMap.get("b"));
+        Assert.assertEquals(baseCopy, base);
+
+        Assert.assertNull(overlayMap.put("b", 3));
+        Assert.assertTrue(overlayMap.remove("d", true));
+        Assert.assertEquals("updated", overlayMap.remove("a"));
+        Assert.assertEquals(2, overlayMap.size());
+        Assert.assertEquals(3, overlayMap.get("b"));
+        Assert.assertTrue(overlayMap.containsKey("c"));
+        Assert.assertEquals(baseCopy, base);
+    }
+
+    @Test
+    public void iterationOrder() {
+        overlayMap.put("d", 4);
+        overlayMap.put("a", "updated");
+        overlayMap.put("e", 5);
+        overlayMap.remove("b");
+
+        List<String> keys = new ArrayList<>(overlayMap.keySet());
+        Assert.assertEquals(List.of("a", "c", "d", "e"), keys);
+        Assert.assertEquals(Arrays.asList("updated", null, 4, 5), new ArrayList<>(overlayMap.values()));
+    }
+
+    @Test
+    public void iteratorRemoveAndSetValue() {
+        overlayMap.put("d", 4);
+        Iterator<Map.Entry<String, Object>> iterator = overlayMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Object> entry = iterator.next();
+            if (entry.getKey().equals("a") || entry.getKey().equals("d")) {
+                iterator.remove();
+            } else {
+                entry.setValue("new");
+            }
+        }
+
+        Assert.assertEquals(Map.of("b", "new", "c", "new"), overlayMap);
+        Assert.assertEquals(baseCopy, base);
+    }
+
+    @Test
+    public void clear() {
+        overlayMap.put("d", 4);
+        overlayMap.clear();
+        Assert.assertTrue(overlayMap.isEmpty());
+        Assert.assertEquals(0, overlayMap.size());
+        Assert.assertNull(overlayMap.get("a"));
+
+        overlayMap.put("a", 1);
+        Assert.assertEquals(Map.of("a", 1), overlayMap);
+        Assert.assertEquals(baseCopy, base);
+    }
+
+    @Test
+    public void nestedOverlays() {
+        overlayMap.put("d", 4);
+        OverlayMap<String, Object> nested = new OverlayMap<>(overlayMap);
+        nested.put("e", 5);
+        nested.remove("a");
+
+        Assert.assertEquals(4, nested.size());
+        Assert.assertEquals(List.of("b", "c", "d", "e"), new ArrayList<>(nested.keySet()));
+        Assert.assertEquals(4, overlayMap.size());
+        Assert.assertEquals(baseCopy, base);
+    }
+
+    @Test
+    public void lazyJsonBaseSerialized() throws IOException {
+        String json = "{\"a\":\"1\",\"b\":{\"c\":[1,2]},\"d\":true}";
+        Map<String, Object> lazy = LazyJsonMap.fromJson(json);
+        Map<String, Object> map = new OverlayMap<>(lazy);
+
+        map.put("e", "added");
+        Assert.assertEquals("1", map.get("a"));
+        Assert.assertFalse(((LazyJsonMap) lazy).isMaterialized());
+        Assert.assertEquals("{\"a\":\"1\",\"b\":{\"c\":[1,2]},\"d\":true,\"e\":\"added\"}",
+                JSON_WRITER.writeValueAsString(map));
+        Assert.assertEquals(3, lazy.size());
+    }
+}
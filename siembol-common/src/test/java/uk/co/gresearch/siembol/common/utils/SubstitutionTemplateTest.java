@@ -0,0 +1,80 @@
+package uk.co.gresearch.siembol.common.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class SubstitutionTemplateTest {
+    private Map<String, Object> event;
+
+    @Before
+    public void setUp() {
+        event = new HashMap<>();
+        event.put("host", "secret.com");
+        event.put("port", 8080);
+        event.put("is_alert", true);
+    }
+
+    @Test
+    public void constantTemplate() {
+        SubstitutionTemplate template = SubstitutionTemplate.compile("secret");
+        Assert.assertFalse(template.hasVariables());
+        Assert.assertEquals("secret", template.getTemplate());
+        Assert.assertEquals(Optional.of("secret"), template.substitute(event));
+    }
+
+    @Test
+    public void variablesSubstituted() {
+        SubstitutionTemplate template = SubstitutionTemplate.compile("http://${host}:${port}/${is_alert}");
+        Assert.assertTrue(template.hasVariables());
+        Assert.assertEquals(Optional.of("http://secret.com:8080/true"), template.substitute(event));
+    }
+
+    @Test
+    public void onlyVariable() {
+        Assert.assertEquals(Optional.of("8080"), SubstitutionTemplate.compile("${port}").substitute(event));
+    }
+
+    @Test
+    public void singleFieldName() {
+        Assert.assertEquals(Optional.of("port"), SubstitutionTemplate.compile("${port}").getSingleFieldName());
+        Assert.assertTrue(SubstitutionTemplate.compile("${port} ").getSingleFieldName().isEmpty());
+        Assert.assertTrue(SubstitutionTemplate.compile("${host}${port}").getSingleFieldName().isEmpty());
+        Assert.assertTrue(SubstitutionTemplate.compile("port").getSingleFieldName().isEmpty());
+    }
+
+    @Test
+    public void fieldNames() {
+        Assert.assertEquals(List.of("host", "port", "is_alert"),
+                SubstitutionTemplate.compile("http://${host}:${port}/${is_alert}").getFieldNames());
+        Assert.assertTrue(SubstitutionTemplate.compile("secret").getFieldNames().isEmpty());
+    }
+
+    @Test
+    public void missingField() {
+        SubstitutionTemplate template = SubstitutionTemplate.compile("${host}:${unknown}");
+        Assert.assertEquals(Optional.empty(), template.substitute(event));
+    }
+
+    @Test
+    public void unterminatedVariable() {
+        SubstitutionTemplate template = SubstitutionTemplate.compile("${host}:${port");
+        Assert.assertEquals(Optional.empty(), template.substitute(event));
+    }
+
+    @Test
+    public void sameResultAsEvaluationLibrary() {
+        List<String> templates = List.of("", "abc", "${host}", "a${host}b${port}c", "${host}${port}",
+                "${host", "a}${host}}", "$${host}", "${}", "${unknown}", "x${host}${unknown}");
+        for (String str : templates) {
+            Assert.assertEquals(str,
+                    EvaluationLibrary.substitute(event, str),
+                    SubstitutionTemplate.compile(str).substitute(event));
+        }
+    }
+}